@@ -2,6 +2,7 @@ package org.umlg.sqlg.process;
 
 import org.apache.tinkerpop.gremlin.process.traversal.Path;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.MutablePath;
+import org.apache.tinkerpop.gremlin.structure.util.CloseableIterator;
 import org.umlg.sqlg.strategy.Emit;
 import org.umlg.sqlg.structure.SqlgElement;
 
@@ -13,7 +14,7 @@ import java.util.function.Supplier;
  * Date: 2016/04/04
  * Time: 8:54 PM
  */
-public class SqlgRawIteratorToEmitIterator<E extends SqlgElement> implements Iterator<Emit<E>>, Supplier<Iterator<Emit<E>>> {
+public class SqlgRawIteratorToEmitIterator<E extends SqlgElement> implements CloseableIterator<Emit<E>>, Supplier<Iterator<Emit<E>>> {
 
     private Supplier<Iterator<List<Emit<E>>>> supplier;
     private Iterator<List<Emit<E>>> iterator;
@@ -74,4 +75,13 @@ public class SqlgRawIteratorToEmitIterator<E extends SqlgElement> implements Ite
         return this.toEmit != null;
     }
 
+    /**
+     * Closes the raw iterator if it holds resources, i.e. when the traversal stops before the results are exhausted.
+     */
+    @Override
+    public void close() {
+        CloseableIterator.closeIterator(this.iterator);
+        this.toEmit = null;
+    }
+
 }
@@ -0,0 +1,112 @@
+package org.umlg.sqlg.sql.dialect;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.commons.lang3.tuple.Triple;
+import org.umlg.sqlg.structure.*;
+
+import java.util.*;
+
+import static org.umlg.sqlg.structure.SchemaManager.EDGE_PREFIX;
+import static org.umlg.sqlg.structure.SchemaManager.VERTEX_PREFIX;
+
+/**
+ * Normal batch mode for dialects without a bulk load protocol, the batch is flushed with JDBC batches of
+ * multi row inserts, updates and deletes.
+ * Streaming batch mode is not supported.
+ * <p>
+ * Date: 2026/10/18
+ * Time: 3:00 PM
+ */
+public interface JdbcBatchDialect extends SqlBulkDialect {
+
+    @Override
+    default boolean supportsBatchMode() {
+        return true;
+    }
+
+    @Override
+    default boolean supportsStreamingBatchMode() {
+        return false;
+    }
+
+    /**
+     * @return true if the driver returns the generated key of every row of a multi row insert.
+     * Else the new elements are inserted one row per statement, unless {@link #reserveIds} reserves their ids.
+     */
+    default boolean returnsGeneratedKeysOfMultiRowInsert() {
+        return false;
+    }
+
+    /**
+     * Reserves the ids of new rows from the identity of the ID column of the table, the rows are then inserted with
+     * their ids in JDBC batches and no generated keys are read.
+     *
+     * @return count unique ids, null if the dialect can not reserve ids.
+     */
+    default long[] reserveIds(SqlgGraph sqlgGraph, SchemaTable prefixedSchemaTable, int count) {
+        return null;
+    }
+
+    @Override
+    default Map<SchemaTable, Pair<Long, Long>> flushVertexCache(SqlgGraph sqlgGraph, Map<SchemaTable, Pair<SortedSet<String>, Map<SqlgVertex, Map<String, Object>>>> vertexCache) {
+        return JdbcBatchFlush.flushVertexCache(sqlgGraph, vertexCache);
+    }
+
+    @Override
+    default void flushEdgeCache(SqlgGraph sqlgGraph, Map<MetaEdge, Pair<SortedSet<String>, Map<SqlgEdge, Triple<SqlgVertex, SqlgVertex, Map<String, Object>>>>> edgeCache) {
+        JdbcBatchFlush.flushEdgeCache(sqlgGraph, edgeCache);
+    }
+
+    @Override
+    default void flushVertexGlobalUniqueIndexes(SqlgGraph sqlgGraph, Map<SchemaTable, Pair<SortedSet<String>, Map<SqlgVertex, Map<String, Object>>>> vertexCache) {
+        for (Map.Entry<SchemaTable, Pair<SortedSet<String>, Map<SqlgVertex, Map<String, Object>>>> entry : vertexCache.entrySet()) {
+            JdbcBatchFlush.flushGlobalUniqueIndexes(sqlgGraph, entry.getKey().withPrefix(VERTEX_PREFIX), entry.getValue().getRight());
+        }
+    }
+
+    @Override
+    default void flushEdgeGlobalUniqueIndexes(SqlgGraph sqlgGraph, Map<MetaEdge, Pair<SortedSet<String>, Map<SqlgEdge, Triple<SqlgVertex, SqlgVertex, Map<String, Object>>>>> edgeCache) {
+        for (Map.Entry<MetaEdge, Pair<SortedSet<String>, Map<SqlgEdge, Triple<SqlgVertex, SqlgVertex, Map<String, Object>>>>> entry : edgeCache.entrySet()) {
+            Map<SqlgEdge, Map<String, Object>> edges = new LinkedHashMap<>();
+            for (Map.Entry<SqlgEdge, Triple<SqlgVertex, SqlgVertex, Map<String, Object>>> edgeEntry : entry.getValue().getRight().entrySet()) {
+                edges.put(edgeEntry.getKey(), edgeEntry.getValue().getRight());
+            }
+            JdbcBatchFlush.flushGlobalUniqueIndexes(sqlgGraph, entry.getKey().getSchemaTable().withPrefix(EDGE_PREFIX), edges);
+        }
+    }
+
+    @Override
+    default void flushVertexPropertyCache(SqlgGraph sqlgGraph, Map<SchemaTable, Pair<SortedSet<String>, Map<SqlgVertex, Map<String, Object>>>> vertexPropertyCache) {
+        JdbcBatchFlush.flushPropertyCache(sqlgGraph, true, vertexPropertyCache);
+    }
+
+    @Override
+    default void flushVertexGlobalUniqueIndexPropertyCache(SqlgGraph sqlgGraph, Map<SchemaTable, Pair<SortedSet<String>, Map<SqlgVertex, Map<String, Object>>>> vertexPropertyCache) {
+        JdbcBatchFlush.flushGlobalUniqueIndexPropertyCache(sqlgGraph, true, vertexPropertyCache);
+    }
+
+    @Override
+    default void flushEdgePropertyCache(SqlgGraph sqlgGraph, Map<SchemaTable, Pair<SortedSet<String>, Map<SqlgEdge, Map<String, Object>>>> edgePropertyCache) {
+        JdbcBatchFlush.flushPropertyCache(sqlgGraph, false, edgePropertyCache);
+    }
+
+    @Override
+    default void flushEdgeGlobalUniqueIndexPropertyCache(SqlgGraph sqlgGraph, Map<SchemaTable, Pair<SortedSet<String>, Map<SqlgEdge, Map<String, Object>>>> edgePropertyCache) {
+        JdbcBatchFlush.flushGlobalUniqueIndexPropertyCache(sqlgGraph, false, edgePropertyCache);
+    }
+
+    @Override
+    default void flushRemovedVertices(SqlgGraph sqlgGraph, Map<SchemaTable, List<SqlgVertex>> removeVertexCache) {
+        JdbcBatchFlush.flushRemovedVertices(sqlgGraph, removeVertexCache);
+    }
+
+    @Override
+    default void flushRemovedEdges(SqlgGraph sqlgGraph, Map<SchemaTable, List<SqlgEdge>> removeEdgeCache) {
+        JdbcBatchFlush.flushRemovedEdges(sqlgGraph, removeEdgeCache);
+    }
+
+    @Override
+    default void flushRemovedGlobalUniqueIndexVertices(SqlgGraph sqlgGraph, Map<SchemaTable, List<SqlgVertex>> removeVertexCache) {
+        JdbcBatchFlush.flushRemovedGlobalUniqueIndexVertices(sqlgGraph, removeVertexCache);
+    }
+}
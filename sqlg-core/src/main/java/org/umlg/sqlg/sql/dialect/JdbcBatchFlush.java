@@ -0,0 +1,585 @@
+package org.umlg.sqlg.sql.dialect;
+
+import com.google.common.base.Preconditions;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.commons.lang3.tuple.Triple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.umlg.sqlg.structure.*;
+import org.umlg.sqlg.util.SqlgUtil;
+
+import java.sql.*;
+import java.util.*;
+
+import static org.umlg.sqlg.structure.SchemaManager.EDGE_PREFIX;
+import static org.umlg.sqlg.structure.SchemaManager.VERTEX_PREFIX;
+
+/**
+ * The flushes of the {@link org.umlg.sqlg.structure.BatchManager} for a {@link JdbcBatchDialect}.
+ * Inserts are multi row INSERT ... VALUES (...), (...) statements of up to {@link #MAX_ROWS} rows, all full chunks
+ * share one statement. If the dialect reserves the ids the chunks are one JDBC batch, else the statement is executed
+ * per chunk to read the generated ids of its rows.
+ * Updates and deletes are single row statements added to a batch.
+ * <p>
+ * Date: 2026/10/18
+ * Time: 3:10 PM
+ */
+final class JdbcBatchFlush {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcBatchFlush.class.getName());
+    //the rows of one insert statement
+    private static final int MAX_ROWS = 1000;
+    //the parameters of one insert statement
+    private static final int PARAMETER_LIMIT = 32767;
+
+    private JdbcBatchFlush() {
+    }
+
+    static Map<SchemaTable, Pair<Long, Long>> flushVertexCache(SqlgGraph sqlgGraph, Map<SchemaTable, Pair<SortedSet<String>, Map<SqlgVertex, Map<String, Object>>>> vertexCache) {
+        Map<SchemaTable, Pair<Long, Long>> verticesRanges = new LinkedHashMap<>();
+        for (Map.Entry<SchemaTable, Pair<SortedSet<String>, Map<SqlgVertex, Map<String, Object>>>> entry : vertexCache.entrySet()) {
+            SchemaTable schemaTable = entry.getKey();
+            Map<SqlgVertex, Map<String, Object>> vertices = entry.getValue().getRight();
+            if (vertices.isEmpty()) {
+                continue;
+            }
+            List<PropertyColumn> propertyColumns = propertyColumns(sqlgGraph, schemaTable.withPrefix(VERTEX_PREFIX), entry.getValue().getLeft());
+            BatchRows batchRows = BatchRows.of(vertices);
+            BatchRows.Column[] columns = batchColumns(batchRows, propertyColumns);
+            int[] rows = rows(batchRows, vertices.size());
+            long[] ids = insert(sqlgGraph, schemaTable.withPrefix(VERTEX_PREFIX), propertyColumns, Collections.emptyList(), rows.length,
+                    (preparedStatement, parameterIndex, row) -> setValues(sqlgGraph, preparedStatement, parameterIndex, propertyColumns, columns, rows[row]));
+            for (int i = 0; i < ids.length; i++) {
+                batchRows.element(rows[i]).setInternalPrimaryKey(RecordId.from(schemaTable, ids[i]));
+            }
+            verticesRanges.put(schemaTable, Pair.of(Arrays.stream(ids).min().getAsLong(), Arrays.stream(ids).max().getAsLong()));
+        }
+        return verticesRanges;
+    }
+
+    static void flushEdgeCache(SqlgGraph sqlgGraph, Map<MetaEdge, Pair<SortedSet<String>, Map<SqlgEdge, Triple<SqlgVertex, SqlgVertex, Map<String, Object>>>>> edgeCache) {
+        for (Map.Entry<MetaEdge, Pair<SortedSet<String>, Map<SqlgEdge, Triple<SqlgVertex, SqlgVertex, Map<String, Object>>>>> entry : edgeCache.entrySet()) {
+            SchemaTable schemaTable = entry.getKey().getSchemaTable();
+            Map<SqlgEdge, Triple<SqlgVertex, SqlgVertex, Map<String, Object>>> edges = entry.getValue().getRight();
+            if (edges.isEmpty()) {
+                continue;
+            }
+            List<PropertyColumn> propertyColumns = propertyColumns(sqlgGraph, schemaTable.withPrefix(EDGE_PREFIX), entry.getValue().getLeft());
+            BatchRows batchRows = BatchRows.of(edges);
+            BatchRows.Column[] columns = batchColumns(batchRows, propertyColumns);
+            int[] rows = rows(batchRows, edges.size());
+            //all edges of a MetaEdge have the same in and out vertex labels
+            SqlgVertex firstOut = batchRows.outVertex(rows[0]);
+            SqlgVertex firstIn = batchRows.inVertex(rows[0]);
+            List<String> foreignKeys = Arrays.asList(
+                    firstOut.getSchema() + "." + firstOut.getTable() + SchemaManager.OUT_VERTEX_COLUMN_END,
+                    firstIn.getSchema() + "." + firstIn.getTable() + SchemaManager.IN_VERTEX_COLUMN_END
+            );
+            long[] ids = insert(sqlgGraph, schemaTable.withPrefix(EDGE_PREFIX), propertyColumns, foreignKeys, rows.length,
+                    (preparedStatement, parameterIndex, row) -> {
+                        parameterIndex = setValues(sqlgGraph, preparedStatement, parameterIndex, propertyColumns, columns, rows[row]);
+                        preparedStatement.setLong(parameterIndex++, ((RecordId) batchRows.outVertex(rows[row]).id()).getId());
+                        preparedStatement.setLong(parameterIndex++, ((RecordId) batchRows.inVertex(rows[row]).id()).getId());
+                        return parameterIndex;
+                    });
+            for (int i = 0; i < ids.length; i++) {
+                batchRows.element(rows[i]).setInternalPrimaryKey(RecordId.from(schemaTable, ids[i]));
+            }
+        }
+    }
+
+    static <T extends SqlgElement> void flushPropertyCache(SqlgGraph sqlgGraph, boolean forVertices, Map<SchemaTable, Pair<SortedSet<String>, Map<T, Map<String, Object>>>> propertyCache) {
+        for (Map.Entry<SchemaTable, Pair<SortedSet<String>, Map<T, Map<String, Object>>>> entry : propertyCache.entrySet()) {
+            SchemaTable schemaTable = entry.getKey().withPrefix(forVertices ? VERTEX_PREFIX : EDGE_PREFIX);
+            Map<T, Map<String, Object>> elementProperties = entry.getValue().getRight();
+            if (elementProperties.isEmpty()) {
+                continue;
+            }
+            List<PropertyColumn> propertyColumns = propertyColumns(sqlgGraph, schemaTable, entry.getValue().getLeft());
+            SqlDialect sqlDialect = sqlgGraph.getSqlDialect();
+            StringBuilder sql = new StringBuilder("UPDATE ");
+            appendTable(sqlDialect, sql, schemaTable);
+            sql.append(" SET ");
+            List<String> columns = columns(sqlDialect, propertyColumns);
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    sql.append(", ");
+                }
+                sql.append(sqlDialect.maybeWrapInQoutes(columns.get(i)));
+                sql.append(" = ?");
+            }
+            sql.append(" WHERE ");
+            sql.append(sqlDialect.maybeWrapInQoutes("ID"));
+            sql.append(" = ?");
+            executeBatch(sqlgGraph, sql, elementProperties.entrySet(), (preparedStatement, elementEntry) -> {
+                T sqlgElement = elementEntry.getKey();
+                Map<String, Object> values = new HashMap<>();
+                for (PropertyColumn propertyColumn : propertyColumns) {
+                    String key = propertyColumn.getName();
+                    Object value = elementEntry.getValue().get(key);
+                    //the keys are the keys of all the elements, the ones not updated keep their value
+                    if (value == null && sqlgElement.property(key).isPresent()) {
+                        value = sqlgElement.value(key);
+                    }
+                    values.put(key, value);
+                }
+                int parameterIndex = setValues(sqlgGraph, preparedStatement, 1, propertyColumns, values);
+                preparedStatement.setLong(parameterIndex, ((RecordId) sqlgElement.id()).getId());
+            });
+        }
+    }
+
+    static void flushRemovedVertices(SqlgGraph sqlgGraph, Map<SchemaTable, List<SqlgVertex>> removeVertexCache) {
+        for (Map.Entry<SchemaTable, List<SqlgVertex>> entry : removeVertexCache.entrySet()) {
+            SchemaTable schemaTable = entry.getKey();
+            List<SqlgVertex> vertices = entry.getValue();
+            if (vertices.isEmpty()) {
+                continue;
+            }
+            Pair<Set<SchemaTable>, Set<SchemaTable>> tableLabels = sqlgGraph.getTopology().getTableLabels(schemaTable.withPrefix(VERTEX_PREFIX));
+            if (tableLabels != null) {
+                for (SchemaTable inLabel : tableLabels.getLeft()) {
+                    deleteByColumn(sqlgGraph, inLabel, schemaTable.toString() + SchemaManager.IN_VERTEX_COLUMN_END, vertices);
+                }
+                for (SchemaTable outLabel : tableLabels.getRight()) {
+                    deleteByColumn(sqlgGraph, outLabel, schemaTable.toString() + SchemaManager.OUT_VERTEX_COLUMN_END, vertices);
+                }
+            }
+            deleteByColumn(sqlgGraph, schemaTable.withPrefix(VERTEX_PREFIX), "ID", vertices);
+        }
+    }
+
+    static void flushRemovedEdges(SqlgGraph sqlgGraph, Map<SchemaTable, List<SqlgEdge>> removeEdgeCache) {
+        for (Map.Entry<SchemaTable, List<SqlgEdge>> entry : removeEdgeCache.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                deleteByColumn(sqlgGraph, entry.getKey().withPrefix(EDGE_PREFIX), "ID", entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Inserts a row in the global unique index tables for every property with a global unique index of the new elements
+     * of a label.
+     */
+    static <T extends SqlgElement> void flushGlobalUniqueIndexes(SqlgGraph sqlgGraph, SchemaTable prefixedSchemaTable, Map<T, Map<String, Object>> elements) {
+        if (elements.isEmpty()) {
+            return;
+        }
+        Map<String, PropertyColumn> propertyColumns = sqlgGraph.getTopology().getPropertiesWithGlobalUniqueIndexFor(prefixedSchemaTable);
+        for (PropertyColumn propertyColumn : propertyColumns.values()) {
+            for (GlobalUniqueIndex globalUniqueIndex : propertyColumn.getGlobalUniqueIndices()) {
+                SchemaTable globalUniqueIndexTable = SchemaTable.of(Schema.GLOBAL_UNIQUE_INDEX_SCHEMA, VERTEX_PREFIX + globalUniqueIndex.getName());
+                List<PropertyColumn> globalUniqueIndexColumns = propertyColumns(sqlgGraph, globalUniqueIndexTable, Arrays.asList(
+                        GlobalUniqueIndex.GLOBAL_UNIQUE_INDEX_VALUE, GlobalUniqueIndex.GLOBAL_UNIQUE_INDEX_RECORD_ID, GlobalUniqueIndex.GLOBAL_UNIQUE_INDEX_PROPERTY_NAME));
+                SqlDialect sqlDialect = sqlgGraph.getSqlDialect();
+                StringBuilder sql = new StringBuilder("INSERT INTO ");
+                appendTable(sqlDialect, sql, globalUniqueIndexTable);
+                sql.append(" (");
+                List<String> columns = columns(sqlDialect, globalUniqueIndexColumns);
+                appendColumns(sqlDialect, sql, columns);
+                sql.append(") VALUES ");
+                appendParameters(sql, columns.size(), 1);
+                executeBatch(sqlgGraph, sql, elements.entrySet(), (preparedStatement, elementEntry) -> {
+                    Map<String, Object> values = new HashMap<>();
+                    values.put(GlobalUniqueIndex.GLOBAL_UNIQUE_INDEX_VALUE, elementEntry.getValue().get(propertyColumn.getName()));
+                    values.put(GlobalUniqueIndex.GLOBAL_UNIQUE_INDEX_RECORD_ID, elementEntry.getKey().id().toString());
+                    values.put(GlobalUniqueIndex.GLOBAL_UNIQUE_INDEX_PROPERTY_NAME, propertyColumn.getName());
+                    setValues(sqlgGraph, preparedStatement, 1, globalUniqueIndexColumns, values);
+                });
+            }
+        }
+    }
+
+    /**
+     * Updates the global unique index value of the updated properties.
+     */
+    static <T extends SqlgElement> void flushGlobalUniqueIndexPropertyCache(SqlgGraph sqlgGraph, boolean forVertices, Map<SchemaTable, Pair<SortedSet<String>, Map<T, Map<String, Object>>>> propertyCache) {
+        for (Map.Entry<SchemaTable, Pair<SortedSet<String>, Map<T, Map<String, Object>>>> entry : propertyCache.entrySet()) {
+            Map<String, PropertyColumn> propertyColumns = sqlgGraph.getTopology().getPropertiesWithGlobalUniqueIndexFor(
+                    entry.getKey().withPrefix(forVertices ? VERTEX_PREFIX : EDGE_PREFIX));
+            for (PropertyColumn propertyColumn : propertyColumns.values()) {
+                List<Map.Entry<T, Map<String, Object>>> updated = new ArrayList<>();
+                for (Map.Entry<T, Map<String, Object>> elementEntry : entry.getValue().getRight().entrySet()) {
+                    if (elementEntry.getValue().containsKey(propertyColumn.getName())) {
+                        updated.add(elementEntry);
+                    }
+                }
+                if (updated.isEmpty()) {
+                    continue;
+                }
+                for (GlobalUniqueIndex globalUniqueIndex : propertyColumn.getGlobalUniqueIndices()) {
+                    SchemaTable globalUniqueIndexTable = SchemaTable.of(Schema.GLOBAL_UNIQUE_INDEX_SCHEMA, VERTEX_PREFIX + globalUniqueIndex.getName());
+                    List<PropertyColumn> valueColumn = propertyColumns(sqlgGraph, globalUniqueIndexTable, Collections.singletonList(GlobalUniqueIndex.GLOBAL_UNIQUE_INDEX_VALUE));
+                    SqlDialect sqlDialect = sqlgGraph.getSqlDialect();
+                    StringBuilder sql = new StringBuilder("UPDATE ");
+                    appendTable(sqlDialect, sql, globalUniqueIndexTable);
+                    sql.append(" SET ");
+                    List<String> columns = columns(sqlDialect, valueColumn);
+                    for (int i = 0; i < columns.size(); i++) {
+                        if (i > 0) {
+                            sql.append(", ");
+                        }
+                        sql.append(sqlDialect.maybeWrapInQoutes(columns.get(i)));
+                        sql.append(" = ?");
+                    }
+                    appendGlobalUniqueIndexWhere(sqlDialect, sql);
+                    executeBatch(sqlgGraph, sql, updated, (preparedStatement, elementEntry) -> {
+                        int parameterIndex = setValues(sqlgGraph, preparedStatement, 1, valueColumn,
+                                Collections.singletonMap(GlobalUniqueIndex.GLOBAL_UNIQUE_INDEX_VALUE, elementEntry.getValue().get(propertyColumn.getName())));
+                        preparedStatement.setString(parameterIndex++, elementEntry.getKey().id().toString());
+                        preparedStatement.setString(parameterIndex, propertyColumn.getName());
+                    });
+                }
+            }
+        }
+    }
+
+    static void flushRemovedGlobalUniqueIndexVertices(SqlgGraph sqlgGraph, Map<SchemaTable, List<SqlgVertex>> removeVertexCache) {
+        for (Map.Entry<SchemaTable, List<SqlgVertex>> entry : removeVertexCache.entrySet()) {
+            Map<String, PropertyColumn> propertyColumns = sqlgGraph.getTopology().getPropertiesWithGlobalUniqueIndexFor(entry.getKey().withPrefix(VERTEX_PREFIX));
+            for (PropertyColumn propertyColumn : propertyColumns.values()) {
+                for (GlobalUniqueIndex globalUniqueIndex : propertyColumn.getGlobalUniqueIndices()) {
+                    SqlDialect sqlDialect = sqlgGraph.getSqlDialect();
+                    StringBuilder sql = new StringBuilder("DELETE FROM ");
+                    appendTable(sqlDialect, sql, SchemaTable.of(Schema.GLOBAL_UNIQUE_INDEX_SCHEMA, VERTEX_PREFIX + globalUniqueIndex.getName()));
+                    appendGlobalUniqueIndexWhere(sqlDialect, sql);
+                    executeBatch(sqlgGraph, sql, entry.getValue(), (preparedStatement, sqlgVertex) -> {
+                        preparedStatement.setString(1, sqlgVertex.id().toString());
+                        preparedStatement.setString(2, propertyColumn.getName());
+                    });
+                }
+            }
+        }
+    }
+
+    /**
+     * Inserts the rows in chunks and returns the ids in the order of the rows.
+     * <p>
+     * If the dialect reserves the ids, see {@link JdbcBatchDialect#reserveIds}, the rows are inserted with their ids
+     * and the chunks are added to one JDBC batch.
+     * Else every statement is executed on its own and must return exactly one generated key per row.
+     * Drivers that do not return the key of every row of a multi row insert insert one row per statement,
+     * see {@link JdbcBatchDialect#returnsGeneratedKeysOfMultiRowInsert()}.
+     */
+    private static long[] insert(SqlgGraph sqlgGraph, SchemaTable schemaTable, List<PropertyColumn> propertyColumns, List<String> foreignKeys,
+                                 int rowCount, RowBinder rowBinder) {
+
+        SqlDialect sqlDialect = sqlgGraph.getSqlDialect();
+        JdbcBatchDialect jdbcBatchDialect = (JdbcBatchDialect) sqlDialect;
+        List<String> columns = columns(sqlDialect, propertyColumns);
+        columns.addAll(foreignKeys);
+        long[] reservedIds = jdbcBatchDialect.reserveIds(sqlgGraph, schemaTable, rowCount);
+        boolean reserved = reservedIds != null;
+        long[] ids = reserved ? reservedIds : new long[rowCount];
+        RowBinder binder = rowBinder;
+        if (reserved) {
+            columns.add(0, "ID");
+            binder = (preparedStatement, parameterIndex, row) -> {
+                preparedStatement.setLong(parameterIndex++, ids[row]);
+                return rowBinder.bind(preparedStatement, parameterIndex, row);
+            };
+        }
+        int rowsPerStatement;
+        if (!reserved && !jdbcBatchDialect.returnsGeneratedKeysOfMultiRowInsert()) {
+            rowsPerStatement = 1;
+        } else {
+            rowsPerStatement = columns.isEmpty() ? MAX_ROWS : Math.max(1, Math.min(MAX_ROWS, PARAMETER_LIMIT / columns.size()));
+        }
+        int fullChunks = rowCount / rowsPerStatement;
+        int remainder = rowCount % rowsPerStatement;
+        int row = 0;
+        if (fullChunks > 0) {
+            row = insertChunks(sqlgGraph, insertSql(sqlDialect, schemaTable, columns, rowsPerStatement), reserved, fullChunks, rowsPerStatement, row, binder, ids);
+        }
+        if (remainder > 0) {
+            insertChunks(sqlgGraph, insertSql(sqlDialect, schemaTable, columns, remainder), reserved, 1, remainder, row, binder, ids);
+        }
+        return ids;
+    }
+
+    /**
+     * @return the row after the last inserted one.
+     */
+    private static int insertChunks(SqlgGraph sqlgGraph, String sql, boolean reserved, int chunks, int rowsPerStatement, int row,
+                                    RowBinder rowBinder, long[] ids) {
+
+        Connection conn = sqlgGraph.tx().getConnection();
+        try (PreparedStatement preparedStatement = reserved ? conn.prepareStatement(sql) : conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                int parameterIndex = 1;
+                int from = row;
+                for (int i = 0; i < rowsPerStatement; i++) {
+                    parameterIndex = rowBinder.bind(preparedStatement, parameterIndex, row++);
+                }
+                if (reserved) {
+                    preparedStatement.addBatch();
+                } else {
+                    preparedStatement.executeUpdate();
+                    readGeneratedKeys(preparedStatement, ids, from, row);
+                }
+            }
+            if (reserved) {
+                preparedStatement.executeBatch();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return row;
+    }
+
+    private static void readGeneratedKeys(PreparedStatement preparedStatement, long[] ids, int from, int to) throws SQLException {
+        int count = 0;
+        try (ResultSet generatedKeys = preparedStatement.getGeneratedKeys()) {
+            while (generatedKeys.next()) {
+                if (from + count < to) {
+                    ids[from + count] = generatedKeys.getLong(1);
+                }
+                count++;
+            }
+        }
+        if (count != to - from) {
+            throw new IllegalStateException(String.format("Inserted %d rows but the driver returned %d generated ids", to - from, count));
+        }
+    }
+
+    private static String insertSql(SqlDialect sqlDialect, SchemaTable schemaTable, List<String> columns, int rows) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ");
+        appendTable(sqlDialect, sql, schemaTable);
+        sql.append(" (");
+        if (columns.isEmpty()) {
+            sql.append(sqlDialect.maybeWrapInQoutes("ID"));
+            sql.append(") VALUES ");
+            for (int i = 0; i < rows; i++) {
+                if (i > 0) {
+                    sql.append(", ");
+                }
+                sql.append("(DEFAULT)");
+            }
+        } else {
+            appendColumns(sqlDialect, sql, columns);
+            sql.append(") VALUES ");
+            appendParameters(sql, columns.size(), rows);
+        }
+        if (sqlDialect.needsSemicolon()) {
+            sql.append(";");
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(sql.toString());
+        }
+        return sql.toString();
+    }
+
+    private static void deleteByColumn(SqlgGraph sqlgGraph, SchemaTable schemaTable, String column, List<? extends SqlgElement> elements) {
+        SqlDialect sqlDialect = sqlgGraph.getSqlDialect();
+        StringBuilder sql = new StringBuilder("DELETE FROM ");
+        appendTable(sqlDialect, sql, schemaTable);
+        sql.append(" WHERE ");
+        sql.append(sqlDialect.maybeWrapInQoutes(column));
+        sql.append(" = ?");
+        executeBatch(sqlgGraph, sql, elements, (preparedStatement, sqlgElement) -> preparedStatement.setLong(1, ((RecordId) sqlgElement.id()).getId()));
+    }
+
+    private static <T> void executeBatch(SqlgGraph sqlgGraph, StringBuilder sql, Collection<T> rows, BatchBinder<T> batchBinder) {
+        if (sqlgGraph.getSqlDialect().needsSemicolon()) {
+            sql.append(";");
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(sql.toString());
+        }
+        Connection conn = sqlgGraph.tx().getConnection();
+        try (PreparedStatement preparedStatement = conn.prepareStatement(sql.toString())) {
+            int count = 0;
+            for (T row : rows) {
+                batchBinder.bind(preparedStatement, row);
+                preparedStatement.addBatch();
+                if (++count % MAX_ROWS == 0) {
+                    preparedStatement.executeBatch();
+                }
+            }
+            if (count % MAX_ROWS != 0) {
+                preparedStatement.executeBatch();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Sets the values of the columns, a missing value is set to null in every column of its property.
+     */
+    private static int setValues(SqlgGraph sqlgGraph, PreparedStatement preparedStatement, int parameterIndex, List<PropertyColumn> propertyColumns, Map<String, Object> values) throws SQLException {
+        for (PropertyColumn propertyColumn : propertyColumns) {
+            parameterIndex = setValue(sqlgGraph, preparedStatement, parameterIndex, propertyColumn, values.get(propertyColumn.getName()));
+        }
+        return parameterIndex;
+    }
+
+    /**
+     * Sets the values of a row of the columns, a primitive column of the property's type is set without boxing.
+     */
+    private static int setValues(SqlgGraph sqlgGraph, PreparedStatement preparedStatement, int parameterIndex, List<PropertyColumn> propertyColumns, BatchRows.Column[] columns, int row) throws SQLException {
+        for (int i = 0; i < columns.length; i++) {
+            PropertyColumn propertyColumn = propertyColumns.get(i);
+            BatchRows.Column column = columns[i];
+            Object value = null;
+            if (column != null && column.primitiveType() == propertyColumn.getPropertyType()) {
+                if (column.isPresent(row)) {
+                    setBits(preparedStatement, parameterIndex++, propertyColumn.getPropertyType(), column.getBits(row));
+                    continue;
+                }
+            } else if (column != null) {
+                value = column.get(row);
+            }
+            parameterIndex = setValue(sqlgGraph, preparedStatement, parameterIndex, propertyColumn, value);
+        }
+        return parameterIndex;
+    }
+
+    private static int setValue(SqlgGraph sqlgGraph, PreparedStatement preparedStatement, int parameterIndex, PropertyColumn propertyColumn, Object value) throws SQLException {
+        if (value == null) {
+            int columnCount = sqlgGraph.getSqlDialect().propertyTypeToSqlDefinition(propertyColumn.getPropertyType()).length;
+            for (int i = 0; i < columnCount; i++) {
+                preparedStatement.setNull(parameterIndex++, Types.NULL);
+            }
+            return parameterIndex;
+        } else {
+            return SqlgUtil.setKeyValuesAsParameterUsingPropertyColumn(sqlgGraph, true, parameterIndex, preparedStatement,
+                    Collections.singletonList(Pair.of(propertyColumn, value)));
+        }
+    }
+
+    private static void setBits(PreparedStatement preparedStatement, int parameterIndex, PropertyType propertyType, long bits) throws SQLException {
+        switch (propertyType) {
+            case BOOLEAN:
+                preparedStatement.setBoolean(parameterIndex, bits != 0);
+                break;
+            case BYTE:
+                preparedStatement.setByte(parameterIndex, (byte) bits);
+                break;
+            case SHORT:
+                preparedStatement.setShort(parameterIndex, (short) bits);
+                break;
+            case INTEGER:
+                preparedStatement.setInt(parameterIndex, (int) bits);
+                break;
+            case LONG:
+                preparedStatement.setLong(parameterIndex, bits);
+                break;
+            case FLOAT:
+                preparedStatement.setFloat(parameterIndex, Float.intBitsToFloat((int) bits));
+                break;
+            case DOUBLE:
+                preparedStatement.setDouble(parameterIndex, Double.longBitsToDouble(bits));
+                break;
+            default:
+                throw new IllegalStateException("Unhandled primitive PropertyType " + propertyType.name());
+        }
+    }
+
+    /**
+     * @return the columns of the properties, null for a property without values.
+     */
+    private static BatchRows.Column[] batchColumns(BatchRows batchRows, List<PropertyColumn> propertyColumns) {
+        BatchRows.Column[] columns = new BatchRows.Column[propertyColumns.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = batchRows.column(propertyColumns.get(i).getName());
+        }
+        return columns;
+    }
+
+    /**
+     * @return the rows that are not removed.
+     */
+    private static int[] rows(BatchRows batchRows, int size) {
+        int[] rows = new int[size];
+        int i = 0;
+        for (int row = 0; row < batchRows.rowCount(); row++) {
+            if (batchRows.element(row) != null) {
+                rows[i++] = row;
+            }
+        }
+        Preconditions.checkState(i == size, "found %s rows, expected %s", i, size);
+        return rows;
+    }
+
+    private static List<PropertyColumn> propertyColumns(SqlgGraph sqlgGraph, SchemaTable prefixedSchemaTable, Collection<String> keys) {
+        Map<String, PropertyColumn> properties = sqlgGraph.getTopology().getPropertiesFor(prefixedSchemaTable);
+        List<PropertyColumn> propertyColumns = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            PropertyColumn propertyColumn = properties.get(key);
+            if (propertyColumn == null) {
+                throw new IllegalStateException(String.format("Property %s not found on %s", key, prefixedSchemaTable));
+            }
+            propertyColumns.add(propertyColumn);
+        }
+        return propertyColumns;
+    }
+
+    /**
+     * @return the column names of the properties, including the additional columns of multi column properties.
+     */
+    private static List<String> columns(SqlDialect sqlDialect, List<PropertyColumn> propertyColumns) {
+        List<String> columns = new ArrayList<>();
+        for (PropertyColumn propertyColumn : propertyColumns) {
+            PropertyType propertyType = propertyColumn.getPropertyType();
+            int columnCount = sqlDialect.propertyTypeToSqlDefinition(propertyType).length;
+            columns.add(propertyColumn.getName());
+            for (int i = 1; i < columnCount; i++) {
+                columns.add(propertyColumn.getName() + propertyType.getPostFixes()[i - 1]);
+            }
+        }
+        return columns;
+    }
+
+    private static void appendTable(SqlDialect sqlDialect, StringBuilder sql, SchemaTable schemaTable) {
+        sql.append(sqlDialect.maybeWrapInQoutes(schemaTable.getSchema()));
+        sql.append(".");
+        sql.append(sqlDialect.maybeWrapInQoutes(schemaTable.getTable()));
+    }
+
+    private static void appendColumns(SqlDialect sqlDialect, StringBuilder sql, List<String> columns) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(sqlDialect.maybeWrapInQoutes(columns.get(i)));
+        }
+    }
+
+    private static void appendParameters(StringBuilder sql, int columnCount, int rows) {
+        for (int row = 0; row < rows; row++) {
+            if (row > 0) {
+                sql.append(", ");
+            }
+            sql.append("(");
+            for (int i = 0; i < columnCount; i++) {
+                if (i > 0) {
+                    sql.append(", ");
+                }
+                sql.append("?");
+            }
+            sql.append(")");
+        }
+    }
+
+    private static void appendGlobalUniqueIndexWhere(SqlDialect sqlDialect, StringBuilder sql) {
+        sql.append(" WHERE ");
+        sql.append(sqlDialect.maybeWrapInQoutes(GlobalUniqueIndex.GLOBAL_UNIQUE_INDEX_RECORD_ID));
+        sql.append(" = ? AND ");
+        sql.append(sqlDialect.maybeWrapInQoutes(GlobalUniqueIndex.GLOBAL_UNIQUE_INDEX_PROPERTY_NAME));
+        sql.append(" = ?");
+    }
+
+    @FunctionalInterface
+    private interface RowBinder {
+        /**
+         * @return the next parameter index.
+         */
+        int bind(PreparedStatement preparedStatement, int parameterIndex, int row) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface BatchBinder<T> {
+        void bind(PreparedStatement preparedStatement, T row) throws SQLException;
+    }
+}
@@ -265,6 +265,28 @@ public interface SqlDialect {
         return "CREATE TEMPORARY TABLE ";
     }
 
+    /**
+     * @return the statement head to create a temporary table that is reused by the transactions of a connection.
+     */
+    default String createReusableTemporaryTableStatement() {
+        return "CREATE TEMPORARY TABLE IF NOT EXISTS ";
+    }
+
+    /**
+     * @return the statement tail of a temporary table that is reused by the transactions of a connection.
+     */
+    default String afterCreateReusableTemporaryTableStatement() {
+        return afterCreateTemporaryTableStatement();
+    }
+
+    /**
+     * Sends the {@link org.umlg.sqlg.structure.ElementCache} invalidation of a committing transaction to the other graphs on the database.
+     * Called in the transaction so that the notification is only delivered if it commits.
+     * Dialects without a notification channel do nothing, the other graphs' caches then only see their own changes.
+     */
+    default void notifyElementsChanged(Connection connection, String notification) {
+    }
+
     /**
      * @return the statement head to create a schema
      */
@@ -308,6 +330,10 @@ public interface SqlDialect {
         return false;
     }
 
+    default boolean supportsStreamingBatchMode() {
+        return supportsBatchMode();
+    }
+
     default boolean supportsJson() {
         return false;
     }
@@ -352,6 +378,41 @@ public interface SqlDialect {
         return Boolean.FALSE;
     }
 
+    /**
+     * @return true if SELECT DISTINCT ON (expression) is supported.
+     */
+    default boolean supportsDistinctOn() {
+        return false;
+    }
+
+    /**
+     * @return true if WITH RECURSIVE common table expressions are supported.
+     */
+    default boolean supportsWithRecursive() {
+        return false;
+    }
+
+    /**
+     * @return true if within and without can be passed as one array parameter, i.e. 'column = ANY(?)'.
+     */
+    default boolean supportsWithinArrayParameter() {
+        return false;
+    }
+
+    /**
+     * @return the maximum number of parameters of one statement.
+     */
+    default int getParameterLimit() {
+        return 32767;
+    }
+
+    /**
+     * @return the maximum number of columns of one select, Postgres' limit of 1664 is the lowest of the dialects.
+     */
+    default int getColumnLimit() {
+        return 1664;
+    }
+
     default boolean needsTimeZone() {
         return Boolean.FALSE;
     }
@@ -457,4 +518,38 @@ public interface SqlDialect {
     default Map<String, Set<IndexRef>> extractIndices(Connection conn,String catalog,String schema) throws SQLException {
     	return null;
     }
+
+    /**
+     * Can the queries of a traversal be merged into one UNION ALL statement?
+     * The columns a select does not have are padded with NULL cast to their sql type.
+     */
+    default boolean supportsUnionAll() {
+        return false;
+    }
+
+    /**
+     * Can a connection share the snapshot of another connection's transaction?
+     * Used to execute the queries of a traversal on several connections at repeatable read or serializable isolation.
+     */
+    default boolean supportsSnapshotExport() {
+        return false;
+    }
+
+    /**
+     * export the snapshot of the connection's current transaction
+     * @param conn
+     * @return the snapshot id to pass to {@link #importSnapshot(Connection, String)}
+     */
+    default String exportSnapshot(Connection conn) throws SQLException {
+        throw new UnsupportedOperationException("Snapshot export is not supported on this database");
+    }
+
+    /**
+     * start a transaction on the connection that sees the exported snapshot
+     * @param conn a connection not in auto commit mode on which no statement has been executed yet
+     * @param snapshotId
+     */
+    default void importSnapshot(Connection conn, String snapshotId) throws SQLException {
+        throw new UnsupportedOperationException("Snapshot export is not supported on this database");
+    }
 }
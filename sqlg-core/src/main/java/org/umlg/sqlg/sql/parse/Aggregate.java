@@ -0,0 +1,140 @@
+package org.umlg.sqlg.sql.parse;
+
+import org.umlg.sqlg.sql.dialect.SqlDialect;
+import org.umlg.sqlg.structure.PropertyType;
+
+/**
+ * A reducing step executed in the database on the result of the compiled steps.
+ * Every distinct query is aggregated on its own, the partial aggregates are combined on the client.
+ * <p>
+ * Date: 2026/10/17
+ * Time: 11:05 PM
+ */
+public class Aggregate {
+
+    public enum Function {
+        COUNT,
+        SUM,
+        MIN,
+        MAX,
+        MEAN,
+        GROUP_COUNT
+    }
+
+    private final Function function;
+    //the property aggregated, null to aggregate the elements themselves
+    private final String propertyKey;
+    //groupCount().by(key) requires every element to have the property, values(key) skips the elements without it
+    private final boolean requireProperty;
+
+    public Aggregate(Function function, String propertyKey, boolean requireProperty) {
+        this.function = function;
+        this.propertyKey = propertyKey;
+        this.requireProperty = requireProperty;
+    }
+
+    public Function getFunction() {
+        return function;
+    }
+
+    public String getPropertyKey() {
+        return propertyKey;
+    }
+
+    public boolean isRequireProperty() {
+        return requireProperty;
+    }
+
+    /**
+     * @return true if the property's values can be aggregated in the database.
+     */
+    public boolean supports(PropertyType propertyType) {
+        switch (this.function) {
+            case COUNT:
+                return true;
+            case GROUP_COUNT:
+                return isGroupable(propertyType);
+            default:
+                return isNumber(propertyType);
+        }
+    }
+
+    static boolean isNumber(PropertyType propertyType) {
+        switch (propertyType) {
+            case BYTE:
+            case SHORT:
+            case INTEGER:
+            case LONG:
+            case FLOAT:
+            case DOUBLE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isGroupable(PropertyType propertyType) {
+        switch (propertyType) {
+            case BOOLEAN:
+            case STRING:
+            case LOCALDATE:
+            case LOCALDATETIME:
+            case LOCALTIME:
+                return true;
+            default:
+                return isNumber(propertyType);
+        }
+    }
+
+    /**
+     * Wraps the sql of a distinct query.
+     * TinkerPop sums float values as doubles, so they are summed in the database as doubles too rather than as floats.
+     *
+     * @param keyAlias     the alias of the property's column, null if the query's elements do not have the property.
+     * @param propertyType the type of the property, null if the query's elements do not have the property.
+     */
+    String toSql(SqlDialect sqlDialect, String sql, String keyAlias, PropertyType propertyType) {
+        String key = keyAlias != null ? "a." + sqlDialect.maybeWrapInQoutes(keyAlias) : null;
+        String summed = propertyType == PropertyType.FLOAT ?
+                "CAST(" + key + " AS " + sqlDialect.propertyTypeToSqlDefinition(PropertyType.DOUBLE)[0] + ")" : key;
+        StringBuilder result = new StringBuilder("SELECT ");
+        switch (this.function) {
+            case COUNT:
+                result.append("COUNT(").append(this.propertyKey == null ? "*" : key).append(")");
+                break;
+            case SUM:
+                result.append("SUM(").append(summed).append(")");
+                break;
+            case MIN:
+                result.append("MIN(").append(key).append(")");
+                break;
+            case MAX:
+                result.append("MAX(").append(key).append(")");
+                break;
+            case MEAN:
+                result.append("SUM(").append(summed).append("), COUNT(").append(key).append(")");
+                break;
+            case GROUP_COUNT:
+                if (key != null) {
+                    result.append(key).append(", ");
+                }
+                result.append("COUNT(*)");
+                break;
+            default:
+                throw new IllegalStateException("Unhandled aggregate function " + this.function.name());
+        }
+        result.append(" FROM (\n").append(sql).append("\n) a");
+        if (this.function == Function.GROUP_COUNT && key != null) {
+            if (!this.requireProperty) {
+                result.append(" WHERE ").append(key).append(" IS NOT NULL");
+            }
+            result.append(" GROUP BY ").append(key);
+        }
+        return result.toString();
+    }
+
+    @Override
+    public String toString() {
+        return this.function.name().toLowerCase() + (this.propertyKey != null ? "(" + this.propertyKey + ")" : "");
+    }
+}
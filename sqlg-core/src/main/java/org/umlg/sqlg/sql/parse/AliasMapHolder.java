@@ -25,6 +25,27 @@ public class AliasMapHolder {
         return aliasColumnNameMap;
     }
 
+    AliasMapHolder copy() {
+        AliasMapHolder copy = new AliasMapHolder();
+        copy.columnNameAliasMap.putAll(this.columnNameAliasMap);
+        copy.aliasColumnNameMap.putAll(this.aliasColumnNameMap);
+        return copy;
+    }
+
+    /**
+     * @return a copy with every alias prefixed, the column names are unchanged.
+     */
+    AliasMapHolder prefixed(String prefix) {
+        AliasMapHolder copy = new AliasMapHolder();
+        for (Map.Entry<String, String> entry : this.columnNameAliasMap.entrySet()) {
+            copy.columnNameAliasMap.put(entry.getKey(), prefix + entry.getValue());
+        }
+        for (Map.Entry<String, String> entry : this.aliasColumnNameMap.entrySet()) {
+            copy.aliasColumnNameMap.put(prefix + entry.getKey(), entry.getValue());
+        }
+        return copy;
+    }
+
     void clear() {
         this.columnNameAliasMap.clear();
         this.aliasColumnNameMap.clear();
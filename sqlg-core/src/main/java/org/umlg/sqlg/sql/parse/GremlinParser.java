@@ -54,6 +54,9 @@ public class GremlinParser<S extends Element, E extends Element> {
                 toRemove.add(rootSchemaTableTree);
             }
             rootSchemaTableTree.removeAllButDeepestAndAddCacheLeafNodes(replacedSteps.size());
+            ReplacedStep<?, ?> lastReplacedStep = replacedSteps.isEmpty() ? startReplacedStep : replacedSteps.get(replacedSteps.size() - 1);
+            rootSchemaTableTree.setRestrictedProperties(lastReplacedStep.getRestrictedProperties());
+            rootSchemaTableTree.setDistinct(lastReplacedStep.isDistinct(), lastReplacedStep.getDistinctOnKey());
         }
         rootSchemaTableTrees.removeAll(toRemove);
         return rootSchemaTableTrees;
@@ -90,6 +93,7 @@ public class GremlinParser<S extends Element, E extends Element> {
         }
         rootSchemaTableTree.removeNodesInvalidatedByHas();
         rootSchemaTableTree.removeAllButDeepestAndAddCacheLeafNodes(replacedSteps.size() - 1);
+        rootSchemaTableTree.setRestrictedProperties(replacedSteps.get(replacedSteps.size() - 1).getRestrictedProperties());
         rootSchemaTableTree.setLocalStep(true);
         return rootSchemaTableTree;
     }
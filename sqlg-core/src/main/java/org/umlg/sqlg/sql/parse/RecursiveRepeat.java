@@ -0,0 +1,393 @@
+package org.umlg.sqlg.sql.parse;
+
+import com.google.common.base.Preconditions;
+import org.apache.tinkerpop.gremlin.process.traversal.Compare;
+import org.apache.tinkerpop.gremlin.process.traversal.Contains;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.umlg.sqlg.sql.dialect.SqlDialect;
+import org.umlg.sqlg.structure.PropertyType;
+import org.umlg.sqlg.structure.SchemaManager;
+import org.umlg.sqlg.structure.SchemaTable;
+import org.umlg.sqlg.structure.SqlgGraph;
+import org.umlg.sqlg.util.SqlgUtil;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * A repeat(out()/in()/both()) with a has() only until and/or emit traversal executed as one WITH RECURSIVE query.
+ * <p>
+ * Every row of the recursive table is a traverser inside the repeat, identified by its start vertex, the vertex it is on and its depth.
+ * The until and emit predicates are evaluated per row as 0/1 columns, the rows that leave the repeat are returned one per row, not grouped,
+ * so that the database can stream them and stop when the traversal stops consuming.
+ * Vertex tables are numbered, a vertex is identified by its table's number and its id.
+ * The values of the predicates are written as literals, H2 does not bind parameters inside a recursive query.
+ * <p>
+ * Every row carries its path as a string of '/number:id/' elements. For simplePath() the path starts with the start vertex and rows
+ * revisiting a vertex are not recursed into. Else the path starts after the start vertex, the predicates only depend on the vertex
+ * so a traverser inside the repeat that revisits a vertex repeats forever, the row is marked as a cycle and not recursed into.
+ * The caller continues from a cycle row that does not leave the repeat with another query, started at the row's depth, when the
+ * traversal gets that far. The recursion also stops one iteration after the max depth, the caller fails on rows deeper than the max depth.
+ * <p>
+ * Date: 2026/10/17
+ * Time: 2:10 PM
+ */
+public class RecursiveRepeat {
+
+    private final Direction direction;
+    private final Set<String> edgeLabels;
+    //null if there is no until
+    private final List<HasContainer> untilHasContainers;
+    private final boolean untilFirst;
+    //null if there is no emit, empty for emit()
+    private final List<HasContainer> emitHasContainers;
+    private final boolean emitFirst;
+    private final boolean simplePath;
+
+    public RecursiveRepeat(
+            Direction direction,
+            String[] edgeLabels,
+            List<HasContainer> untilHasContainers,
+            boolean untilFirst,
+            List<HasContainer> emitHasContainers,
+            boolean emitFirst,
+            boolean simplePath) {
+
+        Preconditions.checkArgument(untilHasContainers != null || emitHasContainers != null, "A recursive repeat needs an until or an emit");
+        this.direction = direction;
+        this.edgeLabels = new HashSet<>(Arrays.asList(edgeLabels));
+        this.untilHasContainers = untilHasContainers;
+        this.untilFirst = untilFirst;
+        this.emitHasContainers = emitHasContainers;
+        this.emitFirst = emitFirst;
+        this.simplePath = simplePath;
+    }
+
+    public boolean isSimplePath() {
+        return simplePath;
+    }
+
+    /**
+     * @return true if the hasContainer can be evaluated for every vertex table.
+     * Labels are tested on the client, properties are compared to literals.
+     */
+    public static boolean isSupported(HasContainer hasContainer) {
+        String key = hasContainer.getKey();
+        if (key.equals(T.label.getAccessor())) {
+            return true;
+        }
+        if (key.equals(T.id.getAccessor()) || key.equals(T.key.getAccessor()) || key.equals(T.value.getAccessor())) {
+            return false;
+        }
+        Object value = hasContainer.getValue();
+        if (hasContainer.getBiPredicate() instanceof Compare) {
+            return isLiteral(value);
+        } else if (hasContainer.getBiPredicate() instanceof Contains && value instanceof Collection) {
+            return ((Collection<?>) value).stream().allMatch(RecursiveRepeat::isLiteral);
+        } else {
+            return false;
+        }
+    }
+
+    private static boolean isLiteral(Object value) {
+        if (value instanceof Double || value instanceof Float) {
+            return !Double.isNaN(((Number) value).doubleValue()) && !Double.isInfinite(((Number) value).doubleValue());
+        }
+        return value instanceof Number || value instanceof String || value instanceof Boolean;
+    }
+
+    /**
+     * @param startIds   the ids of the start vertices per vertex table, the tables are prefixed.
+     * @param startDepth the depth of the start vertices, 0 for the vertices entering the repeat, else the vertices of cycle rows
+     *                   that are continued, their own rows are not returned again.
+     * @param maxDepth   the depth after which the recursion stops.
+     * @return the query, its rows are start table number, start id, end table number, end id, depth,
+     * the number of traversers leaving the repeat, 1 for a cycle, the path and 1 if the until holds.
+     */
+    public Query toSql(SqlgGraph sqlgGraph, Map<SchemaTable, ? extends Collection<Long>> startIds, int startDepth, int maxDepth) {
+        SqlDialect dialect = sqlgGraph.getSqlDialect();
+        String pathType = dialect.propertyTypeToSqlDefinition(PropertyType.STRING)[0];
+        List<SchemaTable> vertexTables = new ArrayList<>();
+        List<String> anchors = new ArrayList<>();
+        for (Map.Entry<SchemaTable, ? extends Collection<Long>> entry : startIds.entrySet()) {
+            SchemaTable vertexTable = entry.getKey();
+            int index = indexOf(vertexTables, vertexTable);
+            StringBuilder ids = new StringBuilder();
+            for (Long id : entry.getValue()) {
+                if (ids.length() > 0) {
+                    ids.append(", ");
+                }
+                ids.append(id);
+            }
+            String vertexId = "v." + dialect.maybeWrapInQoutes(SchemaManager.ID);
+            String anchor = "SELECT " + index + " AS s_tbl, " + vertexId + " AS s_id, " + startDepth + " AS r_depth, " + index + " AS v_tbl, " + vertexId + " AS v_id, " +
+                    flag(sqlgGraph, vertexTable, this.untilHasContainers) + " AS r_until, " +
+                    flag(sqlgGraph, vertexTable, this.emitHasContainers) + " AS r_emit, 0 AS r_cycle, ";
+            if (this.simplePath) {
+                anchor += "CAST('/" + index + ":' || CAST(" + vertexId + " AS VARCHAR(20)) || '/' AS " + pathType + ") AS r_path";
+            } else {
+                anchor += "CAST('/' AS " + pathType + ") AS r_path";
+            }
+            anchor += " FROM " + table(dialect, vertexTable) + " v WHERE " + vertexId + " IN (" + ids + ")";
+            anchors.add(anchor);
+        }
+        List<String> edges = new ArrayList<>();
+        for (Map.Entry<String, Set<String>> edgeForeignKeys : sqlgGraph.getTopology().getAllEdgeForeignKeys().entrySet()) {
+            SchemaTable edgeTable = SchemaTable.from(sqlgGraph, edgeForeignKeys.getKey());
+            if (!this.edgeLabels.isEmpty() && !this.edgeLabels.contains(edgeTable.withOutPrefix().getTable())) {
+                continue;
+            }
+            for (String outForeignKey : edgeForeignKeys.getValue()) {
+                if (!outForeignKey.endsWith(SchemaManager.OUT_VERTEX_COLUMN_END)) {
+                    continue;
+                }
+                for (String inForeignKey : edgeForeignKeys.getValue()) {
+                    if (!inForeignKey.endsWith(SchemaManager.IN_VERTEX_COLUMN_END)) {
+                        continue;
+                    }
+                    if (this.direction != Direction.IN) {
+                        edges.add(edge(sqlgGraph, vertexTables, edgeTable, outForeignKey, inForeignKey));
+                    }
+                    if (this.direction != Direction.OUT) {
+                        edges.add(edge(sqlgGraph, vertexTables, edgeTable, inForeignKey, outForeignKey));
+                    }
+                }
+            }
+        }
+        StringBuilder sql = new StringBuilder();
+        String columns = "s_tbl, s_id, r_depth, v_tbl, v_id, r_until, r_emit, r_cycle, r_path";
+        String rows;
+        if (edges.isEmpty()) {
+            //nothing to traverse, only the start vertices can leave the repeat
+            rows = "(\n" + String.join("\nUNION ALL\n", anchors) + "\n) r";
+        } else {
+            sql.append("WITH RECURSIVE r(").append(columns).append(") AS (\n");
+            sql.append(String.join("\nUNION ALL\n", anchors));
+            String element = "CAST(e.t_tbl AS VARCHAR(10)) || ':' || CAST(e.t_id AS VARCHAR(20)) || '/'";
+            String revisits = "r.r_path LIKE ('%/' || " + element + " || '%')";
+            sql.append("\nUNION ALL\nSELECT r.s_tbl, r.s_id, r.r_depth + 1, e.t_tbl, e.t_id, e.t_until, e.t_emit, ");
+            sql.append(this.simplePath ? "0" : "CASE WHEN " + revisits + " THEN 1 ELSE 0 END");
+            sql.append(", CAST(r.r_path || ").append(element).append(" AS ").append(pathType).append(")");
+            sql.append(" FROM r INNER JOIN (\n");
+            sql.append(String.join("\nUNION ALL\n", edges));
+            sql.append("\n) e ON e.f_tbl = r.v_tbl AND e.f_id = r.v_id");
+            List<String> where = new ArrayList<>();
+            where.add("r.r_cycle = 0");
+            where.add("r.r_depth <= " + maxDepth);
+            if (this.untilHasContainers != null) {
+                where.add(this.untilFirst ? "r.r_until = 0" : "(r.r_depth = 0 OR r.r_until = 0)");
+            }
+            if (this.simplePath) {
+                where.add("NOT " + revisits);
+            }
+            sql.append(" WHERE ").append(String.join(" AND ", where));
+            sql.append("\n)\n");
+            rows = "r";
+        }
+        sql.append("SELECT s_tbl, s_id, v_tbl, v_id, r_depth, ").append(leaving()).append(", r_cycle, r_path, r_until FROM ").append(rows);
+        sql.append(" WHERE ");
+        if (startDepth > 0) {
+            sql.append("r_depth > ").append(startDepth).append(" AND (");
+        }
+        sql.append(leaving()).append(" > 0 OR (r_cycle = 1 AND r_until = 0) OR r_depth > ").append(maxDepth);
+        if (startDepth > 0) {
+            sql.append(")");
+        }
+        if (dialect.needsSemicolon()) {
+            sql.append(";");
+        }
+        return new Query(sql.toString(), vertexTables);
+    }
+
+    /**
+     * The number of traversers a row sends out of the repeat, following RepeatStep and RepeatEndStep.
+     * The start vertices only leave on an until or emit before the repeat.
+     * After an iteration an until after the repeat leaves without emitting, an until before the repeat is only tested when emit is also before it.
+     */
+    private String leaving() {
+        if (this.untilFirst && this.emitFirst) {
+            return "CASE WHEN r_until = 1 THEN 1 ELSE r_emit END";
+        } else if (this.untilFirst) {
+            return "CASE WHEN r_depth = 0 THEN r_until ELSE CAST(r_until AS INT) + CAST(r_emit AS INT) END";
+        } else if (this.emitFirst) {
+            return "CASE WHEN r_depth = 0 THEN r_emit WHEN r_until = 1 THEN 1 ELSE r_emit END";
+        } else {
+            return "CASE WHEN r_depth = 0 THEN 0 WHEN r_until = 1 THEN 1 ELSE r_emit END";
+        }
+    }
+
+    private String edge(SqlgGraph sqlgGraph, List<SchemaTable> vertexTables, SchemaTable edgeTable, String fromForeignKey, String toForeignKey) {
+        SqlDialect dialect = sqlgGraph.getSqlDialect();
+        SchemaTable from = vertexTableFor(fromForeignKey);
+        SchemaTable to = vertexTableFor(toForeignKey);
+        String fromColumn = "x." + dialect.maybeWrapInQoutes(fromForeignKey);
+        String toColumn = "x." + dialect.maybeWrapInQoutes(toForeignKey);
+        String until = flag(sqlgGraph, to, this.untilHasContainers);
+        String emit = flag(sqlgGraph, to, this.emitHasContainers);
+        String sql = "SELECT " + indexOf(vertexTables, from) + " AS f_tbl, " + fromColumn + " AS f_id, " +
+                indexOf(vertexTables, to) + " AS t_tbl, " + toColumn + " AS t_id, " +
+                until + " AS t_until, " + emit + " AS t_emit FROM " + table(dialect, edgeTable) + " x";
+        if (until.startsWith("CASE") || emit.startsWith("CASE")) {
+            sql += " INNER JOIN " + table(dialect, to) + " v ON v." + dialect.maybeWrapInQoutes(SchemaManager.ID) + " = " + toColumn;
+        }
+        return sql + " WHERE " + fromColumn + " IS NOT NULL AND " + toColumn + " IS NOT NULL";
+    }
+
+    private static SchemaTable vertexTableFor(String foreignKey) {
+        String label = foreignKey.endsWith(SchemaManager.IN_VERTEX_COLUMN_END) ? SqlgUtil.removeTrailingInId(foreignKey) : SqlgUtil.removeTrailingOutId(foreignKey);
+        SchemaTable schemaTable = SqlgUtil.parseLabel(label);
+        return SchemaTable.of(schemaTable.getSchema(), SchemaManager.VERTEX_PREFIX + schemaTable.getTable());
+    }
+
+    private static int indexOf(List<SchemaTable> vertexTables, SchemaTable vertexTable) {
+        int index = vertexTables.indexOf(vertexTable);
+        if (index == -1) {
+            vertexTables.add(vertexTable);
+            index = vertexTables.size() - 1;
+        }
+        return index;
+    }
+
+    private static String table(SqlDialect dialect, SchemaTable schemaTable) {
+        return dialect.maybeWrapInQoutes(schemaTable.getSchema()) + "." + dialect.maybeWrapInQoutes(schemaTable.getTable());
+    }
+
+    /**
+     * @return "1" or "0" if the hasContainers are decided by the vertex table, else a CASE on the columns of the vertex table aliased v.
+     */
+    private static String flag(SqlgGraph sqlgGraph, SchemaTable vertexTable, List<HasContainer> hasContainers) {
+        if (hasContainers == null) {
+            return "0";
+        }
+        SqlDialect dialect = sqlgGraph.getSqlDialect();
+        String label = vertexTable.withOutPrefix().getTable();
+        if (!vertexTable.getSchema().equals(dialect.getPublicSchema())) {
+            label = vertexTable.getSchema() + "." + label;
+        }
+        Map<String, PropertyType> properties = sqlgGraph.getTopology().getTableFor(vertexTable);
+        List<String> conditions = new ArrayList<>();
+        for (HasContainer hasContainer : hasContainers) {
+            if (hasContainer.getKey().equals(T.label.getAccessor())) {
+                if (!((Predicate<Object>) hasContainer.getPredicate()).test(label)) {
+                    return "0";
+                }
+            } else {
+                PropertyType propertyType = properties.get(hasContainer.getKey());
+                String condition = propertyType == null ? null : condition("v." + dialect.maybeWrapInQoutes(hasContainer.getKey()), propertyType, hasContainer);
+                if (condition == null) {
+                    return "0";
+                }
+                conditions.add(condition);
+            }
+        }
+        return conditions.isEmpty() ? "1" : "CASE WHEN " + String.join(" AND ", conditions) + " THEN 1 ELSE 0 END";
+    }
+
+    /**
+     * @return the sql condition or null if the hasContainer is false for every row.
+     * A value of another type than the column is never equal to it, as in TinkerPop.
+     */
+    private static String condition(String column, PropertyType propertyType, HasContainer hasContainer) {
+        if (hasContainer.getBiPredicate() instanceof Compare) {
+            Compare compare = (Compare) hasContainer.getBiPredicate();
+            if (!isComparable(propertyType, hasContainer.getValue())) {
+                return compare == Compare.neq ? column + " IS NOT NULL" : null;
+            }
+            return column + " " + operator(compare) + " " + literal(hasContainer.getValue());
+        } else {
+            Contains contains = (Contains) hasContainer.getBiPredicate();
+            List<String> literals = new ArrayList<>();
+            for (Object value : (Collection<?>) hasContainer.getValue()) {
+                if (isComparable(propertyType, value)) {
+                    literals.add(literal(value));
+                }
+            }
+            if (literals.isEmpty()) {
+                return contains == Contains.within ? null : column + " IS NOT NULL";
+            }
+            return column + (contains == Contains.within ? " IN (" : " NOT IN (") + String.join(", ", literals) + ")";
+        }
+    }
+
+    private static boolean isComparable(PropertyType propertyType, Object value) {
+        switch (propertyType) {
+            case BYTE:
+            case SHORT:
+            case INTEGER:
+            case LONG:
+            case FLOAT:
+            case DOUBLE:
+                return value instanceof Number;
+            case STRING:
+                return value instanceof String;
+            case BOOLEAN:
+                return value instanceof Boolean;
+            default:
+                return false;
+        }
+    }
+
+    private static String operator(Compare compare) {
+        switch (compare) {
+            case eq:
+                return "=";
+            case neq:
+                return "<>";
+            case gt:
+                return ">";
+            case gte:
+                return ">=";
+            case lt:
+                return "<";
+            case lte:
+                return "<=";
+            default:
+                throw new IllegalStateException("Unhandled compare " + compare.name());
+        }
+    }
+
+    private static String literal(Object value) {
+        if (value instanceof String) {
+            return "'" + ((String) value).replace("'", "''") + "'";
+        } else if (value instanceof Boolean) {
+            return (Boolean) value ? "TRUE" : "FALSE";
+        } else if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).toPlainString();
+        } else {
+            return value.toString();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return this.direction + this.edgeLabels.toString() +
+                (this.untilHasContainers != null ? (this.untilFirst ? ", until first " : ", until ") + this.untilHasContainers : "") +
+                (this.emitHasContainers != null ? (this.emitFirst ? ", emit first " : ", emit ") + this.emitHasContainers : "") +
+                (this.simplePath ? ", simplePath" : "");
+    }
+
+    public static class Query {
+
+        private final String sql;
+        private final List<SchemaTable> vertexTables;
+
+        Query(String sql, List<SchemaTable> vertexTables) {
+            this.sql = sql;
+            this.vertexTables = vertexTables;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        /**
+         * @return the vertex tables by their number in the query's rows.
+         */
+        public List<SchemaTable> getVertexTables() {
+            return vertexTables;
+        }
+    }
+}
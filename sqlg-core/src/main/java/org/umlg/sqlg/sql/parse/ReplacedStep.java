@@ -42,6 +42,15 @@ public class ReplacedStep<S, E> {
      * range limitation if any
      */
     private Range<Long> range;
+    /**
+     * the only properties the traversal uses of this step's elements, null if it may use all of them
+     */
+    private Set<String> restrictedProperties;
+    /**
+     * select distinct rows as a dedup step follows, distinct on the key's column if not null
+     */
+    private boolean distinct;
+    private String distinctOnKey;
     //This indicates the distanced of the replaced steps from the starting step. i.e. g.V(1).out().out().out() will be 0,1,2 for the 3 outs
     private int depth;
     private boolean emit;
@@ -102,6 +111,13 @@ public class ReplacedStep<S, E> {
         return this.labels;
     }
 
+    /**
+     * @return true if the step has labels of the traversal, not only the fake labels sqlg adds to get the element in the path.
+     */
+    public boolean hasUserLabels() {
+        return !this.labels.stream().allMatch(l -> l.endsWith(BaseSqlgStrategy.SQLG_PATH_FAKE_LABEL));
+    }
+
     private Set<SchemaTableTree> appendPath(SchemaTableTree schemaTableTree) {
         if (this.step instanceof VertexStep) {
             return appendPathForVertexStep(schemaTableTree);
@@ -691,4 +707,28 @@ public class ReplacedStep<S, E> {
     public void setRange(Range<Long> range) {
         this.range = range;
     }
+
+    public Set<String> getRestrictedProperties() {
+        return restrictedProperties;
+    }
+
+    public void setRestrictedProperties(Set<String> restrictedProperties) {
+        this.restrictedProperties = restrictedProperties;
+    }
+
+    public boolean isDistinct() {
+        return distinct;
+    }
+
+    public void setDistinct(boolean distinct) {
+        this.distinct = distinct;
+    }
+
+    public String getDistinctOnKey() {
+        return distinctOnKey;
+    }
+
+    public void setDistinctOnKey(String distinctOnKey) {
+        this.distinctOnKey = distinctOnKey;
+    }
 }
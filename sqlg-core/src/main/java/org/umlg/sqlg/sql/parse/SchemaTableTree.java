@@ -11,9 +11,12 @@ import org.apache.tinkerpop.gremlin.process.traversal.step.map.SelectOneStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.ElementValueComparator;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.util.ConnectiveP;
 import org.apache.tinkerpop.gremlin.structure.*;
 import org.umlg.sqlg.predicate.FullText;
+import org.umlg.sqlg.predicate.Text;
 import org.umlg.sqlg.sql.dialect.SqlBulkDialect;
+import org.umlg.sqlg.sql.dialect.SqlDialect;
 import org.umlg.sqlg.strategy.BaseSqlgStrategy;
 import org.umlg.sqlg.strategy.TopologyStrategy;
 import org.umlg.sqlg.structure.PropertyType;
@@ -22,12 +25,13 @@ import org.umlg.sqlg.util.SqlgUtil;
 
 import java.io.IOException;
 import java.io.Writer;
-import java.security.SecureRandom;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static org.apache.tinkerpop.gremlin.structure.T.label;
@@ -38,6 +42,8 @@ import static org.apache.tinkerpop.gremlin.structure.T.label;
  */
 public class SchemaTableTree {
     public static final String ALIAS_SEPARATOR = "~&~";
+    //Alias of the incoming element's id when the vertex step query is executed for a batch of incoming elements.
+    public static final String PARENT_ID_ALIAS = "sqlgParentId";
     private static final String CONSTRUCT_SQL_MAY_ONLY_BE_CALLED_ON_THE_ROOT_OBJECT = "constructSql may only be called on the root object";
     private static final String WITHIN = "within";
     private static final String WITHOUT = "without";
@@ -82,17 +88,41 @@ public class SchemaTableTree {
 
     //Cached for query load performance
     private Map<String, Pair<String, PropertyType>> columnNamePropertyName;
+    //The columns to load for this SchemaTableTree, computed once per query from the ResultSetMetaData.
+    private int[] loadColumnIndexes;
+    private String[] loadPropertyNames;
+    private PropertyType[] loadPropertyTypes;
+    //Only set for the in and out vertex foreign key columns of an edge, it is the vertex's schema and label.
+    private SchemaTable[] loadInVertexSchemaTables;
+    private SchemaTable[] loadOutVertexSchemaTables;
     private String idProperty;
     private String labeledAliasId;
 
     private boolean localStep = false;
     private boolean fakeEmit = false;
 
+    //Only set on the root node. If > 1 the where clause on the incoming element's id is an 'IN' with this many parameters.
+    private int parentIdBatchSize = 1;
+
+    //Only set on the root node. true if the tables are filtered by the TopologyStrategy's from or without.
+    private boolean topologyFiltered = false;
+
     /**
      * range limitation, if any
      */
     private Range<Long> range;
 
+    /**
+     * Only set on leaf nodes. The only properties the traversal uses of the leaf's elements, null if all properties are selected.
+     */
+    private Set<String> restrictedProperties;
+
+    /**
+     * Only set on the root node. Select distinct rows as a dedup step follows, distinct on the key's column if distinctOnKey is not null.
+     */
+    private boolean distinct;
+    private String distinctOnKey;
+
     enum STEP_TYPE {
         GRAPH_STEP,
         VERTEX_STEP,
@@ -141,6 +171,8 @@ public class SchemaTableTree {
         this.untilFirst = untilFirst;
         this.optionalLeftJoin = optionalLeftJoin;
         this.filteredAllTables = SqlgUtil.filterHasContainers(sqlgGraph.getTopology(), this.hasContainers, Topology.SQLG_SCHEMA.equals(schemaTable.getSchema()));
+        this.topologyFiltered = this.hasContainers.stream().anyMatch(h ->
+                h.getKey().equals(TopologyStrategy.TOPOLOGY_SELECTION_FROM) || h.getKey().equals(TopologyStrategy.TOPOLOGY_SELECTION_WITHOUT));
         initializeAliasColumnNameMaps();
     }
 
@@ -305,6 +337,39 @@ public class SchemaTableTree {
         this.rootAliasCounter = 1;
     }
 
+    /**
+     * @return a copy of the alias maps of the last constructed sql, to load its result after other sql has been constructed.
+     */
+    public AliasMapHolder copyColumnAliasMaps() {
+        return this.aliasMapHolder.copy();
+    }
+
+    public void restoreColumnAliasMaps(AliasMapHolder aliasMapHolder) {
+        this.aliasMapHolder.clear();
+        this.aliasMapHolder.getColumnNameAliasMap().putAll(aliasMapHolder.getColumnNameAliasMap());
+        this.aliasMapHolder.getAliasColumnNameMap().putAll(aliasMapHolder.getAliasColumnNameMap());
+    }
+
+    /**
+     * Bulk within and without join on a temporary table that only exists on the transaction's connection.
+     *
+     * @return true if any node in the tree uses a temporary table.
+     */
+    public boolean usesTemporaryTables() {
+        if (!this.sqlgGraph.getSqlDialect().supportsBulkWithinOut()) {
+            return false;
+        }
+        if (hasBulkWithinOrOut(this.sqlgGraph)) {
+            return true;
+        }
+        for (SchemaTableTree child : this.children) {
+            if (child.usesTemporaryTables()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private boolean containsLabelledColumn(String columnName) {
         if (columnName.startsWith(this.stepDepth + ALIAS_SEPARATOR + this.reducedLabels() + ALIAS_SEPARATOR)) {
             String column = columnName.substring((this.stepDepth + ALIAS_SEPARATOR + this.reducedLabels() + ALIAS_SEPARATOR).length());
@@ -323,38 +388,273 @@ public class SchemaTableTree {
 
     public String constructSql(LinkedList<SchemaTableTree> distinctQueryStack) {
         Preconditions.checkState(this.parent == null, CONSTRUCT_SQL_MAY_ONLY_BE_CALLED_ON_THE_ROOT_OBJECT);
-        //If the same element occurs multiple times in the stack then the sql needs to be different.
-        //This is because the same element can not be joined on more than once in sql
-        //The way to overcome this is to break up the path in select sections with no duplicates and then join them together.
-        if (duplicatesInStack(distinctQueryStack)) {
-            List<LinkedList<SchemaTableTree>> subQueryStacks = splitIntoSubStacks(distinctQueryStack);
-            return constructDuplicatePathSql(this.sqlgGraph, subQueryStacks);
-        } else {
-            //If there are no duplicates in the path then one select statement will suffice.
-            return constructSinglePathSql(this.sqlgGraph, false, distinctQueryStack, null, null);
+        return cachedSql("regular", distinctQueryStack, Collections.emptySet(), () -> {
+            //If the same element occurs multiple times in the stack then the sql needs to be different.
+            //This is because the same element can not be joined on more than once in sql
+            //The way to overcome this is to break up the path in select sections with no duplicates and then join them together.
+            if (duplicatesInStack(distinctQueryStack)) {
+                List<LinkedList<SchemaTableTree>> subQueryStacks = splitIntoSubStacks(distinctQueryStack);
+                return constructDuplicatePathSql(this.sqlgGraph, subQueryStacks);
+            } else {
+                //If there are no duplicates in the path then one select statement will suffice.
+                return constructSinglePathSql(this.sqlgGraph, false, distinctQueryStack, null, null);
+            }
+        });
+    }
+
+    /**
+     * Only single path queries without order or range can be merged, their columns are exactly the aliased columns.
+     *
+     * @return true if the regular query of the stack can be part of a {@link UnionSql}.
+     */
+    public boolean isUnionMergeable(LinkedList<SchemaTableTree> distinctQueryStack) {
+        return this.sqlgGraph.getSqlDialect().supportsUnionAll() && !duplicatesInStack(distinctQueryStack) &&
+                distinctQueryStack.stream().allMatch(s -> s.comparators.isEmpty() && s.range == null);
+    }
+
+    /**
+     * @return the number of columns the regular query of the stack adds to every select of a {@link UnionSql}.
+     */
+    public int unionColumnCount(LinkedList<SchemaTableTree> distinctQueryStack) {
+        Preconditions.checkState(this.parent == null, CONSTRUCT_SQL_MAY_ONLY_BE_CALLED_ON_THE_ROOT_OBJECT);
+        resetColumnAliasMaps();
+        constructSql(distinctQueryStack);
+        return this.aliasMapHolder.getAliasColumnNameMap().size();
+    }
+
+    /**
+     * Merges the regular queries of the stacks into one UNION ALL statement.
+     * Every select has the columns of all the queries, the columns of the other queries are NULL cast to their sql type.
+     * The parameters of the statement are those of each query in turn.
+     */
+    public UnionSql constructUnionSql(List<LinkedList<SchemaTableTree>> distinctQueryStacks) {
+        Preconditions.checkState(this.parent == null, CONSTRUCT_SQL_MAY_ONLY_BE_CALLED_ON_THE_ROOT_OBJECT);
+        SqlDialect sqlDialect = this.sqlgGraph.getSqlDialect();
+        List<String> sqls = new ArrayList<>();
+        List<List<String>> aliases = new ArrayList<>();
+        List<List<String>> sqlTypes = new ArrayList<>();
+        List<AliasMapHolder> aliasMaps = new ArrayList<>();
+        for (int i = 0; i < distinctQueryStacks.size(); i++) {
+            resetColumnAliasMaps();
+            sqls.add(constructSql(distinctQueryStacks.get(i)));
+            aliases.add(new ArrayList<>(this.aliasMapHolder.getAliasColumnNameMap().keySet()));
+            sqlTypes.add(aliases.get(i).stream().map(this::aliasSqlType).collect(Collectors.toList()));
+            aliasMaps.add(this.aliasMapHolder.prefixed(UnionSql.prefix(i)));
+        }
+        resetColumnAliasMaps();
+        StringBuilder sql = new StringBuilder();
+        for (int i = 0; i < sqls.size(); i++) {
+            if (i > 0) {
+                sql.append("\nUNION ALL\n");
+            }
+            sql.append("SELECT ").append(i).append(" AS ").append(sqlDialect.maybeWrapInQoutes(UnionSql.UNION_DISCRIMINATOR));
+            if (isParentIdBatch()) {
+                sql.append(", u.").append(sqlDialect.maybeWrapInQoutes(PARENT_ID_ALIAS));
+            }
+            for (int j = 0; j < sqls.size(); j++) {
+                for (int k = 0; k < aliases.get(j).size(); k++) {
+                    String alias = aliases.get(j).get(k);
+                    sql.append(", ");
+                    if (i == j) {
+                        sql.append("u.").append(sqlDialect.maybeWrapInQoutes(alias));
+                    } else {
+                        sql.append("CAST(NULL AS ").append(sqlTypes.get(j).get(k)).append(")");
+                    }
+                    sql.append(" AS ").append(sqlDialect.maybeWrapInQoutes(UnionSql.prefix(j) + alias));
+                }
+            }
+            sql.append(" FROM (\n").append(sqls.get(i)).append("\n) u");
         }
+        return new UnionSql(sql.toString(), distinctQueryStacks, aliasMaps);
     }
 
-    public String constructSqlForOptional(LinkedList<SchemaTableTree> innerJoinStack, Set<SchemaTableTree> leftJoinOn) {
+    /**
+     * The aliased column is a property, one of the extra columns of a property or else an id or foreign key.
+     *
+     * @return the sql type of the aliased column.
+     */
+    private String aliasSqlType(String alias) {
+        SqlDialect sqlDialect = this.sqlgGraph.getSqlDialect();
+        List<String> columnName = Splitter.on(ALIAS_SEPARATOR).splitToList(this.aliasMapHolder.getAliasColumnNameMap().get(alias));
+        String column = columnName.get(columnName.size() - 1);
+        Map<String, PropertyType> propertyTypeMap = getFilteredAllTables().get(
+                columnName.get(columnName.size() - 3) + "." + columnName.get(columnName.size() - 2));
+        if (propertyTypeMap != null) {
+            PropertyType propertyType = propertyTypeMap.get(column);
+            if (propertyType != null) {
+                return sqlDialect.propertyTypeToSqlDefinition(propertyType)[0];
+            }
+            for (Map.Entry<String, PropertyType> property : propertyTypeMap.entrySet()) {
+                String[] postFixes = property.getValue().getPostFixes();
+                for (int i = 0; i < postFixes.length; i++) {
+                    if (column.equals(property.getKey() + postFixes[i])) {
+                        return sqlDialect.propertyTypeToSqlDefinition(property.getValue())[i + 1];
+                    }
+                }
+            }
+        }
+        return sqlDialect.propertyTypeToSqlDefinition(PropertyType.LONG)[0];
+    }
+
+    /**
+     * Wraps the regular query of the stack in the aggregate.
+     * A duplicate path query only selects the aggregated column from its sub queries as the outer select repeats the leaf's columns.
+     *
+     * @return null if the query can not contribute to the aggregate as its elements do not have the aggregated property.
+     */
+    public String constructAggregateSql(LinkedList<SchemaTableTree> distinctQueryStack, Aggregate aggregate) {
         Preconditions.checkState(this.parent == null, CONSTRUCT_SQL_MAY_ONLY_BE_CALLED_ON_THE_ROOT_OBJECT);
-        if (duplicatesInStack(innerJoinStack)) {
-            List<LinkedList<SchemaTableTree>> subQueryStacks = splitIntoSubStacks(innerJoinStack);
-            return constructDuplicatePathSql(this.sqlgGraph, subQueryStacks, leftJoinOn);
-        } else {
-            //If there are no duplicates in the path then one select statement will suffice.
-            return constructSinglePathSql(this.sqlgGraph, false, innerJoinStack, null, null, leftJoinOn);
+        SchemaTableTree leaf = distinctQueryStack.getLast();
+        String propertyKey = aggregate.getPropertyKey();
+        PropertyType propertyType = propertyKey != null ? leaf.getFilteredAllTables().get(leaf.getSchemaTable().toString()).get(propertyKey) : null;
+        if (propertyKey != null && propertyType == null && !aggregate.isRequireProperty()) {
+            return null;
+        }
+        if (propertyType != null && !aggregate.supports(propertyType)) {
+            throw new IllegalStateException(String.format("%s can not be aggregated by %s", propertyType.name(), aggregate));
         }
+        return cachedSql("aggregate " + aggregate + aggregate.isRequireProperty(), distinctQueryStack, Collections.emptySet(), () -> {
+            SqlDialect sqlDialect = this.sqlgGraph.getSqlDialect();
+            String sql;
+            String keyAlias;
+            if (duplicatesInStack(distinctQueryStack)) {
+                List<LinkedList<SchemaTableTree>> subQueryStacks = splitIntoSubStacks(distinctQueryStack);
+                String fromClause = constructDuplicatePathFromClause(this.sqlgGraph, subQueryStacks, Collections.emptySet());
+                keyAlias = propertyType != null ? leaf.labeledMappedAliasPropertyNameForOuterFromClause(propertyKey, getColumnNameAliasMap()) :
+                        leaf.labeledMappedAliasIdForOuterFromClause(getColumnNameAliasMap());
+                Preconditions.checkState(keyAlias != null, "the aggregated column of %s is not selected", aggregate);
+                sql = "SELECT\n\ta" + subQueryStacks.size() + "." + sqlDialect.maybeWrapInQoutes(keyAlias) + " AS " + sqlDialect.maybeWrapInQoutes(keyAlias) + fromClause;
+            } else {
+                sql = constructSinglePathSql(this.sqlgGraph, false, distinctQueryStack, null, null);
+                keyAlias = propertyType != null ? leaf.labeledMappedAliasPropertyNameForOuterFromClause(propertyKey, getColumnNameAliasMap()) : null;
+                Preconditions.checkState(propertyType == null || keyAlias != null, "the aggregated column of %s is not selected", aggregate);
+            }
+            return aggregate.toSql(sqlDialect, sql, propertyType != null ? keyAlias : null, propertyType);
+        });
+    }
+
+    public String constructSqlForOptional(LinkedList<SchemaTableTree> innerJoinStack, Set<SchemaTableTree> leftJoinOn) {
+        Preconditions.checkState(this.parent == null, CONSTRUCT_SQL_MAY_ONLY_BE_CALLED_ON_THE_ROOT_OBJECT);
+        return cachedSql("optional", innerJoinStack, leftJoinOn, () -> {
+            if (duplicatesInStack(innerJoinStack)) {
+                List<LinkedList<SchemaTableTree>> subQueryStacks = splitIntoSubStacks(innerJoinStack);
+                return constructDuplicatePathSql(this.sqlgGraph, subQueryStacks, leftJoinOn);
+            } else {
+                //If there are no duplicates in the path then one select statement will suffice.
+                return constructSinglePathSql(this.sqlgGraph, false, innerJoinStack, null, null, leftJoinOn);
+            }
+        });
     }
 
     public String constructSqlForEmit(LinkedList<SchemaTableTree> innerJoinStack) {
         Preconditions.checkState(this.parent == null, CONSTRUCT_SQL_MAY_ONLY_BE_CALLED_ON_THE_ROOT_OBJECT);
-        if (duplicatesInStack(innerJoinStack)) {
-            List<LinkedList<SchemaTableTree>> subQueryStacks = splitIntoSubStacks(innerJoinStack);
-            return constructDuplicatePathSql(this.sqlgGraph, subQueryStacks);
-        } else {
-            //If there are no duplicates in the path then one select statement will suffice.
-            return constructSinglePathSql(this.sqlgGraph, false, innerJoinStack, null, null);
+        return cachedSql("emit", innerJoinStack, Collections.emptySet(), () -> {
+            if (duplicatesInStack(innerJoinStack)) {
+                List<LinkedList<SchemaTableTree>> subQueryStacks = splitIntoSubStacks(innerJoinStack);
+                return constructDuplicatePathSql(this.sqlgGraph, subQueryStacks);
+            } else {
+                //If there are no duplicates in the path then one select statement will suffice.
+                return constructSinglePathSql(this.sqlgGraph, false, innerJoinStack, null, null);
+            }
+        });
+    }
+
+    /**
+     * Looks up the sql for the query stack in the {@link SqlPlanCache}.
+     * On a hit the alias maps are restored from the cached plan, on a miss the sql is generated and cached.
+     * The alias maps must be empty when this is called.
+     */
+    private String cachedSql(String queryType, LinkedList<SchemaTableTree> queryStack, Set<SchemaTableTree> leftJoinOn, Supplier<String> sqlSupplier) {
+        SqlPlanCache sqlPlanCache = this.sqlgGraph.getSqlPlanCache();
+        //uncommitted topology changes are only visible to the thread holding the topology lock.
+        if (!sqlPlanCache.isEnabled() || this.topologyFiltered || this.sqlgGraph.getTopology().isWriteLockHeldByCurrentThread()) {
+            return sqlSupplier.get();
+        }
+        StringBuilder key = new StringBuilder();
+        key.append(queryType).append(this.sqlgGraph.getTopology().getVersion()).append(':').append(isParentIdBatch()).append(SqlgUtil.parentIdParameterCount(this.sqlgGraph.getSqlDialect(), this.parentIdBatchSize));
+        for (SchemaTableTree schemaTableTree : queryStack) {
+            if (!schemaTableTree.appendPlanKey(key)) {
+                return sqlSupplier.get();
+            }
+        }
+        key.append("|leftJoin");
+        for (SchemaTableTree schemaTableTree : leftJoinOn) {
+            if (!schemaTableTree.appendPlanKey(key)) {
+                return sqlSupplier.get();
+            }
+        }
+        String planKey = key.toString();
+        SqlPlanCache.SqlPlan sqlPlan = sqlPlanCache.get(planKey);
+        if (sqlPlan != null) {
+            this.aliasMapHolder.getColumnNameAliasMap().putAll(sqlPlan.getColumnNameAliasMap());
+            this.aliasMapHolder.getAliasColumnNameMap().putAll(sqlPlan.getAliasColumnNameMap());
+            this.rootAliasCounter = sqlPlan.getRootAliasCounter();
+            return sqlPlan.getSql();
         }
+        String sql = sqlSupplier.get();
+        sqlPlanCache.put(planKey, new SqlPlanCache.SqlPlan(sql, this.aliasMapHolder.getColumnNameAliasMap(), this.aliasMapHolder.getAliasColumnNameMap(), this.rootAliasCounter));
+        return sql;
+    }
+
+    /**
+     * Appends everything that the generated sql depends on for this node, except for the has container values.
+     *
+     * @return false if the sql can not be cached, i.e. it depends on the values.
+     */
+    private boolean appendPlanKey(StringBuilder key) {
+        key.append('|').append(this.schemaTable.getSchema()).append('.').append(this.schemaTable.getTable())
+                .append(',').append(this.stepType).append(',').append(this.direction)
+                .append(',').append(this.stepDepth).append(',').append(this.replacedStepDepth)
+                .append(',').append(this.labels)
+                .append(',').append(this.emit).append(this.untilFirst).append(this.optionalLeftJoin).append(this.localStep).append(this.fakeEmit);
+        for (HasContainer hasContainer : this.hasContainers) {
+            key.append(",has:").append(hasContainer.getKey()).append(':');
+            P<?> p = hasContainer.getPredicate();
+            if (p instanceof ConnectiveP) {
+                key.append(p.getClass().getSimpleName());
+                for (P<?> predicate : ((ConnectiveP<?>) p).getPredicates()) {
+                    key.append(':').append(predicate.getBiPredicate());
+                }
+            } else if (p.getBiPredicate() instanceof Contains) {
+                //the bulk within joins on a temporary table that is loaded while the sql is constructed
+                if (this.sqlgGraph.getSqlDialect().supportsBulkWithinOut() && SqlgUtil.isBulkWithinAndOut(this.sqlgGraph, hasContainer)) {
+                    return false;
+                }
+                if (SqlgUtil.isWithinArray(this.sqlgGraph, hasContainer)) {
+                    key.append(p.getBiPredicate()).append(":array");
+                } else {
+                    key.append(p.getBiPredicate()).append(':').append(((Collection<?>) p.getValue()).size());
+                }
+            } else if (p.getBiPredicate() instanceof Compare || p.getBiPredicate() instanceof Text) {
+                key.append(p.getBiPredicate());
+            } else {
+                return false;
+            }
+        }
+        for (org.javatuples.Pair<Traversal.Admin, Comparator> comparator : this.comparators) {
+            key.append(",order:");
+            if (comparator.getValue1() instanceof ElementValueComparator) {
+                ElementValueComparator elementValueComparator = (ElementValueComparator) comparator.getValue1();
+                if (!(elementValueComparator.getValueComparator() instanceof Order)) {
+                    return false;
+                }
+                key.append(elementValueComparator.getPropertyKey()).append(':').append(elementValueComparator.getValueComparator());
+            } else if (comparator.getValue1() instanceof Order) {
+                key.append(comparator.getValue0()).append(':').append(comparator.getValue1());
+            } else {
+                return false;
+            }
+        }
+        if (this.range != null) {
+            key.append(",range:").append(this.range.getMinimum()).append(':').append(this.range.getMaximum());
+        }
+        if (this.restrictedProperties != null) {
+            key.append(",properties:").append(new TreeSet<>(this.restrictedProperties));
+        }
+        if (this.distinct) {
+            key.append(",distinct:").append(this.distinctOnKey);
+        }
+        return true;
     }
 
     /**
@@ -453,6 +753,22 @@ public class SchemaTableTree {
      * As the path contains the same label more than once it existVertexLabel been split into a List of Stacks.
      */
     private static String constructDuplicatePathSql(SqlgGraph sqlgGraph, List<LinkedList<SchemaTableTree>> subQueryLinkedLists, Set<SchemaTableTree> leftJoinOn) {
+        String singlePathSql = constructDuplicatePathFromClause(sqlgGraph, subQueryLinkedLists, leftJoinOn);
+        SchemaTableTree root = subQueryLinkedLists.get(0).getFirst();
+        SchemaTableTree leaf = subQueryLinkedLists.get(subQueryLinkedLists.size() - 1).getLast();
+        String result = "SELECT" + root.selectDistinct(leaf, () -> "a" + subQueryLinkedLists.size() + "." +
+                sqlgGraph.getSqlDialect().maybeWrapInQoutes(leaf.labeledMappedAliasPropertyNameForOuterFromClause(root.distinctOnKey, root.getColumnNameAliasMap())));
+        result += "\n\t" + constructOuterFromClause(subQueryLinkedLists);
+        if (subQueryLinkedLists.get(0).getFirst().isParentIdBatch()) {
+            result += ", a1." + sqlgGraph.getSqlDialect().maybeWrapInQoutes(PARENT_ID_ALIAS);
+        }
+        return result + singlePathSql;
+    }
+
+    /**
+     * The from clause of a duplicate path statement, the sub queries are aliased a1 to an.
+     */
+    private static String constructDuplicatePathFromClause(SqlgGraph sqlgGraph, List<LinkedList<SchemaTableTree>> subQueryLinkedLists, Set<SchemaTableTree> leftJoinOn) {
         String singlePathSql = "\nFROM (";
         int count = 1;
         SchemaTableTree lastOfPrevious = null;
@@ -486,8 +802,7 @@ public class SchemaTableTree {
             lastOfPrevious = subQueryLinkedList.getLast();
         }
         singlePathSql += constructOuterOrderByClause(sqlgGraph, subQueryLinkedLists);
-        String result = "SELECT\n\t" + constructOuterFromClause(subQueryLinkedLists);
-        return result + singlePathSql;
+        return singlePathSql;
     }
 
     private static String constructOuterFromClause(List<LinkedList<SchemaTableTree>> subQueryLinkedLists) {
@@ -559,7 +874,7 @@ public class SchemaTableTree {
 
     private String printOuterFromClause(int count, Map<String, String> columnNameAliasMapCopy, SchemaTableTree previousSchemaTableTree) {
         String sql = "";
-        Map<String, PropertyType> propertyTypeMap = this.getFilteredAllTables().get(this.toString());
+        Map<String, PropertyType> propertyTypeMap = this.getSelectedPropertyTypeMap();
         Optional<String> optional = this.lastMappedAliasIdForOuterFrom(columnNameAliasMapCopy);
         if (optional.isPresent()) {
             sql = "a" + count + "." + this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(optional.get());
@@ -658,9 +973,17 @@ public class SchemaTableTree {
             SchemaTableTree firstOfNextStack,
             Set<SchemaTableTree> leftJoinOn) {
 
-        String singlePathSql = "\nSELECT\n\t";
         SchemaTableTree firstSchemaTableTree = distinctQueryStack.getFirst();
         SchemaTable firstSchemaTable = firstSchemaTableTree.getSchemaTable();
+        String singlePathSql = "\nSELECT";
+        if (!partOfDuplicateQuery) {
+            SchemaTableTree leaf = distinctQueryStack.getLast();
+            singlePathSql += firstSchemaTableTree.selectDistinct(leaf, () ->
+                    sqlgGraph.getSqlDialect().maybeWrapInQoutes(leaf.getSchemaTable().getSchema()) + "." +
+                            sqlgGraph.getSqlDialect().maybeWrapInQoutes(leaf.getSchemaTable().getTable()) + "." +
+                            sqlgGraph.getSqlDialect().maybeWrapInQoutes(firstSchemaTableTree.distinctOnKey));
+        }
+        singlePathSql += "\n\t";
         singlePathSql += constructFromClause(sqlgGraph, distinctQueryStack, lastOfPrevious, firstOfNextStack);
         singlePathSql += "\nFROM\n\t";
         singlePathSql += sqlgGraph.getSqlDialect().maybeWrapInQoutes(firstSchemaTableTree.getSchemaTable().getSchema());
@@ -703,7 +1026,17 @@ public class SchemaTableTree {
             singlePathSql += ".";
             singlePathSql += sqlgGraph.getSqlDialect().maybeWrapInQoutes(firstSchemaTable.getTable());
             singlePathSql += "." + sqlgGraph.getSqlDialect().maybeWrapInQoutes(SchemaManager.ID);
-            singlePathSql += " = ? ";
+            if (firstSchemaTableTree.isParentIdBatch() && sqlgGraph.getSqlDialect().supportsWithinArrayParameter()) {
+                singlePathSql += " = ANY(?) ";
+            } else if (firstSchemaTableTree.isParentIdBatch()) {
+                singlePathSql += " IN (";
+                for (int i = 0; i < SqlgUtil.parentIdParameterCount(sqlgGraph.getSqlDialect(), firstSchemaTableTree.parentIdBatchSize); i++) {
+                    singlePathSql += (i == 0 ? "?" : ", ?");
+                }
+                singlePathSql += ") ";
+            } else {
+                singlePathSql += " = ? ";
+            }
         }
 
 
@@ -760,12 +1093,11 @@ public class SchemaTableTree {
                 throw new UnsupportedOperationException("Only Contains.within and Contains.without is supported!");
             }
 
-            SecureRandom random = new SecureRandom();
-            byte bytes[] = new byte[6];
-            random.nextBytes(bytes);
-            String tmpTableIdentified = Base64.getEncoder().encodeToString(bytes);
-            tmpTableIdentified = SchemaManager.VERTEX_PREFIX + SchemaManager.BULK_TEMP_EDGE + tmpTableIdentified;
-            sqlgGraph.getTopology().createTempTable(tmpTableIdentified, columns);
+            //the temporary tables are reused, one per join of the query and value type
+            Map.Entry<String, PropertyType> column = columns.entrySet().iterator().next();
+            String tmpTableIdentified = SchemaManager.VERTEX_PREFIX + SchemaManager.BULK_TEMP_EDGE + column.getKey() + "_" +
+                    column.getValue().name() + "_" + this.rootSchemaTableTree().tmpTableAliasCounter;
+            sqlgGraph.tx().readyReusableTemporaryTable(tmpTableIdentified, columns);
 
             Map<String, Object> withInOutMap = new HashMap<>();
             if (hasContainer.getBiPredicate() == Contains.within) {
@@ -1091,6 +1423,12 @@ public class SchemaTableTree {
         ColumnList columnList = new ColumnList(sqlgGraph);
         boolean printedId = false;
 
+        //for a batch of incoming elements the incoming element's id is needed to route the row back to its traverser.
+        //stepDepth -1 keeps it distinct from the same column selected for a label.
+        if (previousSchemaTableTree == null && firstSchemaTableTree.isParentIdBatch()) {
+            columnList.add(firstSchemaTable, SchemaManager.ID, -1, PARENT_ID_ALIAS);
+        }
+
         //join to the previous label/table
         if (previousSchemaTableTree != null && firstSchemaTable.getTable().startsWith(SchemaManager.EDGE_PREFIX)) {
             if (!previousSchemaTableTree.getSchemaTable().getTable().startsWith(SchemaManager.VERTEX_PREFIX)) {
@@ -1199,7 +1537,7 @@ public class SchemaTableTree {
 
     private String printLabeledOuterFromClause(String sql, int counter, Map<String, String> columnNameAliasMapCopy) {
         sql += " a" + counter + "." + this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(this.labeledMappedAliasIdForOuterFromClause(columnNameAliasMapCopy));
-        Map<String, PropertyType> propertyTypeMap = this.getFilteredAllTables().get(this.getSchemaTable().toString());
+        Map<String, PropertyType> propertyTypeMap = this.getSelectedPropertyTypeMap();
         if (!propertyTypeMap.isEmpty()) {
             sql += ", ";
         }
@@ -1254,12 +1592,29 @@ public class SchemaTableTree {
         cols.add(schemaTableTree, SchemaManager.ID, schemaTableTree.calculatedAliasId());
     }
 
+    /**
+     * @return the properties of this node's table to select, only the restricted properties if the traversal uses no others.
+     */
+    private Map<String, PropertyType> getSelectedPropertyTypeMap() {
+        Map<String, PropertyType> propertyTypeMap = this.getFilteredAllTables().get(this.getSchemaTable().toString());
+        if (this.restrictedProperties == null) {
+            return propertyTypeMap;
+        }
+        Map<String, PropertyType> result = new LinkedHashMap<>();
+        for (Map.Entry<String, PropertyType> propertyTypeMapEntry : propertyTypeMap.entrySet()) {
+            if (this.restrictedProperties.contains(propertyTypeMapEntry.getKey())) {
+                result.put(propertyTypeMapEntry.getKey(), propertyTypeMapEntry.getValue());
+            }
+        }
+        return result;
+    }
+
     private static void printIDFromClauseFor(SchemaTableTree lastSchemaTableTree, ColumnList cols) {
         cols.add(lastSchemaTableTree, SchemaManager.ID, lastSchemaTableTree.calculatedAliasId());
     }
 
     private static void printFromClauseFor(SchemaTableTree lastSchemaTableTree, ColumnList cols) {
-        Map<String, PropertyType> propertyTypeMap = lastSchemaTableTree.getFilteredAllTables().get(lastSchemaTableTree.getSchemaTable().toString());
+        Map<String, PropertyType> propertyTypeMap = lastSchemaTableTree.getSelectedPropertyTypeMap();
         for (Map.Entry<String, PropertyType> propertyTypeMapEntry : propertyTypeMap.entrySet()) {
             String alias = lastSchemaTableTree.calculateAliasPropertyName(propertyTypeMapEntry.getKey());
             cols.add(lastSchemaTableTree, propertyTypeMapEntry.getKey(), alias);
@@ -1271,7 +1626,7 @@ public class SchemaTableTree {
     }
 
     private String printLabeledOuterFromClauseFor(String sql, int counter, Map<String, String> columnNameAliasMapCopy) {
-        Map<String, PropertyType> propertyTypeMap = this.getFilteredAllTables().get(this.getSchemaTable().toString());
+        Map<String, PropertyType> propertyTypeMap = this.getSelectedPropertyTypeMap();
         int count = 1;
         for (String propertyName : propertyTypeMap.keySet()) {
             sql += " a" + counter + ".";
@@ -1295,7 +1650,7 @@ public class SchemaTableTree {
     }
 
     private static void printLabeledFromClauseFor(SchemaTableTree lastSchemaTableTree, ColumnList cols) {
-        Map<String, PropertyType> propertyTypeMap = lastSchemaTableTree.getFilteredAllTables().get(lastSchemaTableTree.getSchemaTable().toString());
+        Map<String, PropertyType> propertyTypeMap = lastSchemaTableTree.getSelectedPropertyTypeMap();
         for (Map.Entry<String, PropertyType> propertyTypeMapEntry : propertyTypeMap.entrySet()) {
             String col = propertyTypeMapEntry.getKey();
             String alias = cols.getAlias(lastSchemaTableTree, col);
@@ -2039,35 +2394,62 @@ public class SchemaTableTree {
     }
 
     public void loadProperty(ResultSet resultSet, SqlgElement sqlgElement) throws SQLException {
-        for (int ix = 1; ix <= resultSet.getMetaData().getColumnCount(); ix++) {
+        if (this.loadColumnIndexes == null) {
+            initializeLoadColumns(resultSet.getMetaData());
+        }
+        if (this.restrictedProperties != null) {
+            sqlgElement.loadProjection(this.restrictedProperties);
+        }
+        Map<String, String> columnNameAliasMap = getColumnNameAliasMap();
+        for (int i = 0; i < this.loadColumnIndexes.length; i++) {
+            if (this.loadInVertexSchemaTables[i] != null) {
+                ((SqlgEdge) sqlgElement).loadInVertex(resultSet, this.loadInVertexSchemaTables[i], this.loadColumnIndexes[i]);
+            } else if (this.loadOutVertexSchemaTables[i] != null) {
+                ((SqlgEdge) sqlgElement).loadOutVertex(resultSet, this.loadOutVertexSchemaTables[i], this.loadColumnIndexes[i]);
+            } else {
+                sqlgElement.loadPropertyValue(resultSet, this.loadPropertyNames[i], this.loadColumnIndexes[i], columnNameAliasMap, this.stepDepth, this.loadPropertyTypes[i]);
+            }
+        }
+    }
 
-            //for (Map.Entry<String, Pair<String, PropertyType>> entry : getColumnNamePropertyName().entrySet()) {
-            String columnName = resultSet.getMetaData().getColumnLabel(ix);//entry.getKey();
-            Pair<String, PropertyType> p = getColumnNamePropertyName().get(columnName);
+    /**
+     * Resolves the result set's columns to this SchemaTableTree's properties once,
+     * so that loading a row does not have to look at the column labels.
+     */
+    private void initializeLoadColumns(ResultSetMetaData resultSetMetaData) throws SQLException {
+        List<Integer> columnIndexes = new ArrayList<>();
+        List<String> propertyNames = new ArrayList<>();
+        List<PropertyType> propertyTypes = new ArrayList<>();
+        List<SchemaTable> inVertexSchemaTables = new ArrayList<>();
+        List<SchemaTable> outVertexSchemaTables = new ArrayList<>();
+        Map<String, Pair<String, PropertyType>> columnNamePropertyNames = getColumnNamePropertyName();
+        for (int ix = 1; ix <= resultSetMetaData.getColumnCount(); ix++) {
+            Pair<String, PropertyType> p = columnNamePropertyNames.get(resultSetMetaData.getColumnLabel(ix));
             if (p != null) {
                 String propertyName = p.getKey();
-                PropertyType propertyType = p.getValue();
-
-                //make sure that if we request an array-backed type, we do it using
-                //the getArray() call. Don't bother for byte arrays, because they are
-                //handled differently by all supported DBs, so getObject() on them
-                //works.
-//                Object o = (propertyType != null && propertyType.isArray()
-//                        && propertyType != PropertyType.byte_ARRAY
-//                        && propertyType != PropertyType.BYTE_ARRAY)
-//                        ? resultSet.getArray(ix)
-//                        : resultSet.getObject(ix);
-//                if (!Objects.isNull(o)) {
+                SchemaTable inVertexSchemaTable = null;
+                SchemaTable outVertexSchemaTable = null;
                 if (propertyName.endsWith(SchemaManager.IN_VERTEX_COLUMN_END)) {
-                    ((SqlgEdge) sqlgElement).loadInVertex(resultSet, propertyName, ix);
+                    SchemaTable schemaTable = SchemaTable.from(this.sqlgGraph, propertyName);
+                    inVertexSchemaTable = SchemaTable.of(schemaTable.getSchema(), SqlgUtil.removeTrailingInId(schemaTable.getTable()));
                 } else if (propertyName.endsWith(SchemaManager.OUT_VERTEX_COLUMN_END)) {
-                    ((SqlgEdge) sqlgElement).loadOutVertex(resultSet, propertyName, ix);
-                } else {
-                    sqlgElement.loadProperty(resultSet, propertyName, ix, getColumnNameAliasMap(), this.stepDepth, propertyType);
+                    SchemaTable schemaTable = SchemaTable.from(this.sqlgGraph, propertyName);
+                    outVertexSchemaTable = SchemaTable.of(schemaTable.getSchema(), SqlgUtil.removeTrailingOutId(schemaTable.getTable()));
+                } else if (SqlgElement.isPostFixColumn(propertyName)) {
+                    continue;
                 }
-//                }
+                columnIndexes.add(ix);
+                propertyNames.add(propertyName);
+                propertyTypes.add(p.getValue());
+                inVertexSchemaTables.add(inVertexSchemaTable);
+                outVertexSchemaTables.add(outVertexSchemaTable);
             }
         }
+        this.loadColumnIndexes = columnIndexes.stream().mapToInt(Integer::intValue).toArray();
+        this.loadPropertyNames = propertyNames.toArray(new String[propertyNames.size()]);
+        this.loadPropertyTypes = propertyTypes.toArray(new PropertyType[propertyTypes.size()]);
+        this.loadInVertexSchemaTables = inVertexSchemaTables.toArray(new SchemaTable[inVertexSchemaTables.size()]);
+        this.loadOutVertexSchemaTables = outVertexSchemaTables.toArray(new SchemaTable[outVertexSchemaTables.size()]);
     }
 
     public void clearColumnNamePropertNameMap() {
@@ -2075,6 +2457,7 @@ public class SchemaTableTree {
             this.columnNamePropertyName.clear();
             this.columnNamePropertyName = null;
         }
+        this.loadColumnIndexes = null;
     }
 
     public String idProperty() {
@@ -2092,6 +2475,59 @@ public class SchemaTableTree {
         this.localStep = localStep;
     }
 
+    /**
+     * Sets the number of incoming element ids the root's where clause is for.
+     * Only applicable to vertex step queries.
+     */
+    public void setParentIdBatchSize(int parentIdBatchSize) {
+        Preconditions.checkState(this.parent == null, "setParentIdBatchSize may only be called on the root object");
+        this.parentIdBatchSize = parentIdBatchSize;
+    }
+
+    private boolean isParentIdBatch() {
+        return this.parent == null && this.stepType != STEP_TYPE.GRAPH_STEP && this.parentIdBatchSize > 1;
+    }
+
+    void setDistinct(boolean distinct, String distinctOnKey) {
+        Preconditions.checkState(this.parent == null, "setDistinct may only be called on the root object");
+        this.distinct = distinct;
+        this.distinctOnKey = distinctOnKey;
+    }
+
+    /**
+     * @param distinctOnColumn returns the key's column of the leaf, only called if the leaf has the key.
+     * @return the DISTINCT or DISTINCT ON clause to follow SELECT, empty if the rows need not be distinct.
+     */
+    private String selectDistinct(SchemaTableTree leaf, Supplier<String> distinctOnColumn) {
+        if (!this.distinct) {
+            return "";
+        }
+        if (this.distinctOnKey != null) {
+            PropertyType propertyType = leaf.getFilteredAllTables().get(leaf.getSchemaTable().toString()).get(this.distinctOnKey);
+            //properties stored in more than one column are not distinct on their first column
+            if (propertyType != null && propertyType.getPostFixes().length == 0) {
+                return " DISTINCT ON (" + distinctOnColumn.get() + ")";
+            }
+        }
+        return " DISTINCT";
+    }
+
+    /**
+     * Restricts the properties selected for the leaf nodes to the given properties.
+     * Emitted leaf nodes are not restricted as the traversal continues from them.
+     */
+    void setRestrictedProperties(Set<String> restrictedProperties) {
+        Preconditions.checkState(this.parent == null, "setRestrictedProperties may only be called on the root object");
+        if (restrictedProperties == null) {
+            return;
+        }
+        for (SchemaTableTree leafNode : this.leafNodes) {
+            if (leafNode.getStepDepth() == this.replacedStepDepth && !leafNode.isEmit()) {
+                leafNode.restrictedProperties = restrictedProperties;
+            }
+        }
+    }
+
     public boolean isFakeEmit() {
         return fakeEmit;
     }
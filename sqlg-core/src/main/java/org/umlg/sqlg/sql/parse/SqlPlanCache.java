@@ -0,0 +1,87 @@
+package org.umlg.sqlg.sql.parse;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.umlg.sqlg.structure.SqlgGraph;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Caches the generated sql of a query stack together with its alias maps.
+ * The key is the shape of the query stack, i.e. without the values of the has containers, and the topology version.
+ * Only parameter binding remains to be done on a cache hit.
+ * <p>
+ * Date: 2026/10/17
+ * Time: 2:05 PM
+ */
+public class SqlPlanCache {
+
+    //The maximum number of cached sql plans. 0 disables the cache.
+    public static final String QUERY_PLAN_CACHE_SIZE = "query.plan.cache.size";
+    private static final int DEFAULT_QUERY_PLAN_CACHE_SIZE = 1000;
+
+    private final Cache<String, SqlPlan> cache;
+
+    public SqlPlanCache(SqlgGraph sqlgGraph) {
+        int size = sqlgGraph.configuration().getInt(QUERY_PLAN_CACHE_SIZE, DEFAULT_QUERY_PLAN_CACHE_SIZE);
+        if (size > 0) {
+            this.cache = CacheBuilder.newBuilder().maximumSize(size).build();
+        } else {
+            this.cache = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return this.cache != null;
+    }
+
+    SqlPlan get(String key) {
+        return this.cache.getIfPresent(key);
+    }
+
+    void put(String key, SqlPlan sqlPlan) {
+        this.cache.put(key, sqlPlan);
+    }
+
+    public long size() {
+        return this.cache != null ? this.cache.size() : 0;
+    }
+
+    public void clear() {
+        if (this.cache != null) {
+            this.cache.invalidateAll();
+        }
+    }
+
+    static class SqlPlan {
+
+        private final String sql;
+        private final Map<String, String> columnNameAliasMap;
+        private final Map<String, String> aliasColumnNameMap;
+        private final int rootAliasCounter;
+
+        SqlPlan(String sql, Map<String, String> columnNameAliasMap, Map<String, String> aliasColumnNameMap, int rootAliasCounter) {
+            this.sql = sql;
+            this.columnNameAliasMap = new HashMap<>(columnNameAliasMap);
+            this.aliasColumnNameMap = new HashMap<>(aliasColumnNameMap);
+            this.rootAliasCounter = rootAliasCounter;
+        }
+
+        String getSql() {
+            return sql;
+        }
+
+        Map<String, String> getColumnNameAliasMap() {
+            return columnNameAliasMap;
+        }
+
+        Map<String, String> getAliasColumnNameMap() {
+            return aliasColumnNameMap;
+        }
+
+        int getRootAliasCounter() {
+            return rootAliasCounter;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.umlg.sqlg.sql.parse;
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * The regular queries of several distinct query stacks merged into one UNION ALL statement.
+ * Every query gets its own columns, the columns of the other queries are padded with NULL.
+ * The first column is the index of the query a row belongs to.
+ * The columns of query i are aliased with the prefix "u" + i + "_", {@link #getAliasMaps(int)} holds the correspondingly prefixed alias maps.
+ * <p>
+ * Date: 2026/10/17
+ * Time: 9:30 PM
+ */
+public class UnionSql {
+
+    public static final String UNION_DISCRIMINATOR = "sqlgUnion";
+
+    private final String sql;
+    private final List<LinkedList<SchemaTableTree>> distinctQueryStacks;
+    private final List<AliasMapHolder> aliasMaps;
+
+    UnionSql(String sql, List<LinkedList<SchemaTableTree>> distinctQueryStacks, List<AliasMapHolder> aliasMaps) {
+        this.sql = sql;
+        this.distinctQueryStacks = distinctQueryStacks;
+        this.aliasMaps = aliasMaps;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public List<LinkedList<SchemaTableTree>> getDistinctQueryStacks() {
+        return distinctQueryStacks;
+    }
+
+    public LinkedList<SchemaTableTree> getDistinctQueryStack(int query) {
+        return this.distinctQueryStacks.get(query);
+    }
+
+    public AliasMapHolder getAliasMaps(int query) {
+        return this.aliasMaps.get(query);
+    }
+
+    static String prefix(int query) {
+        return "u" + query + "_";
+    }
+}
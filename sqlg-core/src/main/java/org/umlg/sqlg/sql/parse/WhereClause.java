@@ -24,6 +24,7 @@ public class WhereClause {
 
     public static final String LIKE = " like ?";
     public static final String NOT_LIKE = " not like ?";
+    private static final String WITHIN_ARRAY = "withinArray";
     private P<?> p;
 
     private WhereClause(P<?> p) {
@@ -49,6 +50,14 @@ public class WhereClause {
             }
             result += compareToSql((Compare) p.getBiPredicate());
             return result;
+        } else if (SqlgUtil.isWithinArray(sqlgGraph, hasContainer)) {
+            if (hasContainer.getKey().equals(T.id.getAccessor())) {
+                result += prefix + "." + sqlgGraph.getSqlDialect().maybeWrapInQoutes("ID");
+            } else {
+                result += prefix + "." + sqlgGraph.getSqlDialect().maybeWrapInQoutes(hasContainer.getKey());
+            }
+            result += p.getBiPredicate() == Contains.within ? " = ANY(?)" : " <> ALL(?)";
+            return result;
         } else if ((!sqlgGraph.getSqlDialect().supportsBulkWithinOut() || (!SqlgUtil.isBulkWithinAndOut(sqlgGraph, hasContainer))) && p.getBiPredicate() instanceof Contains) {
             if (hasContainer.getKey().equals(T.id.getAccessor())) {
                 result += prefix + "." + sqlgGraph.getSqlDialect().maybeWrapInQoutes("ID");
@@ -204,8 +213,11 @@ public class WhereClause {
         return prefix + result;
     }
 
-    public void putKeyValueMap(HasContainer hasContainer, Multimap<String, Object> keyValueMap) {
-        if (p instanceof OrP) {
+    public void putKeyValueMap(SqlgGraph sqlgGraph, HasContainer hasContainer, Multimap<String, Object> keyValueMap) {
+        if (SqlgUtil.isWithinArray(sqlgGraph, hasContainer)) {
+            //the ids are already in the array, so not under the id key
+            keyValueMap.put(WITHIN_ARRAY, SqlgUtil.toWithinArray((Collection<?>) hasContainer.getValue()));
+        } else if (p instanceof OrP) {
             OrP<?> orP = (OrP<?>) p;
             Preconditions.checkState(orP.getPredicates().size() == 2, "Only handling OrP with 2 predicates!");
             P<?> p1 = orP.getPredicates().get(0);
@@ -0,0 +1,221 @@
+package org.umlg.sqlg.strategy;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.commons.lang3.tuple.Triple;
+import org.apache.tinkerpop.gremlin.process.traversal.NumberHelper;
+import org.apache.tinkerpop.gremlin.structure.Property;
+import org.umlg.sqlg.sql.parse.Aggregate;
+import org.umlg.sqlg.sql.parse.SchemaTableTree;
+import org.umlg.sqlg.structure.PropertyType;
+import org.umlg.sqlg.structure.SchemaTable;
+import org.umlg.sqlg.structure.SqlgGraph;
+
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Executes the distinct queries of the compiled steps with an {@link Aggregate} and combines their partial aggregates.
+ * The result are the objects and bulks to emit so that the reducing step that follows reduces them to the same result
+ * as it would reduce the elements, i.e. the count as bulk for count(), the combined value for sum(), min() and max(),
+ * the mean for mean() and every group with its count as bulk for groupCount().
+ * <p>
+ * Date: 2026/10/17
+ * Time: 11:20 PM
+ */
+class AggregateResult {
+
+    private final SqlgGraph sqlgGraph;
+    private final Aggregate aggregate;
+    private long count = 0;
+    private Number value;
+    private Map<Object, Long> groups = new LinkedHashMap<>();
+
+    private AggregateResult(SqlgGraph sqlgGraph, Aggregate aggregate) {
+        this.sqlgGraph = sqlgGraph;
+        this.aggregate = aggregate;
+    }
+
+    static List<Pair<Object, Long>> execute(SqlgGraph sqlgGraph, Set<SchemaTableTree> rootSchemaTableTrees, Aggregate aggregate) {
+        AggregateResult aggregateResult = new AggregateResult(sqlgGraph, aggregate);
+        for (SchemaTableTree rootSchemaTableTree : rootSchemaTableTrees) {
+            try {
+                for (LinkedList<SchemaTableTree> distinctQueryStack : rootSchemaTableTree.constructDistinctQueries()) {
+                    rootSchemaTableTree.resetColumnAliasMaps();
+                    Triple<ResultSet, ResultSetMetaData, PreparedStatement> queryResult = SqlgSqlExecutor.executeAggregateQuery(
+                            sqlgGraph, rootSchemaTableTree, Collections.emptyList(), distinctQueryStack, aggregate);
+                    if (queryResult != null) {
+                        try {
+                            aggregateResult.add(queryResult.getLeft(), distinctQueryStack.getLast().getSchemaTable());
+                        } finally {
+                            queryResult.getLeft().close();
+                            sqlgGraph.tx().releasePreparedStatement(queryResult.getRight());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            } finally {
+                rootSchemaTableTree.resetColumnAliasMaps();
+            }
+        }
+        return aggregateResult.traversers();
+    }
+
+    private void add(ResultSet resultSet, SchemaTable schemaTable) throws SQLException {
+        String propertyKey = this.aggregate.getPropertyKey();
+        PropertyType propertyType = propertyKey != null ? this.sqlgGraph.getTopology().getTableFor(schemaTable).get(propertyKey) : null;
+        while (resultSet.next()) {
+            switch (this.aggregate.getFunction()) {
+                case COUNT:
+                    this.count += resultSet.getLong(1);
+                    break;
+                case SUM:
+                    add(sum(resultSet, 1, propertyType));
+                    break;
+                case MIN:
+                    Number min = (Number) value(resultSet, 1, propertyType);
+                    if (min != null) {
+                        this.value = this.value == null ? min : NumberHelper.min(this.value, min);
+                    }
+                    break;
+                case MAX:
+                    Number max = (Number) value(resultSet, 1, propertyType);
+                    if (max != null) {
+                        this.value = this.value == null ? max : NumberHelper.max(this.value, max);
+                    }
+                    break;
+                case MEAN:
+                    add(sum(resultSet, 1, propertyType));
+                    this.count += resultSet.getLong(2);
+                    break;
+                case GROUP_COUNT:
+                    Object key;
+                    long groupCount;
+                    if (propertyKey == null) {
+                        key = schemaTable.withOutPrefix().getTable();
+                        groupCount = resultSet.getLong(1);
+                    } else if (propertyType == null) {
+                        key = null;
+                        groupCount = resultSet.getLong(1);
+                    } else {
+                        key = value(resultSet, 1, propertyType);
+                        groupCount = resultSet.getLong(2);
+                    }
+                    if (groupCount > 0) {
+                        if (key == null) {
+                            throw Property.Exceptions.propertyDoesNotExist();
+                        }
+                        this.groups.merge(key, groupCount, Long::sum);
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Unhandled aggregate function " + this.aggregate.getFunction().name());
+            }
+        }
+    }
+
+    private void add(Number sum) {
+        if (sum != null) {
+            this.value = this.value == null ? sum : NumberHelper.add(this.value, sum);
+        }
+    }
+
+    private List<Pair<Object, Long>> traversers() {
+        switch (this.aggregate.getFunction()) {
+            case COUNT:
+                return this.count > 0 ? Collections.singletonList(Pair.of(this.count, this.count)) : Collections.emptyList();
+            case SUM:
+            case MIN:
+            case MAX:
+                return this.value != null ? Collections.singletonList(Pair.of(this.value, 1L)) : Collections.emptyList();
+            case MEAN:
+                return this.count > 0 ? Collections.singletonList(Pair.of(NumberHelper.div(this.value, this.count, true), 1L)) : Collections.emptyList();
+            case GROUP_COUNT:
+                List<Pair<Object, Long>> result = new ArrayList<>();
+                for (Map.Entry<Object, Long> group : this.groups.entrySet()) {
+                    result.add(Pair.of(group.getKey(), group.getValue()));
+                }
+                return result;
+            default:
+                throw new IllegalStateException("Unhandled aggregate function " + this.aggregate.getFunction().name());
+        }
+    }
+
+    /**
+     * The reducing step multiplies every value with its long bulk before adding it, so the sum has the type
+     * {@link NumberHelper} widens the property's type and a long to, i.e. a long for integral and a double for floating point values.
+     */
+    private static Number sum(ResultSet resultSet, int columnIndex, PropertyType propertyType) throws SQLException {
+        Class<? extends Number> sumType = NumberHelper.mul(zero(propertyType), 1L).getClass();
+        Number result;
+        if (sumType == Double.class) {
+            result = resultSet.getDouble(columnIndex);
+        } else if (sumType == Long.class) {
+            result = resultSet.getLong(columnIndex);
+        } else {
+            throw new IllegalStateException("Unhandled sum type " + sumType.getName() + " of " + propertyType.name());
+        }
+        return resultSet.wasNull() ? null : result;
+    }
+
+    private static Number zero(PropertyType propertyType) {
+        switch (propertyType) {
+            case BYTE:
+                return (byte) 0;
+            case SHORT:
+                return (short) 0;
+            case INTEGER:
+                return 0;
+            case LONG:
+                return 0L;
+            case FLOAT:
+                return 0F;
+            case DOUBLE:
+                return 0D;
+            default:
+                throw new IllegalStateException("Unhandled aggregated property type " + propertyType.name());
+        }
+    }
+
+    private static Object value(ResultSet resultSet, int columnIndex, PropertyType propertyType) throws SQLException {
+        Object result;
+        switch (propertyType) {
+            case BOOLEAN:
+                result = resultSet.getBoolean(columnIndex);
+                break;
+            case BYTE:
+                result = resultSet.getByte(columnIndex);
+                break;
+            case SHORT:
+                result = resultSet.getShort(columnIndex);
+                break;
+            case INTEGER:
+                result = resultSet.getInt(columnIndex);
+                break;
+            case LONG:
+                result = resultSet.getLong(columnIndex);
+                break;
+            case FLOAT:
+                result = resultSet.getFloat(columnIndex);
+                break;
+            case DOUBLE:
+                result = resultSet.getDouble(columnIndex);
+                break;
+            case STRING:
+                result = resultSet.getString(columnIndex);
+                break;
+            case LOCALDATE:
+                java.sql.Date date = resultSet.getDate(columnIndex);
+                return date != null ? date.toLocalDate() : null;
+            case LOCALDATETIME:
+                Timestamp timestamp = resultSet.getTimestamp(columnIndex);
+                return timestamp != null ? timestamp.toLocalDateTime() : null;
+            case LOCALTIME:
+                Time time = resultSet.getTime(columnIndex);
+                return time != null ? time.toLocalTime() : null;
+            default:
+                throw new IllegalStateException("Unhandled aggregated property type " + propertyType.name());
+        }
+        return resultSet.wasNull() ? null : result;
+    }
+}
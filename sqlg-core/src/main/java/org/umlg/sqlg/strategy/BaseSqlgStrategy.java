@@ -6,12 +6,14 @@ import org.apache.commons.lang3.mutable.MutableInt;
 import org.apache.tinkerpop.gremlin.process.traversal.*;
 import org.apache.tinkerpop.gremlin.process.traversal.lambda.ElementValueTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.lambda.LoopTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.lambda.TokenTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.step.ComparatorHolder;
 import org.apache.tinkerpop.gremlin.process.traversal.step.HasContainerHolder;
 import org.apache.tinkerpop.gremlin.process.traversal.step.branch.ChooseStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.branch.LocalStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.branch.RepeatStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.filter.CyclicPathStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.DedupGlobalStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.filter.RangeGlobalStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.filter.SimplePathStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.*;
@@ -28,12 +30,14 @@ import org.apache.tinkerpop.gremlin.process.traversal.util.ConnectiveP;
 import org.apache.tinkerpop.gremlin.process.traversal.util.OrP;
 import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
 import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.PropertyType;
 import org.apache.tinkerpop.gremlin.structure.T;
 import org.javatuples.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.umlg.sqlg.predicate.FullText;
 import org.umlg.sqlg.predicate.Text;
+import org.umlg.sqlg.sql.parse.Aggregate;
 import org.umlg.sqlg.sql.parse.ReplacedStep;
 import org.umlg.sqlg.structure.SqlgGraph;
 
@@ -53,7 +57,7 @@ public abstract class BaseSqlgStrategy extends AbstractTraversalStrategy<Travers
     protected Logger logger = LoggerFactory.getLogger(getClass().getName());
     public static final String PATH_LABEL_SUFFIX = "P~~~";
     public static final String EMIT_LABEL_SUFFIX = "E~~~";
-    private static final String SQLG_PATH_FAKE_LABEL = "sqlgPathFakeLabel";
+    public static final String SQLG_PATH_FAKE_LABEL = "sqlgPathFakeLabel";
     private static final List<BiPredicate> SUPPORTED_BI_PREDICATE = Arrays.asList(
             Compare.eq, Compare.neq, Compare.gt, Compare.gte, Compare.lt, Compare.lte);
     protected static List<Class> UNOPTIMIZABLE_STEPS = Arrays.asList(
@@ -226,6 +230,149 @@ public abstract class BaseSqlgStrategy extends AbstractTraversalStrategy<Travers
         if (lastReplacedStep != null && !lastReplacedStep.isEmit() && lastReplacedStep.getLabels().isEmpty()) {
             lastReplacedStep.addLabel((pathCount) + BaseSqlgStrategy.PATH_LABEL_SUFFIX + BaseSqlgStrategy.SQLG_PATH_FAKE_LABEL);
         }
+        if (lastReplacedStep != null) {
+            collectAggregate(traversal, sqlgStep, lastReplacedStep);
+            collectDistinct(traversal, sqlgStep, lastReplacedStep);
+            collectRestrictedProperties(sqlgStep, lastReplacedStep);
+        }
+    }
+
+    /**
+     * If a count, sum, min, max, mean or groupCount step follows the compiled start step it is executed in the database.
+     * The compiled step then emits the combined partial aggregates of its queries instead of the elements,
+     * the reducing step stays in the traversal to reduce them.
+     */
+    private static void collectAggregate(Traversal.Admin<?, ?> traversal, SqlgStep sqlgStep, ReplacedStep<?, ?> lastReplacedStep) {
+        if (!(sqlgStep instanceof SqlgGraphStepCompiled) || !((SqlgGraphStepCompiled) sqlgStep).isStartStep()) {
+            return;
+        }
+        SqlgGraphStepCompiled<?, ?> sqlgGraphStep = (SqlgGraphStepCompiled) sqlgStep;
+        for (ReplacedStep<?, ?> replacedStep : sqlgGraphStep.getReplacedSteps()) {
+            if (replacedStep.isEmit() || replacedStep.isLeftJoin() || !replacedStep.getComparators().isEmpty() || replacedStep.getRange() != null) {
+                return;
+            }
+        }
+        Step<?, ?> nextStep = sqlgGraphStep.getNextStep();
+        Step<?, ?> valueStep = null;
+        String propertyKey = null;
+        if (nextStep instanceof PropertiesStep) {
+            PropertiesStep<?> propertiesStep = (PropertiesStep) nextStep;
+            if (propertiesStep.getReturnType() != PropertyType.VALUE || propertiesStep.getPropertyKeys().length != 1 || !propertiesStep.getLabels().isEmpty()) {
+                return;
+            }
+            valueStep = nextStep;
+            propertyKey = propertiesStep.getPropertyKeys()[0];
+            nextStep = nextStep.getNextStep();
+        } else if (nextStep instanceof LabelStep && nextStep.getLabels().isEmpty()) {
+            valueStep = nextStep;
+            nextStep = nextStep.getNextStep();
+        }
+        Aggregate aggregate = null;
+        GroupCountStep<?, ?> groupCountStep = null;
+        if (nextStep instanceof CountGlobalStep && !(valueStep instanceof LabelStep)) {
+            aggregate = new Aggregate(Aggregate.Function.COUNT, propertyKey, false);
+        } else if (propertyKey != null && nextStep instanceof SumGlobalStep) {
+            aggregate = new Aggregate(Aggregate.Function.SUM, propertyKey, false);
+        } else if (propertyKey != null && nextStep instanceof MinGlobalStep) {
+            aggregate = new Aggregate(Aggregate.Function.MIN, propertyKey, false);
+        } else if (propertyKey != null && nextStep instanceof MaxGlobalStep) {
+            aggregate = new Aggregate(Aggregate.Function.MAX, propertyKey, false);
+        } else if (propertyKey != null && nextStep instanceof MeanGlobalStep) {
+            aggregate = new Aggregate(Aggregate.Function.MEAN, propertyKey, false);
+        } else if (nextStep instanceof GroupCountStep) {
+            List<Traversal.Admin<?, ?>> keyTraversals = ((GroupCountStep) nextStep).getLocalChildren();
+            if (keyTraversals.isEmpty()) {
+                //values(key).groupCount() or label().groupCount()
+                if (valueStep != null) {
+                    aggregate = new Aggregate(Aggregate.Function.GROUP_COUNT, propertyKey, false);
+                }
+            } else if (valueStep == null && keyTraversals.get(0) instanceof ElementValueTraversal) {
+                aggregate = new Aggregate(Aggregate.Function.GROUP_COUNT, ((ElementValueTraversal) keyTraversals.get(0)).getPropertyKey(), true);
+                groupCountStep = (GroupCountStep) nextStep;
+            } else if (valueStep == null && keyTraversals.get(0) instanceof TokenTraversal && ((TokenTraversal) keyTraversals.get(0)).getToken() == T.label) {
+                aggregate = new Aggregate(Aggregate.Function.GROUP_COUNT, null, false);
+                groupCountStep = (GroupCountStep) nextStep;
+            }
+        }
+        if (aggregate == null) {
+            return;
+        }
+        if (aggregate.getPropertyKey() != null) {
+            SqlgGraph sqlgGraph = (SqlgGraph) traversal.getGraph().get();
+            for (Map<String, org.umlg.sqlg.structure.PropertyType> properties : sqlgGraph.getTopology().getAllTables().values()) {
+                org.umlg.sqlg.structure.PropertyType propertyType = properties.get(aggregate.getPropertyKey());
+                if (propertyType != null && !aggregate.supports(propertyType)) {
+                    return;
+                }
+            }
+        }
+        if (valueStep != null) {
+            traversal.removeStep(valueStep);
+        }
+        if (groupCountStep != null) {
+            //the compiled step emits the groups, not the elements to group
+            GroupCountStep<?, ?> groupCountOfKeys = new GroupCountStep<>(traversal);
+            groupCountStep.getLabels().forEach(groupCountOfKeys::addLabel);
+            TraversalHelper.replaceStep((Step) groupCountStep, groupCountOfKeys, traversal);
+        }
+        lastReplacedStep.setRestrictedProperties(aggregate.getPropertyKey() != null ? Collections.singleton(aggregate.getPropertyKey()) : Collections.emptySet());
+        sqlgGraphStep.setAggregate(aggregate);
+    }
+
+    /**
+     * If a dedup step follows the compiled graph step the queries select distinct rows.
+     * Identical rows are identical traversers so the dedup step, which stays in the traversal to dedup across queries,
+     * returns the same elements. dedup().by(key) selects distinct on the key's column if the dialect supports it.
+     */
+    private static void collectDistinct(Traversal.Admin<?, ?> traversal, SqlgStep sqlgStep, ReplacedStep<?, ?> lastReplacedStep) {
+        if (!(sqlgStep instanceof SqlgGraphStepCompiled) || ((SqlgGraphStepCompiled) sqlgStep).getAggregate() != null) {
+            return;
+        }
+        SqlgGraphStepCompiled<?, ?> sqlgGraphStep = (SqlgGraphStepCompiled) sqlgStep;
+        if (!(sqlgGraphStep.getNextStep() instanceof DedupGlobalStep)) {
+            return;
+        }
+        boolean userLabels = false;
+        for (ReplacedStep<?, ?> replacedStep : sqlgGraphStep.getReplacedSteps()) {
+            //the range is applied before the dedup, distinct would be applied before the range
+            if (replacedStep.isEmit() || replacedStep.isLeftJoin() || !replacedStep.getComparators().isEmpty() || replacedStep.getRange() != null) {
+                return;
+            }
+            userLabels = userLabels || replacedStep.hasUserLabels();
+        }
+        DedupGlobalStep<?> dedupGlobalStep = (DedupGlobalStep) sqlgGraphStep.getNextStep();
+        String distinctOnKey = null;
+        List<Traversal.Admin<?, ?>> keyTraversals = ((DedupGlobalStep) dedupGlobalStep).getLocalChildren();
+        @SuppressWarnings("OptionalGetWithoutIsPresent")
+        SqlgGraph sqlgGraph = (SqlgGraph) traversal.getGraph().get();
+        if (!userLabels && dedupGlobalStep.getScopeKeys().isEmpty() && keyTraversals.size() == 1 &&
+                keyTraversals.get(0) instanceof ElementValueTraversal && sqlgGraph.getSqlDialect().supportsDistinctOn()) {
+            distinctOnKey = ((ElementValueTraversal) keyTraversals.get(0)).getPropertyKey();
+        }
+        lastReplacedStep.setDistinct(true);
+        lastReplacedStep.setDistinctOnKey(distinctOnKey);
+    }
+
+    /**
+     * If the step following the compiled step only uses some of the properties of the elements, only those are selected.
+     * The elements are then partially loaded, any other property is loaded when accessed.
+     * Labeled elements are not restricted as the traversal may use them later on.
+     */
+    private static void collectRestrictedProperties(SqlgStep sqlgStep, ReplacedStep<?, ?> lastReplacedStep) {
+        if (lastReplacedStep.isEmit() || !lastReplacedStep.getComparators().isEmpty() || lastReplacedStep.hasUserLabels()) {
+            return;
+        }
+        Step<?, ?> nextStep = sqlgStep.getNextStep();
+        if (sqlgStep instanceof SqlgGraphStepCompiled && ((SqlgGraphStepCompiled) sqlgStep).getAggregate() != null) {
+            return;
+        } else if (nextStep instanceof PropertiesStep && ((PropertiesStep) nextStep).getPropertyKeys().length > 0) {
+            lastReplacedStep.setRestrictedProperties(new HashSet<>(Arrays.asList(((PropertiesStep) nextStep).getPropertyKeys())));
+        } else if (nextStep instanceof PropertyMapStep && ((PropertyMapStep) nextStep).getPropertyKeys().length > 0 &&
+                ((PropertyMapStep) nextStep).getLocalChildren().isEmpty()) {
+            lastReplacedStep.setRestrictedProperties(new HashSet<>(Arrays.asList(((PropertyMapStep) nextStep).getPropertyKeys())));
+        } else if (nextStep instanceof IdStep || nextStep instanceof LabelStep) {
+            lastReplacedStep.setRestrictedProperties(Collections.emptySet());
+        }
     }
 
     private boolean unoptimizableChooseStep(List<Step> steps, int index) {
@@ -19,6 +19,8 @@ public class Emit<E extends SqlgElement> {
     //This is set to true for local optional step where the query has no labels, i.e. for a single SchemaTableTree only.
     //In this case the element will already be on the traverser i.e. the incoming element.
     private boolean incomingOnlyLocalOptionalStep;
+    //The id of the incoming element this emit belongs to. Only set when the vertex step query is executed for a batch of incoming elements.
+    private long parentId = -1;
 
     public Emit() {
         this.fake = true;
@@ -73,6 +75,14 @@ public class Emit<E extends SqlgElement> {
         this.incomingOnlyLocalOptionalStep = incomingOnlyLocalOptionalStep;
     }
 
+    long getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(long parentId) {
+        this.parentId = parentId;
+    }
+
     @Override
     public String toString() {
         String result = "";
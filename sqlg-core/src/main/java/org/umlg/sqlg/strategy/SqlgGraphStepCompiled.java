@@ -7,14 +7,14 @@ import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
 import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
 import org.apache.tinkerpop.gremlin.process.traversal.step.TraversalParent;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.GraphStep;
-import org.apache.tinkerpop.gremlin.process.traversal.traverser.B_LP_O_P_S_SE_SL_Traverser;
-import org.apache.tinkerpop.gremlin.process.traversal.traverser.B_LP_O_P_S_SE_SL_TraverserGenerator;
 import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
 import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
+import org.apache.tinkerpop.gremlin.structure.util.CloseableIterator;
 import org.apache.tinkerpop.gremlin.util.iterator.EmptyIterator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.umlg.sqlg.process.SqlgRawIteratorToEmitIterator;
+import org.umlg.sqlg.sql.parse.Aggregate;
 import org.umlg.sqlg.sql.parse.ReplacedStep;
 import org.umlg.sqlg.sql.parse.SchemaTableTree;
 import org.umlg.sqlg.structure.SqlgCompiledResultIterator;
@@ -48,6 +48,15 @@ public class SqlgGraphStepCompiled<S extends SqlgElement, E extends SqlgElement>
      * list of previous result
      */
     private List<Emit<E>> emitted = null;
+    /**
+     * the reducing step that follows executed in the database, null if the elements are loaded
+     */
+    private Aggregate aggregate;
+    private Iterator<Pair<Object, Long>> aggregateIterator;
+    /**
+     * do the traversers keep a path? If not only the last element of an emit is put on a traverser.
+     */
+    private Boolean pathTracking;
 
     SqlgGraphStepCompiled(final SqlgGraph sqlgGraph, final Traversal.Admin traversal, final Class<E> returnClass, final boolean isStart, final Object... ids) {
         super(traversal, returnClass, isStart, ids);
@@ -59,6 +68,9 @@ public class SqlgGraphStepCompiled<S extends SqlgElement, E extends SqlgElement>
 
     @Override
     protected Traverser.Admin<E> processNextStart() {
+        if (this.aggregate != null) {
+            return processNextAggregate();
+        }
         while (true) {
             if (this.iterator.hasNext()) {
                 Traverser.Admin<E> traverser = null;
@@ -67,6 +79,14 @@ public class SqlgGraphStepCompiled<S extends SqlgElement, E extends SqlgElement>
                 if (emitToList && emitted != null) {
                     emitted.add(emit);
                 }
+                if (!isPathTracking()) {
+                    E e = (E) emit.getPath().objects().get(emit.getPath().size() - 1);
+                    if (!isStart && previousHead != null) {
+                        return previousHead.split(e, this);
+                    } else {
+                        return this.getTraversal().getTraverserGenerator().generate(e, this, 1L);
+                    }
+                }
                 boolean first = true;
                 Iterator<Set<String>> labelIter = emit.getPath().labels().iterator();
                 for (Object o : emit.getPath().objects()) {
@@ -77,9 +97,9 @@ public class SqlgGraphStepCompiled<S extends SqlgElement, E extends SqlgElement>
                         traverser = previousHead.split(e, this);
                     } else if (first) {
                         first = false;
-                        traverser = B_LP_O_P_S_SE_SL_TraverserGenerator.instance().generate(e, this, 1L);
+                        traverser = this.getTraversal().getTraverserGenerator().generate(e, this, 1L);
                     } else {
-                        traverser = ((B_LP_O_P_S_SE_SL_Traverser) traverser).split(e, this);
+                        traverser = traverser.split(e, this);
                     }
                 }
                 return traverser;
@@ -107,6 +127,34 @@ public class SqlgGraphStepCompiled<S extends SqlgElement, E extends SqlgElement>
         }
     }
 
+    /**
+     * Emits the combined partial aggregates with their bulk for the reducing step to reduce.
+     */
+    private Traverser.Admin<E> processNextAggregate() {
+        if (this.aggregateIterator == null) {
+            this.aggregateIterator = aggregate();
+        }
+        if (!this.aggregateIterator.hasNext()) {
+            throw FastNoSuchElementException.instance();
+        }
+        Pair<Object, Long> objectBulk = this.aggregateIterator.next();
+        //the aggregates are not elements, E is erased to SqlgElement
+        //noinspection unchecked
+        return (Traverser.Admin<E>) this.getTraversal().getTraverserGenerator().generate(objectBulk.getLeft(), this, objectBulk.getRight());
+    }
+
+    private boolean isPathTracking() {
+        if (this.pathTracking == null) {
+            this.pathTracking = SqlgVertexStepCompiled.isPathTracking(this.getTraversal());
+        }
+        return this.pathTracking;
+    }
+
+    @Override
+    public void close() {
+        CloseableIterator.closeIterator(this.iterator);
+    }
+
     @Override
     public void reset() {
         super.reset();
@@ -114,11 +162,16 @@ public class SqlgGraphStepCompiled<S extends SqlgElement, E extends SqlgElement>
         emitToList = !isStart;
         emitted = null;
         this.iterator = EmptyIterator.instance();
+        this.aggregateIterator = null;
     }
 
     @Override
     public Set<TraverserRequirement> getRequirements() {
-        return this.getSelfAndChildRequirements(TraverserRequirement.PATH, TraverserRequirement.SIDE_EFFECTS);
+        if (this.replacedSteps.stream().anyMatch(ReplacedStep::hasUserLabels)) {
+            return this.getSelfAndChildRequirements(TraverserRequirement.LABELED_PATH, TraverserRequirement.SIDE_EFFECTS);
+        } else {
+            return this.getSelfAndChildRequirements(TraverserRequirement.SIDE_EFFECTS);
+        }
     }
 
     private Iterator<List<Emit<E>>> elements() {
@@ -139,6 +192,17 @@ public class SqlgGraphStepCompiled<S extends SqlgElement, E extends SqlgElement>
         return resultIterator;
     }
 
+    private Iterator<Pair<Object, Long>> aggregate() {
+        this.sqlgGraph.tx().readWrite();
+        if (this.sqlgGraph.tx().getBatchManager().isStreaming()) {
+            throw new IllegalStateException("streaming is in progress, first flush or commit before querying.");
+        }
+        Preconditions.checkState(this.replacedSteps.size() > 0, "There must be at least one replacedStep");
+        Preconditions.checkState(this.replacedSteps.get(0).isGraphStep(), "The first step must a SqlgGraphStep");
+        Set<SchemaTableTree> rootSchemaTableTrees = this.sqlgGraph.getGremlinParser().parse(this.replacedSteps);
+        return AggregateResult.execute(this.sqlgGraph, rootSchemaTableTrees, this.aggregate).iterator();
+    }
+
     @Override
     public void addReplacedStep(ReplacedStep replacedStep) {
         //depth is + 1 because there is always a root node who's depth is 0
@@ -174,6 +238,14 @@ public class SqlgGraphStepCompiled<S extends SqlgElement, E extends SqlgElement>
         return replacedSteps;
     }
 
+    public Aggregate getAggregate() {
+        return aggregate;
+    }
+
+    void setAggregate(Aggregate aggregate) {
+        this.aggregate = aggregate;
+    }
+
     @Override
     public int hashCode() {
         int result = super.hashCode() ^ this.returnClass.hashCode();
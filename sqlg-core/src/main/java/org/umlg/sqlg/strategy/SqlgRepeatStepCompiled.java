@@ -0,0 +1,308 @@
+package org.umlg.sqlg.strategy;
+
+import com.google.common.base.Preconditions;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.commons.lang3.tuple.Triple;
+import org.apache.tinkerpop.gremlin.process.traversal.Path;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.Traverser;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.AbstractStep;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
+import org.apache.tinkerpop.gremlin.process.traversal.util.FastNoSuchElementException;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
+import org.apache.tinkerpop.gremlin.util.iterator.EmptyIterator;
+import org.umlg.sqlg.sql.parse.RecursiveRepeat;
+import org.umlg.sqlg.structure.RecordId;
+import org.umlg.sqlg.structure.SchemaManager;
+import org.umlg.sqlg.structure.SchemaTable;
+import org.umlg.sqlg.structure.SqlgGraph;
+import org.umlg.sqlg.structure.SqlgVertex;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Replaces a RepeatStep with an until and/or emit that is not a times().
+ * The incoming vertices are executed in batches, one WITH RECURSIVE query per batch.
+ * The rows of the query are read lazily, a chunk of rows at a time, so that the query is closed as soon as the traversal stops consuming.
+ * A traverser inside the repeat that revisits a vertex is continued from that vertex with another query, only once the traversal has
+ * consumed the other rows, so that a limit() after the repeat stops as it does in TinkerPop.
+ * A repeat that does not terminate fails when the traversal asks for more than the rows up to the max depth, instead of looping forever.
+ * <p>
+ * Date: 2026/10/17
+ * Time: 2:45 PM
+ */
+public class SqlgRepeatStepCompiled extends AbstractStep<Vertex, Vertex> implements AutoCloseable {
+
+    //The number of incoming traversers to execute in one recursive query, and the number of rows to read at a time.
+    public static final String REPEAT_STEP_BATCH_SIZE = "repeat.step.batch.size";
+    private static final int DEFAULT_REPEAT_STEP_BATCH_SIZE = 100;
+    //The number of iterations after which a repeat fails.
+    public static final String REPEAT_STEP_MAX_DEPTH = "repeat.step.max.depth";
+    private static final int DEFAULT_REPEAT_STEP_MAX_DEPTH = 1000;
+
+    private final RecursiveRepeat recursiveRepeat;
+    private Iterator<Traverser.Admin<Vertex>> iterator = EmptyIterator.instance();
+    //the query of the current batch, null when read
+    private Triple<ResultSet, ResultSetMetaData, PreparedStatement> queryResult;
+    private List<SchemaTable> vertexTables;
+    private int maxDepth;
+    //the traversers that entered the repeat and their bulk per start vertex of the current query
+    private Map<RecordId, Map<Traverser.Admin<Vertex>, Long>> startsById = new HashMap<>();
+    private Map<Traverser.Admin<Vertex>, Set<String>> previousPaths = new IdentityHashMap<>();
+    //the cycle rows to continue from, per depth
+    private TreeMap<Integer, Map<RecordId, Map<Traverser.Admin<Vertex>, Long>>> cycles = new TreeMap<>();
+    //the first row deeper than the max depth, thrown once the other rows are consumed
+    private String failure;
+
+    public SqlgRepeatStepCompiled(Traversal.Admin traversal, RecursiveRepeat recursiveRepeat) {
+        super(traversal);
+        this.recursiveRepeat = recursiveRepeat;
+    }
+
+    @Override
+    protected Traverser.Admin<Vertex> processNextStart() throws NoSuchElementException {
+        while (true) {
+            if (this.iterator.hasNext()) {
+                return this.iterator.next();
+            }
+            if (this.queryResult != null) {
+                this.iterator = readRows();
+            } else if (!this.cycles.isEmpty()) {
+                executeCycles();
+            } else if (this.failure != null) {
+                String failure = this.failure;
+                this.failure = null;
+                throw new IllegalStateException(failure);
+            } else if (this.starts.hasNext()) {
+                executeBatch();
+            } else {
+                throw FastNoSuchElementException.instance();
+            }
+        }
+    }
+
+    private void executeBatch() {
+        SqlgGraph sqlgGraph = (SqlgGraph) this.traversal.getGraph().get();
+        int batchSize = sqlgGraph.configuration().getInt(REPEAT_STEP_BATCH_SIZE, DEFAULT_REPEAT_STEP_BATCH_SIZE);
+        this.maxDepth = sqlgGraph.configuration().getInt(REPEAT_STEP_MAX_DEPTH, DEFAULT_REPEAT_STEP_MAX_DEPTH);
+        this.startsById = new HashMap<>();
+        this.previousPaths.clear();
+        Map<SchemaTable, Set<Long>> startIds = new LinkedHashMap<>();
+        int count = 0;
+        while (count < batchSize && this.starts.hasNext()) {
+            Traverser.Admin<Vertex> start = this.starts.next();
+            Preconditions.checkState(start.get() instanceof SqlgVertex, "repeat expects a vertex, found %s", start.get());
+            SqlgVertex vertex = (SqlgVertex) start.get();
+            startIds.computeIfAbsent(vertexTable(vertex), k -> new LinkedHashSet<>()).add(((RecordId) vertex.id()).getId());
+            this.startsById.computeIfAbsent((RecordId) vertex.id(), k -> new IdentityHashMap<>()).merge(start, 1L, Long::sum);
+            count++;
+        }
+        RecursiveRepeat.Query query = this.recursiveRepeat.toSql(sqlgGraph, startIds, 0, this.maxDepth);
+        this.vertexTables = query.getVertexTables();
+        if (this.recursiveRepeat.isSimplePath()) {
+            this.startsById.values().forEach(starts -> starts.keySet().forEach(start -> this.previousPaths.put(start, previousPath(start, this.vertexTables))));
+        }
+        this.queryResult = SqlgSqlExecutor.executeQuery(sqlgGraph, query.getSql());
+    }
+
+    /**
+     * Continues the repeat from the vertices of the cycle rows of the lowest depth.
+     */
+    private void executeCycles() {
+        SqlgGraph sqlgGraph = (SqlgGraph) this.traversal.getGraph().get();
+        int batchSize = sqlgGraph.configuration().getInt(REPEAT_STEP_BATCH_SIZE, DEFAULT_REPEAT_STEP_BATCH_SIZE);
+        int depth = this.cycles.firstKey();
+        Map<RecordId, Map<Traverser.Admin<Vertex>, Long>> cycleStarts = this.cycles.get(depth);
+        this.startsById = new HashMap<>();
+        Map<SchemaTable, Set<Long>> startIds = new LinkedHashMap<>();
+        Iterator<Map.Entry<RecordId, Map<Traverser.Admin<Vertex>, Long>>> iterator = cycleStarts.entrySet().iterator();
+        while (this.startsById.size() < batchSize && iterator.hasNext()) {
+            Map.Entry<RecordId, Map<Traverser.Admin<Vertex>, Long>> entry = iterator.next();
+            iterator.remove();
+            RecordId vertexId = entry.getKey();
+            startIds.computeIfAbsent(vertexId.getSchemaTable().withPrefix(SchemaManager.VERTEX_PREFIX), k -> new LinkedHashSet<>()).add(vertexId.getId());
+            this.startsById.put(vertexId, entry.getValue());
+        }
+        if (cycleStarts.isEmpty()) {
+            this.cycles.remove(depth);
+        }
+        RecursiveRepeat.Query query = this.recursiveRepeat.toSql(sqlgGraph, startIds, depth, this.maxDepth);
+        this.vertexTables = query.getVertexTables();
+        this.queryResult = SqlgSqlExecutor.executeQuery(sqlgGraph, query.getSql());
+    }
+
+    /**
+     * @return the traversers of the next chunk of rows, the query is closed after its last row.
+     */
+    private Iterator<Traverser.Admin<Vertex>> readRows() {
+        SqlgGraph sqlgGraph = (SqlgGraph) this.traversal.getGraph().get();
+        int chunkSize = sqlgGraph.configuration().getInt(REPEAT_STEP_BATCH_SIZE, DEFAULT_REPEAT_STEP_BATCH_SIZE);
+        List<Pair<RecordId, Leaving>> leavings = new ArrayList<>();
+        Set<RecordId> vertexIds = new LinkedHashSet<>();
+        int rows = 0;
+        try {
+            ResultSet resultSet = this.queryResult.getLeft();
+            while (rows++ < chunkSize) {
+                if (!resultSet.next()) {
+                    closeQuery();
+                    break;
+                }
+                RecordId startId = RecordId.from(this.vertexTables.get(resultSet.getInt(1)).withOutPrefix(), resultSet.getLong(2));
+                RecordId vertexId = RecordId.from(this.vertexTables.get(resultSet.getInt(3)).withOutPrefix(), resultSet.getLong(4));
+                int depth = resultSet.getInt(5);
+                if (depth > this.maxDepth) {
+                    if (this.failure == null) {
+                        this.failure = String.format("repeat from %s exceeds the max depth of %d, see %s", startId, this.maxDepth, REPEAT_STEP_MAX_DEPTH);
+                    }
+                    continue;
+                }
+                long bulk = resultSet.getLong(6);
+                if (resultSet.getInt(7) == 1 && resultSet.getInt(9) == 0) {
+                    //the traverser stays in the repeat, the query stopped at the vertex it revisits
+                    Map<RecordId, Map<Traverser.Admin<Vertex>, Long>> cycleStarts = this.cycles.computeIfAbsent(depth, k -> new LinkedHashMap<>());
+                    Map<Traverser.Admin<Vertex>, Long> traversers = cycleStarts.computeIfAbsent(vertexId, k -> new IdentityHashMap<>());
+                    this.startsById.getOrDefault(startId, Collections.emptyMap()).forEach((start, startBulk) -> traversers.merge(start, startBulk, Long::sum));
+                }
+                if (bulk > 0) {
+                    leavings.add(Pair.of(startId, new Leaving(vertexId, bulk, depth, resultSet.getString(8))));
+                    vertexIds.add(vertexId);
+                }
+            }
+        } catch (SQLException e) {
+            closeQuery();
+            throw new RuntimeException(e);
+        } catch (RuntimeException e) {
+            closeQuery();
+            throw e;
+        }
+        Map<RecordId, Vertex> vertices = new HashMap<>();
+        if (!vertexIds.isEmpty()) {
+            sqlgGraph.vertices(vertexIds.toArray()).forEachRemaining(v -> vertices.put((RecordId) v.id(), v));
+        }
+        List<Traverser.Admin<Vertex>> result = new ArrayList<>();
+        for (Pair<RecordId, Leaving> startIdLeaving : leavings) {
+            Leaving leaving = startIdLeaving.getRight();
+            Vertex vertex = vertices.get(leaving.vertexId);
+            if (vertex == null) {
+                continue;
+            }
+            for (Map.Entry<Traverser.Admin<Vertex>, Long> startBulk : this.startsById.getOrDefault(startIdLeaving.getLeft(), Collections.emptyMap()).entrySet()) {
+                Traverser.Admin<Vertex> start = startBulk.getKey();
+                //simplePath() also filters on the vertices the traverser visited before the repeat
+                if (this.recursiveRepeat.isSimplePath() && leaving.depth > 0) {
+                    Set<String> previousPath = this.previousPaths.get(start);
+                    if (previousPath == null || !leaving.isSimple(previousPath)) {
+                        continue;
+                    }
+                }
+                Traverser.Admin<Vertex> split = start.split(vertex, this);
+                split.setBulk(start.bulk() * startBulk.getValue() * leaving.bulk);
+                split.resetLoops();
+                result.add(split);
+            }
+        }
+        return result.iterator();
+    }
+
+    private void closeQuery() {
+        if (this.queryResult != null) {
+            try (PreparedStatement preparedStatement = this.queryResult.getRight()) {
+                this.queryResult.getLeft().close();
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            } finally {
+                this.queryResult = null;
+            }
+        }
+    }
+
+    /**
+     * @return the path elements of the vertices before the start vertex or null if they already repeat a vertex.
+     */
+    private static Set<String> previousPath(Traverser.Admin<Vertex> start, List<SchemaTable> vertexTables) {
+        Path path = start.path();
+        Set<Object> objects = new HashSet<>();
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i < path.size(); i++) {
+            Object object = path.objects().get(i);
+            if (!objects.add(object)) {
+                return null;
+            }
+            if (i < path.size() - 1 && object instanceof SqlgVertex) {
+                int index = vertexTables.indexOf(vertexTable((SqlgVertex) object));
+                if (index != -1) {
+                    result.add("/" + index + ":" + ((RecordId) ((SqlgVertex) object).id()).getId() + "/");
+                }
+            }
+        }
+        return result;
+    }
+
+    private static SchemaTable vertexTable(SqlgVertex vertex) {
+        return SchemaTable.of(vertex.getSchema(), SchemaManager.VERTEX_PREFIX + vertex.getTable());
+    }
+
+    @Override
+    public Set<TraverserRequirement> getRequirements() {
+        if (this.recursiveRepeat.isSimplePath()) {
+            return EnumSet.of(TraverserRequirement.BULK, TraverserRequirement.PATH);
+        } else {
+            return EnumSet.of(TraverserRequirement.BULK);
+        }
+    }
+
+    @Override
+    public void close() {
+        closeQuery();
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        closeQuery();
+        this.iterator = EmptyIterator.instance();
+        this.cycles.clear();
+        this.failure = null;
+    }
+
+    @Override
+    public SqlgRepeatStepCompiled clone() {
+        SqlgRepeatStepCompiled clone = (SqlgRepeatStepCompiled) super.clone();
+        clone.iterator = EmptyIterator.instance();
+        clone.queryResult = null;
+        clone.startsById = new HashMap<>();
+        clone.previousPaths = new IdentityHashMap<>();
+        clone.cycles = new TreeMap<>();
+        clone.failure = null;
+        return clone;
+    }
+
+    @Override
+    public String toString() {
+        return StringFactory.stepString(this, this.recursiveRepeat);
+    }
+
+    private static class Leaving {
+
+        private final RecordId vertexId;
+        private final long bulk;
+        private final int depth;
+        private final String path;
+
+        private Leaving(RecordId vertexId, long bulk, int depth, String path) {
+            this.vertexId = vertexId;
+            this.bulk = bulk;
+            this.depth = depth;
+            this.path = path;
+        }
+
+        private boolean isSimple(Set<String> previousPath) {
+            return previousPath.stream().noneMatch(this.path::contains);
+        }
+    }
+}
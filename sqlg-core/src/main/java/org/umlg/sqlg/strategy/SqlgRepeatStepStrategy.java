@@ -0,0 +1,139 @@
+package org.umlg.sqlg.strategy;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Step;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.lambda.TrueTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.step.branch.RepeatStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.CyclicPathStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.HasStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.SimplePathStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.PathStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.TreeStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.map.VertexStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.sideEffect.TreeSideEffectStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.HasContainer;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.AbstractTraversalStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.util.TraversalHelper;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.umlg.sqlg.sql.parse.RecursiveRepeat;
+import org.umlg.sqlg.structure.SqlgGraph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Replaces repeat(out()).until(has(...)) and repeat(out()).emit(...) with a {@link SqlgRepeatStepCompiled}.
+ * Only repeats of a single VertexStep, optionally followed by simplePath(), with until and emit traversals of HasSteps are replaced.
+ * Repeats with times() are already flattened by the {@link SqlgGraphStepStrategy} and {@link SqlgVertexStepStrategy}.
+ * <p>
+ * Date: 2026/10/17
+ * Time: 3:20 PM
+ */
+public class SqlgRepeatStepStrategy extends AbstractTraversalStrategy<TraversalStrategy.OptimizationStrategy> implements TraversalStrategy.OptimizationStrategy {
+
+    public SqlgRepeatStepStrategy() {
+    }
+
+    @Override
+    public void apply(final Traversal.Admin<?, ?> traversal) {
+        //Only optimize SqlgGraph. StarGraph also passes through here.
+        if (!(traversal.getGraph().isPresent() && traversal.getGraph().get() instanceof SqlgGraph)) {
+            return;
+        }
+        SqlgGraph sqlgGraph = (SqlgGraph) traversal.getGraph().get();
+        if (!sqlgGraph.getSqlDialect().supportsWithRecursive()) {
+            return;
+        }
+        for (RepeatStep<?> repeatStep : TraversalHelper.getStepsOfClass(RepeatStep.class, traversal)) {
+            RecursiveRepeat recursiveRepeat = toRecursiveRepeat(traversal, repeatStep);
+            if (recursiveRepeat != null) {
+                //This is because in normal BatchMode the new vertices are cached with it edges.
+                if (sqlgGraph.features().supportsBatchMode() && sqlgGraph.tx().isInNormalBatchMode()) {
+                    sqlgGraph.tx().flush();
+                }
+                SqlgRepeatStepCompiled sqlgRepeatStepCompiled = new SqlgRepeatStepCompiled(traversal, recursiveRepeat);
+                repeatStep.getLabels().forEach(sqlgRepeatStepCompiled::addLabel);
+                TraversalHelper.replaceStep((Step) repeatStep, sqlgRepeatStepCompiled, traversal);
+            }
+        }
+    }
+
+    /**
+     * @return null if the RepeatStep can not be executed as a recursive query.
+     */
+    private static RecursiveRepeat toRecursiveRepeat(Traversal.Admin<?, ?> traversal, RepeatStep<?> repeatStep) {
+        if (repeatStep.getUntilTraversal() == null && repeatStep.getEmitTraversal() == null) {
+            return null;
+        }
+        List<Step> steps = repeatStep.getRepeatTraversal().getSteps();
+        if (steps.size() < 2 || steps.size() > 3 || !(steps.get(steps.size() - 1) instanceof RepeatStep.RepeatEndStep)) {
+            return null;
+        }
+        if (!(steps.get(0) instanceof VertexStep) || !((VertexStep) steps.get(0)).returnsVertex() || hasUserLabels(steps.get(0))) {
+            return null;
+        }
+        boolean simplePath = steps.size() == 3;
+        if (simplePath && (!(steps.get(1) instanceof SimplePathStep) || hasUserLabels(steps.get(1)))) {
+            return null;
+        }
+        //The vertices inside the repeat are not on the path of the traversers leaving it.
+        Traversal.Admin<?, ?> root = TraversalHelper.getRootTraversal(traversal);
+        if (TraversalHelper.anyStepRecursively(s -> s != steps.get(1) && (s instanceof PathStep || s instanceof TreeStep ||
+                s instanceof TreeSideEffectStep || s instanceof CyclicPathStep || s instanceof SimplePathStep), root)) {
+            return null;
+        }
+        List<HasContainer> until = hasContainers(repeatStep.getUntilTraversal());
+        List<HasContainer> emit = hasContainers(repeatStep.getEmitTraversal());
+        if ((repeatStep.getUntilTraversal() != null && until == null) || (repeatStep.getEmitTraversal() != null && emit == null)) {
+            return null;
+        }
+        VertexStep<?> vertexStep = (VertexStep) steps.get(0);
+        return new RecursiveRepeat(
+                vertexStep.getDirection(),
+                vertexStep.getEdgeLabels(),
+                until,
+                repeatStep.untilFirst,
+                emit,
+                repeatStep.emitFirst,
+                simplePath
+        );
+    }
+
+    /**
+     * @return the HasContainers of a traversal of HasSteps, an empty list for emit() and null for anything else.
+     */
+    private static List<HasContainer> hasContainers(Traversal.Admin<?, ?> traversal) {
+        if (traversal == null) {
+            return null;
+        }
+        if (traversal instanceof TrueTraversal) {
+            return new ArrayList<>();
+        }
+        List<HasContainer> result = new ArrayList<>();
+        for (Step step : traversal.getSteps()) {
+            if (!(step instanceof HasStep) || hasUserLabels(step)) {
+                return null;
+            }
+            result.addAll(((HasStep<?>) step).getHasContainers());
+        }
+        if (result.isEmpty() || !result.stream().allMatch(RecursiveRepeat::isSupported)) {
+            return null;
+        }
+        return result;
+    }
+
+    //strategies mark steps with hidden labels, e.g. IncidentToAdjacentStrategy
+    private static boolean hasUserLabels(Step<?, ?> step) {
+        return step.getLabels().stream().anyMatch(l -> !Graph.Hidden.isHidden(l));
+    }
+
+    @Override
+    public Set<Class<? extends OptimizationStrategy>> applyPrior() {
+        return Stream.of(SqlgGraphStepStrategy.class, SqlgVertexStepStrategy.class).collect(Collectors.toSet());
+    }
+
+}
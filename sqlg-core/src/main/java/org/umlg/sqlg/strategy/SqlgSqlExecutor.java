@@ -4,13 +4,16 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.apache.commons.lang3.tuple.Triple;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.umlg.sqlg.sql.parse.Aggregate;
 import org.umlg.sqlg.sql.parse.SchemaTableTree;
+import org.umlg.sqlg.sql.parse.UnionSql;
 import org.umlg.sqlg.structure.RecordId;
 import org.umlg.sqlg.structure.SqlgGraph;
 import org.umlg.sqlg.util.SqlgUtil;
 
 import java.sql.*;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -27,31 +30,101 @@ public class SqlgSqlExecutor {
     public static Triple<ResultSet, ResultSetMetaData, PreparedStatement> executeRegularQuery(
             SqlgGraph sqlgGraph,
             SchemaTableTree rootSchemaTableTree,
-            RecordId recordId,
+            List<RecordId> recordIds,
             LinkedList<SchemaTableTree> distinctQueryStack) {
 
         String sql = rootSchemaTableTree.constructSql(distinctQueryStack);
-        return executeQuery(sqlgGraph, recordId, sql, distinctQueryStack);
+        return executeQuery(sqlgGraph, recordIds, sql, distinctQueryStack);
     }
 
     public static Triple<ResultSet, ResultSetMetaData, PreparedStatement> executeOptionalQuery(
-            SqlgGraph sqlgGraph, SchemaTableTree rootSchemaTableTree, RecordId recordId,
+            SqlgGraph sqlgGraph, SchemaTableTree rootSchemaTableTree, List<RecordId> recordIds,
             Pair<LinkedList<SchemaTableTree>, Set<SchemaTableTree>> leftJoinQuery) {
 
         String sql = rootSchemaTableTree.constructSqlForOptional(leftJoinQuery.getLeft(), leftJoinQuery.getRight());
         LinkedList<SchemaTableTree> distinctQueryStack = leftJoinQuery.getLeft();
-        return executeQuery(sqlgGraph, recordId, sql, distinctQueryStack);
+        return executeQuery(sqlgGraph, recordIds, sql, distinctQueryStack);
     }
 
     public static Triple<ResultSet, ResultSetMetaData, PreparedStatement> executeEmitQuery(
-            SqlgGraph sqlgGraph, SchemaTableTree rootSchemaTableTree, RecordId recordId,
+            SqlgGraph sqlgGraph, SchemaTableTree rootSchemaTableTree, List<RecordId> recordIds,
             LinkedList<SchemaTableTree> leftJoinQuery) {
 
         String sql = rootSchemaTableTree.constructSqlForEmit(leftJoinQuery);
-        return executeQuery(sqlgGraph, recordId, sql, leftJoinQuery);
+        return executeQuery(sqlgGraph, recordIds, sql, leftJoinQuery);
     }
 
-    private static Triple<ResultSet, ResultSetMetaData, PreparedStatement> executeQuery(SqlgGraph sqlgGraph, RecordId recordId, String sql, LinkedList<SchemaTableTree> distinctQueryStack) {
+    /**
+     * @return null if the query can not contribute to the aggregate.
+     */
+    public static Triple<ResultSet, ResultSetMetaData, PreparedStatement> executeAggregateQuery(
+            SqlgGraph sqlgGraph, SchemaTableTree rootSchemaTableTree, List<RecordId> recordIds,
+            LinkedList<SchemaTableTree> distinctQueryStack, Aggregate aggregate) {
+
+        String sql = rootSchemaTableTree.constructAggregateSql(distinctQueryStack, aggregate);
+        if (sql == null) {
+            return null;
+        }
+        return executeQuery(sqlgGraph, recordIds, sql, distinctQueryStack);
+    }
+
+    /**
+     * Executes the regular queries merged into one UNION ALL statement.
+     * The parameters of every query are bound in the order of the queries.
+     */
+    public static Triple<ResultSet, ResultSetMetaData, PreparedStatement> executeUnionQuery(
+            SqlgGraph sqlgGraph, UnionSql unionSql, List<RecordId> recordIds) {
+
+        try {
+            Connection conn = sqlgGraph.tx().getConnection();
+            if (logger.isDebugEnabled()) {
+                logger.debug(unionSql.getSql());
+            }
+            PreparedStatement preparedStatement = sqlgGraph.tx().prepareStatement(unionSql.getSql());
+            int parameterCount = 1;
+            for (LinkedList<SchemaTableTree> distinctQueryStack : unionSql.getDistinctQueryStacks()) {
+                parameterCount = SqlgUtil.setParentIdParameters(sqlgGraph, preparedStatement, recordIds, parameterCount);
+                parameterCount = SqlgUtil.setParametersOnStatement(sqlgGraph, distinctQueryStack, conn, preparedStatement, parameterCount);
+            }
+            preparedStatement.setFetchSize(sqlgGraph.tx().getFetchSize());
+            setQueryTimeout(preparedStatement, sqlgGraph.tx().getQueryTimeoutMs());
+            ResultSet resultSet = preparedStatement.executeQuery();
+            ResultSetMetaData resultSetMetaData = resultSet.getMetaData();
+            return Triple.of(resultSet, resultSetMetaData, preparedStatement);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Executes a query without parameters, e.g. a recursive query that has its values written as literals.
+     * The sql is unique per call so the statement is not pooled, the caller closes it.
+     */
+    public static Triple<ResultSet, ResultSetMetaData, PreparedStatement> executeQuery(SqlgGraph sqlgGraph, String sql) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(sql);
+        }
+        PreparedStatement preparedStatement = null;
+        try {
+            preparedStatement = sqlgGraph.tx().getConnection().prepareStatement(sql);
+            preparedStatement.setFetchSize(sqlgGraph.tx().getFetchSize());
+            setQueryTimeout(preparedStatement, sqlgGraph.tx().getQueryTimeoutMs());
+            ResultSet resultSet = preparedStatement.executeQuery();
+            ResultSetMetaData resultSetMetaData = resultSet.getMetaData();
+            return Triple.of(resultSet, resultSetMetaData, preparedStatement);
+        } catch (SQLException e) {
+            if (preparedStatement != null) {
+                try {
+                    preparedStatement.close();
+                } catch (SQLException closeException) {
+                    e.addSuppressed(closeException);
+                }
+            }
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static Triple<ResultSet, ResultSetMetaData, PreparedStatement> executeQuery(SqlgGraph sqlgGraph, List<RecordId> recordIds, String sql, LinkedList<SchemaTableTree> distinctQueryStack) {
         try {
             Connection conn = sqlgGraph.tx().getConnection();
             if (logger.isDebugEnabled()) {
@@ -81,19 +154,43 @@ public class SqlgSqlExecutor {
 //            		logger.warn(sqle.getMessage());
 //            	}
 //            }
-            PreparedStatement preparedStatement = conn.prepareStatement(sql);
-            sqlgGraph.tx().add(preparedStatement);
-            int parameterCount = 1;
-            if (recordId != null) {
-                preparedStatement.setLong(parameterCount++, recordId.getId());
-            }
-            SqlgUtil.setParametersOnStatement(sqlgGraph, distinctQueryStack, conn, preparedStatement, parameterCount);
-//            preparedStatement.setFetchSize(100_000);
-            ResultSet resultSet = preparedStatement.executeQuery();
-            ResultSetMetaData resultSetMetaData = resultSet.getMetaData();
-            return Triple.of(resultSet, resultSetMetaData, preparedStatement);
+            PreparedStatement preparedStatement = sqlgGraph.tx().prepareStatement(sql);
+            return bindAndExecute(sqlgGraph, conn, preparedStatement, recordIds, distinctQueryStack, sqlgGraph.tx().getFetchSize(), sqlgGraph.tx().getQueryTimeoutMs());
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Executes already constructed sql on a connection other than the transaction's.
+     * The statement is prepared by the caller so that it can be cancelled while executing, the caller must close it.
+     */
+    public static Triple<ResultSet, ResultSetMetaData, PreparedStatement> executeQuery(SqlgGraph sqlgGraph, Connection conn, PreparedStatement preparedStatement, List<RecordId> recordIds, String sql, LinkedList<SchemaTableTree> distinctQueryStack, int fetchSize, int queryTimeoutMs) throws SQLException {
+        if (logger.isDebugEnabled()) {
+            logger.debug(sql);
+        }
+        return bindAndExecute(sqlgGraph, conn, preparedStatement, recordIds, distinctQueryStack, fetchSize, queryTimeoutMs);
+    }
+
+    private static Triple<ResultSet, ResultSetMetaData, PreparedStatement> bindAndExecute(SqlgGraph sqlgGraph, Connection conn, PreparedStatement preparedStatement, List<RecordId> recordIds, LinkedList<SchemaTableTree> distinctQueryStack, int fetchSize, int queryTimeoutMs) throws SQLException {
+        int parameterCount = SqlgUtil.setParentIdParameters(sqlgGraph, preparedStatement, recordIds, 1);
+        SqlgUtil.setParametersOnStatement(sqlgGraph, distinctQueryStack, conn, preparedStatement, parameterCount);
+        preparedStatement.setFetchSize(fetchSize);
+        setQueryTimeout(preparedStatement, queryTimeoutMs);
+        ResultSet resultSet = preparedStatement.executeQuery();
+        ResultSetMetaData resultSetMetaData = resultSet.getMetaData();
+        return Triple.of(resultSet, resultSetMetaData, preparedStatement);
+    }
+
+    /**
+     * Applies query.timeoutMs to a statement that reads for a traversal.
+     * Jdbc timeouts are in seconds, so the timeout is rounded up.
+     * The statements are pooled so the timeout is reset when there is none.
+     */
+    public static void setQueryTimeout(Statement statement, int queryTimeoutMs) throws SQLException {
+        int seconds = queryTimeoutMs <= 0 ? 0 : (int) ((queryTimeoutMs + 999L) / 1000);
+        if (statement.getQueryTimeout() != seconds) {
+            statement.setQueryTimeout(seconds);
+        }
+    }
 }
@@ -9,14 +9,17 @@ import org.apache.tinkerpop.gremlin.process.traversal.step.map.FlatMapStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.util.EmptyStep;
 import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.CloseableIterator;
 import org.apache.tinkerpop.gremlin.util.iterator.EmptyIterator;
 import org.umlg.sqlg.process.SqlgRawIteratorToEmitIterator;
 import org.umlg.sqlg.sql.parse.ReplacedStep;
 import org.umlg.sqlg.sql.parse.SchemaTableTree;
+import org.umlg.sqlg.structure.RecordId;
 import org.umlg.sqlg.structure.SchemaManager;
 import org.umlg.sqlg.structure.SchemaTable;
 import org.umlg.sqlg.structure.SqlgElement;
 import org.umlg.sqlg.structure.SqlgGraph;
+import org.umlg.sqlg.util.SqlgUtil;
 
 import java.util.*;
 
@@ -24,12 +27,22 @@ import java.util.*;
  * Date: 2014/08/15
  * Time: 8:10 PM
  */
-public class SqlgVertexStepCompiled<S extends SqlgElement, E extends SqlgElement> extends FlatMapStep implements SqlgStep {
+public class SqlgVertexStepCompiled<S extends SqlgElement, E extends SqlgElement> extends FlatMapStep implements SqlgStep, AutoCloseable {
+
+    //The number of incoming traversers to execute in one query. 1 executes a query per incoming traverser.
+    public static final String VERTEX_STEP_BATCH_SIZE = "vertex.step.batch.size";
+    private static final int DEFAULT_VERTEX_STEP_BATCH_SIZE = 1;
 
     private Traverser.Admin<E> head = null;
     private Iterator<Emit<E>> iterator = EmptyIterator.instance();
+    private Iterator<Pair<Traverser.Admin<E>, Iterator<Emit<E>>>> batchIterator = EmptyIterator.instance();
+    private int batchSize = -1;
     private List<ReplacedStep<S, E>> replacedSteps = new ArrayList<>();
     private Map<SchemaTableTree, List<Pair<LinkedList<SchemaTableTree>, String>>> parsedForStrategySql = new HashMap<>();
+    /**
+     * do the traversers keep a path? If not only the last element of an emit is put on a traverser.
+     */
+    private Boolean pathTracking;
 
     public SqlgVertexStepCompiled(final Traversal.Admin traversal) {
         super(traversal);
@@ -51,6 +64,9 @@ public class SqlgVertexStepCompiled<S extends SqlgElement, E extends SqlgElement
                     //if the step is a local step and it existVertexLabel no label then it is for the incoming object and only and already on the traverser.
                     if (emit.isIncomingOnlyLocalOptionalStep()) {
                         return traverser;
+                    } else if (!isPathTracking()) {
+                        E e = (E) emit.getPath().objects().get(emit.getPath().size() - 1);
+                        traverser = traverser.split(e, EmptyStep.instance());
                     } else {
                         for (int i = 0; i < emit.getPath().size(); i++) {
                             E e = (E) emit.getPath().objects().get(i);
@@ -61,13 +77,87 @@ public class SqlgVertexStepCompiled<S extends SqlgElement, E extends SqlgElement
                     return traverser;
                 }
 
+            } else if (this.batchIterator.hasNext()) {
+                Pair<Traverser.Admin<E>, Iterator<Emit<E>>> traverserEmits = this.batchIterator.next();
+                this.head = traverserEmits.getLeft();
+                this.iterator = traverserEmits.getRight();
             } else {
-                this.head = this.starts.next();
-                this.iterator = new SqlgRawIteratorToEmitIterator<>(this.flatMapCustom(this.head));
+                Traverser.Admin<E> start = this.starts.next();
+                if (isBatchable(start)) {
+                    this.batchIterator = flatMapBatch(start);
+                } else {
+                    this.head = start;
+                    this.iterator = new SqlgRawIteratorToEmitIterator<>(this.flatMapCustom(this.head));
+                }
             }
         }
     }
 
+    /**
+     * Batching is only done for replaced steps whose results are independent per incoming element,
+     * i.e. no order, emit or optional. A range on the vertex step is an upper bound for all its queries so it may be batched.
+     */
+    private boolean isBatchable(Traverser.Admin<E> start) {
+        if (this.batchSize == -1) {
+            SqlgGraph sqlgGraph = (SqlgGraph) start.get().graph();
+            int configuredBatchSize = sqlgGraph.configuration().getInt(VERTEX_STEP_BATCH_SIZE, DEFAULT_VERTEX_STEP_BATCH_SIZE);
+            boolean batchableReplacedSteps = this.replacedSteps.stream().allMatch(r ->
+                    r.getComparators().isEmpty() && !r.isEmit() && !r.isLeftJoin()) &&
+                    this.traversal.getSteps().stream().noneMatch(s -> s instanceof SqlgOrderGlobalStep);
+            this.batchSize = batchableReplacedSteps ? configuredBatchSize : 1;
+        }
+        return this.batchSize > 1 && this.starts.hasNext();
+    }
+
+    /**
+     * Pulls up to batchSize incoming traversers and executes one query per SchemaTable of the incoming elements,
+     * more if the ids of a SchemaTable exceed the dialect's parameter limit.
+     * The rows are routed back to their incoming traverser via the incoming element's id.
+     * The traversers are returned in the order they came in.
+     */
+    private Iterator<Pair<Traverser.Admin<E>, Iterator<Emit<E>>>> flatMapBatch(Traverser.Admin<E> first) {
+        List<Traverser.Admin<E>> batch = new ArrayList<>(this.batchSize);
+        batch.add(first);
+        while (batch.size() < this.batchSize && this.starts.hasNext()) {
+            batch.add(this.starts.next());
+        }
+        Map<SchemaTable, Map<RecordId, E>> elementsPerSchemaTable = new LinkedHashMap<>();
+        for (Traverser.Admin<E> traverser : batch) {
+            E e = traverser.get();
+            elementsPerSchemaTable.computeIfAbsent(schemaTablePrefixed(e), k -> new LinkedHashMap<>()).put((RecordId) e.id(), e);
+        }
+        //ids are only unique per SchemaTable
+        Map<SchemaTable, Map<Long, List<List<Emit<E>>>>> emitsPerParentId = new HashMap<>();
+        int maxParentIdCount = SqlgUtil.maxParentIdCount(((SqlgGraph) first.get().graph()).getSqlDialect());
+        for (Map.Entry<SchemaTable, Map<RecordId, E>> schemaTableElements : elementsPerSchemaTable.entrySet()) {
+            List<RecordId> recordIds = new ArrayList<>(schemaTableElements.getValue().keySet());
+            Map<Long, List<List<Emit<E>>>> schemaTableEmits = new HashMap<>();
+            emitsPerParentId.put(schemaTableElements.getKey(), schemaTableEmits);
+            for (int from = 0; from < recordIds.size(); from += maxParentIdCount) {
+                List<RecordId> chunk = recordIds.subList(from, Math.min(recordIds.size(), from + maxParentIdCount));
+                E e = schemaTableElements.getValue().get(chunk.get(0));
+                Iterator<List<Emit<E>>> rawIterator = e.elements(this.replacedSteps, chunk);
+                while (rawIterator.hasNext()) {
+                    List<Emit<E>> emits = rawIterator.next();
+                    //a single element is queried with '=' and the parent id is not selected
+                    long parentId = chunk.size() == 1 ? ((RecordId) e.id()).getId() : emits.get(emits.size() - 1).getParentId();
+                    schemaTableEmits.computeIfAbsent(parentId, k -> new ArrayList<>()).add(emits);
+                }
+            }
+        }
+        List<Pair<Traverser.Admin<E>, Iterator<Emit<E>>>> result = new ArrayList<>(batch.size());
+        for (Traverser.Admin<E> traverser : batch) {
+            E e = traverser.get();
+            List<List<Emit<E>>> emits = emitsPerParentId.get(schemaTablePrefixed(e)).getOrDefault(((RecordId) e.id()).getId(), Collections.emptyList());
+            result.add(Pair.of(traverser, new SqlgRawIteratorToEmitIterator<>(emits.iterator())));
+        }
+        return result.iterator();
+    }
+
+    private static SchemaTable schemaTablePrefixed(SqlgElement e) {
+        return SchemaTable.of(e.getSchema(), e instanceof Vertex ? SchemaManager.VERTEX_PREFIX + e.getTable() : SchemaManager.EDGE_PREFIX + e.getTable());
+    }
+
     @Override
     public Set<String> getLabels() {
         return new HashSet<>();
@@ -116,15 +206,44 @@ public class SqlgVertexStepCompiled<S extends SqlgElement, E extends SqlgElement
         return replacedSteps;
     }
 
+    @Override
+    public void close() {
+        CloseableIterator.closeIterator(this.iterator);
+    }
+
     @Override
     public void reset() {
         super.reset();
         this.iterator = EmptyIterator.instance();
+        this.batchIterator = EmptyIterator.instance();
     }
 
+    /**
+     * Only labels on the replaced steps need a path, steps that use the whole path, i.e. path() or simplePath(),
+     * require it themselves.
+     */
     @Override
     public Set<TraverserRequirement> getRequirements() {
-        return EnumSet.of(TraverserRequirement.PATH, TraverserRequirement.SIDE_EFFECTS);
+        if (this.replacedSteps.stream().anyMatch(ReplacedStep::hasUserLabels)) {
+            return EnumSet.of(TraverserRequirement.LABELED_PATH, TraverserRequirement.SIDE_EFFECTS);
+        } else {
+            return EnumSet.of(TraverserRequirement.SIDE_EFFECTS);
+        }
+    }
+
+    private boolean isPathTracking() {
+        if (this.pathTracking == null) {
+            this.pathTracking = isPathTracking(this.traversal);
+        }
+        return this.pathTracking;
+    }
+
+    /**
+     * @return true if the traversers of the traversal keep a path or the labeled elements of it.
+     */
+    static boolean isPathTracking(Traversal.Admin<?, ?> traversal) {
+        Set<TraverserRequirement> provided = traversal.getTraverserGenerator().getProvidedRequirements();
+        return provided.contains(TraverserRequirement.PATH) || provided.contains(TraverserRequirement.LABELED_PATH);
     }
 
     @Override
@@ -1,9 +1,11 @@
 package org.umlg.sqlg.strategy;
 
 import com.google.common.base.Preconditions;
+import org.apache.commons.lang3.Range;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.apache.tinkerpop.gremlin.process.traversal.Step;
 import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.RangeGlobalStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.EdgeOtherVertexStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.EdgeVertexStep;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.OrderGlobalStep;
@@ -51,7 +53,17 @@ public class SqlgVertexStepStrategy extends BaseSqlgStrategy {
             return;
         }
         combineSteps(traversal, steps, stepIterator);
-
+        //When batching is on, vertex steps after a step that could not be optimized are also compiled.
+        //Their incoming traversers can then be executed in batches, instead of a query per traverser.
+        if (sqlgGraph.configuration().getInt(SqlgVertexStepCompiled.VERTEX_STEP_BATCH_SIZE, 1) > 1) {
+            while (stepIterator.hasNext()) {
+                Step step = stepIterator.next();
+                if (isReplaceableStep(step.getClass(), false) && traversal.getSteps().contains(step)) {
+                    stepIterator.previous();
+                    combineSteps(traversal, steps, stepIterator);
+                }
+            }
+        }
     }
 
     @Override
@@ -79,9 +91,27 @@ public class SqlgVertexStepStrategy extends BaseSqlgStrategy {
     @Override
     protected void doLastEntry(Step step, ListIterator<Step> stepIterator, Traversal.Admin<?, ?> traversal, ReplacedStep<?, ?> lastReplacedStep, SqlgStep sqlgStep, int pathCount) {
         Preconditions.checkArgument(lastReplacedStep != null);
+        collectRangeUpperBound(step, sqlgStep, lastReplacedStep);
         replaceOrderGlobalSteps(step, stepIterator, traversal, lastReplacedStep);
     }
 
+    /**
+     * A range directly after the vertex step is pushed down as a LIMIT on every query of the step.
+     * The queries are per incoming element or batch of elements, so the limit is only an upper bound
+     * and the RangeGlobalStep stays to apply the range over all of them.
+     * A query row is one traverser unless emitting or left joining, ordering must see all the rows.
+     */
+    private static void collectRangeUpperBound(Step step, SqlgStep<?, ?> sqlgStep, ReplacedStep<?, ?> lastReplacedStep) {
+        if (step instanceof RangeGlobalStep && ((RangeGlobalStep) step).getHighRange() != -1) {
+            for (ReplacedStep<?, ?> replacedStep : sqlgStep.getReplacedSteps()) {
+                if (replacedStep.isEmit() || replacedStep.isLeftJoin() || !replacedStep.getComparators().isEmpty() || replacedStep.getRange() != null) {
+                    return;
+                }
+            }
+            lastReplacedStep.setRange(Range.between(0L, ((RangeGlobalStep) step).getHighRange()));
+        }
+    }
+
 
     private static void replaceOrderGlobalSteps(Step step, ListIterator<Step> iterator, Traversal.Admin<?, ?> traversal, ReplacedStep<?, ?> replacedStep) {
         //Collect the OrderGlobalSteps
@@ -28,6 +28,8 @@ public abstract class AbstractLabel implements TopologyInf {
     protected SqlgGraph sqlgGraph;
     protected Map<String, PropertyColumn> properties = new HashMap<>();
     Map<String, PropertyColumn> uncommittedProperties = new HashMap<>();
+    //the slot layout of the committed properties, built on first use and reset when they change
+    private volatile PropertyLayout propertyLayout;
     protected Map<String, PropertyColumn> globalUniqueIndexProperties = new HashMap<>();
     Map<String, PropertyColumn> uncommittedGlobalUniqueIndexProperties = new HashMap<>();
     private Map<String, Index> indexes = new HashMap<>();
@@ -145,6 +147,18 @@ public abstract class AbstractLabel implements TopologyInf {
         }
     }
 
+    /**
+     * Uncommitted properties are not part of the layout, elements keep them in a map until the label is committed.
+     */
+    PropertyLayout getPropertyLayout() {
+        PropertyLayout result = this.propertyLayout;
+        if (result == null) {
+            result = new PropertyLayout(this.properties);
+            this.propertyLayout = result;
+        }
+        return result;
+    }
+
     Map<String, PropertyType> getPropertyTypeMap() {
         Map<String, PropertyType> result = new HashMap<>();
         this.properties.forEach((k, v) -> result.put(k, v.getPropertyType()));
@@ -225,6 +239,7 @@ public abstract class AbstractLabel implements TopologyInf {
     void addProperty(Vertex propertyVertex) {
         PropertyColumn property = new PropertyColumn(this, propertyVertex.value(SQLG_SCHEMA_PROPERTY_NAME), PropertyType.valueOf(propertyVertex.value(SQLG_SCHEMA_PROPERTY_TYPE)));
         this.properties.put(propertyVertex.value(SQLG_SCHEMA_PROPERTY_NAME), property);
+        this.propertyLayout = null;
     }
 
     void afterCommit() {
@@ -234,6 +249,7 @@ public abstract class AbstractLabel implements TopologyInf {
             this.properties.put(entry.getKey(), entry.getValue());
             entry.getValue().afterCommit();
             it.remove();
+            this.propertyLayout = null;
         }
         for (Iterator<Map.Entry<String, PropertyColumn>> it = this.uncommittedGlobalUniqueIndexProperties.entrySet().iterator(); it.hasNext(); ) {
             Map.Entry<String, PropertyColumn> entry = it.next();
@@ -315,6 +331,7 @@ public abstract class AbstractLabel implements TopologyInf {
             for (JsonNode propertyNode : propertiesNode) {
                 PropertyColumn propertyColumn = PropertyColumn.fromNotifyJson(this, propertyNode);
                 PropertyColumn old=this.properties.put(propertyColumn.getName(), propertyColumn);
+                this.propertyLayout = null;
                 if (fire && old==null){
                 	this.getSchema().getTopology().fire(propertyColumn, "", TopologyChangeAction.CREATE);
                 }
@@ -0,0 +1,269 @@
+package org.umlg.sqlg.structure;
+
+import org.apache.commons.lang3.tuple.Triple;
+
+import java.util.*;
+
+/**
+ * The map of new elements to their values, per label, that {@link BatchManager} hands to the dialects.
+ * The rows are stored in {@link BatchColumns}, the entries iterate in insertion order and the values are views of the
+ * rows. The dialects read the rows through {@link BatchRows}, which allocates nothing per row.
+ * <p>
+ * Date: 2026/10/18
+ * Time: 5:00 PM
+ */
+abstract class BatchBuffer<E extends SqlgElement, V> extends AbstractMap<E, V> implements BatchRows {
+
+    final BatchColumns columns = new BatchColumns();
+
+    abstract V value(int row);
+
+    @Override
+    public V get(Object key) {
+        int row = this.columns.row(key);
+        return row != -1 ? value(row) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return this.columns.row(key) != -1;
+    }
+
+    @Override
+    public V remove(Object key) {
+        int row = this.columns.row(key);
+        if (row == -1) {
+            return null;
+        }
+        V previous = copy(row);
+        removeRow(row);
+        return previous;
+    }
+
+    /**
+     * @return the value of the row that stays valid after the row is removed.
+     */
+    abstract V copy(int row);
+
+    void removeRow(int row) {
+        this.columns.removeRow(row);
+    }
+
+    @Override
+    public int size() {
+        return this.columns.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.columns.size() == 0;
+    }
+
+    @Override
+    public void clear() {
+        this.columns.clear();
+    }
+
+    @Override
+    public int rowCount() {
+        return this.columns.rowCount();
+    }
+
+    @Override
+    public SqlgElement element(int row) {
+        return this.columns.element(row);
+    }
+
+    @Override
+    public SqlgVertex outVertex(int row) {
+        return null;
+    }
+
+    @Override
+    public SqlgVertex inVertex(int row) {
+        return null;
+    }
+
+    @Override
+    public Column column(String key) {
+        return this.columns.column(key);
+    }
+
+    /**
+     * The keys without the values of the rows.
+     */
+    @Override
+    public Set<E> keySet() {
+        return new AbstractSet<E>() {
+            @Override
+            public Iterator<E> iterator() {
+                return new Iterator<E>() {
+                    private int next = nextRow(0);
+                    private int current = -1;
+
+                    @Override
+                    public boolean hasNext() {
+                        return this.next < BatchBuffer.this.columns.rowCount();
+                    }
+
+                    @SuppressWarnings("unchecked")
+                    @Override
+                    public E next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        this.current = this.next;
+                        this.next = nextRow(this.current + 1);
+                        return (E) BatchBuffer.this.columns.element(this.current);
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (this.current == -1) {
+                            throw new IllegalStateException();
+                        }
+                        removeRow(this.current);
+                        this.current = -1;
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+
+            @Override
+            public int size() {
+                return BatchBuffer.this.size();
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<E, V>> entrySet() {
+        return new AbstractSet<Entry<E, V>>() {
+            @Override
+            public Iterator<Entry<E, V>> iterator() {
+                return new Iterator<Entry<E, V>>() {
+                    private int next = nextRow(0);
+                    private int current = -1;
+
+                    @Override
+                    public boolean hasNext() {
+                        return this.next < BatchBuffer.this.columns.rowCount();
+                    }
+
+                    @SuppressWarnings("unchecked")
+                    @Override
+                    public Entry<E, V> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        this.current = this.next;
+                        this.next = nextRow(this.current + 1);
+                        return new SimpleImmutableEntry<>((E) BatchBuffer.this.columns.element(this.current), value(this.current));
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (this.current == -1) {
+                            throw new IllegalStateException();
+                        }
+                        removeRow(this.current);
+                        this.current = -1;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return BatchBuffer.this.size();
+            }
+        };
+    }
+
+    private int nextRow(int row) {
+        while (row < this.columns.rowCount() && this.columns.element(row) == null) {
+            row++;
+        }
+        return row;
+    }
+
+    static final class Vertices extends BatchBuffer<SqlgVertex, Map<String, Object>> {
+
+        @Override
+        public Map<String, Object> put(SqlgVertex sqlgVertex, Map<String, Object> keyValueMap) {
+            Map<String, Object> previous = remove(sqlgVertex);
+            this.columns.addRow(sqlgVertex, keyValueMap);
+            return previous;
+        }
+
+        @Override
+        Map<String, Object> value(int row) {
+            return this.columns.values(row);
+        }
+
+        @Override
+        Map<String, Object> copy(int row) {
+            return new HashMap<>(this.columns.values(row));
+        }
+    }
+
+    /**
+     * The out and in vertices of the edges are kept in arrays next to the columns.
+     */
+    static final class Edges extends BatchBuffer<SqlgEdge, Triple<SqlgVertex, SqlgVertex, Map<String, Object>>> {
+
+        private SqlgVertex[] outVertices = new SqlgVertex[0];
+        private SqlgVertex[] inVertices = new SqlgVertex[0];
+
+        @Override
+        public Triple<SqlgVertex, SqlgVertex, Map<String, Object>> put(SqlgEdge sqlgEdge, Triple<SqlgVertex, SqlgVertex, Map<String, Object>> outInValues) {
+            Triple<SqlgVertex, SqlgVertex, Map<String, Object>> previous = remove(sqlgEdge);
+            int row = this.columns.addRow(sqlgEdge, outInValues.getRight());
+            if (row == this.outVertices.length) {
+                int capacity = Math.max(16, row * 2);
+                this.outVertices = Arrays.copyOf(this.outVertices, capacity);
+                this.inVertices = Arrays.copyOf(this.inVertices, capacity);
+            }
+            this.outVertices[row] = outInValues.getLeft();
+            this.inVertices[row] = outInValues.getMiddle();
+            return previous;
+        }
+
+        @Override
+        public SqlgVertex outVertex(int row) {
+            return this.outVertices[row];
+        }
+
+        @Override
+        public SqlgVertex inVertex(int row) {
+            return this.inVertices[row];
+        }
+
+        @Override
+        Triple<SqlgVertex, SqlgVertex, Map<String, Object>> value(int row) {
+            return Triple.of(this.outVertices[row], this.inVertices[row], this.columns.values(row));
+        }
+
+        @Override
+        Triple<SqlgVertex, SqlgVertex, Map<String, Object>> copy(int row) {
+            return Triple.of(this.outVertices[row], this.inVertices[row], new HashMap<>(this.columns.values(row)));
+        }
+
+        @Override
+        void removeRow(int row) {
+            super.removeRow(row);
+            this.outVertices[row] = null;
+            this.inVertices[row] = null;
+        }
+
+        @Override
+        public void clear() {
+            super.clear();
+            this.outVertices = new SqlgVertex[0];
+            this.inVertices = new SqlgVertex[0];
+        }
+    }
+}
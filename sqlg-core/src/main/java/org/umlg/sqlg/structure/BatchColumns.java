@@ -0,0 +1,386 @@
+package org.umlg.sqlg.structure;
+
+import com.google.common.base.Preconditions;
+
+import java.util.*;
+
+/**
+ * The new elements of a label in normal batch mode and their property values, stored a column per property.
+ * Boolean and numeric values are stored unboxed in a long array with a bitmap of the rows that hold a value,
+ * other values in an object array.
+ * An element knows its row, {@link SqlgElement#batchRow}, so finding it does not hash the element.
+ * Removed rows stay empty till the batch is flushed.
+ * The elements read their values from their row, see {@link ElementProperties}, and copy them when their row is
+ * removed or the batch cleared.
+ * <p>
+ * Date: 2026/10/18
+ * Time: 5:00 PM
+ */
+final class BatchColumns {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private SqlgElement[] elements = new SqlgElement[INITIAL_CAPACITY];
+    private final Map<String, Column> columns = new HashMap<>();
+    private int rowCount = 0;
+    private int removedCount = 0;
+
+    int addRow(SqlgElement sqlgElement, Map<String, Object> keyValueMap) {
+        if (this.rowCount == this.elements.length) {
+            this.elements = Arrays.copyOf(this.elements, this.rowCount * 2);
+        }
+        int row = this.rowCount++;
+        this.elements[row] = sqlgElement;
+        sqlgElement.batchRow = row;
+        for (Map.Entry<String, Object> keyValue : keyValueMap.entrySet()) {
+            if (keyValue.getValue() != null) {
+                put(row, keyValue.getKey(), keyValue.getValue());
+            }
+        }
+        sqlgElement.properties.joinBatch(this);
+        return row;
+    }
+
+    /**
+     * @return the row of the element, -1 if the element is not in this batch.
+     */
+    int row(Object element) {
+        if (!(element instanceof SqlgElement)) {
+            return -1;
+        }
+        int row = ((SqlgElement) element).batchRow;
+        return row >= 0 && row < this.rowCount && this.elements[row] == element ? row : -1;
+    }
+
+    /**
+     * @return the element of the row, null if the row is removed.
+     */
+    SqlgElement element(int row) {
+        return this.elements[row];
+    }
+
+    void removeRow(int row) {
+        Preconditions.checkState(this.elements[row] != null, "row %s is already removed", row);
+        this.elements[row].properties.leaveBatch(this);
+        this.elements[row] = null;
+        this.removedCount++;
+        for (Column column : this.columns.values()) {
+            column.remove(row);
+        }
+    }
+
+    /**
+     * @return the number of rows including the removed ones.
+     */
+    int rowCount() {
+        return this.rowCount;
+    }
+
+    int size() {
+        return this.rowCount - this.removedCount;
+    }
+
+    void clear() {
+        for (int row = 0; row < this.rowCount; row++) {
+            if (this.elements[row] != null) {
+                this.elements[row].properties.leaveBatch(this);
+            }
+        }
+        this.elements = new SqlgElement[INITIAL_CAPACITY];
+        this.columns.clear();
+        this.rowCount = 0;
+        this.removedCount = 0;
+    }
+
+    Object get(int row, String key) {
+        Column column = this.columns.get(key);
+        return column != null ? column.get(row) : null;
+    }
+
+    /**
+     * @return the number of values of the row.
+     */
+    int valueCount(int row) {
+        int count = 0;
+        for (Column column : this.columns.values()) {
+            if (column.isPresent(row)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Puts the values of the row in the properties of its element, boolean and numeric values without boxing them.
+     */
+    void copyRow(int row, ElementProperties properties) {
+        for (Map.Entry<String, Column> keyColumn : this.columns.entrySet()) {
+            Column column = keyColumn.getValue();
+            if (column.isPresent(row)) {
+                if (column.primitiveType() != null) {
+                    properties.putBits(keyColumn.getKey(), column.primitiveType(), column.getBits(row));
+                } else {
+                    properties.put(keyColumn.getKey(), column.get(row));
+                }
+            }
+        }
+    }
+
+    Object put(int row, String key, Object value) {
+        if (value == null) {
+            return remove(row, key);
+        }
+        Column column = this.columns.get(key);
+        if (column == null) {
+            PropertyType primitiveType = primitiveType(value);
+            column = primitiveType != null ? new PrimitiveColumn(primitiveType) : new ObjectColumn();
+            this.columns.put(key, column);
+        } else if (!column.fits(value)) {
+            column = column.toObjectColumn(this.rowCount);
+            this.columns.put(key, column);
+        }
+        return column.put(row, value);
+    }
+
+    Object remove(int row, String key) {
+        Column column = this.columns.get(key);
+        return column != null ? column.remove(row) : null;
+    }
+
+    /**
+     * @return the values of the key, null if no row holds a value.
+     */
+    BatchRows.Column column(String key) {
+        return this.columns.get(key);
+    }
+
+    /**
+     * @return a view of the values of the row.
+     */
+    Map<String, Object> values(int row) {
+        return new RowValues(row);
+    }
+
+    private static PropertyType primitiveType(Object value) {
+        if (value instanceof Boolean) {
+            return PropertyType.BOOLEAN;
+        } else if (value instanceof Byte) {
+            return PropertyType.BYTE;
+        } else if (value instanceof Short) {
+            return PropertyType.SHORT;
+        } else if (value instanceof Integer) {
+            return PropertyType.INTEGER;
+        } else if (value instanceof Long) {
+            return PropertyType.LONG;
+        } else if (value instanceof Float) {
+            return PropertyType.FLOAT;
+        } else if (value instanceof Double) {
+            return PropertyType.DOUBLE;
+        } else {
+            return null;
+        }
+    }
+
+    private static int grow(int capacity, int row) {
+        return Math.max(Math.max(capacity * 2, INITIAL_CAPACITY), row + 1);
+    }
+
+    private abstract static class Column implements BatchRows.Column {
+
+        abstract Object put(int row, Object value);
+
+        abstract Object remove(int row);
+
+        abstract boolean fits(Object value);
+
+        ObjectColumn toObjectColumn(int rowCount) {
+            ObjectColumn objectColumn = new ObjectColumn();
+            for (int row = 0; row < rowCount; row++) {
+                Object value = get(row);
+                if (value != null) {
+                    objectColumn.put(row, value);
+                }
+            }
+            return objectColumn;
+        }
+    }
+
+    private static final class PrimitiveColumn extends Column {
+
+        private final PropertyType propertyType;
+        private long[] values = new long[0];
+        //a bit per row, set if the row holds a value
+        private long[] present = new long[0];
+
+        PrimitiveColumn(PropertyType propertyType) {
+            this.propertyType = propertyType;
+        }
+
+        @Override
+        public PropertyType primitiveType() {
+            return this.propertyType;
+        }
+
+        @Override
+        public boolean isPresent(int row) {
+            return row < this.values.length && (this.present[row >>> 6] & (1L << row)) != 0;
+        }
+
+        @Override
+        public long getBits(int row) {
+            return this.values[row];
+        }
+
+        @Override
+        public Object get(int row) {
+            return isPresent(row) ? ElementProperties.box(this.propertyType, this.values[row]) : null;
+        }
+
+        @Override
+        Object put(int row, Object value) {
+            Object previous = get(row);
+            if (row >= this.values.length) {
+                this.values = Arrays.copyOf(this.values, grow(this.values.length, row));
+                this.present = Arrays.copyOf(this.present, (this.values.length + 63) / 64);
+            }
+            this.values[row] = ElementProperties.toBits(value);
+            this.present[row >>> 6] |= 1L << row;
+            return previous;
+        }
+
+        @Override
+        Object remove(int row) {
+            Object previous = get(row);
+            if (previous != null) {
+                this.present[row >>> 6] &= ~(1L << row);
+            }
+            return previous;
+        }
+
+        @Override
+        boolean fits(Object value) {
+            return ElementProperties.fits(this.propertyType, value);
+        }
+    }
+
+    private static final class ObjectColumn extends Column {
+
+        private Object[] values = new Object[0];
+
+        @Override
+        public PropertyType primitiveType() {
+            return null;
+        }
+
+        @Override
+        public boolean isPresent(int row) {
+            return get(row) != null;
+        }
+
+        @Override
+        public long getBits(int row) {
+            throw new UnsupportedOperationException("An object column has no primitive values");
+        }
+
+        @Override
+        public Object get(int row) {
+            return row < this.values.length ? this.values[row] : null;
+        }
+
+        @Override
+        Object put(int row, Object value) {
+            Object previous = get(row);
+            if (row >= this.values.length) {
+                this.values = Arrays.copyOf(this.values, grow(this.values.length, row));
+            }
+            this.values[row] = value;
+            return previous;
+        }
+
+        @Override
+        Object remove(int row) {
+            Object previous = get(row);
+            if (previous != null) {
+                this.values[row] = null;
+            }
+            return previous;
+        }
+
+        @Override
+        boolean fits(Object value) {
+            return true;
+        }
+    }
+
+    private final class RowValues extends AbstractMap<String, Object> {
+
+        private final int row;
+
+        private RowValues(int row) {
+            this.row = row;
+        }
+
+        @Override
+        public Object get(Object key) {
+            return key instanceof String ? BatchColumns.this.get(this.row, (String) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Object put(String key, Object value) {
+            return BatchColumns.this.put(this.row, key, value);
+        }
+
+        @Override
+        public Object remove(Object key) {
+            return key instanceof String ? BatchColumns.this.remove(this.row, (String) key) : null;
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            List<Entry<String, Object>> entries = new ArrayList<>();
+            for (Map.Entry<String, Column> column : BatchColumns.this.columns.entrySet()) {
+                Object value = column.getValue().get(this.row);
+                if (value != null) {
+                    entries.add(new SimpleImmutableEntry<>(column.getKey(), value));
+                }
+            }
+            return new AbstractSet<Entry<String, Object>>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    Iterator<Entry<String, Object>> iterator = entries.iterator();
+                    return new Iterator<Entry<String, Object>>() {
+                        private Entry<String, Object> current;
+
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            this.current = iterator.next();
+                            return this.current;
+                        }
+
+                        @Override
+                        public void remove() {
+                            Preconditions.checkState(this.current != null);
+                            RowValues.this.remove(this.current.getKey());
+                            this.current = null;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return entries.size();
+                }
+            };
+        }
+    }
+}
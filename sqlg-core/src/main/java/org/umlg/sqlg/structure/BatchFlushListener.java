@@ -0,0 +1,32 @@
+package org.umlg.sqlg.structure;
+
+/**
+ * Notified after every flush of a normal batch with pending elements, register it with {@link SqlgTransaction#registerBatchFlushListener(BatchFlushListener)}.
+ * It is called on the thread of the transaction that flushed.
+ * <p>
+ * Date: 2026/10/18
+ * Time: 6:00 PM
+ */
+public interface BatchFlushListener {
+
+    enum Trigger {
+        //the transaction committed
+        COMMIT,
+        //SqlgTransaction.flush() was called, by the user or before a query
+        FLUSH,
+        //the pending elements reached batch.maxElements
+        MAX_ELEMENTS,
+        //the estimated size of the pending elements reached batch.maxBytes
+        MAX_BYTES,
+        //the new elements of a label reached batch.maxElements.<label>
+        LABEL_MAX_ELEMENTS
+    }
+
+    /**
+     * @param trigger        why the batch was flushed.
+     * @param elementCount   the number of new, updated and removed elements that were pending.
+     * @param estimatedBytes the estimated size of the pending elements' values.
+     * @param durationNanos  the time the flush took.
+     */
+    void flushed(Trigger trigger, int elementCount, long estimatedBytes, long durationNanos);
+}
@@ -7,6 +7,7 @@ import org.umlg.sqlg.sql.dialect.SqlBulkDialect;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.lang.reflect.Array;
 import java.util.*;
 
 /**
@@ -15,12 +16,23 @@ import java.util.*;
  */
 public class BatchManager {
 
+    //The number of pending new, updated and removed elements that triggers a flush in normal batch mode. 0 or less means no maximum.
+    //batch.maxElements.<label> sets the maximum for the new elements of one label, the label is prefixed with its schema if it is not in the public schema.
+    public static final String BATCH_MAX_ELEMENTS = "batch.maxElements";
+    //The estimated size in bytes of the values of the pending elements that triggers a flush in normal batch mode. 0 or less means no maximum.
+    public static final String BATCH_MAX_BYTES = "batch.maxBytes";
+    //the estimated size of an element and of a value that is not a number, string or array
+    private static final int ELEMENT_BYTES = 64;
+    private static final int VALUE_BYTES = 32;
+
     private SqlgGraph sqlgGraph;
     private SqlBulkDialect sqlDialect;
 
     //map per label/keys, contains a map of vertices with a triple representing outLabels, inLabels and vertex properties
+    //the vertices and their properties are stored in the columns of a BatchBuffer
     private Map<SchemaTable, Pair<SortedSet<String>, Map<SqlgVertex, Map<String, Object>>>> vertexCache = new HashMap<>();
     //map per label, contains a map edges. The triple is outVertex, inVertex, edge properties
+    //the edges and their properties are stored in the columns of a BatchBuffer
 
     private Map<MetaEdge, Pair<SortedSet<String>, Map<SqlgEdge, Triple<SqlgVertex, SqlgVertex, Map<String, Object>>>>> edgeCache = new HashMap<>();
 
@@ -46,6 +58,16 @@ public class BatchManager {
     private long batchIndex;
     private boolean isBusyFlushing;
 
+    private final int maxElements;
+    private final long maxBytes;
+    //the maximum per prefixed label, 0 if the label has none
+    private final Map<SchemaTable, Integer> labelMaxElements = new HashMap<>();
+    //the pending elements of the normal batch mode
+    private int elementCount;
+    private long estimatedBytes;
+    //the new elements per prefixed label
+    private final Map<SchemaTable, Integer> labelElementCounts = new HashMap<>();
+
     public enum BatchModeType {
         NONE, NORMAL, STREAMING, STREAMING_WITH_LOCK
     }
@@ -55,6 +77,8 @@ public class BatchManager {
     BatchManager(SqlgGraph sqlgGraph, SqlBulkDialect sqlDialect) {
         this.sqlgGraph = sqlgGraph;
         this.sqlDialect = sqlDialect;
+        this.maxElements = sqlgGraph.getConfiguration().getInt(BATCH_MAX_ELEMENTS, 0);
+        this.maxBytes = sqlgGraph.getConfiguration().getLong(BATCH_MAX_BYTES, 0L);
     }
 
     public boolean isInNormalMode() {
@@ -98,13 +122,15 @@ public class BatchManager {
         if (!streaming) {
             Pair<SortedSet<String>, Map<SqlgVertex, Map<String, Object>>> pairs = this.vertexCache.get(schemaTable);
             if (pairs == null) {
-                pairs = Pair.of(new TreeSet<>(keyValueMap.keySet()), new LinkedHashMap<>());
+                pairs = Pair.of(new TreeSet<>(keyValueMap.keySet()), new BatchBuffer.Vertices());
                 pairs.getRight().put(sqlgVertex, keyValueMap);
                 this.vertexCache.put(schemaTable, pairs);
             } else {
                 pairs.getLeft().addAll(keyValueMap.keySet());
                 pairs.getRight().put(sqlgVertex, keyValueMap);
             }
+            pending(estimateBytes(keyValueMap));
+            flushIfFull(sqlgVertex.getSchemaTablePrefixed());
         } else {
             if (this.streamingBatchModeVertexSchemaTable == null) {
                 this.streamingBatchModeVertexSchemaTable = sqlgVertex.getSchemaTable();
@@ -142,13 +168,15 @@ public class BatchManager {
         if (!streaming) {
             Pair<SortedSet<String>, Map<SqlgEdge, Triple<SqlgVertex, SqlgVertex, Map<String, Object>>>> triples = this.edgeCache.get(metaEdge);
             if (triples == null) {
-                triples = Pair.of(new TreeSet<>(keyValueMap.keySet()), new LinkedHashMap<>());
+                triples = Pair.of(new TreeSet<>(keyValueMap.keySet()), new BatchBuffer.Edges());
                 triples.getRight().put(sqlgEdge, Triple.of(outVertex, inVertex, keyValueMap));
                 this.edgeCache.put(metaEdge, triples);
             } else {
                 triples.getLeft().addAll(keyValueMap.keySet());
                 triples.getRight().put(sqlgEdge, Triple.of(outVertex, inVertex, keyValueMap));
             }
+            pending(estimateBytes(keyValueMap));
+            flushIfFull(sqlgEdge.getSchemaTablePrefixed());
         } else {
             if (this.streamingBatchModeEdgeSchemaTable == null) {
                 this.streamingBatchModeEdgeSchemaTable = sqlgEdge.getSchemaTablePrefixed();
@@ -185,8 +213,21 @@ public class BatchManager {
     }
 
     public Map<SchemaTable, Pair<Long, Long>> flush() {
+        return flush(BatchFlushListener.Trigger.FLUSH);
+    }
+
+    Map<SchemaTable, Pair<Long, Long>> flush(BatchFlushListener.Trigger trigger) {
+        long start = System.nanoTime();
         this.isBusyFlushing = true;
         Map<SchemaTable, Pair<Long, Long>> verticesRange = this.sqlDialect.flushVertexCache(this.sqlgGraph, this.vertexCache);
+        if (trigger != BatchFlushListener.Trigger.COMMIT) {
+            //the new vertices have ids now, queries for the rest of the transaction must find the same instances
+            for (Pair<SortedSet<String>, Map<SqlgVertex, Map<String, Object>>> vertices : this.vertexCache.values()) {
+                for (SqlgVertex sqlgVertex : vertices.getRight().keySet()) {
+                    this.sqlgGraph.tx().add(sqlgVertex);
+                }
+            }
+        }
         this.sqlDialect.flushEdgeCache(this.sqlgGraph, this.edgeCache);
         this.sqlDialect.flushVertexPropertyCache(this.sqlgGraph, this.vertexPropertyCache);
         this.sqlDialect.flushEdgePropertyCache(this.sqlgGraph, this.edgePropertyCache);
@@ -199,10 +240,71 @@ public class BatchManager {
         this.sqlDialect.flushVertexGlobalUniqueIndexPropertyCache(this.sqlgGraph, this.vertexPropertyCache);
         this.sqlDialect.flushEdgeGlobalUniqueIndexPropertyCache(this.sqlgGraph, this.edgePropertyCache);
         this.sqlDialect.flushRemovedGlobalUniqueIndexVertices(this.sqlgGraph, this.removeVertexCache);
+        int flushedElementCount = this.elementCount;
+        long flushedEstimatedBytes = this.estimatedBytes;
         this.clear();
+        if (isInNormalMode() && flushedElementCount > 0) {
+            this.sqlgGraph.tx().fireBatchFlushed(trigger, flushedElementCount, flushedEstimatedBytes, System.nanoTime() - start);
+        }
         return verticesRange;
     }
 
+    private void pending(long bytes) {
+        this.elementCount++;
+        this.estimatedBytes += ELEMENT_BYTES + bytes;
+    }
+
+    /**
+     * Flushes the normal batch if it reached one of its maximums. The flush is done on the caller's thread, a
+     * loader does not add more elements till it is done.
+     *
+     * @param prefixedSchemaTable the label of the new element, null if no element was added.
+     */
+    private void flushIfFull(SchemaTable prefixedSchemaTable) {
+        if (!isInNormalMode() || this.isBusyFlushing) {
+            return;
+        }
+        if (this.maxElements > 0 && this.elementCount >= this.maxElements) {
+            flush(BatchFlushListener.Trigger.MAX_ELEMENTS);
+        } else if (this.maxBytes > 0 && this.estimatedBytes >= this.maxBytes) {
+            flush(BatchFlushListener.Trigger.MAX_BYTES);
+        } else if (prefixedSchemaTable != null) {
+            int labelMax = this.labelMaxElements.computeIfAbsent(prefixedSchemaTable, this::labelMaxElements);
+            if (labelMax > 0 && this.labelElementCounts.merge(prefixedSchemaTable, 1, Integer::sum) >= labelMax) {
+                flush(BatchFlushListener.Trigger.LABEL_MAX_ELEMENTS);
+            }
+        }
+    }
+
+    private int labelMaxElements(SchemaTable prefixedSchemaTable) {
+        SchemaTable schemaTable = prefixedSchemaTable.withOutPrefix();
+        String label = schemaTable.getSchema().equals(this.sqlgGraph.getSqlDialect().getPublicSchema()) ?
+                schemaTable.getTable() : schemaTable.getSchema() + "." + schemaTable.getTable();
+        return this.sqlgGraph.getConfiguration().getInt(BATCH_MAX_ELEMENTS + "." + label, 0);
+    }
+
+    private static long estimateBytes(Map<String, Object> keyValueMap) {
+        long bytes = 0;
+        for (Object value : keyValueMap.values()) {
+            bytes += estimateBytes(value);
+        }
+        return bytes;
+    }
+
+    private static long estimateBytes(Object value) {
+        if (value == null) {
+            return 0;
+        } else if (value instanceof Number || value instanceof Boolean) {
+            return 8;
+        } else if (value instanceof String) {
+            return 40 + 2 * ((String) value).length();
+        } else if (value.getClass().isArray()) {
+            return 16 + 8L * Array.getLength(value);
+        } else {
+            return VALUE_BYTES;
+        }
+    }
+
     public void close() {
         this.streamingVertexOutputStreamCache.values().forEach(o -> {
             try {
@@ -240,8 +342,10 @@ public class BatchManager {
             if (triples != null) {
                 Map<String, Object> triple = triples.getRight().get(sqlgElement);
                 if (triple != null) {
-                    triple.put(key, value);
+                    Object previous = triple.put(key, value);
                     triples.getLeft().add(key);
+                    this.estimatedBytes += estimateBytes(value) - estimateBytes(previous);
+                    flushIfFull(null);
                     return true;
                 }
             } else {
@@ -257,8 +361,11 @@ public class BatchManager {
                 if (properties == null) {
                     properties = new LinkedHashMap<>();
                     schemaVertices.getRight().put((SqlgVertex) sqlgElement, properties);
+                    pending(0);
                 }
                 properties.put(key, value);
+                this.estimatedBytes += estimateBytes(value);
+                flushIfFull(null);
                 return true;
             }
         } else {
@@ -268,8 +375,10 @@ public class BatchManager {
             if (triples != null) {
                 Triple<SqlgVertex, SqlgVertex, Map<String, Object>> triple = triples.getRight().get(sqlgElement);
                 if (triple != null) {
-                    triple.getRight().put(key, value);
+                    Object previous = triple.getRight().put(key, value);
                     triples.getLeft().add(key);
+                    this.estimatedBytes += estimateBytes(value) - estimateBytes(previous);
+                    flushIfFull(null);
                     return true;
                 }
             } else {
@@ -284,8 +393,11 @@ public class BatchManager {
                 if (properties == null) {
                     properties = new LinkedHashMap<>();
                     schemaEdges.getRight().put((SqlgEdge) sqlgElement, properties);
+                    pending(0);
                 }
                 properties.put(key, value);
+                this.estimatedBytes += estimateBytes(value);
+                flushIfFull(null);
                 return true;
             }
         }
@@ -331,6 +443,9 @@ public class BatchManager {
         this.removeVertexCache.clear();
         this.edgePropertyCache.clear();
         this.vertexPropertyCache.clear();
+        this.elementCount = 0;
+        this.estimatedBytes = 0;
+        this.labelElementCounts.clear();
     }
 
     void removeVertex(String schema, String table, SqlgVertex vertex) {
@@ -369,6 +484,8 @@ public class BatchManager {
                 this.removeVertexCache.put(schemaTable, vertices);
             }
             vertices.add(vertex);
+            pending(0);
+            flushIfFull(null);
         }
     }
 
@@ -388,6 +505,8 @@ public class BatchManager {
                 this.removeEdgeCache.put(schemaTable, edges);
             }
             edges.add(edge);
+            pending(0);
+            flushIfFull(null);
         }
     }
 
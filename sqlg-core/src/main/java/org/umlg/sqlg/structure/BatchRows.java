@@ -0,0 +1,68 @@
+package org.umlg.sqlg.structure;
+
+import java.util.Map;
+
+/**
+ * Row and column access to the new elements of a label that a normal batch flushes. The dialects read the values
+ * straight from the columns, boolean and numeric values unboxed, instead of through a map per row.
+ * The rows are numbered from 0 to {@link #rowCount()} in insertion order, a removed row has no element.
+ * <p>
+ * Date: 2026/10/18
+ * Time: 8:00 PM
+ */
+public interface BatchRows {
+
+    /**
+     * @return the rows of the elements that {@link org.umlg.sqlg.sql.dialect.SqlBulkDialect#flushVertexCache} and
+     * {@link org.umlg.sqlg.sql.dialect.SqlBulkDialect#flushEdgeCache} are given.
+     */
+    static BatchRows of(Map<? extends SqlgElement, ?> elements) {
+        return elements instanceof BatchRows ? (BatchRows) elements : new MapBatchRows(elements);
+    }
+
+    /**
+     * @return the number of rows including the removed ones.
+     */
+    int rowCount();
+
+    /**
+     * @return the element of the row, null if the row is removed.
+     */
+    SqlgElement element(int row);
+
+    /**
+     * @return the out vertex of the edge of the row, null for vertices.
+     */
+    SqlgVertex outVertex(int row);
+
+    /**
+     * @return the in vertex of the edge of the row, null for vertices.
+     */
+    SqlgVertex inVertex(int row);
+
+    /**
+     * @return the values of the key, null if no row holds a value.
+     */
+    Column column(String key);
+
+    interface Column {
+
+        /**
+         * @return the type of the values if they are stored unboxed and read with {@link #getBits(int)}, else null.
+         */
+        PropertyType primitiveType();
+
+        boolean isPresent(int row);
+
+        /**
+         * @return the value of a present row of a primitive column, a boolean is 1 or 0, a float its
+         * {@link Float#floatToRawIntBits(float)} and a double its {@link Double#doubleToRawLongBits(double)}.
+         */
+        long getBits(int row);
+
+        /**
+         * @return the value of the row, null if it is not present.
+         */
+        Object get(int row);
+    }
+}
@@ -0,0 +1,171 @@
+package org.umlg.sqlg.structure;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import java.util.*;
+
+/**
+ * A graph wide cache of the properties of vertices and edges, shared by all transactions.
+ * It is only filled by {@link SqlgElement#load()} of transactions that did not write and saves the query on a hit.
+ * The least recently used elements are evicted when the cache is full.
+ * <p>
+ * Elements changed via the api are invalidated when their transaction commits.
+ * On dialects that support it other graphs on the same database are notified, i.e. the postgres NOTIFY channel.
+ * Changes made with plain sql are not seen, such elements may be stale until evicted.
+ * <p>
+ * The cache holds the latest committed values. A transaction above READ_COMMITTED reads a snapshot,
+ * it only uses the cache while no element was invalidated since it started.
+ * <p>
+ * The key is the RecordId with the prefixed table, as a vertex and an edge label may have the same name.
+ * <p>
+ * Date: 2026/10/17
+ * Time: 10:30 PM
+ */
+public class ElementCache {
+
+    //The maximum number of cached elements. 0 disables the cache.
+    public static final String ELEMENT_CACHE_SIZE = "cache.elements.size";
+    private static final int DEFAULT_ELEMENT_CACHE_SIZE = 0;
+    //The first line of the notification payload, followed by a line per invalidated RecordId or '*' label.
+    static final String NOTIFICATION = "sqlg.elements";
+    private static final String LABEL = "*";
+    //Postgres allows 8000 bytes, a larger change invalidates the whole cache.
+    private static final int MAX_NOTIFICATION_LENGTH = 7000;
+
+    private final Cache<RecordId, Entry> cache;
+    //incremented on every invalidation, a load that started before an invalidation must not be cached.
+    private long generation = 0;
+
+    ElementCache(SqlgGraph sqlgGraph) {
+        int size = sqlgGraph.configuration().getInt(ELEMENT_CACHE_SIZE, DEFAULT_ELEMENT_CACHE_SIZE);
+        if (size > 0) {
+            this.cache = CacheBuilder.newBuilder().maximumSize(size).recordStats().build();
+        } else {
+            this.cache = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return this.cache != null;
+    }
+
+    Entry get(RecordId recordId) {
+        return this.cache.getIfPresent(recordId);
+    }
+
+    synchronized long generation() {
+        return this.generation;
+    }
+
+    /**
+     * @param generation the generation before the element was read from the db.
+     */
+    synchronized void put(RecordId recordId, Entry entry, long generation) {
+        if (this.generation == generation) {
+            this.cache.put(recordId, entry);
+        }
+    }
+
+    /**
+     * @param labels the prefixed tables of which all elements are invalidated.
+     */
+    synchronized void invalidate(Collection<RecordId> recordIds, Collection<SchemaTable> labels) {
+        this.generation++;
+        this.cache.invalidateAll(recordIds);
+        if (!labels.isEmpty()) {
+            this.cache.asMap().keySet().removeIf(recordId -> labels.contains(recordId.getSchemaTable()));
+        }
+    }
+
+    public synchronized void clear() {
+        if (this.cache != null) {
+            this.generation++;
+            this.cache.invalidateAll();
+        }
+    }
+
+    public long size() {
+        return this.cache != null ? this.cache.size() : 0;
+    }
+
+    /**
+     * @return the hit, miss and eviction counts.
+     */
+    public CacheStats stats() {
+        return this.cache != null ? this.cache.stats() : new CacheStats(0, 0, 0, 0, 0, 0);
+    }
+
+    static String toNotification(Collection<RecordId> recordIds, Collection<SchemaTable> labels) {
+        StringBuilder result = new StringBuilder(NOTIFICATION);
+        for (SchemaTable label : labels) {
+            result.append("\n").append(LABEL).append(label.toString());
+        }
+        for (RecordId recordId : recordIds) {
+            result.append("\n").append(recordId.toString());
+            if (result.length() > MAX_NOTIFICATION_LENGTH) {
+                return NOTIFICATION + "\n" + LABEL;
+            }
+        }
+        return result.toString();
+    }
+
+    public static boolean isNotification(String payload) {
+        return payload.startsWith(NOTIFICATION);
+    }
+
+    /**
+     * Invalidates the elements of a notification from another graph.
+     */
+    public void fromNotification(String payload) {
+        if (this.cache == null) {
+            return;
+        }
+        List<RecordId> recordIds = new ArrayList<>();
+        Set<SchemaTable> labels = new HashSet<>();
+        String[] lines = payload.split("\n");
+        for (int i = 1; i < lines.length; i++) {
+            String line = lines[i];
+            if (line.equals(LABEL)) {
+                clear();
+                return;
+            } else if (line.startsWith(LABEL)) {
+                String label = line.substring(LABEL.length());
+                int indexOfPeriod = label.indexOf(".");
+                labels.add(SchemaTable.of(label.substring(0, indexOfPeriod), label.substring(indexOfPeriod + 1)));
+            } else {
+                recordIds.add(RecordId.from(line));
+            }
+        }
+        invalidate(recordIds, labels);
+    }
+
+    /**
+     * The properties of an element and for an edge the RecordIds of its vertices, without the vertex prefix.
+     */
+    static final class Entry {
+
+        private final Map<String, Object> properties;
+        private final RecordId inVertex;
+        private final RecordId outVertex;
+
+        Entry(Map<String, Object> properties, RecordId inVertex, RecordId outVertex) {
+            this.properties = Collections.unmodifiableMap(new HashMap<>(properties));
+            this.inVertex = inVertex;
+            this.outVertex = outVertex;
+        }
+
+        Map<String, Object> getProperties() {
+            return properties;
+        }
+
+        RecordId getInVertex() {
+            return inVertex;
+        }
+
+        RecordId getOutVertex() {
+            return outVertex;
+        }
+    }
+}
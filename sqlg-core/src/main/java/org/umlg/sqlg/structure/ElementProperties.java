@@ -0,0 +1,387 @@
+package org.umlg.sqlg.structure;
+
+import com.google.common.base.Preconditions;
+
+import java.util.*;
+
+/**
+ * The property values of an element, stored in arrays indexed by the {@link PropertyLayout} of its label.
+ * Values of a primitive {@link PropertyType} are stored unboxed.
+ * Keys that are not in the layout, i.e. properties of a label that is still changing in this transaction, are kept
+ * in a map.
+ * <p>
+ * The layout is looked up on the first write, elements that are never loaded do not pay for it.
+ * <p>
+ * A new element in a normal batch has no values of its own, they are read from and written to its row in the
+ * {@link BatchColumns} of the batch till the batch is flushed or the element removed from it.
+ * Multiple threads can access the same element, all access is synchronized.
+ * <p>
+ * Date: 2026/10/18
+ * Time: 11:10 AM
+ */
+final class ElementProperties extends AbstractMap<String, Object> {
+
+    private final SqlgElement sqlgElement;
+    private PropertyLayout layout;
+    private long[] primitives;
+    //a bit per primitive slot, set if the slot holds a value
+    private long[] present;
+    private Object[] objects;
+    private Map<String, Object> overflow;
+    private int size = 0;
+    //the columns of the normal batch the element is pending in
+    private BatchColumns batchColumns;
+
+    ElementProperties(SqlgElement sqlgElement) {
+        this.sqlgElement = sqlgElement;
+    }
+
+    private PropertyLayout layout() {
+        if (this.layout == null) {
+            this.layout = this.sqlgElement.getPropertyLayout();
+            if (this.layout.getPrimitiveCount() > 0) {
+                this.primitives = new long[this.layout.getPrimitiveCount()];
+                this.present = new long[(this.layout.getPrimitiveCount() + 63) / 64];
+            }
+            if (this.layout.getObjectCount() > 0) {
+                this.objects = new Object[this.layout.getObjectCount()];
+            }
+        }
+        return this.layout;
+    }
+
+    /**
+     * @return true if the values are read from the element's row in a normal batch.
+     */
+    synchronized boolean inBatch() {
+        return this.batchColumns != null;
+    }
+
+    synchronized void joinBatch(BatchColumns batchColumns) {
+        clear();
+        this.batchColumns = batchColumns;
+    }
+
+    /**
+     * Copies the values of the element's row, the row is about to be removed or the batch cleared.
+     */
+    synchronized void leaveBatch(BatchColumns batchColumns) {
+        if (this.batchColumns == batchColumns) {
+            this.batchColumns = null;
+            batchColumns.copyRow(this.sqlgElement.batchRow, this);
+        }
+    }
+
+    @Override
+    public synchronized Object get(Object key) {
+        if (this.batchColumns != null) {
+            return key instanceof String ? this.batchColumns.get(this.sqlgElement.batchRow, (String) key) : null;
+        }
+        if (this.size == 0 || !(key instanceof String)) {
+            return null;
+        }
+        int ordinal = layout().ordinal((String) key);
+        if (ordinal != -1) {
+            Object value = getSlot(ordinal);
+            if (value != null) {
+                return value;
+            }
+        }
+        return this.overflow != null ? this.overflow.get(key) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public synchronized Object put(String key, Object value) {
+        Objects.requireNonNull(value, "property value may not be null");
+        if (this.batchColumns != null) {
+            return this.batchColumns.put(this.sqlgElement.batchRow, key, value);
+        }
+        PropertyLayout layout = layout();
+        int ordinal = layout.ordinal(key);
+        if (ordinal != -1 && fits(layout.propertyType(ordinal), value)) {
+            Object previous = removeOverflow(key);
+            if (previous == null) {
+                previous = clearSlot(ordinal);
+            }
+            int slot = layout.slot(ordinal);
+            if (PropertyLayout.isPrimitive(layout.propertyType(ordinal))) {
+                this.primitives[slot] = toBits(value);
+                this.present[slot >>> 6] |= 1L << slot;
+            } else {
+                this.objects[slot] = value;
+            }
+            this.size++;
+            return previous;
+        } else {
+            //the slot is not used for a value of another type
+            Object previous = ordinal != -1 ? clearSlot(ordinal) : null;
+            if (this.overflow == null) {
+                this.overflow = new HashMap<>();
+            }
+            Object previousOverflow = this.overflow.put(key, value);
+            if (previous == null) {
+                previous = previousOverflow;
+            }
+            if (previousOverflow == null) {
+                this.size++;
+            }
+            return previous;
+        }
+    }
+
+    synchronized void putBoolean(String key, boolean value) {
+        putBits(key, PropertyType.BOOLEAN, value ? 1 : 0);
+    }
+
+    synchronized void putByte(String key, byte value) {
+        putBits(key, PropertyType.BYTE, value);
+    }
+
+    synchronized void putShort(String key, short value) {
+        putBits(key, PropertyType.SHORT, value);
+    }
+
+    synchronized void putInt(String key, int value) {
+        putBits(key, PropertyType.INTEGER, value);
+    }
+
+    synchronized void putLong(String key, long value) {
+        putBits(key, PropertyType.LONG, value);
+    }
+
+    synchronized void putFloat(String key, float value) {
+        putBits(key, PropertyType.FLOAT, Float.floatToRawIntBits(value));
+    }
+
+    synchronized void putDouble(String key, double value) {
+        putBits(key, PropertyType.DOUBLE, Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * Stores a loaded primitive without boxing it if the layout has a slot of the same type for it.
+     */
+    synchronized void putBits(String key, PropertyType propertyType, long bits) {
+        if (this.batchColumns != null) {
+            put(key, box(propertyType, bits));
+            return;
+        }
+        PropertyLayout layout = layout();
+        int ordinal = layout.ordinal(key);
+        if (ordinal != -1 && layout.propertyType(ordinal) == propertyType && (this.overflow == null || !this.overflow.containsKey(key))) {
+            int slot = layout.slot(ordinal);
+            if (!isPresent(slot)) {
+                this.present[slot >>> 6] |= 1L << slot;
+                this.size++;
+            }
+            this.primitives[slot] = bits;
+        } else {
+            put(key, box(propertyType, bits));
+        }
+    }
+
+    @Override
+    public synchronized Object remove(Object key) {
+        if (this.batchColumns != null) {
+            return key instanceof String ? this.batchColumns.remove(this.sqlgElement.batchRow, (String) key) : null;
+        }
+        if (this.size == 0 || !(key instanceof String)) {
+            return null;
+        }
+        Object previous = removeOverflow((String) key);
+        if (previous == null) {
+            int ordinal = layout().ordinal((String) key);
+            if (ordinal != -1) {
+                previous = clearSlot(ordinal);
+            }
+        }
+        return previous;
+    }
+
+    @Override
+    public synchronized void clear() {
+        //the row is cleared with the batch
+        this.batchColumns = null;
+        if (this.primitives != null) {
+            Arrays.fill(this.present, 0L);
+        }
+        if (this.objects != null) {
+            Arrays.fill(this.objects, null);
+        }
+        this.overflow = null;
+        this.size = 0;
+    }
+
+    @Override
+    public synchronized int size() {
+        return this.batchColumns != null ? this.batchColumns.valueCount(this.sqlgElement.batchRow) : this.size;
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * The entries are a snapshot, as the entries of the {@link java.util.concurrent.ConcurrentHashMap} used to be
+     * weakly consistent.
+     */
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<Entry<String, Object>>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                Iterator<Entry<String, Object>> snapshot = snapshot().iterator();
+                return new Iterator<Entry<String, Object>>() {
+                    private Entry<String, Object> current;
+
+                    @Override
+                    public boolean hasNext() {
+                        return snapshot.hasNext();
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        this.current = snapshot.next();
+                        return this.current;
+                    }
+
+                    @Override
+                    public void remove() {
+                        Preconditions.checkState(this.current != null);
+                        ElementProperties.this.remove(this.current.getKey());
+                        this.current = null;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return ElementProperties.this.size();
+            }
+        };
+    }
+
+    private synchronized List<Entry<String, Object>> snapshot() {
+        if (this.batchColumns != null) {
+            return new ArrayList<>(this.batchColumns.values(this.sqlgElement.batchRow).entrySet());
+        }
+        List<Entry<String, Object>> result = new ArrayList<>(this.size);
+        if (this.size == 0) {
+            return result;
+        }
+        PropertyLayout layout = layout();
+        for (int ordinal = 0; ordinal < layout.size(); ordinal++) {
+            Object value = getSlot(ordinal);
+            if (value != null) {
+                result.add(new SimpleImmutableEntry<>(layout.key(ordinal), value));
+            }
+        }
+        if (this.overflow != null) {
+            for (Entry<String, Object> entry : this.overflow.entrySet()) {
+                result.add(new SimpleImmutableEntry<>(entry));
+            }
+        }
+        return result;
+    }
+
+    private Object getSlot(int ordinal) {
+        int slot = this.layout.slot(ordinal);
+        PropertyType propertyType = this.layout.propertyType(ordinal);
+        if (PropertyLayout.isPrimitive(propertyType)) {
+            return isPresent(slot) ? box(propertyType, this.primitives[slot]) : null;
+        } else {
+            return this.objects[slot];
+        }
+    }
+
+    private Object clearSlot(int ordinal) {
+        Object previous = getSlot(ordinal);
+        if (previous != null) {
+            int slot = this.layout.slot(ordinal);
+            if (PropertyLayout.isPrimitive(this.layout.propertyType(ordinal))) {
+                this.present[slot >>> 6] &= ~(1L << slot);
+            } else {
+                this.objects[slot] = null;
+            }
+            this.size--;
+        }
+        return previous;
+    }
+
+    private Object removeOverflow(String key) {
+        if (this.overflow == null) {
+            return null;
+        }
+        Object previous = this.overflow.remove(key);
+        if (previous != null) {
+            this.size--;
+            if (this.overflow.isEmpty()) {
+                this.overflow = null;
+            }
+        }
+        return previous;
+    }
+
+    private boolean isPresent(int slot) {
+        return (this.present[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    static boolean fits(PropertyType propertyType, Object value) {
+        switch (propertyType) {
+            case BOOLEAN:
+                return value instanceof Boolean;
+            case BYTE:
+                return value instanceof Byte;
+            case SHORT:
+                return value instanceof Short;
+            case INTEGER:
+                return value instanceof Integer;
+            case LONG:
+                return value instanceof Long;
+            case FLOAT:
+                return value instanceof Float;
+            case DOUBLE:
+                return value instanceof Double;
+            default:
+                return true;
+        }
+    }
+
+    static long toBits(Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value ? 1 : 0;
+        } else if (value instanceof Float) {
+            return Float.floatToRawIntBits((Float) value);
+        } else if (value instanceof Double) {
+            return Double.doubleToRawLongBits((Double) value);
+        } else {
+            return ((Number) value).longValue();
+        }
+    }
+
+    static Object box(PropertyType propertyType, long bits) {
+        switch (propertyType) {
+            case BOOLEAN:
+                return bits != 0;
+            case BYTE:
+                return (byte) bits;
+            case SHORT:
+                return (short) bits;
+            case INTEGER:
+                return (int) bits;
+            case LONG:
+                return bits;
+            case FLOAT:
+                return Float.intBitsToFloat((int) bits);
+            case DOUBLE:
+                return Double.longBitsToDouble(bits);
+            default:
+                throw new IllegalStateException("Unhandled primitive PropertyType " + propertyType.name());
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package org.umlg.sqlg.structure;
+
+import com.google.common.base.Preconditions;
+import org.apache.commons.lang3.Range;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.umlg.sqlg.sql.dialect.SqlDialect;
+import org.umlg.sqlg.strategy.SqlgSqlExecutor;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Lazily iterates the elements of the vertex or edge tables, one table at a time in chunks ordered by ID.
+ * Every chunk is a separate query, WHERE "ID" > ? ORDER BY "ID" LIMIT ?, so only one chunk is in memory
+ * and the transaction may be committed between chunks.
+ * The tables are visited in schema and table order so a scan can be resumed after the last element's RecordId.
+ * <p>
+ * Date: 2026/10/17
+ * Time: 8:40 PM
+ */
+class ElementScan<T extends Element> implements Iterator<T> {
+
+    private static Logger logger = LoggerFactory.getLogger(ElementScan.class.getName());
+
+    private final SqlgGraph sqlgGraph;
+    private final boolean returnVertices;
+    private final int chunkSize;
+    //the tables without prefix
+    private final List<SchemaTable> tables = new ArrayList<>();
+    private int tableIndex = 0;
+    private long lastId;
+    private boolean tableDone = false;
+    private Iterator<T> chunk = Collections.emptyIterator();
+
+    /**
+     * @param label The label to scan, all labels if null.
+     * @param after The element to resume the scan after, from the start if null.
+     */
+    ElementScan(SqlgGraph sqlgGraph, boolean returnVertices, String label, RecordId after, int chunkSize) {
+        Preconditions.checkArgument(chunkSize > 0, "chunkSize must be > 0, found %s", chunkSize);
+        this.sqlgGraph = sqlgGraph;
+        this.returnVertices = returnVertices;
+        this.chunkSize = chunkSize;
+        SchemaTable labelSchemaTable = label == null ? null : SchemaTable.from(sqlgGraph, label);
+        for (String table : sqlgGraph.getTopology().getAllTables().keySet()) {
+            SchemaTable schemaTable = SchemaTable.from(sqlgGraph, table);
+            if (returnVertices ? schemaTable.isVertexTable() : !schemaTable.isVertexTable()) {
+                SchemaTable withOutPrefix = schemaTable.withOutPrefix();
+                if (labelSchemaTable == null || labelSchemaTable.equals(withOutPrefix)) {
+                    this.tables.add(withOutPrefix);
+                }
+            }
+        }
+        this.tables.sort(Comparator.comparing(SchemaTable::getSchema).thenComparing(SchemaTable::getTable));
+        this.lastId = Long.MIN_VALUE;
+        if (after != null) {
+            SchemaTable afterTable = after.getSchemaTable();
+            while (this.tableIndex < this.tables.size() && compare(this.tables.get(this.tableIndex), afterTable) < 0) {
+                this.tableIndex++;
+            }
+            if (this.tableIndex < this.tables.size() && this.tables.get(this.tableIndex).equals(afterTable)) {
+                this.lastId = after.getId();
+            }
+        }
+    }
+
+    private static int compare(SchemaTable schemaTable1, SchemaTable schemaTable2) {
+        int result = schemaTable1.getSchema().compareTo(schemaTable2.getSchema());
+        return result != 0 ? result : schemaTable1.getTable().compareTo(schemaTable2.getTable());
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!this.chunk.hasNext()) {
+            if (this.tableDone) {
+                this.tableIndex++;
+                this.lastId = Long.MIN_VALUE;
+                this.tableDone = false;
+            }
+            if (this.tableIndex >= this.tables.size()) {
+                return false;
+            }
+            this.chunk = nextChunk(this.tables.get(this.tableIndex));
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return this.chunk.next();
+    }
+
+    private Iterator<T> nextChunk(SchemaTable schemaTable) {
+        SqlDialect dialect = this.sqlgGraph.getSqlDialect();
+        String prefix = this.returnVertices ? SchemaManager.VERTEX_PREFIX : SchemaManager.EDGE_PREFIX;
+        StringBuilder sql = new StringBuilder("SELECT * FROM ");
+        sql.append(dialect.maybeWrapInQoutes(schemaTable.getSchema()));
+        sql.append(".");
+        sql.append(dialect.maybeWrapInQoutes(prefix + schemaTable.getTable()));
+        sql.append(" WHERE ");
+        sql.append(dialect.maybeWrapInQoutes(SchemaManager.ID));
+        sql.append(" > ? ORDER BY ");
+        sql.append(dialect.maybeWrapInQoutes(SchemaManager.ID));
+        sql.append(" ");
+        sql.append(dialect.getRangeClause(Range.between(0L, (long) this.chunkSize)));
+        if (dialect.needsSemicolon()) {
+            sql.append(";");
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(sql.toString());
+        }
+        List<T> result = new ArrayList<>(this.chunkSize);
+        Connection conn = this.sqlgGraph.tx().getConnection();
+        try (PreparedStatement preparedStatement = conn.prepareStatement(sql.toString())) {
+            preparedStatement.setLong(1, this.lastId);
+            SqlgSqlExecutor.setQueryTimeout(preparedStatement, this.sqlgGraph.tx().getQueryTimeoutMs());
+            ResultSet resultSet = preparedStatement.executeQuery();
+            while (resultSet.next()) {
+                long id = resultSet.getLong(SchemaManager.ID);
+                SqlgElement sqlgElement;
+                if (this.returnVertices) {
+                    sqlgElement = SqlgVertex.of(this.sqlgGraph, id, schemaTable.getSchema(), schemaTable.getTable());
+                } else {
+                    sqlgElement = new SqlgEdge(this.sqlgGraph, id, schemaTable.getSchema(), schemaTable.getTable());
+                }
+                sqlgElement.loadResultSet(resultSet);
+                result.add((T) sqlgElement);
+                this.lastId = id;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        this.tableDone = result.size() < this.chunkSize;
+        return result.iterator();
+    }
+}
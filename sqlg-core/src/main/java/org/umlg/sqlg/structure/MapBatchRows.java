@@ -0,0 +1,80 @@
+package org.umlg.sqlg.structure;
+
+import org.apache.commons.lang3.tuple.Triple;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@link BatchRows} of a plain map of elements to their values, or to the out vertex, in vertex and values of
+ * edges. Every value is read boxed from the map of its row.
+ * <p>
+ * Date: 2026/10/18
+ * Time: 8:00 PM
+ */
+final class MapBatchRows implements BatchRows {
+
+    private final List<SqlgElement> elements = new ArrayList<>();
+    private final List<Object> values = new ArrayList<>();
+
+    MapBatchRows(Map<? extends SqlgElement, ?> elements) {
+        for (Map.Entry<? extends SqlgElement, ?> entry : elements.entrySet()) {
+            this.elements.add(entry.getKey());
+            this.values.add(entry.getValue());
+        }
+    }
+
+    @Override
+    public int rowCount() {
+        return this.elements.size();
+    }
+
+    @Override
+    public SqlgElement element(int row) {
+        return this.elements.get(row);
+    }
+
+    @Override
+    public SqlgVertex outVertex(int row) {
+        Object value = this.values.get(row);
+        return value instanceof Triple ? (SqlgVertex) ((Triple) value).getLeft() : null;
+    }
+
+    @Override
+    public SqlgVertex inVertex(int row) {
+        Object value = this.values.get(row);
+        return value instanceof Triple ? (SqlgVertex) ((Triple) value).getMiddle() : null;
+    }
+
+    @Override
+    public Column column(String key) {
+        return new Column() {
+            @Override
+            public PropertyType primitiveType() {
+                return null;
+            }
+
+            @Override
+            public boolean isPresent(int row) {
+                return get(row) != null;
+            }
+
+            @Override
+            public long getBits(int row) {
+                throw new UnsupportedOperationException("The values of a map are not primitive");
+            }
+
+            @Override
+            public Object get(int row) {
+                return keyValues(row).get(key);
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> keyValues(int row) {
+        Object value = this.values.get(row);
+        return (Map<String, Object>) (value instanceof Triple ? ((Triple) value).getRight() : value);
+    }
+}
@@ -0,0 +1,301 @@
+package org.umlg.sqlg.structure;
+
+import org.apache.commons.lang3.tuple.Triple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.umlg.sqlg.sql.parse.AliasMapHolder;
+import org.umlg.sqlg.sql.parse.SchemaTableTree;
+import org.umlg.sqlg.strategy.SqlgSqlExecutor;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Executes the independent queries of a traversal on several pooled connections at once.
+ * The sql is constructed up front on the traversal's thread, the queries are spread round robin over the connections
+ * and their results are read back on the traversal's thread in the order the queries were added.
+ * <p>
+ * The other connections do not see the uncommitted changes of the transaction, so this is only used while the transaction
+ * has not written anything. The other connections import the transaction's snapshot, so all the queries see the same data
+ * at any isolation level. Dialects that can not share a snapshot execute the queries on the transaction's connection.
+ * <p>
+ * The connections are only taken from the pool if it has them available, the queries of a pool without available
+ * connections and the queries the traversal waited {@link SqlgTransaction#QUERY_PARALLEL_WAIT_MS} for execute on the
+ * transaction's connection.
+ * <p>
+ * Date: 2026/10/17
+ * Time: 8:15 PM
+ */
+class ParallelQueries implements AutoCloseable {
+
+    private static Logger logger = LoggerFactory.getLogger(ParallelQueries.class.getName());
+
+    private final SqlgGraph sqlgGraph;
+    private final int connections;
+    private final int fetchSize;
+    private final int queryTimeoutMs;
+    private final int waitMs;
+    private final String snapshotId;
+    //the connections of the lanes and their isolation before the snapshot was imported
+    private final Map<Connection, Integer> laneConnections = new LinkedHashMap<>();
+    private final Map<Object, Query> queries = new IdentityHashMap<>();
+    private final List<Query> ordered = new ArrayList<>();
+    private CountDownLatch finished;
+    private volatile boolean closed = false;
+    private boolean started = false;
+
+    private ParallelQueries(SqlgGraph sqlgGraph, int connections, String snapshotId) {
+        this.sqlgGraph = sqlgGraph;
+        this.connections = connections;
+        this.fetchSize = sqlgGraph.tx().getFetchSize();
+        this.queryTimeoutMs = sqlgGraph.tx().getQueryTimeoutMs();
+        this.waitMs = sqlgGraph.configuration().getInt(SqlgTransaction.QUERY_PARALLEL_WAIT_MS, SqlgTransaction.DEFAULT_QUERY_PARALLEL_WAIT_MS);
+        this.snapshotId = snapshotId;
+    }
+
+    /**
+     * @return the ParallelQueries for the current transaction or null if its queries must run on its own connection.
+     */
+    static ParallelQueries of(SqlgGraph sqlgGraph, SchemaTableTree rootSchemaTableTree) {
+        SqlgTransaction tx = sqlgGraph.tx();
+        int connections = tx.getParallelConnections();
+        if (connections <= 1 || tx.isWritten() || tx.isInBatchMode() || !sqlgGraph.getSqlDialect().supportsSnapshotExport() ||
+                sqlgGraph.getTopology().isWriteLockHeldByCurrentThread() || rootSchemaTableTree.usesTemporaryTables()) {
+            return null;
+        }
+        try {
+            String snapshotId = sqlgGraph.getSqlDialect().exportSnapshot(tx.getConnection());
+            return new ParallelQueries(sqlgGraph, connections, snapshotId);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @param key        identifies the query when its result is taken.
+     * @param aliasMaps  the alias maps of the root SchemaTableTree after the sql was constructed.
+     */
+    void add(Object key, String sql, AliasMapHolder aliasMaps, List<RecordId> recordIds, LinkedList<SchemaTableTree> distinctQueryStack) {
+        Query query = new Query(sql, aliasMaps, recordIds, distinctQueryStack);
+        this.queries.put(key, query);
+        this.ordered.add(query);
+    }
+
+    int size() {
+        return this.ordered.size();
+    }
+
+    /**
+     * Takes a connection per lane from the pool, without waiting for one, and starts executing the queries.
+     * If the pool has no connection available the queries are not started and execute on the transaction's connection.
+     */
+    void start() {
+        int lanes = Math.min(this.connections, this.ordered.size());
+        try {
+            for (int lane = 0; lane < lanes; lane++) {
+                Connection connection = this.sqlgGraph.tryGetConnection();
+                if (connection == null) {
+                    break;
+                }
+                this.laneConnections.put(connection, connection.getTransactionIsolation());
+            }
+        } catch (SQLException e) {
+            closeConnections();
+            throw new RuntimeException(e);
+        }
+        if (this.laneConnections.isEmpty()) {
+            this.queries.clear();
+            return;
+        }
+        this.started = true;
+        this.sqlgGraph.tx().addResource(this);
+        lanes = this.laneConnections.size();
+        this.finished = new CountDownLatch(lanes);
+        Iterator<Connection> connectionIterator = this.laneConnections.keySet().iterator();
+        for (int lane = 0; lane < lanes; lane++) {
+            List<Query> laneQueries = new ArrayList<>();
+            for (int i = lane; i < this.ordered.size(); i += lanes) {
+                laneQueries.add(this.ordered.get(i));
+            }
+            Connection connection = connectionIterator.next();
+            this.sqlgGraph.getQueryExecutor().execute(() -> execute(connection, laneQueries));
+        }
+    }
+
+    private void execute(Connection connection, List<Query> laneQueries) {
+        try {
+            connection.setAutoCommit(false);
+            this.sqlgGraph.getSqlDialect().importSnapshot(connection, this.snapshotId);
+            for (Query query : laneQueries) {
+                if (this.closed || query.result.isDone()) {
+                    query.result.cancel(false);
+                } else {
+                    PreparedStatement preparedStatement = connection.prepareStatement(query.sql);
+                    query.statement = preparedStatement;
+                    try {
+                        if (!query.result.complete(SqlgSqlExecutor.executeQuery(this.sqlgGraph, connection, preparedStatement, query.recordIds, query.sql, query.distinctQueryStack, this.fetchSize, this.queryTimeoutMs))) {
+                            //the traversal stopped waiting for the query
+                            preparedStatement.close();
+                        }
+                    } catch (SQLException | RuntimeException e) {
+                        preparedStatement.close();
+                        if (!query.result.isCancelled()) {
+                            throw e;
+                        }
+                    }
+                }
+            }
+        } catch (Throwable e) {
+            for (Query query : laneQueries) {
+                query.result.completeExceptionally(e);
+            }
+        } finally {
+            this.finished.countDown();
+        }
+    }
+
+    /**
+     * Waits at most {@link SqlgTransaction#QUERY_PARALLEL_WAIT_MS} for the query's result.
+     *
+     * @return null if the query was not added or not executed in time, it must then be executed on the transaction's connection.
+     */
+    Query take(Object key) {
+        Query query = this.queries.remove(key);
+        if (query != null) {
+            try {
+                try {
+                    query.resultSet = query.result.get(this.waitMs, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    if (query.result.cancel(false)) {
+                        PreparedStatement preparedStatement = query.statement;
+                        if (preparedStatement != null) {
+                            cancel(preparedStatement);
+                        }
+                        logger.debug("parallel query not executed within {} ms, executing it on the transaction's connection", this.waitMs);
+                        return null;
+                    }
+                    query.resultSet = query.result.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new RuntimeException(e.getCause());
+            }
+        }
+        return query;
+    }
+
+    /**
+     * Closes a statement of this ParallelQueries once its result has been read.
+     *
+     * @return false if the statement was not executed by this ParallelQueries.
+     */
+    boolean release(PreparedStatement preparedStatement) throws SQLException {
+        for (Query query : this.ordered) {
+            if (query.resultSet != null && query.resultSet.getRight() == preparedStatement) {
+                preparedStatement.close();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Cancels the queries in progress, waits for them and closes the connections.
+     */
+    @Override
+    public void close() {
+        if (!this.started || this.closed) {
+            return;
+        }
+        this.closed = true;
+        for (Query query : this.ordered) {
+            PreparedStatement preparedStatement = query.statement;
+            if (preparedStatement != null && !query.result.isDone()) {
+                cancel(preparedStatement);
+            }
+        }
+        try {
+            this.finished.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Query query : this.ordered) {
+            if (query.result.isDone() && !query.result.isCompletedExceptionally()) {
+                close(query.result.join().getRight());
+            }
+        }
+        closeConnections();
+        this.sqlgGraph.tx().removeResource(this);
+    }
+
+    /**
+     * Returns the connections to the pool with the isolation they had before the snapshot was imported.
+     */
+    private void closeConnections() {
+        for (Map.Entry<Connection, Integer> laneConnection : this.laneConnections.entrySet()) {
+            Connection connection = laneConnection.getKey();
+            try {
+                if (!connection.getAutoCommit()) {
+                    connection.rollback();
+                }
+                connection.setTransactionIsolation(laneConnection.getValue());
+                connection.close();
+            } catch (SQLException e) {
+                logger.debug("exception closing parallel query connection", e);
+            }
+        }
+        this.laneConnections.clear();
+    }
+
+    private static void cancel(PreparedStatement preparedStatement) {
+        try {
+            preparedStatement.cancel();
+        } catch (SQLException e) {
+            logger.debug("exception cancelling parallel query statement", e);
+        }
+    }
+
+    private static void close(PreparedStatement preparedStatement) {
+        try {
+            preparedStatement.close();
+        } catch (SQLException e) {
+            logger.debug("exception closing parallel query statement", e);
+        }
+    }
+
+    static class Query {
+
+        private final String sql;
+        private final AliasMapHolder aliasMaps;
+        private final List<RecordId> recordIds;
+        private final LinkedList<SchemaTableTree> distinctQueryStack;
+        private final CompletableFuture<Triple<ResultSet, ResultSetMetaData, PreparedStatement>> result = new CompletableFuture<>();
+        private volatile PreparedStatement statement;
+        private Triple<ResultSet, ResultSetMetaData, PreparedStatement> resultSet;
+
+        private Query(String sql, AliasMapHolder aliasMaps, List<RecordId> recordIds, LinkedList<SchemaTableTree> distinctQueryStack) {
+            this.sql = sql;
+            this.aliasMaps = aliasMaps;
+            this.recordIds = recordIds;
+            this.distinctQueryStack = distinctQueryStack;
+        }
+
+        AliasMapHolder getAliasMaps() {
+            return aliasMaps;
+        }
+
+        Triple<ResultSet, ResultSetMetaData, PreparedStatement> getResultSet() {
+            return resultSet;
+        }
+    }
+}
@@ -1,11 +1,18 @@
 package org.umlg.sqlg.structure;
 
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
+ * The statements of a transaction.
+ * Synchronized as a {@link ResultPrefetcher} executes its queries on its own thread in the same transaction.
  * Date: 2016/05/15
  * Time: 2:24 PM
  */
@@ -13,19 +20,46 @@ import java.util.List;
 public class PreparedStatementCache {
 
     private List<PreparedStatement> cache = new ArrayList<>();
+    //statements checked out of the PreparedStatementPool, with their physical connection and sql
+    private Map<PreparedStatement, Pair<Connection, String>> pooled = new IdentityHashMap<>();
 
-    void add(PreparedStatement preparedStatement) {
+    synchronized void add(PreparedStatement preparedStatement) {
         this.cache.add(preparedStatement);
     }
 
-    public void close() throws SQLException {
+    synchronized void addPooled(PreparedStatement preparedStatement, Connection physicalConnection, String sql) {
+        this.pooled.put(preparedStatement, Pair.of(physicalConnection, sql));
+    }
+
+    /**
+     * Returns a pooled statement to the pool, other statements are closed.
+     * Statements already released when the transaction ended are ignored.
+     */
+    synchronized void release(PreparedStatementPool preparedStatementPool, PreparedStatement preparedStatement) throws SQLException {
+        Pair<Connection, String> physicalConnectionSql = this.pooled.remove(preparedStatement);
+        if (physicalConnectionSql != null) {
+            preparedStatementPool.checkin(physicalConnectionSql.getLeft(), physicalConnectionSql.getRight(), preparedStatement);
+        } else if (this.cache.remove(preparedStatement)) {
+            preparedStatement.close();
+        }
+    }
+
+    public synchronized void close() throws SQLException {
         for (PreparedStatement preparedStatement : this.cache) {
             preparedStatement.close();
         }
         this.cache.clear();
     }
 
-    public boolean isEmpty() {
-        return this.cache.isEmpty();
+    synchronized void close(PreparedStatementPool preparedStatementPool) throws SQLException {
+        close();
+        for (Map.Entry<PreparedStatement, Pair<Connection, String>> entry : this.pooled.entrySet()) {
+            preparedStatementPool.checkin(entry.getValue().getLeft(), entry.getValue().getRight(), entry.getKey());
+        }
+        this.pooled.clear();
+    }
+
+    public synchronized boolean isEmpty() {
+        return this.cache.isEmpty() && this.pooled.isEmpty();
     }
 }
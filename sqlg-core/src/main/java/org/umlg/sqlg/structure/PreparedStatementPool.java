@@ -0,0 +1,155 @@
+package org.umlg.sqlg.structure;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A pool of prepared statements per physical connection, keyed on the sql.
+ * As the statements are prepared on the physical connection they survive the closing of the pooled connection,
+ * i.e. they are reused across transactions.
+ * A statement is checked out for the duration of its use and returned to the pool afterwards,
+ * so that the same sql executed in a nested fashion gets its own statement.
+ * All statements of a connection are closed when the topology changed since they were prepared.
+ * <p>
+ * Date: 2026/10/17
+ * Time: 5:10 PM
+ */
+public class PreparedStatementPool {
+
+    private static Logger logger = LoggerFactory.getLogger(PreparedStatementPool.class.getName());
+
+    //The maximum number of prepared statements to keep per connection. 0 disables the pool.
+    public static final String PREPARED_STATEMENT_POOL_SIZE = "prepared.statement.pool.size";
+    private static final int DEFAULT_PREPARED_STATEMENT_POOL_SIZE = 100;
+
+    private final SqlgGraph sqlgGraph;
+    private final int size;
+    //weakKeys compares the connections by identity
+    private final Cache<Connection, ConnectionStatements> connectionStatements = CacheBuilder.newBuilder().weakKeys().build();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    PreparedStatementPool(SqlgGraph sqlgGraph) {
+        this.sqlgGraph = sqlgGraph;
+        this.size = sqlgGraph.configuration().getInt(PREPARED_STATEMENT_POOL_SIZE, DEFAULT_PREPARED_STATEMENT_POOL_SIZE);
+    }
+
+    /**
+     * @return the physical connection to prepare pooled statements on, null if statements must not be pooled.
+     */
+    Connection physicalConnection(Connection connection) throws SQLException {
+        //uncommitted topology changes might change the result type of a statement
+        if (this.size <= 0 || this.sqlgGraph.getTopology().isWriteLockHeldByCurrentThread()) {
+            return null;
+        }
+        if (!connection.isWrapperFor(Connection.class)) {
+            return null;
+        }
+        return connection.unwrap(Connection.class);
+    }
+
+    PreparedStatement checkout(Connection physicalConnection, String sql) throws SQLException {
+        PreparedStatement preparedStatement;
+        synchronized (physicalConnection) {
+            preparedStatement = statements(physicalConnection).statements.remove(sql);
+        }
+        if (preparedStatement != null && !preparedStatement.isClosed()) {
+            this.hits.incrementAndGet();
+            return preparedStatement;
+        }
+        this.misses.incrementAndGet();
+        return physicalConnection.prepareStatement(sql);
+    }
+
+    void checkin(Connection physicalConnection, String sql, PreparedStatement preparedStatement) throws SQLException {
+        if (preparedStatement.isClosed()) {
+            return;
+        }
+        ResultSet resultSet = preparedStatement.getResultSet();
+        if (resultSet != null) {
+            resultSet.close();
+        }
+        //a ResultPrefetcher shares the physical connection with the transaction's thread
+        synchronized (physicalConnection) {
+            ConnectionStatements statements = statements(physicalConnection);
+            if (statements.statements.containsKey(sql)) {
+                preparedStatement.close();
+            } else {
+                preparedStatement.clearParameters();
+                statements.statements.put(sql, preparedStatement);
+            }
+        }
+    }
+
+    private ConnectionStatements statements(Connection physicalConnection) throws SQLException {
+        ConnectionStatements statements;
+        try {
+            statements = this.connectionStatements.get(physicalConnection, ConnectionStatements::new);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e);
+        }
+        long topologyVersion = this.sqlgGraph.getTopology().getVersion();
+        if (statements.topologyVersion != topologyVersion) {
+            statements.closeAll();
+            statements.topologyVersion = topologyVersion;
+        }
+        return statements;
+    }
+
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    /**
+     * @return the number of statements currently pooled over all connections.
+     */
+    public long size() {
+        return this.connectionStatements.asMap().values().stream().mapToLong(s -> s.statements.size()).sum();
+    }
+
+    private class ConnectionStatements {
+
+        private long topologyVersion = sqlgGraph.getTopology().getVersion();
+        private final LinkedHashMap<String, PreparedStatement> statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() > PreparedStatementPool.this.size) {
+                    close(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        private void closeAll() {
+            for (Iterator<PreparedStatement> it = this.statements.values().iterator(); it.hasNext(); ) {
+                close(it.next());
+                it.remove();
+            }
+        }
+
+        private void close(PreparedStatement preparedStatement) {
+            try {
+                preparedStatement.close();
+            } catch (SQLException e) {
+                logger.debug("exception closing pooled prepared statement", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.umlg.sqlg.structure;
+
+import java.util.*;
+
+/**
+ * The immutable slot layout of the committed properties of a {@link VertexLabel} or {@link EdgeLabel}, shared by
+ * the {@link ElementProperties} of all elements of the label.
+ * Properties of a primitive {@link PropertyType} get a slot in the primitive array, the others in the object array.
+ * <p>
+ * Date: 2026/10/18
+ * Time: 11:00 AM
+ */
+final class PropertyLayout {
+
+    static final PropertyLayout EMPTY = new PropertyLayout(Collections.emptyMap());
+
+    private final Map<String, Integer> ordinals;
+    private final String[] keys;
+    private final PropertyType[] propertyTypes;
+    //the index in the primitive or object array per ordinal
+    private final int[] slots;
+    private final int primitiveCount;
+    private final int objectCount;
+
+    PropertyLayout(Map<String, PropertyColumn> properties) {
+        List<String> sorted = new ArrayList<>(properties.keySet());
+        Collections.sort(sorted);
+        Map<String, Integer> ordinals = new HashMap<>();
+        this.keys = new String[sorted.size()];
+        this.propertyTypes = new PropertyType[sorted.size()];
+        this.slots = new int[sorted.size()];
+        int primitiveCount = 0;
+        int objectCount = 0;
+        for (int i = 0; i < sorted.size(); i++) {
+            String key = sorted.get(i);
+            PropertyType propertyType = properties.get(key).getPropertyType();
+            ordinals.put(key, i);
+            this.keys[i] = key;
+            this.propertyTypes[i] = propertyType;
+            this.slots[i] = isPrimitive(propertyType) ? primitiveCount++ : objectCount++;
+        }
+        this.ordinals = ordinals;
+        this.primitiveCount = primitiveCount;
+        this.objectCount = objectCount;
+    }
+
+    static boolean isPrimitive(PropertyType propertyType) {
+        switch (propertyType) {
+            case BOOLEAN:
+            case BYTE:
+            case SHORT:
+            case INTEGER:
+            case LONG:
+            case FLOAT:
+            case DOUBLE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return the ordinal of the key, -1 if the key is not part of the layout.
+     */
+    int ordinal(String key) {
+        Integer ordinal = this.ordinals.get(key);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    int size() {
+        return this.keys.length;
+    }
+
+    String key(int ordinal) {
+        return this.keys[ordinal];
+    }
+
+    PropertyType propertyType(int ordinal) {
+        return this.propertyTypes[ordinal];
+    }
+
+    int slot(int ordinal) {
+        return this.slots[ordinal];
+    }
+
+    int getPrimitiveCount() {
+        return this.primitiveCount;
+    }
+
+    int getObjectCount() {
+        return this.objectCount;
+    }
+}
@@ -0,0 +1,174 @@
+package org.umlg.sqlg.structure;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a result iterator ahead on a background thread into a bounded buffer.
+ * The background thread runs in the transaction of the thread that started it,
+ * so the rows are read and the elements loaded while the traversal consumes the previous ones.
+ * The transaction state the background thread touches, the vertex cache and the property rollback functions, is synchronized
+ * in {@link TransactionCache}. Queries that use the transaction's temporary tables are not prefetched.
+ * The background thread blocks when the buffer is full.
+ * On close the background thread stops and runs the onClose callback, i.e. closes the statement, before close returns.
+ * The end of the result is queued if there is space, the consumer also polls and ends once the background thread finished,
+ * so that it does not wait forever when the background thread is interrupted, e.g. by {@link SqlgGraph#close()}.
+ * <p>
+ * Date: 2026/10/17
+ * Time: 6:40 PM
+ */
+class ResultPrefetcher<T> implements Iterator<T>, AutoCloseable {
+
+    private static Logger logger = LoggerFactory.getLogger(ResultPrefetcher.class.getName());
+    private static final Object END = new Object();
+    private static final long POLL_MILLIS = 50;
+
+    private final SqlgGraph sqlgGraph;
+    private final Iterator<T> source;
+    private final Runnable onClose;
+    private final BlockingQueue<Object> buffer;
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private volatile boolean closed = false;
+    private volatile Throwable failure;
+    private boolean started = false;
+    private boolean done = false;
+    private T next;
+
+    ResultPrefetcher(SqlgGraph sqlgGraph, Iterator<T> source, int bufferSize, Runnable onClose) {
+        this.sqlgGraph = sqlgGraph;
+        this.source = source;
+        this.onClose = onClose;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+    }
+
+    private void start() {
+        this.started = true;
+        this.sqlgGraph.getQueryExecutor().execute(this.sqlgGraph.tx().inTransaction(this, this::produce));
+    }
+
+    private void produce() {
+        try {
+            while (!this.closed && this.source.hasNext()) {
+                if (!put(this.source.next())) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.failure = new RuntimeException("prefetching the result was interrupted", e);
+        } catch (Throwable e) {
+            this.failure = e;
+        } finally {
+            try {
+                this.onClose.run();
+            } catch (Throwable e) {
+                if (this.failure == null) {
+                    this.failure = e;
+                } else {
+                    logger.debug("exception closing the prefetched result", e);
+                }
+            } finally {
+                this.buffer.offer(END);
+                this.finished.countDown();
+            }
+        }
+    }
+
+    /**
+     * @return false if the prefetcher was closed while waiting for space in the buffer.
+     */
+    private boolean put(Object o) throws InterruptedException {
+        while (!this.closed) {
+            if (this.buffer.offer(o, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (this.next != null) {
+            return true;
+        }
+        if (this.done) {
+            return false;
+        }
+        if (!this.started) {
+            start();
+        }
+        Object o;
+        try {
+            while ((o = this.buffer.poll(POLL_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+                if (this.finished.getCount() == 0) {
+                    //END did not fit in the buffer or the background thread ended without queueing it
+                    o = this.buffer.poll();
+                    if (o == null) {
+                        o = END;
+                    }
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        if (o == END) {
+            this.done = true;
+            Throwable e = this.failure;
+            if (e != null) {
+                if (e instanceof RuntimeException) {
+                    throw (RuntimeException) e;
+                } else if (e instanceof Error) {
+                    throw (Error) e;
+                } else {
+                    throw new RuntimeException(e);
+                }
+            }
+            return false;
+        }
+        //noinspection unchecked
+        this.next = (T) o;
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        T result = this.next;
+        this.next = null;
+        return result;
+    }
+
+    /**
+     * Stops the background thread and waits for it to release its statement.
+     * May be called from the transaction's thread only.
+     */
+    @Override
+    public void close() {
+        this.done = true;
+        this.next = null;
+        if (!this.started) {
+            this.onClose.run();
+            return;
+        }
+        this.closed = true;
+        this.buffer.clear();
+        try {
+            this.finished.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        this.buffer.clear();
+    }
+}
@@ -0,0 +1,240 @@
+package org.umlg.sqlg.structure;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import org.apache.tinkerpop.gremlin.process.traversal.Path;
+import org.apache.tinkerpop.gremlin.process.traversal.step.util.ImmutablePath;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.umlg.sqlg.sql.dialect.SqlDialect;
+import org.umlg.sqlg.strategy.SqlgSqlExecutor;
+import org.umlg.sqlg.util.SqlgUtil;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+
+/**
+ * Finds a shortest path between two vertices with a bidirectional breadth first search executed in the database.
+ * Every level expands the smaller of the two frontiers with one set based query per chunk of frontier ids over all the edge tables.
+ * The visited vertices of both sides are kept with their parent so that the path can be rebuilt where the searches meet.
+ * <p>
+ * Date: 2026/10/17
+ * Time: 6:10 PM
+ */
+class ShortestPath {
+
+    private static Logger logger = LoggerFactory.getLogger(ShortestPath.class.getName());
+    //The maximum number of frontier ids in one IN clause.
+    private static final int ID_CHUNK_SIZE = 1000;
+
+    private final SqlgGraph sqlgGraph;
+    private final Direction direction;
+    private final int maxDepth;
+    private final Set<String> edgeLabels;
+
+    ShortestPath(SqlgGraph sqlgGraph, Direction direction, int maxDepth, String... edgeLabels) {
+        Preconditions.checkArgument(maxDepth >= 0, "maxDepth must be >= 0, found %s", maxDepth);
+        this.sqlgGraph = sqlgGraph;
+        this.direction = direction;
+        this.maxDepth = maxDepth;
+        this.edgeLabels = new HashSet<>(Arrays.asList(edgeLabels));
+    }
+
+    /**
+     * @return the vertices of a shortest path from the start to the end vertex, empty if the end is not reachable within maxDepth edges.
+     */
+    Optional<Path> find(Vertex start, Vertex end) {
+        RecordId startId = (RecordId) start.id();
+        RecordId endId = (RecordId) end.id();
+        if (startId.equals(endId)) {
+            return Optional.of(ImmutablePath.make().extend(start, Collections.emptySet()));
+        }
+        List<Branch> forwardBranches = branches(this.direction);
+        List<Branch> backwardBranches = branches(this.direction.opposite());
+        Map<RecordId, Visit> forward = new HashMap<>();
+        Map<RecordId, Visit> backward = new HashMap<>();
+        forward.put(startId, new Visit(null, 0));
+        backward.put(endId, new Visit(null, 0));
+        List<RecordId> forwardFrontier = Collections.singletonList(startId);
+        List<RecordId> backwardFrontier = Collections.singletonList(endId);
+        int depth = 0;
+        while (depth < this.maxDepth && !forwardFrontier.isEmpty() && !backwardFrontier.isEmpty()) {
+            boolean expandForward = forwardFrontier.size() <= backwardFrontier.size();
+            Map<RecordId, Visit> visited = expandForward ? forward : backward;
+            Map<RecordId, Visit> other = expandForward ? backward : forward;
+            List<RecordId> frontier = expandForward ? forwardFrontier : backwardFrontier;
+            List<RecordId> next = new ArrayList<>();
+            RecordId meeting = null;
+            int meetingLength = Integer.MAX_VALUE;
+            for (RecordId[] edge : expand(frontier, expandForward ? forwardBranches : backwardBranches)) {
+                if (visited.containsKey(edge[1])) {
+                    continue;
+                }
+                Visit visit = new Visit(edge[0], visited.get(edge[0]).depth + 1);
+                visited.put(edge[1], visit);
+                next.add(edge[1]);
+                //the other side's vertices are at different depths, keep the meeting with the shortest total
+                Visit otherVisit = other.get(edge[1]);
+                if (otherVisit != null && visit.depth + otherVisit.depth < meetingLength) {
+                    meeting = edge[1];
+                    meetingLength = visit.depth + otherVisit.depth;
+                }
+            }
+            if (meeting != null) {
+                return Optional.of(toPath(meeting, forward, backward));
+            }
+            if (expandForward) {
+                forwardFrontier = next;
+            } else {
+                backwardFrontier = next;
+            }
+            depth++;
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return the traversed edges as from and to vertex ids.
+     */
+    private List<RecordId[]> expand(List<RecordId> frontier, List<Branch> branches) {
+        Map<SchemaTable, List<Long>> idsPerTable = new LinkedHashMap<>();
+        for (RecordId recordId : frontier) {
+            idsPerTable.computeIfAbsent(recordId.getSchemaTable(), k -> new ArrayList<>()).add(recordId.getId());
+        }
+        SqlDialect dialect = this.sqlgGraph.getSqlDialect();
+        List<RecordId[]> result = new ArrayList<>();
+        Connection conn = this.sqlgGraph.tx().getConnection();
+        for (Map.Entry<SchemaTable, List<Long>> entry : idsPerTable.entrySet()) {
+            for (List<Long> ids : Lists.partition(entry.getValue(), ID_CHUNK_SIZE)) {
+                StringBuilder in = new StringBuilder();
+                for (Long id : ids) {
+                    if (in.length() > 0) {
+                        in.append(", ");
+                    }
+                    in.append(id);
+                }
+                List<String> selects = new ArrayList<>();
+                for (int i = 0; i < branches.size(); i++) {
+                    Branch branch = branches.get(i);
+                    if (branch.from.equals(entry.getKey())) {
+                        String fromColumn = "x." + dialect.maybeWrapInQoutes(branch.fromForeignKey);
+                        String toColumn = "x." + dialect.maybeWrapInQoutes(branch.toForeignKey);
+                        selects.add("SELECT " + i + " AS b, " + fromColumn + " AS f, " + toColumn + " AS t FROM " +
+                                dialect.maybeWrapInQoutes(branch.edgeTable.getSchema()) + "." + dialect.maybeWrapInQoutes(branch.edgeTable.getTable()) +
+                                " x WHERE " + fromColumn + " IN (" + in + ") AND " + toColumn + " IS NOT NULL");
+                    }
+                }
+                if (selects.isEmpty()) {
+                    break;
+                }
+                String sql = String.join("\nUNION ALL\n", selects);
+                if (dialect.needsSemicolon()) {
+                    sql += ";";
+                }
+                if (logger.isDebugEnabled()) {
+                    logger.debug(sql);
+                }
+                try (Statement statement = conn.createStatement()) {
+                    SqlgSqlExecutor.setQueryTimeout(statement, this.sqlgGraph.tx().getQueryTimeoutMs());
+                    ResultSet resultSet = statement.executeQuery(sql);
+                    while (resultSet.next()) {
+                        Branch branch = branches.get(resultSet.getInt(1));
+                        result.add(new RecordId[]{
+                                RecordId.from(branch.from, resultSet.getLong(2)),
+                                RecordId.from(branch.to, resultSet.getLong(3))
+                        });
+                    }
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the edge table foreign key pairs to traverse in the given direction, filtered on the edge labels.
+     */
+    private List<Branch> branches(Direction direction) {
+        List<Branch> result = new ArrayList<>();
+        for (Map.Entry<String, Set<String>> edgeForeignKeys : this.sqlgGraph.getTopology().getAllEdgeForeignKeys().entrySet()) {
+            SchemaTable edgeTable = SchemaTable.from(this.sqlgGraph, edgeForeignKeys.getKey());
+            if (!this.edgeLabels.isEmpty() && !this.edgeLabels.contains(edgeTable.withOutPrefix().getTable())) {
+                continue;
+            }
+            for (String outForeignKey : edgeForeignKeys.getValue()) {
+                if (!outForeignKey.endsWith(SchemaManager.OUT_VERTEX_COLUMN_END)) {
+                    continue;
+                }
+                for (String inForeignKey : edgeForeignKeys.getValue()) {
+                    if (!inForeignKey.endsWith(SchemaManager.IN_VERTEX_COLUMN_END)) {
+                        continue;
+                    }
+                    if (direction != Direction.IN) {
+                        result.add(new Branch(edgeTable, outForeignKey, inForeignKey));
+                    }
+                    if (direction != Direction.OUT) {
+                        result.add(new Branch(edgeTable, inForeignKey, outForeignKey));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private Path toPath(RecordId meeting, Map<RecordId, Visit> forward, Map<RecordId, Visit> backward) {
+        LinkedList<RecordId> ids = new LinkedList<>();
+        for (RecordId recordId = meeting; recordId != null; recordId = forward.get(recordId).parent) {
+            ids.addFirst(recordId);
+        }
+        for (RecordId recordId = backward.get(meeting).parent; recordId != null; recordId = backward.get(recordId).parent) {
+            ids.addLast(recordId);
+        }
+        Map<RecordId, Vertex> vertices = new HashMap<>();
+        this.sqlgGraph.vertices(ids.toArray()).forEachRemaining(v -> vertices.put((RecordId) v.id(), v));
+        Path path = ImmutablePath.make();
+        for (RecordId recordId : ids) {
+            path = path.extend(vertices.get(recordId), Collections.emptySet());
+        }
+        return path;
+    }
+
+    private static SchemaTable vertexTableFor(String foreignKey) {
+        String label = foreignKey.endsWith(SchemaManager.IN_VERTEX_COLUMN_END) ? SqlgUtil.removeTrailingInId(foreignKey) : SqlgUtil.removeTrailingOutId(foreignKey);
+        return SqlgUtil.parseLabel(label);
+    }
+
+    private static class Branch {
+
+        private final SchemaTable edgeTable;
+        private final String fromForeignKey;
+        private final String toForeignKey;
+        //the vertex tables without prefix, as in the RecordId
+        private final SchemaTable from;
+        private final SchemaTable to;
+
+        private Branch(SchemaTable edgeTable, String fromForeignKey, String toForeignKey) {
+            this.edgeTable = edgeTable;
+            this.fromForeignKey = fromForeignKey;
+            this.toForeignKey = toForeignKey;
+            this.from = vertexTableFor(fromForeignKey);
+            this.to = vertexTableFor(toForeignKey);
+        }
+    }
+
+    private static class Visit {
+
+        private final RecordId parent;
+        private final int depth;
+
+        private Visit(RecordId parent, int depth) {
+            this.parent = parent;
+            this.depth = depth;
+        }
+    }
+}
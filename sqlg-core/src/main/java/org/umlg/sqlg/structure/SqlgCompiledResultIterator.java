@@ -2,8 +2,10 @@ package org.umlg.sqlg.structure;
 
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.commons.lang3.tuple.Triple;
+import org.apache.tinkerpop.gremlin.structure.util.CloseableIterator;
 import org.apache.tinkerpop.gremlin.util.iterator.EmptyIterator;
 import org.umlg.sqlg.sql.parse.SchemaTableTree;
+import org.umlg.sqlg.sql.parse.UnionSql;
 import org.umlg.sqlg.strategy.Emit;
 import org.umlg.sqlg.strategy.SqlgSqlExecutor;
 import org.umlg.sqlg.util.SqlgUtil;
@@ -13,16 +15,17 @@ import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.function.Function;
 
 /**
  * Date: 2015/07/01
  * Time: 2:03 PM
  */
-public class SqlgCompiledResultIterator<E> implements Iterator<E> {
+public class SqlgCompiledResultIterator<E> implements CloseableIterator<E> {
 
     private SqlgGraph sqlgGraph;
     private Set<SchemaTableTree> rootSchemaTableTrees;
-    private RecordId recordId;
+    private List<RecordId> recordIds = Collections.emptyList();
     private Iterator<SchemaTableTree> rootSchemaTableTreeIterator = EmptyIterator.instance();
     private SchemaTableTree currentRootSchemaTableTree;
 
@@ -49,10 +52,32 @@ public class SqlgCompiledResultIterator<E> implements Iterator<E> {
      * are we reading the query results lazily?
      */
     private boolean lazy = true;
+    /**
+     * reads the results ahead on a background thread, null if not prefetching
+     */
+    private ResultPrefetcher<List<Emit<SqlgElement>>> prefetcher;
+    /**
+     * the queries of the current rootSchemaTableTree executing on other connections, null if executed on the transaction's connection
+     */
+    private ParallelQueries parallelQueries;
+    /**
+     * the regular queries of the current rootSchemaTableTree merged into one statement, keyed by the first query of the union
+     */
+    private Map<LinkedList<SchemaTableTree>, UnionSql> unionQueries = new IdentityHashMap<>();
+    /**
+     * the union being read and the index of the query of the last row read, null if not reading a union
+     */
+    private UnionSql unionSql;
+    private int unionQuery;
     
     private boolean first = true;
     private Map<String, Integer> lastElementIdCountMap = new HashMap<>();
     private QUERY queryState = QUERY.REGULAR;
+    /**
+     * set when the traversal stops consuming, the pending queries are not executed.
+     * volatile as the prefetch thread reads it.
+     */
+    private volatile boolean closed = false;
 
     private enum QUERY {
         REGULAR,
@@ -60,9 +85,9 @@ public class SqlgCompiledResultIterator<E> implements Iterator<E> {
         EMIT
     }
 
-    SqlgCompiledResultIterator(SqlgGraph sqlgGraph, Set<SchemaTableTree> rootSchemaTableTrees, RecordId recordId) {
+    SqlgCompiledResultIterator(SqlgGraph sqlgGraph, Set<SchemaTableTree> rootSchemaTableTrees, List<RecordId> recordIds) {
         this(sqlgGraph, rootSchemaTableTrees);
-        this.recordId = recordId;
+        this.recordIds = recordIds;
     }
 
     public SqlgCompiledResultIterator(SqlgGraph sqlgGraph, Set<SchemaTableTree> rootSchemaTableTrees) {
@@ -70,10 +95,34 @@ public class SqlgCompiledResultIterator<E> implements Iterator<E> {
         this.rootSchemaTableTrees = rootSchemaTableTrees;
         this.rootSchemaTableTreeIterator = rootSchemaTableTrees.iterator();
         this.lazy = sqlgGraph.tx().isLazyQueries();
+        int prefetchSize = sqlgGraph.tx().getPrefetchSize();
+        //uncommitted topology changes are only visible to the thread holding the topology lock.
+        //the temporary tables are shared by the transaction's queries, so queries using them are not executed on the prefetch thread.
+        if (this.lazy && prefetchSize > 0 && !sqlgGraph.getTopology().isWriteLockHeldByCurrentThread() &&
+                rootSchemaTableTrees.stream().noneMatch(SchemaTableTree::usesTemporaryTables)) {
+            this.prefetcher = new ResultPrefetcher<>(sqlgGraph, new Iterator<List<Emit<SqlgElement>>>() {
+                @Override
+                public boolean hasNext() {
+                    return hasNextLazy();
+                }
+
+                @Override
+                public List<Emit<SqlgElement>> next() {
+                    //noinspection unchecked
+                    return (List<Emit<SqlgElement>>) nextLazy();
+                }
+            }, prefetchSize, this::closeQueries);
+        }
     }
 
     @Override
     public boolean hasNext() {
+        if (this.closed) {
+            return false;
+        }
+        if (this.prefetcher != null) {
+            return this.prefetcher.hasNext();
+        }
     	if (lazy){
     		return hasNextLazy();
     	}
@@ -96,6 +145,9 @@ public class SqlgCompiledResultIterator<E> implements Iterator<E> {
     public boolean hasNextLazy() {
         try {
             while (true) {
+                if (this.closed) {
+                    return false;
+                }
                 switch (this.queryState) {
                     case REGULAR:
                         if (this.elements != null) {
@@ -116,9 +168,14 @@ public class SqlgCompiledResultIterator<E> implements Iterator<E> {
                                     this.first = true;
                                 } else {
                                     //try the next rootSchemaTableTree
+                                    closeParallelQueries();
                                     if (this.rootSchemaTableTreeIterator.hasNext()) {
                                         this.currentRootSchemaTableTree = this.rootSchemaTableTreeIterator.next();
-                                        this.distinctQueriesIterator = this.currentRootSchemaTableTree.constructDistinctQueries().iterator();
+                                        List<LinkedList<SchemaTableTree>> distinctQueries = mergeIntoUnions(this.currentRootSchemaTableTree.constructDistinctQueries());
+                                        this.distinctQueriesIterator = distinctQueries.iterator();
+                                        if (this.unionQueries.isEmpty()) {
+                                            executeInParallel(distinctQueries, this.currentRootSchemaTableTree::constructSql, q -> q);
+                                        }
                                     } else {
                                         if (this.currentRootSchemaTableTree != null) {
                                             this.currentRootSchemaTableTree.resetColumnAliasMaps();
@@ -150,11 +207,14 @@ public class SqlgCompiledResultIterator<E> implements Iterator<E> {
                                     this.first = true;
                                 } else {
                                     //try the next rootSchemaTableTree
+                                    closeParallelQueries();
                                     if (this.rootSchemaTableTreeIterator.hasNext()) {
                                         this.currentRootSchemaTableTree = this.rootSchemaTableTreeIterator.next();
                                         List<Pair<LinkedList<SchemaTableTree>, Set<SchemaTableTree>>> leftJoinResult = new ArrayList<>();
                                         SchemaTableTree.constructDistinctOptionalQueries(this.currentRootSchemaTableTree, leftJoinResult);
                                         this.optionalLeftJoinResultsIterator = leftJoinResult.iterator();
+                                        SchemaTableTree rootSchemaTableTree = this.currentRootSchemaTableTree;
+                                        executeInParallel(leftJoinResult, q -> rootSchemaTableTree.constructSqlForOptional(q.getLeft(), q.getRight()), Pair::getLeft);
                                     } else {
                                         if (this.currentRootSchemaTableTree != null) {
                                             this.currentRootSchemaTableTree.resetColumnAliasMaps();
@@ -186,11 +246,13 @@ public class SqlgCompiledResultIterator<E> implements Iterator<E> {
                                     this.first = true;
                                 } else {
                                     //try the next rootSchemaTableTree
+                                    closeParallelQueries();
                                     if (this.rootSchemaTableTreeIterator.hasNext()) {
                                         this.currentRootSchemaTableTree = this.rootSchemaTableTreeIterator.next();
                                         List<LinkedList<SchemaTableTree>> leftJoinResult = new ArrayList<>();
                                         SchemaTableTree.constructDistinctEmitBeforeQueries(this.currentRootSchemaTableTree, leftJoinResult);
                                         this.emitLeftJoinResultsIterator = leftJoinResult.iterator();
+                                        executeInParallel(leftJoinResult, this.currentRootSchemaTableTree::constructSqlForEmit, q -> q);
                                         if (currentRootSchemaTableTree.isFakeEmit()) {
                                             List<Emit<SqlgElement>> fake = new ArrayList<>();
                                             fake.add(new Emit<>());
@@ -216,6 +278,10 @@ public class SqlgCompiledResultIterator<E> implements Iterator<E> {
 
     @Override
     public E next(){
+        if (this.prefetcher != null) {
+            //noinspection unchecked
+            return (E) this.prefetcher.next();
+        }
     	if (lazy){
     		return nextLazy();
     	}
@@ -234,18 +300,133 @@ public class SqlgCompiledResultIterator<E> implements Iterator<E> {
     }
 
     private void executeRegularQuery() {
-        this.queryResult = SqlgSqlExecutor.executeRegularQuery(this.sqlgGraph, this.currentRootSchemaTableTree, this.recordId, this.currentDistinctQueryStack);
+        this.unionSql = this.unionQueries.get(this.currentDistinctQueryStack);
+        if (this.unionSql != null) {
+            this.unionQuery = -1;
+            this.queryResult = SqlgSqlExecutor.executeUnionQuery(this.sqlgGraph, this.unionSql, this.recordIds);
+            return;
+        }
+        if (takeParallelQuery(this.currentDistinctQueryStack)) {
+            return;
+        }
+        this.queryResult = SqlgSqlExecutor.executeRegularQuery(this.sqlgGraph, this.currentRootSchemaTableTree, this.recordIds, this.currentDistinctQueryStack);
     }
 
     private void executeOptionalQuery() {
-        this.queryResult = SqlgSqlExecutor.executeOptionalQuery(this.sqlgGraph, this.currentRootSchemaTableTree, this.recordId, this.optionalCurrentLeftJoinResult);
+        if (takeParallelQuery(this.optionalCurrentLeftJoinResult)) {
+            return;
+        }
+        this.queryResult = SqlgSqlExecutor.executeOptionalQuery(this.sqlgGraph, this.currentRootSchemaTableTree, this.recordIds, this.optionalCurrentLeftJoinResult);
     }
 
     private void executeEmitQuery() {
-        this.queryResult = SqlgSqlExecutor.executeEmitQuery(this.sqlgGraph, this.currentRootSchemaTableTree, this.recordId, this.emitCurrentLeftJoinResult);
+        if (takeParallelQuery(this.emitCurrentLeftJoinResult)) {
+            return;
+        }
+        this.queryResult = SqlgSqlExecutor.executeEmitQuery(this.sqlgGraph, this.currentRootSchemaTableTree, this.recordIds, this.emitCurrentLeftJoinResult);
+    }
+
+    /**
+     * Merges the regular queries that can be merged into UNION ALL statements of at most the transaction's union size.
+     * Every select of a union has the columns of all its queries, a union is closed before it passes the dialect's
+     * column limit.
+     *
+     * @return the queries to execute, a union is represented by its first query.
+     */
+    private List<LinkedList<SchemaTableTree>> mergeIntoUnions(List<LinkedList<SchemaTableTree>> distinctQueries) {
+        this.unionQueries.clear();
+        int unionSize = this.sqlgGraph.tx().getUnionSize();
+        //every query of the union binds the incoming ids
+        int parentIdParameterCount = SqlgUtil.parentIdParameterCount(this.sqlgGraph.getSqlDialect(), this.recordIds.size());
+        if (parentIdParameterCount > 1) {
+            unionSize = Math.min(unionSize, this.sqlgGraph.getSqlDialect().getParameterLimit() / 2 / parentIdParameterCount);
+        }
+        if (unionSize < 2 || distinctQueries.size() < 2 || this.currentRootSchemaTableTree.usesTemporaryTables()) {
+            return distinctQueries;
+        }
+        //the discriminator and the parent id
+        int columnLimit = this.sqlgGraph.getSqlDialect().getColumnLimit() - 2;
+        List<LinkedList<SchemaTableTree>> result = new ArrayList<>();
+        List<LinkedList<SchemaTableTree>> union = new ArrayList<>();
+        int unionColumns = 0;
+        for (LinkedList<SchemaTableTree> distinctQuery : distinctQueries) {
+            if (this.currentRootSchemaTableTree.isUnionMergeable(distinctQuery)) {
+                int columns = this.currentRootSchemaTableTree.unionColumnCount(distinctQuery);
+                if (!union.isEmpty() && unionColumns + columns > columnLimit) {
+                    addUnion(union);
+                    union = new ArrayList<>();
+                    unionColumns = 0;
+                }
+                if (union.isEmpty()) {
+                    result.add(distinctQuery);
+                }
+                union.add(distinctQuery);
+                unionColumns += columns;
+                if (union.size() == unionSize) {
+                    addUnion(union);
+                    union = new ArrayList<>();
+                    unionColumns = 0;
+                }
+            } else {
+                result.add(distinctQuery);
+            }
+        }
+        addUnion(union);
+        this.currentRootSchemaTableTree.resetColumnAliasMaps();
+        return result;
+    }
+
+    private void addUnion(List<LinkedList<SchemaTableTree>> union) {
+        if (union.size() > 1) {
+            this.unionQueries.put(union.get(0), this.currentRootSchemaTableTree.constructUnionSql(union));
+        }
+    }
+
+    /**
+     * Constructs the sql of all the queries of the current rootSchemaTableTree up front and starts executing them on other connections.
+     */
+    private <Q> void executeInParallel(List<Q> queries, Function<Q, String> sql, Function<Q, LinkedList<SchemaTableTree>> distinctQueryStack) {
+        if (queries.size() < 2) {
+            return;
+        }
+        this.parallelQueries = ParallelQueries.of(this.sqlgGraph, this.currentRootSchemaTableTree);
+        if (this.parallelQueries == null) {
+            return;
+        }
+        for (Q query : queries) {
+            this.currentRootSchemaTableTree.resetColumnAliasMaps();
+            String querySql = sql.apply(query);
+            this.parallelQueries.add(query, querySql, this.currentRootSchemaTableTree.copyColumnAliasMaps(), this.recordIds, distinctQueryStack.apply(query));
+        }
+        this.currentRootSchemaTableTree.resetColumnAliasMaps();
+        this.parallelQueries.start();
+    }
+
+    private boolean takeParallelQuery(Object query) {
+        if (this.parallelQueries == null) {
+            return false;
+        }
+        ParallelQueries.Query parallelQuery = this.parallelQueries.take(query);
+        if (parallelQuery == null) {
+            return false;
+        }
+        this.currentRootSchemaTableTree.restoreColumnAliasMaps(parallelQuery.getAliasMaps());
+        this.queryResult = parallelQuery.getResultSet();
+        return true;
+    }
+
+    private void closeParallelQueries() {
+        if (this.parallelQueries != null) {
+            this.parallelQueries.close();
+            this.parallelQueries = null;
+        }
     }
 
     private void iterateRegularQueries() throws SQLException {
+        if (this.unionSql != null) {
+            iterateUnionQuery();
+            return;
+        }
         List<Emit<SqlgElement>> result = SqlgUtil.loadResultSetIntoResultIterator(
                 this.sqlgGraph,
                 this.queryResult.getMiddle(),
@@ -260,6 +441,37 @@ public class SqlgCompiledResultIterator<E> implements Iterator<E> {
         }
     }
 
+    /**
+     * The first column of a union is the index of the query the row belongs to.
+     * When it changes the alias maps and sub query stacks of that query are restored before loading the row.
+     */
+    private void iterateUnionQuery() throws SQLException {
+        ResultSet resultSet = this.queryResult.getLeft();
+        if (!resultSet.next()) {
+            return;
+        }
+        int query = resultSet.getInt(1);
+        boolean first = this.first;
+        if (query != this.unionQuery) {
+            this.unionQuery = query;
+            this.currentRootSchemaTableTree.restoreColumnAliasMaps(this.unionSql.getAliasMaps(query));
+            this.subQueryStacks = SchemaTableTree.splitIntoSubStacks(this.unionSql.getDistinctQueryStack(query));
+            first = true;
+        }
+        List<Emit<SqlgElement>> result = SqlgUtil.loadCurrentRowIntoResultIterator(
+                this.sqlgGraph,
+                this.queryResult.getMiddle(),
+                resultSet,
+                this.currentRootSchemaTableTree,
+                this.subQueryStacks,
+                first,
+                this.lastElementIdCountMap
+        );
+        if (!result.isEmpty()) {
+            this.elements = result;
+        }
+    }
+
     private void iterateOptionalQueries() throws SQLException {
         List<Emit<SqlgElement>> result = SqlgUtil.loadResultSetIntoResultIterator(
                 this.sqlgGraph,
@@ -290,11 +502,34 @@ public class SqlgCompiledResultIterator<E> implements Iterator<E> {
         }
     }
 
+    /**
+     * Releases the statement of a partially read result, stopping the prefetch thread if any.
+     * The remaining distinct, optional and emit queries are skipped and the queries still running on the parallel connections are cancelled.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        if (this.prefetcher != null) {
+            this.prefetcher.close();
+        } else {
+            closeQueries();
+        }
+    }
+
+    private void closeQueries() {
+        closePreparedStatement();
+        closeParallelQueries();
+    }
+
     private void closePreparedStatement() {
         if (this.queryResult != null) {
             try {
-                this.queryResult.getRight().close();
+                this.queryResult.getLeft().close();
+                if (this.parallelQueries == null || !this.parallelQueries.release(this.queryResult.getRight())) {
+                    this.sqlgGraph.tx().releasePreparedStatement(this.queryResult.getRight());
+                }
                 this.queryResult = null;
+                this.unionSql = null;
             } catch (SQLException e) {
                 throw new RuntimeException(e);
             }
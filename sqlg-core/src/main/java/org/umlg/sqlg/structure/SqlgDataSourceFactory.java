@@ -2,6 +2,8 @@ package org.umlg.sqlg.structure;
 
 import org.apache.commons.configuration.Configuration;
 import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
 
 /**
  * Created by petercipov on 27/02/2017.
@@ -14,6 +16,13 @@ public interface SqlgDataSourceFactory {
         DataSource getDatasource();
         void close();
         String getPoolStatsAsJson();
+
+        /**
+         * @return a connection if one is available without waiting for another thread to return one, else null.
+         */
+        default Connection tryGetConnection() throws SQLException {
+            return null;
+        }
     }
 
 }
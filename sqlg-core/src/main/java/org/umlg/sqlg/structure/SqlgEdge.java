@@ -5,6 +5,7 @@ import org.apache.tinkerpop.gremlin.structure.*;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.umlg.sqlg.strategy.SqlgSqlExecutor;
 import org.umlg.sqlg.util.SqlgUtil;
 
 import java.sql.*;
@@ -94,8 +95,10 @@ public class SqlgEdge extends SqlgElement implements Edge {
     @Override
     public void remove() {
         this.sqlgGraph.tx().readWrite();
+        this.sqlgGraph.tx().markWritten();
         if (this.removed)
             throw Element.Exceptions.elementAlreadyRemoved(this.getClass(), this.id());
+        this.sqlgGraph.tx().elementChanged(this);
 
         if (this.sqlgGraph.features().supportsBatchMode() && this.sqlgGraph.tx().isInBatchMode()) {
             this.sqlgGraph.tx().getBatchManager().removeEdge(this.schema, this.table, this);
@@ -128,6 +131,7 @@ public class SqlgEdge extends SqlgElement implements Edge {
     }
 
     private void insertEdge(boolean complete, Pair<Map<String, Object>, Map<String, Object>> keyValueMapPair) throws SQLException {
+        this.sqlgGraph.tx().markWritten();
         Map<String, Object> allKeyValueMap = keyValueMapPair.getLeft();
         Map<String, Object> notNullKeyValueMap = keyValueMapPair.getRight();
         if (this.sqlgGraph.features().supportsBatchMode() && this.sqlgGraph.tx().isInBatchMode()) {
@@ -135,8 +139,10 @@ public class SqlgEdge extends SqlgElement implements Edge {
         } else {
             internalAddEdge(notNullKeyValueMap);
         }
-        //Cache the properties
-        this.properties.putAll(notNullKeyValueMap);
+        //Cache the properties, an edge in a normal batch reads them from its batch row
+        if (!this.properties.inBatch()) {
+            this.properties.putAll(notNullKeyValueMap);
+        }
     }
 
     private void internalBatchAddEdge(boolean streaming, Map<String, Object> keyValueMap) {
@@ -209,11 +215,15 @@ public class SqlgEdge extends SqlgElement implements Edge {
     @Override
     protected void load() {
         //recordId can be null when in batchMode
-        if (recordId != null && this.properties.isEmpty()) {
+        if (recordId != null && needsLoad()) {
 
             if (this.sqlgGraph.tx().getBatchManager().isStreaming()) {
                 throw new IllegalStateException("streaming is in progress, first flush or commit before querying.");
             }
+            if (loadFromElementCache()) {
+                return;
+            }
+            long generation = elementCacheGeneration();
 
             //Generate the columns to prevent 'ERROR: cached plan must not change result type" error'
             //This happens when the schema changes after the statement is prepared.
@@ -251,36 +261,74 @@ public class SqlgEdge extends SqlgElement implements Edge {
             if (this.sqlgGraph.getSqlDialect().needsSemicolon()) {
                 sql.append(";");
             }
-            Connection conn = this.sqlgGraph.tx().getConnection();
             if (logger.isDebugEnabled()) {
                 logger.debug(sql.toString());
             }
-            try (PreparedStatement preparedStatement = conn.prepareStatement(sql.toString())) {
+            PreparedStatement preparedStatement = this.sqlgGraph.tx().prepareStatement(sql.toString());
+            try {
                 preparedStatement.setCursorName("");
                 preparedStatement.setLong(1, this.recordId.getId());
-                ResultSet resultSet = preparedStatement.executeQuery();
-                if (resultSet.next()) {
-                    loadResultSet(resultSet);
+                SqlgSqlExecutor.setQueryTimeout(preparedStatement, this.sqlgGraph.tx().getQueryTimeoutMs());
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    if (resultSet.next()) {
+                        loadResultSet(resultSet);
+                        this.projectedProperties = null;
+                        putInElementCache(generation);
+                    }
                 }
             } catch (SQLException e) {
                 throw new RuntimeException(e);
+            } finally {
+                this.sqlgGraph.tx().releasePreparedStatement(preparedStatement);
             }
         }
     }
 
+    @Override
+    void loadElementCacheEntry(ElementCache.Entry entry) {
+        super.loadElementCacheEntry(entry);
+        RecordId in = entry.getInVertex();
+        RecordId out = entry.getOutVertex();
+        this.inVertex = SqlgVertex.of(this.sqlgGraph, in.getId(), in.getSchemaTable().getSchema(), in.getSchemaTable().getTable());
+        this.outVertex = SqlgVertex.of(this.sqlgGraph, out.getId(), out.getSchemaTable().getSchema(), out.getSchemaTable().getTable());
+        this.sqlgGraph.tx().addUnloadedVertex(this.inVertex);
+        this.sqlgGraph.tx().addUnloadedVertex(this.outVertex);
+    }
+
+    @Override
+    ElementCache.Entry toElementCacheEntry() {
+        return new ElementCache.Entry(this.properties, (RecordId) this.inVertex.id(), (RecordId) this.outVertex.id());
+    }
+
     public void loadInVertex(ResultSet resultSet, String label, int columnIdx) throws SQLException {
         SchemaTable inVertexColumnName = SchemaTable.from(this.sqlgGraph, label);
+        loadInVertex(resultSet, SchemaTable.of(inVertexColumnName.getSchema(), SqlgUtil.removeTrailingInId(inVertexColumnName.getTable())), columnIdx);
+    }
+
+    /**
+     * @param inVertexSchemaTable The schema and label, without the vertex prefix, of the in vertex.
+     */
+    public void loadInVertex(ResultSet resultSet, SchemaTable inVertexSchemaTable, int columnIdx) throws SQLException {
         Long inId = resultSet.getLong(columnIdx);
         if (!resultSet.wasNull()) {
-            this.inVertex = SqlgVertex.of(this.sqlgGraph, inId, inVertexColumnName.getSchema(), SqlgUtil.removeTrailingInId(inVertexColumnName.getTable()));
+            this.inVertex = SqlgVertex.of(this.sqlgGraph, inId, inVertexSchemaTable.getSchema(), inVertexSchemaTable.getTable());
+            this.sqlgGraph.tx().addUnloadedVertex(this.inVertex);
         }
     }
 
     public void loadOutVertex(ResultSet resultSet, String label, int columnIdx) throws SQLException {
         SchemaTable outVertexColumnName = SchemaTable.from(this.sqlgGraph, label);
+        loadOutVertex(resultSet, SchemaTable.of(outVertexColumnName.getSchema(), SqlgUtil.removeTrailingOutId(outVertexColumnName.getTable())), columnIdx);
+    }
+
+    /**
+     * @param outVertexSchemaTable The schema and label, without the vertex prefix, of the out vertex.
+     */
+    public void loadOutVertex(ResultSet resultSet, SchemaTable outVertexSchemaTable, int columnIdx) throws SQLException {
         Long outId = resultSet.getLong(columnIdx);
         if (!resultSet.wasNull()) {
-            this.outVertex = SqlgVertex.of(this.sqlgGraph, outId, outVertexColumnName.getSchema(), SqlgUtil.removeTrailingOutId(outVertexColumnName.getTable()));
+            this.outVertex = SqlgVertex.of(this.sqlgGraph, outId, outVertexSchemaTable.getSchema(), outVertexSchemaTable.getTable());
+            this.sqlgGraph.tx().addUnloadedVertex(this.outVertex);
         }
     }
 
@@ -315,6 +363,8 @@ public class SqlgEdge extends SqlgElement implements Edge {
 
         this.inVertex = SqlgVertex.of(this.sqlgGraph, inId, inVertexColumnName.getSchema(), SqlgUtil.removeTrailingInId(inVertexColumnName.getTable()));
         this.outVertex = SqlgVertex.of(this.sqlgGraph, outId, outVertexColumnName.getSchema(), SqlgUtil.removeTrailingOutId(outVertexColumnName.getTable()));
+        this.sqlgGraph.tx().addUnloadedVertex(this.inVertex);
+        this.sqlgGraph.tx().addUnloadedVertex(this.outVertex);
     }
 
 
@@ -333,4 +383,16 @@ public class SqlgEdge extends SqlgElement implements Edge {
     SchemaTable getSchemaTablePrefixed() {
         return SchemaTable.of(this.getSchema(), SchemaManager.EDGE_PREFIX + this.getTable());
     }
+
+    @Override
+    PropertyLayout getPropertyLayout() {
+        Optional<Schema> schemaOptional = this.sqlgGraph.getTopology().getSchema(this.schema);
+        if (schemaOptional.isPresent()) {
+            Optional<EdgeLabel> edgeLabelOptional = schemaOptional.get().getEdgeLabel(this.table);
+            if (edgeLabelOptional.isPresent()) {
+                return edgeLabelOptional.get().getPropertyLayout();
+            }
+        }
+        return PropertyLayout.EMPTY;
+    }
 }
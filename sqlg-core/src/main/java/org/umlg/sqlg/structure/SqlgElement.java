@@ -16,7 +16,6 @@ import org.umlg.sqlg.util.SqlgUtil;
 import java.sql.*;
 import java.time.*;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
 import static org.umlg.sqlg.sql.parse.SchemaTableTree.ALIAS_SEPARATOR;
@@ -34,9 +33,13 @@ public abstract class SqlgElement implements Element {
     RecordId recordId;
     protected final SqlgGraph sqlgGraph;
     //Multiple threads can access the same element
-    protected Map<String, Object> properties = new ConcurrentHashMap<>();
+    protected ElementProperties properties = new ElementProperties(this);
+    //The properties loaded by a query that only selected the properties the traversal uses, null if the element is not partially loaded.
+    volatile Set<String> projectedProperties;
     private SqlgElementElementPropertyRollback elementPropertyRollback;
     boolean removed = false;
+    //the row of the element in the batch buffer of its label, see BatchColumns
+    int batchRow = -1;
 
     public SqlgElement(SqlgGraph sqlgGraph, String schema, String table) {
         this.sqlgGraph = sqlgGraph;
@@ -90,6 +93,72 @@ public abstract class SqlgElement implements Element {
 
     abstract SchemaTable getSchemaTablePrefixed();
 
+    /**
+     * @return the slot layout of the committed properties of the element's label.
+     */
+    abstract PropertyLayout getPropertyLayout();
+
+    /**
+     * @return the key of the element in the {@link ElementCache}.
+     */
+    RecordId getElementCacheKey() {
+        return RecordId.from(getSchemaTablePrefixed(), this.recordId.getId());
+    }
+
+    /**
+     * Loads the element from the {@link ElementCache} instead of the db.
+     *
+     * @return false if the element is not cached or may not be read from the cache.
+     */
+    boolean loadFromElementCache() {
+        ElementCache elementCache = this.sqlgGraph.getElementCache();
+        if (!elementCache.isEnabled()) {
+            return false;
+        }
+        RecordId elementCacheKey = getElementCacheKey();
+        if (!this.sqlgGraph.tx().mayReadElementCache(elementCacheKey)) {
+            return false;
+        }
+        ElementCache.Entry entry = elementCache.get(elementCacheKey);
+        if (entry == null) {
+            return false;
+        }
+        loadElementCacheEntry(entry);
+        return true;
+    }
+
+    void loadElementCacheEntry(ElementCache.Entry entry) {
+        this.properties.putAll(entry.getProperties());
+        this.projectedProperties = null;
+    }
+
+    /**
+     * @return the generation to pass to {@link #putInElementCache(long)}, taken before the element is read from the db.
+     * For a transaction reading a snapshot it is the generation when the transaction started, as the snapshot may be older than the read.
+     */
+    long elementCacheGeneration() {
+        ElementCache elementCache = this.sqlgGraph.getElementCache();
+        if (!elementCache.isEnabled()) {
+            return 0;
+        }
+        long snapshotGeneration = this.sqlgGraph.tx().getElementCacheSnapshotGeneration();
+        return snapshotGeneration != -1 ? snapshotGeneration : elementCache.generation();
+    }
+
+    /**
+     * Caches the element just loaded from the db.
+     */
+    void putInElementCache(long generation) {
+        ElementCache elementCache = this.sqlgGraph.getElementCache();
+        if (elementCache.isEnabled() && this.sqlgGraph.tx().mayWriteElementCache()) {
+            elementCache.put(getElementCacheKey(), toElementCacheEntry(), generation);
+        }
+    }
+
+    ElementCache.Entry toElementCacheEntry() {
+        return new ElementCache.Entry(this.properties, null, null);
+    }
+
     @Override
     public Object id() {
         return this.recordId;
@@ -171,7 +240,7 @@ public abstract class SqlgElement implements Element {
         if (this.removed) {
             throw Element.Exceptions.elementAlreadyRemoved(this.getClass(), this.id());
         } else {
-            Property property = internalGetProperties().get(key);
+            Property property = internalGetProperties(key).get(key);
             if (property == null) {
                 return emptyProperty();
 //                //try hiddens
@@ -231,6 +300,41 @@ public abstract class SqlgElement implements Element {
      */
     protected abstract void load();
 
+    /**
+     * @return true if no properties or only the properties of a projected query are loaded.
+     */
+    protected boolean needsLoad() {
+        return this.properties.isEmpty() || this.projectedProperties != null;
+    }
+
+    /**
+     * Called before a query that only selected some of the properties loads them into the element.
+     * The other properties are loaded from the db when accessed.
+     * An element whose properties are already loaded stays fully loaded.
+     */
+    public synchronized void loadProjection(Set<String> propertyKeys) {
+        if (this.projectedProperties != null) {
+            Set<String> projected = new HashSet<>(this.projectedProperties);
+            projected.addAll(propertyKeys);
+            this.projectedProperties = projected;
+        } else if (this.properties.isEmpty()) {
+            this.projectedProperties = propertyKeys;
+        }
+    }
+
+    private boolean isProjected(String... propertyKeys) {
+        Set<String> projected = this.projectedProperties;
+        if (projected == null || propertyKeys.length == 0) {
+            return false;
+        }
+        for (String propertyKey : propertyKeys) {
+            if (!projected.contains(propertyKey)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public String getSchema() {
         return schema;
     }
@@ -240,6 +344,8 @@ public abstract class SqlgElement implements Element {
     }
 
     private void updateRow(String key, Object value) {
+        this.sqlgGraph.tx().markWritten();
+        this.sqlgGraph.tx().elementChanged(this);
 
         boolean elementInInsertedCache = false;
         if (this.sqlgGraph.features().supportsBatchMode() && this.sqlgGraph.tx().isInBatchMode()) {
@@ -302,17 +408,18 @@ public abstract class SqlgElement implements Element {
             if (logger.isDebugEnabled()) {
                 logger.debug(sql.toString());
             }
-            Connection conn = this.sqlgGraph.tx().getConnection();
-            try (PreparedStatement preparedStatement = conn.prepareStatement(sql.toString())) {
+            PreparedStatement preparedStatement = this.sqlgGraph.tx().prepareStatement(sql.toString());
+            try {
                 Map<String, Object> keyValue = new HashMap<>();
                 keyValue.put(key, value);
                 // the index of the id column in the statement depend on how many columns we had to use to store that data type
                 int idx=setKeyValuesAsParameter(this.sqlgGraph, 1, preparedStatement, keyValue);
                 preparedStatement.setLong(idx, ((RecordId) this.id()).getId());
                 preparedStatement.executeUpdate();
-                preparedStatement.close();
             } catch (SQLException e) {
                 throw new RuntimeException(e);
+            } finally {
+                this.sqlgGraph.tx().releasePreparedStatement(preparedStatement);
             }
         }
 
@@ -334,7 +441,24 @@ public abstract class SqlgElement implements Element {
         if (this.sqlgGraph.tx().getBatchManager().isStreaming()) {
             throw new IllegalStateException("streaming is in progress, first flush or commit before querying.");
         }
-        return internalGetElements(replacedSteps);
+        return internalGetElements(replacedSteps, Collections.singletonList(this.recordId));
+    }
+
+    /**
+     * Executes the replaced steps for this element and the other elements in recordIds in one query.
+     * All the recordIds must be of this element's SchemaTable.
+     * Each {@link Emit} returned is tagged with the id of the element it was reached from.
+     *
+     * @param replacedSteps
+     * @param recordIds The ids of the incoming elements, including this element's id.
+     * @return The results of the query
+     */
+    public <S, E extends SqlgElement> Iterator<List<Emit<E>>> elements(List<ReplacedStep<S, E>> replacedSteps, List<RecordId> recordIds) {
+        this.sqlgGraph.tx().readWrite();
+        if (this.sqlgGraph.tx().getBatchManager().isStreaming()) {
+            throw new IllegalStateException("streaming is in progress, first flush or commit before querying.");
+        }
+        return internalGetElements(replacedSteps, recordIds);
     }
 
     /**
@@ -344,12 +468,13 @@ public abstract class SqlgElement implements Element {
      * @param replacedSteps
      * @return The results of the query
      */
-    private <S, E extends SqlgElement> Iterator<List<Emit<E>>> internalGetElements(List<ReplacedStep<S, E>> replacedSteps) {
+    private <S, E extends SqlgElement> Iterator<List<Emit<E>>> internalGetElements(List<ReplacedStep<S, E>> replacedSteps, List<RecordId> recordIds) {
         SchemaTable schemaTable = getSchemaTablePrefixed();
         SchemaTableTree rootSchemaTableTree = this.sqlgGraph.getGremlinParser().parse(schemaTable, replacedSteps);
+        rootSchemaTableTree.setParentIdBatchSize(recordIds.size());
         Set<SchemaTableTree> rootSchemaTableTrees = new HashSet<>();
         rootSchemaTableTrees.add(rootSchemaTableTree);
-        return new SqlgCompiledResultIterator<>(this.sqlgGraph, rootSchemaTableTrees, this.recordId);
+        return new SqlgCompiledResultIterator<>(this.sqlgGraph, rootSchemaTableTrees, recordIds);
     }
 
     @Override
@@ -405,7 +530,9 @@ public abstract class SqlgElement implements Element {
 
     protected <V> Map<String, ? extends Property<V>> internalGetProperties(final String... propertyKeys) {
         this.sqlgGraph.tx().readWrite();
-        load();
+        if (!isProjected(propertyKeys)) {
+            load();
+        }
         Map<String, SqlgProperty<V>> properties = new HashMap<>();
         this.properties.entrySet().stream()
                 .filter(entry -> propertyKeys.length == 0 || Stream.of(propertyKeys).filter(k -> k.equals(entry.getKey())).findAny().isPresent())
@@ -517,55 +644,69 @@ public abstract class SqlgElement implements Element {
     }
 
     public void loadProperty(ResultSet resultSet, String propertyName, int columnIndex, Map<String, String> columnNameAliasMap, int stepDepth, PropertyType propertyType) throws SQLException {
-        if (propertyName.endsWith(SchemaManager.ZONEID) ||
-                propertyName.endsWith(SchemaManager.MONTHS) ||
-                propertyName.endsWith(SchemaManager.DAYS) ||
-                propertyName.endsWith(SchemaManager.DURATION_NANOS)
-                ) {
+        if (isPostFixColumn(propertyName)) {
             return;
         }
+        loadPropertyValue(resultSet, propertyName, columnIndex, columnNameAliasMap, stepDepth, propertyType);
+    }
+
+    /**
+     * @return true if the column holds the additional data of a multi column property, i.e. it is not a property itself.
+     */
+    public static boolean isPostFixColumn(String propertyName) {
+        return propertyName.endsWith(SchemaManager.ZONEID) ||
+                propertyName.endsWith(SchemaManager.MONTHS) ||
+                propertyName.endsWith(SchemaManager.DAYS) ||
+                propertyName.endsWith(SchemaManager.DURATION_NANOS);
+    }
+
+    /**
+     * Same as {@link #loadProperty(ResultSet, String, int, Map, int, PropertyType)} for a column already known not to be
+     * a post fix column.
+     */
+    public void loadPropertyValue(ResultSet resultSet, String propertyName, int columnIndex, Map<String, String> columnNameAliasMap, int stepDepth, PropertyType propertyType) throws SQLException {
         switch (propertyType) {
 
             case BOOLEAN:
                 boolean aBoolean = resultSet.getBoolean(columnIndex);
                 if (!resultSet.wasNull()) {
-                    this.properties.put(propertyName, aBoolean);
+                    this.properties.putBoolean(propertyName, aBoolean);
                 }
                 break;
             case BYTE:
                 byte aByte = resultSet.getByte(columnIndex);
                 if (!resultSet.wasNull()) {
-                    this.properties.put(propertyName, aByte);
+                    this.properties.putByte(propertyName, aByte);
                 }
                 break;
             case SHORT:
                 short s = resultSet.getShort(columnIndex);
                 if (!resultSet.wasNull()) {
-                    this.properties.put(propertyName, s);
+                    this.properties.putShort(propertyName, s);
                 }
                 break;
             case INTEGER:
                 int anInt = resultSet.getInt(columnIndex);
                 if (!resultSet.wasNull()) {
-                    this.properties.put(propertyName, anInt);
+                    this.properties.putInt(propertyName, anInt);
                 }
                 break;
             case LONG:
                 long aLong = resultSet.getLong(columnIndex);
                 if (!resultSet.wasNull()) {
-                    this.properties.put(propertyName, aLong);
+                    this.properties.putLong(propertyName, aLong);
                 }
                 break;
             case FLOAT:
                 float aFloat = resultSet.getFloat(columnIndex);
                 if (!resultSet.wasNull()) {
-                    this.properties.put(propertyName, aFloat);
+                    this.properties.putFloat(propertyName, aFloat);
                 }
                 break;
             case DOUBLE:
                 double aDouble = resultSet.getDouble(columnIndex);
                 if (!resultSet.wasNull()) {
-                    this.properties.put(propertyName, aDouble);
+                    this.properties.putDouble(propertyName, aDouble);
                 }
                 break;
             case STRING:
@@ -860,11 +1001,7 @@ public abstract class SqlgElement implements Element {
     }
 
     void loadProperty(ResultSet resultSet, String propertyName, int columnIndex) throws SQLException {
-        if (propertyName.endsWith(SchemaManager.ZONEID) ||
-                propertyName.endsWith(SchemaManager.MONTHS) ||
-                propertyName.endsWith(SchemaManager.DAYS) ||
-                propertyName.endsWith(SchemaManager.DURATION_NANOS)
-                ) {
+        if (isPostFixColumn(propertyName)) {
             return;
         }
         PropertyType propertyType = this.sqlgGraph.getTopology().getTableFor(getSchemaTablePrefixed()).get(propertyName);
@@ -3,6 +3,7 @@ package org.umlg.sqlg.structure;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.commons.configuration.BaseConfiguration;
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.configuration.ConfigurationException;
@@ -10,8 +11,11 @@ import org.apache.commons.configuration.PropertiesConfiguration;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.commons.lang3.tuple.Triple;
 import org.apache.tinkerpop.gremlin.process.computer.GraphComputer;
+import org.apache.tinkerpop.gremlin.process.traversal.Path;
 import org.apache.tinkerpop.gremlin.process.traversal.TraversalStrategies;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.optimization.LazyBarrierStrategy;
+import org.apache.tinkerpop.gremlin.process.traversal.strategy.optimization.PathRetractionStrategy;
 import org.apache.tinkerpop.gremlin.structure.*;
 import org.apache.tinkerpop.gremlin.structure.io.Io;
 import org.apache.tinkerpop.gremlin.structure.util.ElementHelper;
@@ -23,8 +27,11 @@ import org.umlg.sqlg.SqlgPlugin;
 import org.umlg.sqlg.sql.dialect.SqlBulkDialect;
 import org.umlg.sqlg.sql.dialect.SqlDialect;
 import org.umlg.sqlg.sql.parse.GremlinParser;
+import org.umlg.sqlg.sql.parse.SqlPlanCache;
 import org.umlg.sqlg.strategy.SqlgGraphStepStrategy;
+import org.umlg.sqlg.strategy.SqlgRepeatStepStrategy;
 import org.umlg.sqlg.strategy.SqlgVertexStepStrategy;
+import org.umlg.sqlg.strategy.SqlgSqlExecutor;
 import org.umlg.sqlg.strategy.SqlgWhereStrategy;
 import org.umlg.sqlg.strategy.TopologyStrategy;
 import org.umlg.sqlg.structure.SqlgDataSourceFactory.SqlgDataSource;
@@ -34,6 +41,8 @@ import org.umlg.sqlg.util.SqlgUtil;
 
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Stream;
 
 import static org.umlg.sqlg.structure.SchemaManager.VERTEX_PREFIX;
@@ -194,12 +203,19 @@ public class SqlgGraph implements Graph {
     public static final String DISTRIBUTED = "distributed";
     public static final String MODE_FOR_STREAM_VERTEX = " mode for streamVertex";
     public static final String TRANSACTION_MUST_BE_IN = "Transaction must be in ";
+    //The number of elements per query when g.V() and g.E() scan all the tables.
+    public static final String SCAN_CHUNK_SIZE = "scan.chunk.size";
+    private static final int DEFAULT_SCAN_CHUNK_SIZE = 10000;
     private final SqlgDataSource sqlgDataSource;
     private Logger logger = LoggerFactory.getLogger(SqlgGraph.class.getName());
     private final SqlgTransaction sqlgTransaction;
     private SchemaManager schemaManager;
     private Topology topology;
     private GremlinParser gremlinParser;
+    private SqlPlanCache sqlPlanCache;
+    private ElementCache elementCache;
+    //runs the ResultPrefetchers and ParallelQueries, created on first use
+    private ExecutorService queryExecutor;
     private SqlDialect sqlDialect;
     private String jdbcUrl;
     private ObjectMapper mapper = new ObjectMapper();
@@ -210,7 +226,11 @@ public class SqlgGraph implements Graph {
     //This has some static suckness
     static {
         TraversalStrategies.GlobalCache.registerStrategies(Graph.class, TraversalStrategies.GlobalCache.getStrategies(Graph.class)
-                .addStrategies(new SqlgGraphStepStrategy(), new SqlgVertexStepStrategy(), new SqlgWhereStrategy(),TopologyStrategy.build().create()));
+                .addStrategies(new SqlgGraphStepStrategy(), new SqlgVertexStepStrategy(), new SqlgRepeatStepStrategy(), new SqlgWhereStrategy(),TopologyStrategy.build().create()));
+        //LazyBarrierStrategy and PathRetractionStrategy used to do nothing as the compiled steps always required PATH.
+        //The compiled steps already fetch in bulk and the barriers merging traversers can change the order of the results.
+        TraversalStrategies.GlobalCache.registerStrategies(SqlgGraph.class, TraversalStrategies.GlobalCache.getStrategies(Graph.class).clone()
+                .removeStrategies(LazyBarrierStrategy.class, PathRetractionStrategy.class));
     }
 
     public static <G extends Graph> G open(final Configuration configuration) {
@@ -284,11 +304,14 @@ public class SqlgGraph implements Graph {
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
+        //the transactions capture the ElementCache's generation when they open
+        this.elementCache = new ElementCache(this);
         this.sqlgTransaction = new SqlgTransaction(this, this.configuration.getBoolean("cache.vertices", false));
         this.tx().readWrite();
         this.topology = new Topology(this);
         this.schemaManager = new SchemaManager(this, this.topology);
         this.gremlinParser = new GremlinParser(this);
+        this.sqlPlanCache = new SqlPlanCache(this);
         if (!this.sqlDialect.supportSchemas() && !this.getTopology().getSchema(this.sqlDialect.getPublicSchema()).isPresent()) {
             //This is for mariadb. Need to make sure a db called public exist
             this.getTopology().ensureSchemaExist(this.sqlDialect.getPublicSchema());
@@ -317,6 +340,21 @@ public class SqlgGraph implements Graph {
         return gremlinParser;
     }
 
+    public SqlPlanCache getSqlPlanCache() {
+        return sqlPlanCache;
+    }
+
+    public ElementCache getElementCache() {
+        return elementCache;
+    }
+
+    synchronized ExecutorService getQueryExecutor() {
+        if (this.queryExecutor == null) {
+            this.queryExecutor = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setDaemon(true).setNameFormat("sqlg-query-%d").build());
+        }
+        return this.queryExecutor;
+    }
+
     public SqlDialect getSqlDialect() {
         return sqlDialect;
     }
@@ -518,6 +556,11 @@ public class SqlgGraph implements Graph {
         logger.debug(String.format("Closing graph. Connection url = %s, maxPoolSize = %d", this.configuration.getString(JDBC_URL), configuration.getInt("maxPoolSize", 100)));
         if (this.tx().isOpen())
             this.tx().close();
+        synchronized (this) {
+            if (this.queryExecutor != null) {
+                this.queryExecutor.shutdownNow();
+            }
+        }
         this.topology.close();
         this.sqlgDataSource.close();
     }
@@ -540,6 +583,84 @@ public class SqlgGraph implements Graph {
         return this.getSqlDialect().getGis(this);
     }
 
+    /**
+     * Lazily iterates all the vertices in chunks, one query per chunk ordered by table and ID.
+     * The transaction may be committed between elements, the scan can be resumed after the last vertex's id.
+     *
+     * @param after     The id of the vertex to resume after, from the start if null.
+     * @param chunkSize The number of vertices to load per query.
+     */
+    public Iterator<Vertex> scanVertices(RecordId after, int chunkSize) {
+        return scan(true, null, after, chunkSize);
+    }
+
+    /**
+     * As {@link #scanVertices(RecordId, int)} for the vertices of one label.
+     */
+    public Iterator<Vertex> scanVertices(String label, RecordId after, int chunkSize) {
+        return scan(true, label, after, chunkSize);
+    }
+
+    /**
+     * As {@link #scanVertices(RecordId, int)} for edges.
+     */
+    public Iterator<Edge> scanEdges(RecordId after, int chunkSize) {
+        return scan(false, null, after, chunkSize);
+    }
+
+    /**
+     * As {@link #scanVertices(RecordId, int)} for the edges of one label.
+     */
+    public Iterator<Edge> scanEdges(String label, RecordId after, int chunkSize) {
+        return scan(false, label, after, chunkSize);
+    }
+
+    private <T extends Element> Iterator<T> scan(boolean returnVertices, String label, RecordId after, int chunkSize) {
+        this.tx().readWrite();
+        if (this.tx().getBatchManager().isStreaming()) {
+            throw new IllegalStateException("streaming is in progress, first flush or commit before querying.");
+        }
+        return new ElementScan<>(this, returnVertices, label, after, chunkSize);
+    }
+
+    /**
+     * Finds a shortest path with a bidirectional breadth first search that runs in the database,
+     * the equivalent of g.V(from).repeat(out().simplePath()).until(is(to)).limit(1).path().
+     *
+     * @param from       The start vertex.
+     * @param to         The end vertex.
+     * @param direction  The direction to traverse the edges in.
+     * @param maxDepth   The maximum number of edges on the path.
+     * @param edgeLabels The edge labels to traverse, all edges if empty.
+     * @return The vertices on the path, empty if there is no path of at most maxDepth edges.
+     */
+    public Optional<Path> shortestPath(Vertex from, Vertex to, Direction direction, int maxDepth, String... edgeLabels) {
+        this.tx().readWrite();
+        if (this.tx().getBatchManager().isStreaming()) {
+            throw new IllegalStateException("streaming is in progress, first flush or commit before querying.");
+        }
+        //In normal batch mode the new edges are only in the cache.
+        if (this.features().supportsBatchMode() && this.tx().isInNormalBatchMode()) {
+            this.tx().flush();
+        }
+        return new ShortestPath(this, direction, maxDepth, edgeLabels).find(from, to);
+    }
+
+    public Optional<Path> shortestPath(Vertex from, Vertex to, Direction direction, String... edgeLabels) {
+        return shortestPath(from, to, direction, Integer.MAX_VALUE, edgeLabels);
+    }
+
+    /**
+     * @return true if the to vertex is reachable from the from vertex within maxDepth edges.
+     */
+    public boolean isReachable(Vertex from, Vertex to, Direction direction, int maxDepth, String... edgeLabels) {
+        return shortestPath(from, to, direction, maxDepth, edgeLabels).isPresent();
+    }
+
+    public boolean isReachable(Vertex from, Vertex to, Direction direction, String... edgeLabels) {
+        return isReachable(from, to, direction, Integer.MAX_VALUE, edgeLabels);
+    }
+
     public interface ISqlGFeatures extends Features {
         boolean supportsBatchMode();
     }
@@ -1186,6 +1307,7 @@ public class SqlgGraph implements Graph {
                         logger.debug(sql.toString());
                     }
                     try (Statement statement = conn.createStatement()) {
+                        SqlgSqlExecutor.setQueryTimeout(statement, this.tx().getQueryTimeoutMs());
                         statement.execute(sql.toString());
                         ResultSet resultSet = statement.getResultSet();
                         while (resultSet.next()) {
@@ -1205,43 +1327,8 @@ public class SqlgGraph implements Graph {
                 }
             }
         } else {
-            //TODO use a union query
-            Set<String> tables = this.getTopology().getAllTables().keySet();
-            for (String table : tables) {
-                SchemaTable schemaTable = SchemaTable.from(this, table);
-                if (returnVertices ? schemaTable.isVertexTable() : !schemaTable.isVertexTable()) {
-                    StringBuilder sql = new StringBuilder("SELECT * FROM ");
-                    sql.append("\"");
-                    sql.append(schemaTable.getSchema());
-                    sql.append("\".\"");
-                    sql.append(schemaTable.getTable());
-                    sql.append("\"");
-                    if (this.getSqlDialect().needsSemicolon()) {
-                        sql.append(";");
-                    }
-                    Connection conn = this.tx().getConnection();
-                    if (logger.isDebugEnabled()) {
-                        logger.debug(sql.toString());
-                    }
-                    try (Statement statement = conn.createStatement()) {
-                        statement.execute(sql.toString());
-                        ResultSet resultSet = statement.getResultSet();
-                        while (resultSet.next()) {
-                            long id = resultSet.getLong("ID");
-                            SqlgElement sqlgElement;
-                            if (returnVertices) {
-                                sqlgElement = SqlgVertex.of(this, id, schemaTable.getSchema(), schemaTable.getTable().substring(VERTEX_PREFIX.length()));
-                            } else {
-                                sqlgElement = new SqlgEdge(this, id, schemaTable.getSchema(), schemaTable.getTable().substring(SchemaManager.EDGE_PREFIX.length()));
-                            }
-                            sqlgElement.loadResultSet(resultSet);
-                            sqlgElements.add((T) sqlgElement);
-                        }
-                    } catch (SQLException e) {
-                        throw new RuntimeException(e);
-                    }
-                }
-            }
+            int chunkSize = this.configuration.getInt(SCAN_CHUNK_SIZE, DEFAULT_SCAN_CHUNK_SIZE);
+            return () -> new ElementScan<>(this, returnVertices, null, null, chunkSize);
         }
         return sqlgElements;
     }
@@ -1250,6 +1337,13 @@ public class SqlgGraph implements Graph {
         return this.sqlgDataSource.getDatasource().getConnection();
     }
 
+    /**
+     * @return a connection if the pool has one available without waiting, else null.
+     */
+    Connection tryGetConnection() throws SQLException {
+        return this.sqlgDataSource.tryGetConnection();
+    }
+
     public SqlgDataSource getSqlgDataSource() {
         return sqlgDataSource;
     }
@@ -52,6 +52,8 @@ public class SqlgProperty<V> implements Property<V>, Serializable {
 
     @Override
     public void remove() {
+        this.sqlgGraph.tx().markWritten();
+        this.sqlgGraph.tx().elementChanged(this.element);
         this.element.properties.remove(this.key);
         boolean elementInInsertedCache = false;
         if (this.sqlgGraph.features().supportsBatchMode() && this.sqlgGraph.tx().isInBatchMode()) {
@@ -1,5 +1,6 @@
 package org.umlg.sqlg.structure;
 
+import com.google.common.base.Preconditions;
 import org.apache.tinkerpop.gremlin.structure.Graph;
 import org.apache.tinkerpop.gremlin.structure.Transaction;
 import org.apache.tinkerpop.gremlin.structure.util.AbstractThreadLocalTransaction;
@@ -10,6 +11,11 @@ import org.umlg.sqlg.sql.dialect.SqlBulkDialect;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * This class is a singleton. Instantiated and owned by SqlGraph.
@@ -21,6 +27,25 @@ public class SqlgTransaction extends AbstractThreadLocalTransaction {
 
     public static final String BATCH_MODE_NOT_SUPPORTED = "Batch mode not supported!";
     public static final String QUERY_LAZY = "query.lazy";
+    //The number of rows the jdbc driver fetches at a time. On postgres a value > 0 uses a cursor instead of loading the whole result set.
+    public static final String QUERY_FETCH_SIZE = "query.fetchSize";
+    //The number of result rows a background thread reads ahead of the traversal. 0 disables prefetching.
+    public static final String QUERY_PREFETCH_SIZE = "query.prefetch.size";
+    //The number of pooled connections to execute the independent queries of a traversal on. 1 or less disables it.
+    public static final String QUERY_PARALLEL_CONNECTIONS = "query.parallel.connections";
+    //The number of milliseconds the traversal waits for a query executing on another connection before executing it on its own connection.
+    public static final String QUERY_PARALLEL_WAIT_MS = "query.parallel.waitMs";
+    static final int DEFAULT_QUERY_PARALLEL_WAIT_MS = 10_000;
+    //The number of distinct queries of a traversal to merge into one UNION ALL statement. 1 or less disables it.
+    public static final String QUERY_UNION_SIZE = "query.union.size";
+    //The number of milliseconds a query may run before the jdbc driver cancels it. 0 means no timeout.
+    public static final String QUERY_TIMEOUT_MS = "query.timeoutMs";
+    //The number of vertices, created without their properties, that are loaded together in one query on first access. 1 or less loads them one by one.
+    public static final String VERTEX_LOAD_BATCH_SIZE = "vertex.load.batch.size";
+    private static final int DEFAULT_VERTEX_LOAD_BATCH_SIZE = 1000;
+    //The maximum number of vertices a transaction keeps when cache.vertices is true, vertices not recently looked up are evicted. 0 or less means no maximum.
+    public static final String VERTEX_CACHE_CAPACITY = "cache.vertices.capacity";
+    private static final int DEFAULT_VERTEX_CACHE_CAPACITY = 1_000_000;
     
     private SqlgGraph sqlgGraph;
     private BeforeCommit beforeCommitFunction;
@@ -28,6 +53,7 @@ public class SqlgTransaction extends AbstractThreadLocalTransaction {
     private AfterRollback afterRollbackFunction;
     private Logger logger = LoggerFactory.getLogger(SqlgTransaction.class.getName());
     private boolean cacheVertices = false;
+    private final List<BatchFlushListener> batchFlushListeners = new CopyOnWriteArrayList<>();
 
     private final ThreadLocal<TransactionCache> threadLocalTx = new ThreadLocal<TransactionCache>() {
         protected TransactionCache initialValue() {
@@ -41,10 +67,13 @@ public class SqlgTransaction extends AbstractThreadLocalTransaction {
         }
     };
 
+    private final PreparedStatementPool preparedStatementPool;
+
     SqlgTransaction(Graph sqlgGraph, boolean cacheVertices) {
         super(sqlgGraph);
         this.sqlgGraph = (SqlgGraph) sqlgGraph;
         this.cacheVertices = cacheVertices;
+        this.preparedStatementPool = new PreparedStatementPool(this.sqlgGraph);
     }
 
     @Override
@@ -60,7 +89,19 @@ public class SqlgTransaction extends AbstractThreadLocalTransaction {
                 }
                 // read default setting for laziness
                 boolean lazy=this.sqlgGraph.getConfiguration().getBoolean(QUERY_LAZY,true);
-                this.threadLocalTx.set(TransactionCache.of(this.cacheVertices, connection, new BatchManager(this.sqlgGraph, ((SqlBulkDialect)this.sqlgGraph.getSqlDialect())),lazy));
+                int fetchSize = this.sqlgGraph.getConfiguration().getInt(QUERY_FETCH_SIZE, 0);
+                int prefetchSize = this.sqlgGraph.getConfiguration().getInt(QUERY_PREFETCH_SIZE, 0);
+                int parallelConnections = this.sqlgGraph.getConfiguration().getInt(QUERY_PARALLEL_CONNECTIONS, 0);
+                int unionSize = this.sqlgGraph.getConfiguration().getInt(QUERY_UNION_SIZE, 0);
+                int queryTimeoutMs = this.sqlgGraph.getConfiguration().getInt(QUERY_TIMEOUT_MS, 0);
+                int vertexLoadBatchSize = this.sqlgGraph.getConfiguration().getInt(VERTEX_LOAD_BATCH_SIZE, DEFAULT_VERTEX_LOAD_BATCH_SIZE);
+                int vertexCacheCapacity = this.sqlgGraph.getConfiguration().getInt(VERTEX_CACHE_CAPACITY, DEFAULT_VERTEX_CACHE_CAPACITY);
+                this.threadLocalTx.set(TransactionCache.of(this.cacheVertices, connection, new BatchManager(this.sqlgGraph, ((SqlBulkDialect)this.sqlgGraph.getSqlDialect())),lazy, fetchSize, prefetchSize, parallelConnections, unionSize, queryTimeoutMs, vertexLoadBatchSize, vertexCacheCapacity));
+                //above READ_COMMITTED the transaction reads a snapshot, the ElementCache is only valid for it while nothing is invalidated
+                ElementCache elementCache = this.sqlgGraph.getElementCache();
+                if (elementCache.isEnabled() && connection.getTransactionIsolation() > Connection.TRANSACTION_READ_COMMITTED) {
+                    this.threadLocalTx.get().setElementCacheGeneration(elementCache.generation());
+                }
             } catch (SQLException e) {
                 throw new RuntimeException(e);
             }
@@ -73,19 +114,36 @@ public class SqlgTransaction extends AbstractThreadLocalTransaction {
             return;
         }
         try {
+            this.threadLocalTx.get().closeResources();
             if (this.threadLocalTx.get().getBatchManager().isInBatchMode()) {
-                getBatchManager().flush();
+                getBatchManager().flush(BatchFlushListener.Trigger.COMMIT);
             }
             Connection connection = this.threadLocalTx.get().getConnection();
             if (this.beforeCommitFunction != null) {
                 this.beforeCommitFunction.doBeforeCommit();
             }
+            ElementCache elementCache = this.sqlgGraph.getElementCache();
+            Set<RecordId> changedElements = this.threadLocalTx.get().getChangedElements();
+            Set<SchemaTable> changedLabels = this.threadLocalTx.get().getChangedLabels();
+            boolean elementsChanged = !changedElements.isEmpty() || !changedLabels.isEmpty();
+            boolean topologyChanged = this.sqlgGraph.getTopology().isWriteLockHeldByCurrentThread();
+            if (elementsChanged) {
+                //the notification is sent on commit
+                this.sqlgGraph.getSqlDialect().notifyElementsChanged(connection, ElementCache.toNotification(changedElements, changedLabels));
+            }
             connection.commit();
             connection.setAutoCommit(true);
+            //elements read by other transactions before the commit are invalidated after it
+            if (elementsChanged) {
+                elementCache.invalidate(changedElements, changedLabels);
+            }
+            if (topologyChanged && elementCache != null) {
+                elementCache.clear();
+            }
             if (this.afterCommitFunction != null) {
                 this.afterCommitFunction.doAfterCommit();
             }
-            this.threadLocalPreparedStatementTx.get().close();
+            this.threadLocalPreparedStatementTx.get().close(this.preparedStatementPool);
             connection.close();
         } catch (Exception e) {
             this.rollback();
@@ -109,6 +167,7 @@ public class SqlgTransaction extends AbstractThreadLocalTransaction {
             return;
         }
         try {
+            this.threadLocalTx.get().closeResources();
             if (this.threadLocalTx.get().getBatchManager().isInBatchMode()) {
                 try {
                     this.threadLocalTx.get().getBatchManager().close();
@@ -124,10 +183,10 @@ public class SqlgTransaction extends AbstractThreadLocalTransaction {
                 this.afterRollbackFunction.doAfterRollback();
             }
             //noinspection Convert2streamapi
-            for (ElementPropertyRollback elementPropertyRollback : threadLocalTx.get().getElementPropertyRollback().keySet()) {
+            for (ElementPropertyRollback elementPropertyRollback : threadLocalTx.get().getElementPropertyRollbacks()) {
                 elementPropertyRollback.clearProperties();
             }
-            this.threadLocalPreparedStatementTx.get().close();
+            this.threadLocalPreparedStatementTx.get().close(this.preparedStatementPool);
             connection.close();
         } catch (SQLException e) {
             throw new RuntimeException(e);
@@ -141,8 +200,9 @@ public class SqlgTransaction extends AbstractThreadLocalTransaction {
     }
 
     public void streamingWithLockBatchModeOn() {
-        if (this.sqlgGraph.features().supportsBatchMode()) {
+        if (this.sqlgGraph.getSqlDialect().supportsStreamingBatchMode()) {
             readWrite();
+            this.threadLocalTx.get().setWritten();
             this.threadLocalTx.get().getBatchManager().batchModeOn(BatchManager.BatchModeType.STREAMING_WITH_LOCK);
         } else {
             throw new IllegalStateException(BATCH_MODE_NOT_SUPPORTED);
@@ -150,8 +210,9 @@ public class SqlgTransaction extends AbstractThreadLocalTransaction {
     }
 
     public void streamingBatchModeOn() {
-        if (this.sqlgGraph.features().supportsBatchMode()) {
+        if (this.sqlgGraph.getSqlDialect().supportsStreamingBatchMode()) {
             readWrite();
+            this.threadLocalTx.get().setWritten();
             this.threadLocalTx.get().getBatchManager().batchModeOn(BatchManager.BatchModeType.STREAMING);
         } else {
             throw new IllegalStateException(BATCH_MODE_NOT_SUPPORTED);
@@ -181,6 +242,7 @@ public class SqlgTransaction extends AbstractThreadLocalTransaction {
     public void normalBatchModeOn() {
         if (this.sqlgGraph.features().supportsBatchMode()) {
             readWrite();
+            this.threadLocalTx.get().setWritten();
             this.threadLocalTx.get().getBatchManager().batchModeOn(BatchManager.BatchModeType.NORMAL);
         } else {
             throw new IllegalStateException(BATCH_MODE_NOT_SUPPORTED);
@@ -230,11 +292,28 @@ public class SqlgTransaction extends AbstractThreadLocalTransaction {
         }
     }
 
+    /**
+     * Registers a listener that is notified after every flush of a normal batch, of every transaction.
+     */
+    public void registerBatchFlushListener(BatchFlushListener batchFlushListener) {
+        this.batchFlushListeners.add(batchFlushListener);
+    }
+
+    public void unregisterBatchFlushListener(BatchFlushListener batchFlushListener) {
+        this.batchFlushListeners.remove(batchFlushListener);
+    }
+
+    void fireBatchFlushed(BatchFlushListener.Trigger trigger, int elementCount, long estimatedBytes, long durationNanos) {
+        for (BatchFlushListener batchFlushListener : this.batchFlushListeners) {
+            batchFlushListener.flushed(trigger, elementCount, estimatedBytes, durationNanos);
+        }
+    }
+
     void addElementPropertyRollback(ElementPropertyRollback elementPropertyRollback) {
         if (!isOpen()) {
             throw new IllegalStateException("A transaction must be in progress to add a elementPropertyRollback function!");
         }
-        this.threadLocalTx.get().getElementPropertyRollback().put(elementPropertyRollback, null);
+        this.threadLocalTx.get().addElementPropertyRollback(elementPropertyRollback);
     }
 
     void beforeCommit(BeforeCommit beforeCommitFunction) {
@@ -254,7 +333,7 @@ public class SqlgTransaction extends AbstractThreadLocalTransaction {
         return this.threadLocalTx.get() != null;
     }
 
-    SqlgVertex putVertexIfAbsent(SqlgGraph sqlgGraph, String schema, String table, Long id) {
+    SqlgVertex putVertexIfAbsent(SqlgGraph sqlgGraph, String schema, String table, long id) {
         return this.threadLocalTx.get().putVertexIfAbsent(sqlgGraph, schema, table, id);
     }
 
@@ -263,6 +342,18 @@ public class SqlgTransaction extends AbstractThreadLocalTransaction {
         return this.threadLocalTx.get().putVertexIfAbsent(sqlgVertex);
     }
 
+    //Called for existing vertices created without their properties
+    void addUnloadedVertex(SqlgVertex sqlgVertex) {
+        if (!isInBatchMode()) {
+            this.threadLocalTx.get().addUnloadedVertex(sqlgVertex);
+        }
+    }
+
+    //The other unloaded vertices of the vertex's label to load together with it
+    List<SqlgVertex> takeUnloadedVertices(SqlgVertex sqlgVertex) {
+        return this.threadLocalTx.get().takeUnloadedVertices(sqlgVertex);
+    }
+
     //Called for new vertices
     void add(SqlgVertex sqlgVertex) {
         this.threadLocalTx.get().add(sqlgVertex);
@@ -272,6 +363,41 @@ public class SqlgTransaction extends AbstractThreadLocalTransaction {
         this.threadLocalPreparedStatementTx.get().add(preparedStatement);
     }
 
+    /**
+     * Prepares the statement on the transaction's connection, reusing a pooled statement if available.
+     * The statement must be returned via {@link #releasePreparedStatement(PreparedStatement)} and not closed.
+     * Statements not yet released are released when the transaction ends.
+     */
+    public PreparedStatement prepareStatement(String sql) {
+        Connection connection = getConnection();
+        try {
+            Connection physicalConnection = this.preparedStatementPool.physicalConnection(connection);
+            PreparedStatement preparedStatement;
+            if (physicalConnection != null) {
+                preparedStatement = this.preparedStatementPool.checkout(physicalConnection, sql);
+                this.threadLocalPreparedStatementTx.get().addPooled(preparedStatement, physicalConnection, sql);
+            } else {
+                preparedStatement = connection.prepareStatement(sql);
+                this.threadLocalPreparedStatementTx.get().add(preparedStatement);
+            }
+            return preparedStatement;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public void releasePreparedStatement(PreparedStatement preparedStatement) {
+        try {
+            this.threadLocalPreparedStatementTx.get().release(this.preparedStatementPool, preparedStatement);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public PreparedStatementPool getPreparedStatementPool() {
+        return this.preparedStatementPool;
+    }
+
     // only used for tests
     public PreparedStatementCache getPreparedStatementCache() {
         return threadLocalPreparedStatementTx.get();
@@ -293,4 +419,216 @@ public class SqlgTransaction extends AbstractThreadLocalTransaction {
     	readWrite();
     	this.threadLocalTx.get().setLazyQueries(lazy);
     }
+
+    /**
+     * The number of rows the jdbc driver fetches at a time for the queries in this transaction.
+     * The transaction's connection is not in auto commit mode, as required by postgres to use a cursor.
+     * @return the fetch size, 0 if left to the jdbc driver
+     */
+    public int getFetchSize() {
+        if (!isOpen()) {
+            return this.sqlgGraph.getConfiguration().getInt(QUERY_FETCH_SIZE, 0);
+        }
+        return this.threadLocalTx.get().getFetchSize();
+    }
+
+    /**
+     * Overrides {@link #QUERY_FETCH_SIZE} for the current transaction.
+     * @param fetchSize the number of rows to fetch at a time, 0 leaves it to the jdbc driver.
+     */
+    public void setFetchSize(int fetchSize) {
+        Preconditions.checkArgument(fetchSize >= 0, "fetchSize must be >= 0, found %s", fetchSize);
+        readWrite();
+        this.threadLocalTx.get().setFetchSize(fetchSize);
+    }
+
+    /**
+     * The number of result rows a background thread reads ahead of the traversal for the queries in this transaction.
+     * @return the prefetch size, 0 if prefetching is disabled
+     */
+    public int getPrefetchSize() {
+        if (!isOpen()) {
+            return this.sqlgGraph.getConfiguration().getInt(QUERY_PREFETCH_SIZE, 0);
+        }
+        return this.threadLocalTx.get().getPrefetchSize();
+    }
+
+    /**
+     * Overrides {@link #QUERY_PREFETCH_SIZE} for the current transaction.
+     * @param prefetchSize the number of result rows to read ahead, 0 disables prefetching.
+     */
+    public void setPrefetchSize(int prefetchSize) {
+        Preconditions.checkArgument(prefetchSize >= 0, "prefetchSize must be >= 0, found %s", prefetchSize);
+        readWrite();
+        this.threadLocalTx.get().setPrefetchSize(prefetchSize);
+    }
+
+    /**
+     * Binds the runnable to the current thread's transaction, it shares its connection, statements and vertex cache
+     * when run on another thread. The prefetcher is closed when the transaction ends.
+     */
+    Runnable inTransaction(ResultPrefetcher<?> resultPrefetcher, Runnable runnable) {
+        TransactionCache transactionCache = this.threadLocalTx.get();
+        PreparedStatementCache preparedStatementCache = this.threadLocalPreparedStatementTx.get();
+        Preconditions.checkState(transactionCache != null, "A transaction must be open to prefetch results");
+        transactionCache.addResource(resultPrefetcher);
+        return () -> {
+            this.threadLocalTx.set(transactionCache);
+            this.threadLocalPreparedStatementTx.set(preparedStatementCache);
+            try {
+                runnable.run();
+            } finally {
+                transactionCache.removeResource(resultPrefetcher);
+                this.threadLocalTx.remove();
+                this.threadLocalPreparedStatementTx.remove();
+            }
+        };
+    }
+
+    /**
+     * The number of pooled connections the independent queries of a traversal are executed on in this transaction.
+     * Only used while the transaction has not written anything as the other connections do not see its changes.
+     * @return the number of connections, 1 or less if the queries are executed on the transaction's connection only
+     */
+    public int getParallelConnections() {
+        if (!isOpen()) {
+            return this.sqlgGraph.getConfiguration().getInt(QUERY_PARALLEL_CONNECTIONS, 0);
+        }
+        return this.threadLocalTx.get().getParallelConnections();
+    }
+
+    /**
+     * Overrides {@link #QUERY_PARALLEL_CONNECTIONS} for the current transaction.
+     * @param parallelConnections the number of connections, 1 or less executes the queries on the transaction's connection only.
+     */
+    public void setParallelConnections(int parallelConnections) {
+        readWrite();
+        this.threadLocalTx.get().setParallelConnections(parallelConnections);
+    }
+
+    /**
+     * The number of distinct queries of a traversal merged into one UNION ALL statement in this transaction.
+     * Merged queries are executed on the transaction's connection, not in parallel.
+     * @return the number of queries, 1 or less if the queries are executed one by one
+     */
+    public int getUnionSize() {
+        if (!isOpen()) {
+            return this.sqlgGraph.getConfiguration().getInt(QUERY_UNION_SIZE, 0);
+        }
+        return this.threadLocalTx.get().getUnionSize();
+    }
+
+    /**
+     * Overrides {@link #QUERY_UNION_SIZE} for the current transaction.
+     * @param unionSize the number of queries, 1 or less executes the queries one by one.
+     */
+    public void setUnionSize(int unionSize) {
+        readWrite();
+        this.threadLocalTx.get().setUnionSize(unionSize);
+    }
+
+    /**
+     * The number of milliseconds a query may run in this transaction before it is cancelled.
+     * @return the timeout in milliseconds, 0 if there is no timeout
+     */
+    public int getQueryTimeoutMs() {
+        if (!isOpen()) {
+            return this.sqlgGraph.getConfiguration().getInt(QUERY_TIMEOUT_MS, 0);
+        }
+        return this.threadLocalTx.get().getQueryTimeoutMs();
+    }
+
+    /**
+     * Overrides {@link #QUERY_TIMEOUT_MS} for the current transaction.
+     * JDBC timeouts are in seconds so the timeout is rounded up to the next second.
+     * @param queryTimeoutMs the timeout in milliseconds, 0 for no timeout.
+     */
+    public void setQueryTimeoutMs(int queryTimeoutMs) {
+        Preconditions.checkArgument(queryTimeoutMs >= 0, "queryTimeoutMs must be >= 0, found %s", queryTimeoutMs);
+        readWrite();
+        this.threadLocalTx.get().setQueryTimeoutMs(queryTimeoutMs);
+    }
+
+    /**
+     * Readies a temporary table that is reused by the transactions of the connection, its rows are deleted on commit.
+     * The first use in a transaction creates it if it does not exist yet, later uses delete the rows of the previous use.
+     * The rows are deleted rather than truncated as a lazily read result set on the table may still be open.
+     */
+    public void readyReusableTemporaryTable(String tableName, Map<String, PropertyType> columns) {
+        readWrite();
+        if (this.threadLocalTx.get().addTemporaryTable(tableName)) {
+            this.sqlgGraph.getTopology().createReusableTempTable(tableName, columns);
+        } else {
+            String sql = "DELETE FROM " + this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(tableName);
+            if (this.sqlgGraph.getSqlDialect().needsSemicolon()) {
+                sql += ";";
+            }
+            if (logger.isDebugEnabled()) {
+                logger.debug(sql);
+            }
+            try (Statement statement = getConnection().createStatement()) {
+                statement.execute(sql);
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    //Called when an existing element is updated or removed
+    void elementChanged(SqlgElement sqlgElement) {
+        if (this.sqlgGraph.getElementCache().isEnabled()) {
+            this.threadLocalTx.get().addChangedElement(sqlgElement.getElementCacheKey());
+        }
+    }
+
+    //Called when all the elements of a prefixed table may have changed
+    void labelChanged(SchemaTable schemaTable) {
+        this.threadLocalTx.get().addChangedLabel(schemaTable);
+    }
+
+    /**
+     * An element changed by this transaction must be read from the db, else the ElementCache may be used.
+     * A transaction reading a snapshot may not use it once an element was invalidated after the transaction started,
+     * the cache may then hold values committed after the snapshot.
+     */
+    boolean mayReadElementCache(RecordId elementCacheKey) {
+        long snapshotGeneration = this.threadLocalTx.get().getElementCacheGeneration();
+        if (snapshotGeneration != -1 && snapshotGeneration != this.sqlgGraph.getElementCache().generation()) {
+            return false;
+        }
+        return !isWritten() || !this.threadLocalTx.get().isChanged(elementCacheKey);
+    }
+
+    /**
+     * @return the generation of the ElementCache when a transaction reading a snapshot started, else -1.
+     */
+    long getElementCacheSnapshotGeneration() {
+        return this.threadLocalTx.get().getElementCacheGeneration();
+    }
+
+    /**
+     * A transaction that wrote may read its own uncommitted changes so it does not fill the ElementCache.
+     */
+    boolean mayWriteElementCache() {
+        return !isWritten();
+    }
+
+    /**
+     * Called before the transaction writes to the database.
+     */
+    void markWritten() {
+        this.threadLocalTx.get().setWritten();
+    }
+
+    boolean isWritten() {
+        return this.threadLocalTx.get().isWritten();
+    }
+
+    void addResource(AutoCloseable resource) {
+        this.threadLocalTx.get().addResource(resource);
+    }
+
+    void removeResource(AutoCloseable resource) {
+        this.threadLocalTx.get().removeResource(resource);
+    }
 }
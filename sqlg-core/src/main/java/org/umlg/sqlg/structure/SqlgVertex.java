@@ -10,6 +10,7 @@ import org.apache.tinkerpop.gremlin.structure.util.ElementHelper;
 import org.apache.tinkerpop.gremlin.structure.util.StringFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.umlg.sqlg.strategy.SqlgSqlExecutor;
 import org.umlg.sqlg.util.SqlgUtil;
 
 import java.sql.*;
@@ -170,6 +171,7 @@ public class SqlgVertex extends SqlgElement implements Vertex {
                 if (sqlgVertex != this) {
                     //sync the properties
                     this.properties = sqlgVertex.properties;
+                    this.projectedProperties = sqlgVertex.projectedProperties;
                 }
             }
             return (VertexProperty<V>) super.property(key);
@@ -232,10 +234,18 @@ public class SqlgVertex extends SqlgElement implements Vertex {
     @Override
     public void remove() {
         this.sqlgGraph.tx().readWrite();
+        this.sqlgGraph.tx().markWritten();
 
         if (this.removed)
             throw Element.Exceptions.elementAlreadyRemoved(this.getClass(), this.id());
 
+        this.sqlgGraph.tx().elementChanged(this);
+        if (this.sqlgGraph.getElementCache().isEnabled()) {
+            //the edges are removed too
+            Pair<Set<SchemaTable>, Set<SchemaTable>> foreignKeys = this.sqlgGraph.getTopology().getTableLabels(this.getSchemaTablePrefixed());
+            foreignKeys.getLeft().forEach(this.sqlgGraph.tx()::labelChanged);
+            foreignKeys.getRight().forEach(this.sqlgGraph.tx()::labelChanged);
+        }
         if (this.sqlgGraph.features().supportsBatchMode() && this.sqlgGraph.tx().isInBatchMode()) {
             this.sqlgGraph.tx().getBatchManager().removeVertex(this.schema, this.table, this);
         } else {
@@ -285,6 +295,7 @@ public class SqlgVertex extends SqlgElement implements Vertex {
     }
 
     private void insertVertex(boolean complete, Pair<Map<String, Object>, Map<String, Object>> keyValueMapPair) {
+        this.sqlgGraph.tx().markWritten();
         Map<String, Object> keyAllValueMap = keyValueMapPair.getLeft();
         Map<String, Object> keyNotNullValueMap = keyValueMapPair.getRight();
         if (this.sqlgGraph.features().supportsBatchMode() && this.sqlgGraph.tx().isInBatchMode()) {
@@ -292,8 +303,10 @@ public class SqlgVertex extends SqlgElement implements Vertex {
         } else {
             internalAddVertex(keyNotNullValueMap);
         }
-        //Cache the properties
-        this.properties.putAll(keyNotNullValueMap);
+        //Cache the properties, a vertex in a normal batch reads them from its batch row
+        if (!this.properties.inBatch()) {
+            this.properties.putAll(keyNotNullValueMap);
+        }
     }
 
     private void internalBatchAddVertex(boolean complete, Map<String, Object> keyValueMap) {
@@ -427,71 +440,163 @@ public class SqlgVertex extends SqlgElement implements Vertex {
     protected void load() {
         //if in batch mode, only load vertexes that are not new.
         //new vertexes have no id, impossible to load, but then all its properties are already cached.
-        if ((!this.sqlgGraph.tx().isInBatchMode() && this.properties.isEmpty()) ||
-                (this.properties.isEmpty() && this.sqlgGraph.features().supportsBatchMode() && this.sqlgGraph.tx().isInBatchMode() &&
+        if ((!this.sqlgGraph.tx().isInBatchMode() && needsLoad()) ||
+                (needsLoad() && this.sqlgGraph.features().supportsBatchMode() && this.sqlgGraph.tx().isInBatchMode() &&
                         !this.sqlgGraph.tx().getBatchManager().vertexIsCached(this))) {
 
             if (this.sqlgGraph.tx().getBatchManager().isStreaming()) {
                 throw new IllegalStateException("streaming is in progress, first flush or commit before querying.");
             }
 
-            //Generate the columns to prevent 'ERROR: cached plan must not change result type" error'
-            //This happens when the schema changes after the statement is prepared.
-            @SuppressWarnings("OptionalGetWithoutIsPresent")
-            VertexLabel vertexLabel = this.sqlgGraph.getTopology().getSchema(this.schema).get().getVertexLabel(this.table).get();
-            StringBuilder sql = new StringBuilder("SELECT\n\t");
-//            StringBuilder sql = new StringBuilder("SELECT * ");
-            sql.append(this.sqlgGraph.getSqlDialect().maybeWrapInQoutes("ID"));
-            for (PropertyColumn propertyColumn : vertexLabel.properties.values()) {
-                sql.append(", ");
-                sql.append(this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(propertyColumn.getName()));
-                // additional columns for time zone, etc.
-                String[] ps=propertyColumn.getPropertyType().getPostFixes();
-                if (ps!=null){
-	                for (String p:propertyColumn.getPropertyType().getPostFixes()){
-	                	sql.append(", ");
-	                    sql.append(this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(propertyColumn.getName()+p));
-	                }
+            if (loadFromElementCache()) {
+                return;
+            }
+            long generation = elementCacheGeneration();
+            if (!this.sqlgGraph.tx().isInBatchMode()) {
+                List<SqlgVertex> unloaded = this.sqlgGraph.tx().takeUnloadedVertices(this);
+                if (!unloaded.isEmpty()) {
+                    loadBatch(unloaded, generation);
+                    return;
                 }
             }
-            sql.append("\nFROM\n\t");
-            sql.append(this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(this.schema));
-            sql.append(".");
-            sql.append(this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(SchemaManager.VERTEX_PREFIX + this.table));
-            sql.append("\nWHERE\n\t");
-            sql.append(this.sqlgGraph.getSqlDialect().maybeWrapInQoutes("ID"));
+            StringBuilder sql = selectSql();
             sql.append(" = ?");
             if (this.sqlgGraph.getSqlDialect().needsSemicolon()) {
                 sql.append(";");
             }
-            Connection conn = this.sqlgGraph.tx().getConnection();
             if (logger.isDebugEnabled()) {
                 logger.debug(sql.toString());
             }
-            try (PreparedStatement preparedStatement = conn.prepareStatement(sql.toString())) {
+            PreparedStatement preparedStatement = this.sqlgGraph.tx().prepareStatement(sql.toString());
+            try {
                 preparedStatement.setLong(1, this.recordId.getId());
-                ResultSet resultSet = preparedStatement.executeQuery();
-                if (resultSet.next()) {
-                    loadResultSet(resultSet);
-                } else {
-                    throw new IllegalStateException(String.format("Vertex with label %s and id %d does not exist.", new Object[]{this.schema + "." + this.table, this.recordId.getId()}));
+                SqlgSqlExecutor.setQueryTimeout(preparedStatement, this.sqlgGraph.tx().getQueryTimeoutMs());
+                try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                    if (resultSet.next()) {
+                        loadResultSet(resultSet);
+                        this.projectedProperties = null;
+                        putInElementCache(generation);
+                    } else {
+                        throw new IllegalStateException(String.format("Vertex with label %s and id %d does not exist.", new Object[]{this.schema + "." + this.table, this.recordId.getId()}));
+                    }
                 }
             } catch (SQLException e) {
                 throw new RuntimeException(e);
+            } finally {
+                this.sqlgGraph.tx().releasePreparedStatement(preparedStatement);
             }
         }
     }
 
+    /**
+     * Loads this vertex together with other unloaded vertices of its label in one query.
+     * The IN list is padded to a power of 2 with this vertex's id, so few distinct statements are prepared.
+     */
+    private void loadBatch(List<SqlgVertex> unloaded, long generation) {
+        //without the vertex cache the same vertex may be in the transaction more than once
+        Map<Long, List<SqlgVertex>> vertices = new LinkedHashMap<>();
+        vertices.computeIfAbsent(this.recordId.getId(), k -> new ArrayList<>()).add(this);
+        for (SqlgVertex sqlgVertex : unloaded) {
+            if (sqlgVertex.loadFromElementCache()) {
+                continue;
+            }
+            vertices.computeIfAbsent(sqlgVertex.recordId.getId(), k -> new ArrayList<>()).add(sqlgVertex);
+        }
+        StringBuilder sql = selectSql();
+        int parameterCount = vertices.size() == 1 ? 1 : Integer.highestOneBit(vertices.size() - 1) << 1;
+        sql.append(" IN (");
+        for (int i = 0; i < parameterCount; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("?");
+        }
+        sql.append(")");
+        if (this.sqlgGraph.getSqlDialect().needsSemicolon()) {
+            sql.append(";");
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(sql.toString());
+        }
+        boolean found = false;
+        PreparedStatement preparedStatement = this.sqlgGraph.tx().prepareStatement(sql.toString());
+        try {
+            int parameterIndex = 1;
+            for (Long id : vertices.keySet()) {
+                preparedStatement.setLong(parameterIndex++, id);
+            }
+            while (parameterIndex <= parameterCount) {
+                preparedStatement.setLong(parameterIndex++, this.recordId.getId());
+            }
+            SqlgSqlExecutor.setQueryTimeout(preparedStatement, this.sqlgGraph.tx().getQueryTimeoutMs());
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    long id = resultSet.getLong("ID");
+                    for (SqlgVertex sqlgVertex : vertices.get(id)) {
+                        //the synchronization is on the vertex as a prefetch thread may load it too
+                        synchronized (sqlgVertex) {
+                            if (sqlgVertex == this || sqlgVertex.needsLoad()) {
+                                sqlgVertex.loadResultSet(resultSet);
+                                sqlgVertex.projectedProperties = null;
+                                sqlgVertex.putInElementCache(generation);
+                            }
+                        }
+                    }
+                    found = found || id == this.recordId.getId();
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        } finally {
+            this.sqlgGraph.tx().releasePreparedStatement(preparedStatement);
+        }
+        if (!found) {
+            throw new IllegalStateException(String.format("Vertex with label %s and id %d does not exist.", new Object[]{this.schema + "." + this.table, this.recordId.getId()}));
+        }
+    }
+
+    /**
+     * @return the select of the vertex's columns up to and including the id column of the where clause.
+     */
+    private StringBuilder selectSql() {
+        //Generate the columns to prevent 'ERROR: cached plan must not change result type" error'
+        //This happens when the schema changes after the statement is prepared.
+        @SuppressWarnings("OptionalGetWithoutIsPresent")
+        VertexLabel vertexLabel = this.sqlgGraph.getTopology().getSchema(this.schema).get().getVertexLabel(this.table).get();
+        StringBuilder sql = new StringBuilder("SELECT\n\t");
+        sql.append(this.sqlgGraph.getSqlDialect().maybeWrapInQoutes("ID"));
+        for (PropertyColumn propertyColumn : vertexLabel.properties.values()) {
+            sql.append(", ");
+            sql.append(this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(propertyColumn.getName()));
+            // additional columns for time zone, etc.
+            String[] ps = propertyColumn.getPropertyType().getPostFixes();
+            if (ps != null) {
+                for (String p : propertyColumn.getPropertyType().getPostFixes()) {
+                    sql.append(", ");
+                    sql.append(this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(propertyColumn.getName() + p));
+                }
+            }
+        }
+        sql.append("\nFROM\n\t");
+        sql.append(this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(this.schema));
+        sql.append(".");
+        sql.append(this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(SchemaManager.VERTEX_PREFIX + this.table));
+        sql.append("\nWHERE\n\t");
+        sql.append(this.sqlgGraph.getSqlDialect().maybeWrapInQoutes("ID"));
+        return sql;
+    }
+
     //TODO optimize the if statement here to be outside the main ResultSet loop
     @Override
     public void loadResultSet(ResultSet resultSet) throws SQLException {
         ResultSetMetaData resultSetMetaData = resultSet.getMetaData();
+        List<String> columnsToIgnore = this.sqlgGraph.getSqlDialect().columnsToIgnore();
         for (int i = 1; i <= resultSetMetaData.getColumnCount(); i++) {
             String columnName = resultSetMetaData.getColumnLabel(i);
             if (!columnName.equals("ID")
                     && !columnName.equals(SchemaManager.VERTEX_SCHEMA)
                     && !columnName.equals(VERTEX_TABLE)
-                    && !this.sqlgGraph.getSqlDialect().columnsToIgnore().contains(columnName)) {
+                    && !columnsToIgnore.contains(columnName)) {
                 loadProperty(resultSet, columnName, i);
             }
         }
@@ -538,6 +643,18 @@ public class SqlgVertex extends SqlgElement implements Vertex {
         return SchemaTable.of(this.getSchema(), SchemaManager.VERTEX_PREFIX + this.getTable());
     }
 
+    @Override
+    PropertyLayout getPropertyLayout() {
+        Optional<Schema> schemaOptional = this.sqlgGraph.getTopology().getSchema(this.schema);
+        if (schemaOptional.isPresent()) {
+            Optional<VertexLabel> vertexLabelOptional = schemaOptional.get().getVertexLabel(this.table);
+            if (vertexLabelOptional.isPresent()) {
+                return vertexLabelOptional.get().getPropertyLayout();
+            }
+        }
+        return PropertyLayout.EMPTY;
+    }
+
     SchemaTable getSchemaTable() {
         return SchemaTable.of(this.getSchema(), this.getTable());
     }
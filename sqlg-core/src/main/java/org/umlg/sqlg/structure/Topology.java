@@ -21,6 +21,7 @@ import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import static org.umlg.sqlg.structure.SchemaManager.EDGE_PREFIX;
@@ -36,6 +37,8 @@ public class Topology {
     private SqlgGraph sqlgGraph;
     private boolean distributed;
     private ReentrantReadWriteLock reentrantReadWriteLock;
+    //Incremented whenever a topology change is committed or rolled back. Used to invalidate cached sql.
+    private final AtomicLong version = new AtomicLong();
     private Map<String, Map<String, PropertyType>> allTableCache = new HashMap<>();
     //This cache is needed as to much time is taken building it on the fly.
     //The cache is invalidated on every topology change
@@ -429,7 +432,7 @@ public class Topology {
     /**
      * @return true if the current thread owns the lock.
      */
-    boolean isWriteLockHeldByCurrentThread() {
+    public boolean isWriteLockHeldByCurrentThread() {
         return this.reentrantReadWriteLock.isWriteLockedByCurrentThread();
     }
 
@@ -657,8 +660,19 @@ public class Topology {
     }
 
     public void createTempTable(String tableName, Map<String, PropertyType> columns) {
+        createTempTable(this.sqlgGraph.getSqlDialect().createTemporaryTableStatement(), tableName, columns, this.sqlgGraph.getSqlDialect().afterCreateTemporaryTableStatement());
+    }
+
+    /**
+     * Creates a temporary table, if it does not exist yet, that lives as long as the connection.
+     */
+    public void createReusableTempTable(String tableName, Map<String, PropertyType> columns) {
+        createTempTable(this.sqlgGraph.getSqlDialect().createReusableTemporaryTableStatement(), tableName, columns, this.sqlgGraph.getSqlDialect().afterCreateReusableTemporaryTableStatement());
+    }
+
+    private void createTempTable(String createStatement, String tableName, Map<String, PropertyType> columns, String afterCreateStatement) {
         this.sqlgGraph.getSqlDialect().assertTableName(tableName);
-        StringBuilder sql = new StringBuilder(this.sqlgGraph.getSqlDialect().createTemporaryTableStatement());
+        StringBuilder sql = new StringBuilder(createStatement);
         sql.append(this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(tableName));
         sql.append("(");
         sql.append(this.sqlgGraph.getSqlDialect().maybeWrapInQoutes("ID"));
@@ -669,7 +683,7 @@ public class Topology {
         }
         AbstractLabel.buildColumns(this.sqlgGraph, columns, sql);
         sql.append(") ");
-        sql.append(this.sqlgGraph.getSqlDialect().afterCreateTemporaryTableStatement());
+        sql.append(afterCreateStatement);
         if (this.sqlgGraph.getSqlDialect().needsSemicolon()) {
             sql.append(";");
         }
@@ -751,6 +765,7 @@ public class Topology {
             } finally {
                 z_internalReadUnLock();
             }
+            this.version.incrementAndGet();
             this.reentrantReadWriteLock.writeLock().unlock();
         }
     }
@@ -772,10 +787,18 @@ public class Topology {
                 z_internalReadUnLock();
             }
             this.uncommittedGlobalUniqueIndexes.clear();
+            this.version.incrementAndGet();
             this.reentrantReadWriteLock.writeLock().unlock();
         }
     }
 
+    /**
+     * @return the version of the committed topology. It changes whenever the topology changes.
+     */
+    public long getVersion() {
+        return this.version.get();
+    }
+
     public void deallocateAll() {
         Connection conn = this.sqlgGraph.tx().getConnection();
         try (Statement statement = conn.createStatement()) {
@@ -1026,6 +1049,7 @@ public class Topology {
                 Preconditions.checkState(backEndPid == pid, "notify pids do not match.");
                 ObjectNode log = logs.get(0).value("log");
                 fromNotifyJson(timestamp, log);
+                this.sqlgGraph.getElementCache().clear();
             } else {
                 this.ownPids.remove(pid);
             }
@@ -1,9 +1,11 @@
 package org.umlg.sqlg.structure;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.sql.Connection;
 import java.sql.SQLException;
-import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.*;
 
 /**
  * A transaction scoped cache.
@@ -16,36 +18,104 @@ class TransactionCache {
     private Map<ElementPropertyRollback, Object> elementPropertyRollbackFunctions = new WeakHashMap<>();
     private BatchManager batchManager;
     private boolean cacheVertices = false;
-    private Map<RecordId, SqlgVertex> vertexCache = new WeakHashMap<>();
+    private final VertexIdentityMap vertexCache;
 
     /**
      * are query result processed lazily or not?
      */
     private boolean lazyQueries;
 
+    /**
+     * the number of rows to fetch at a time, 0 leaves it to the jdbc driver.
+     */
+    private int fetchSize;
+
+    /**
+     * the number of result rows to read ahead on a background thread, 0 disables prefetching.
+     */
+    private int prefetchSize;
+    /**
+     * the number of connections to execute the queries of a traversal on, 1 or less executes them on the transaction's connection.
+     */
+    private int parallelConnections;
+    /**
+     * the number of distinct queries to merge into one UNION ALL statement, 1 or less executes them one by one.
+     */
+    private int unionSize;
+    /**
+     * the number of milliseconds a query may run before it is cancelled, 0 for no timeout.
+     */
+    private int queryTimeoutMs;
+    /**
+     * the number of unloaded vertices of a label to load in one query, 1 or less loads them one by one.
+     */
+    private final int vertexLoadBatchSize;
+    //the vertices created without their properties per vertex label, in the order they were created
+    private final Map<SchemaTable, Set<UnloadedVertex>> unloadedVertices = new HashMap<>();
+    //the unloaded vertices that were garbage collected, removed from unloadedVertices when the next one is added or taken
+    private final ReferenceQueue<SqlgVertex> collectedVertices = new ReferenceQueue<>();
+    //the elements and prefixed tables changed in this transaction, invalidated in the ElementCache on commit
+    private final Set<RecordId> changedElements = new HashSet<>();
+    private final Set<SchemaTable> changedLabels = new HashSet<>();
+    /**
+     * has the transaction written anything?
+     */
+    private boolean written = false;
+    /**
+     * the generation of the ElementCache when the transaction started, -1 if the transaction's statements read the latest committed data.
+     */
+    private long elementCacheGeneration = -1;
+    //the prefetchers and parallel queries still running in this transaction, in the order they were started
+    private final Map<AutoCloseable, Boolean> resources = new LinkedHashMap<>();
+    //the reusable temporary tables already used in this transaction
+    private final Set<String> temporaryTables = new HashSet<>();
 
-	static TransactionCache of(boolean cacheVertices, Connection connection, BatchManager batchManager,boolean lazyQueries) {
-        return new TransactionCache(cacheVertices, connection, batchManager,lazyQueries);
+	static TransactionCache of(boolean cacheVertices, Connection connection, BatchManager batchManager,boolean lazyQueries, int fetchSize, int prefetchSize, int parallelConnections, int unionSize, int queryTimeoutMs, int vertexLoadBatchSize, int vertexCacheCapacity) {
+        return new TransactionCache(cacheVertices, connection, batchManager,lazyQueries, fetchSize, prefetchSize, parallelConnections, unionSize, queryTimeoutMs, vertexLoadBatchSize, vertexCacheCapacity);
     }
 
     private TransactionCache(
             boolean cacheVertices,
             Connection connection,
             BatchManager batchManager,
-            boolean lazyQueries) {
+            boolean lazyQueries,
+            int fetchSize,
+            int prefetchSize,
+            int parallelConnections,
+            int unionSize,
+            int queryTimeoutMs,
+            int vertexLoadBatchSize,
+            int vertexCacheCapacity) {
 
         this.cacheVertices = cacheVertices;
         this.connection = connection;
         this.batchManager = batchManager;
         this.lazyQueries = lazyQueries;
+        this.fetchSize = fetchSize;
+        this.prefetchSize = prefetchSize;
+        this.parallelConnections = parallelConnections;
+        this.unionSize = unionSize;
+        this.queryTimeoutMs = queryTimeoutMs;
+        this.vertexLoadBatchSize = vertexLoadBatchSize;
+        this.vertexCache = new VertexIdentityMap(vertexCacheCapacity);
     }
 
     Connection getConnection() {
         return this.connection;
     }
 
-    Map<ElementPropertyRollback, Object> getElementPropertyRollback() {
-        return this.elementPropertyRollbackFunctions;
+    /**
+     * The rollback functions are synchronized as a {@link ResultPrefetcher} loads elements on its own thread.
+     */
+    synchronized void addElementPropertyRollback(ElementPropertyRollback elementPropertyRollback) {
+        this.elementPropertyRollbackFunctions.put(elementPropertyRollback, null);
+    }
+
+    /**
+     * @return a copy of the rollback functions.
+     */
+    synchronized List<ElementPropertyRollback> getElementPropertyRollbacks() {
+        return new ArrayList<>(this.elementPropertyRollbackFunctions.keySet());
     }
 
     BatchManager getBatchManager() {
@@ -53,7 +123,9 @@ class TransactionCache {
     }
 
     void clear() {
-        this.elementPropertyRollbackFunctions.clear();
+        synchronized (this) {
+            this.elementPropertyRollbackFunctions.clear();
+        }
         this.batchManager.clear();
         if (this.cacheVertices) {
             this.vertexCache.clear();
@@ -66,23 +138,20 @@ class TransactionCache {
     }
 
     /**
-     * The recordId is not referenced in the SqlgVertex.
-     * It is important that the value of the WeakHashMap does not reference the key.
+     * The vertex cache is synchronized as a {@link ResultPrefetcher} loads vertices on its own thread.
      *
      * @param sqlgGraph The graph
      * @return the vertex. If cacheVertices is true and the vertex is cached then the cached vertex will be returned else
      * a the vertex will be instantiated.
      *
      */
-    SqlgVertex putVertexIfAbsent(SqlgGraph sqlgGraph, String schema, String table, Long id) {
-        RecordId recordId = RecordId.from(SchemaTable.of(schema, table), id);
+    synchronized SqlgVertex putVertexIfAbsent(SqlgGraph sqlgGraph, String schema, String table, long id) {
         SqlgVertex sqlgVertex;
         if (this.cacheVertices) {
-            sqlgVertex = this.vertexCache.get(recordId);
+            sqlgVertex = this.vertexCache.get(schema, table, id);
             if (sqlgVertex == null) {
                 sqlgVertex = new SqlgVertex(sqlgGraph, id, schema, table);
-                this.vertexCache.put(recordId, sqlgVertex);
-                return sqlgVertex;
+                this.vertexCache.put(schema, table, id, sqlgVertex);
             }
         } else {
             sqlgVertex = new SqlgVertex(sqlgGraph, id, schema, table);
@@ -90,34 +159,99 @@ class TransactionCache {
         return sqlgVertex;
     }
 
-    SqlgVertex putVertexIfAbsent(SqlgVertex sqlgVertex) {
-        RecordId vertexRecordId = (RecordId)sqlgVertex.id();
-        SqlgVertex sqlgVertexFromCache;
+    synchronized SqlgVertex putVertexIfAbsent(SqlgVertex sqlgVertex) {
         if (this.cacheVertices) {
-            sqlgVertexFromCache = this.vertexCache.get(vertexRecordId);
+            long id = ((RecordId) sqlgVertex.id()).getId();
+            SqlgVertex sqlgVertexFromCache = this.vertexCache.get(sqlgVertex.getSchema(), sqlgVertex.getTable(), id);
             if (sqlgVertexFromCache == null) {
-                //copy the RecordId so that the WeakHashMap value does not reference the key
-                SchemaTable schemaTable = vertexRecordId.getSchemaTable();
-                RecordId recordId = RecordId.from(SchemaTable.of(schemaTable.getSchema(), schemaTable.getTable()), vertexRecordId.getId());
-                this.vertexCache.put(recordId, sqlgVertex);
+                this.vertexCache.put(sqlgVertex.getSchema(), sqlgVertex.getTable(), id, sqlgVertex);
                 return sqlgVertex;
             } else {
                 return sqlgVertexFromCache;
             }
-
         } else {
             return sqlgVertex;
         }
     }
 
-    void add(SqlgVertex sqlgVertex) {
-        RecordId vertexRecordId = (RecordId) sqlgVertex.id();
-        if (this.vertexCache.containsKey(vertexRecordId)) {
-            throw new IllegalStateException("The vertex cache should never already contain a new vertex!");
-        } else {
-            SchemaTable schemaTable = vertexRecordId.getSchemaTable();
-            RecordId recordId = RecordId.from(SchemaTable.of(schemaTable.getSchema(), schemaTable.getTable()), vertexRecordId.getId());
-            this.vertexCache.put(recordId, sqlgVertex);
+    /**
+     * Remembers a vertex that was created without its properties so that it is loaded together with the other
+     * unloaded vertices of its label. The vertices are weakly referenced, unused vertices are not loaded and are
+     * forgotten once they are garbage collected.
+     */
+    synchronized void addUnloadedVertex(SqlgVertex sqlgVertex) {
+        if (this.vertexLoadBatchSize > 1 && sqlgVertex.needsLoad()) {
+            purgeCollectedVertices();
+            this.unloadedVertices.computeIfAbsent(sqlgVertex.getSchemaTable(), k -> new LinkedHashSet<>())
+                    .add(new UnloadedVertex(sqlgVertex, this.collectedVertices));
+        }
+    }
+
+    /**
+     * @return up to vertexLoadBatchSize - 1 unloaded vertices of the vertex's label, in the order they were created, not including the vertex.
+     */
+    synchronized List<SqlgVertex> takeUnloadedVertices(SqlgVertex sqlgVertex) {
+        purgeCollectedVertices();
+        Set<UnloadedVertex> unloaded = this.unloadedVertices.get(sqlgVertex.getSchemaTable());
+        if (unloaded == null) {
+            return Collections.emptyList();
+        }
+        List<SqlgVertex> result = new ArrayList<>();
+        Iterator<UnloadedVertex> iterator = unloaded.iterator();
+        while (result.size() < this.vertexLoadBatchSize - 1 && iterator.hasNext()) {
+            SqlgVertex other = iterator.next().get();
+            iterator.remove();
+            if (other != null && other != sqlgVertex && !other.removed && other.needsLoad()) {
+                result.add(other);
+            }
+        }
+        if (unloaded.isEmpty()) {
+            this.unloadedVertices.remove(sqlgVertex.getSchemaTable());
+        }
+        return result;
+    }
+
+    private void purgeCollectedVertices() {
+        Reference<? extends SqlgVertex> collected;
+        while ((collected = this.collectedVertices.poll()) != null) {
+            UnloadedVertex unloadedVertex = (UnloadedVertex) collected;
+            Set<UnloadedVertex> unloaded = this.unloadedVertices.get(unloadedVertex.schemaTable);
+            if (unloaded != null && unloaded.remove(unloadedVertex) && unloaded.isEmpty()) {
+                this.unloadedVertices.remove(unloadedVertex.schemaTable);
+            }
+        }
+    }
+
+    synchronized void addChangedElement(RecordId recordId) {
+        this.changedElements.add(recordId);
+    }
+
+    synchronized void addChangedLabel(SchemaTable schemaTable) {
+        this.changedLabels.add(schemaTable);
+    }
+
+    synchronized boolean isChanged(RecordId recordId) {
+        return this.changedElements.contains(recordId) || this.changedLabels.contains(recordId.getSchemaTable());
+    }
+
+    Set<RecordId> getChangedElements() {
+        return this.changedElements;
+    }
+
+    Set<SchemaTable> getChangedLabels() {
+        return this.changedLabels;
+    }
+
+    /**
+     * The vertex cache is only read if cacheVertices is true, there is no need to fill it otherwise.
+     */
+    synchronized void add(SqlgVertex sqlgVertex) {
+        if (this.cacheVertices) {
+            long id = ((RecordId) sqlgVertex.id()).getId();
+            if (this.vertexCache.get(sqlgVertex.getSchema(), sqlgVertex.getTable(), id) != null) {
+                throw new IllegalStateException("The vertex cache should never already contain a new vertex!");
+            }
+            this.vertexCache.put(sqlgVertex.getSchema(), sqlgVertex.getTable(), id, sqlgVertex);
         }
     }
     
@@ -137,4 +271,144 @@ class TransactionCache {
 		this.lazyQueries = lazyQueries;
 	}
 
+    /**
+     * the number of rows to fetch at a time
+     * @return the fetch size, 0 if left to the jdbc driver
+     */
+    int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * set the number of rows to fetch at a time
+     * @param fetchSize
+     */
+    void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * the number of result rows to read ahead on a background thread
+     * @return the prefetch size, 0 if prefetching is disabled
+     */
+    int getPrefetchSize() {
+        return prefetchSize;
+    }
+
+    /**
+     * set the number of result rows to read ahead on a background thread
+     * @param prefetchSize
+     */
+    void setPrefetchSize(int prefetchSize) {
+        this.prefetchSize = prefetchSize;
+    }
+
+    /**
+     * the number of connections to execute the queries of a traversal on
+     * @return the number of connections, 1 or less if the queries are executed on the transaction's connection only
+     */
+    int getParallelConnections() {
+        return parallelConnections;
+    }
+
+    /**
+     * set the number of connections to execute the queries of a traversal on
+     * @param parallelConnections
+     */
+    void setParallelConnections(int parallelConnections) {
+        this.parallelConnections = parallelConnections;
+    }
+
+    /**
+     * the number of distinct queries to merge into one UNION ALL statement
+     * @return the number of queries, 1 or less if the queries are executed one by one
+     */
+    int getUnionSize() {
+        return unionSize;
+    }
+
+    /**
+     * set the number of distinct queries to merge into one UNION ALL statement
+     * @param unionSize
+     */
+    void setUnionSize(int unionSize) {
+        this.unionSize = unionSize;
+    }
+
+    /**
+     * the number of milliseconds a query may run before it is cancelled
+     * @return the timeout in milliseconds, 0 if there is no timeout
+     */
+    int getQueryTimeoutMs() {
+        return queryTimeoutMs;
+    }
+
+    /**
+     * set the number of milliseconds a query may run before it is cancelled
+     * @param queryTimeoutMs
+     */
+    void setQueryTimeoutMs(int queryTimeoutMs) {
+        this.queryTimeoutMs = queryTimeoutMs;
+    }
+
+    boolean isWritten() {
+        return written;
+    }
+
+    void setWritten() {
+        this.written = true;
+    }
+
+    long getElementCacheGeneration() {
+        return elementCacheGeneration;
+    }
+
+    void setElementCacheGeneration(long elementCacheGeneration) {
+        this.elementCacheGeneration = elementCacheGeneration;
+    }
+
+    /**
+     * @return true if the temporary table is used for the first time in this transaction.
+     */
+    synchronized boolean addTemporaryTable(String tableName) {
+        return this.temporaryTables.add(tableName);
+    }
+
+    synchronized void addResource(AutoCloseable resource) {
+        this.resources.put(resource, Boolean.TRUE);
+    }
+
+    synchronized void removeResource(AutoCloseable resource) {
+        this.resources.remove(resource);
+    }
+
+    /**
+     * Stops the prefetchers and parallel queries that are still running, they must not run once the transaction ends.
+     */
+    void closeResources() {
+        List<AutoCloseable> running;
+        synchronized (this) {
+            running = new ArrayList<>(this.resources.keySet());
+        }
+        for (AutoCloseable resource : running) {
+            try {
+                resource.close();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * An unloaded vertex with its label, to find it again once it is garbage collected.
+     */
+    private static final class UnloadedVertex extends WeakReference<SqlgVertex> {
+
+        private final SchemaTable schemaTable;
+
+        private UnloadedVertex(SqlgVertex sqlgVertex, ReferenceQueue<SqlgVertex> collectedVertices) {
+            super(sqlgVertex, collectedVertices);
+            this.schemaTable = sqlgVertex.getSchemaTable();
+        }
+    }
 }
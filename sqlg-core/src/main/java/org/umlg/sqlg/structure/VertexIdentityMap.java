@@ -0,0 +1,217 @@
+package org.umlg.sqlg.structure;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The vertices of a transaction, per schema and table an open addressing map of the long id to the vertex.
+ * Lookups do not allocate a key and do not box the id.
+ * <p>
+ * The number of vertices is bounded by the capacity. When it is reached a vertex of the same label is evicted,
+ * recently looked up vertices are kept (CLOCK). An evicted vertex still referenced by the caller is not the same
+ * instance as the vertex returned by a later lookup.
+ * <p>
+ * Not thread safe, {@link TransactionCache} synchronizes access.
+ * Date: 2026/10/18
+ * Time: 9:10 AM
+ */
+class VertexIdentityMap {
+
+    private final int capacity;
+    private final Map<String, Map<String, LongVertexMap>> vertices = new HashMap<>();
+    private int size = 0;
+
+    /**
+     * @param capacity the maximum number of vertices, 0 or less for no maximum.
+     */
+    VertexIdentityMap(int capacity) {
+        this.capacity = capacity;
+    }
+
+    SqlgVertex get(String schema, String table, long id) {
+        LongVertexMap label = label(schema, table, false);
+        return label != null ? label.get(id) : null;
+    }
+
+    void put(String schema, String table, long id, SqlgVertex sqlgVertex) {
+        LongVertexMap label = label(schema, table, true);
+        if (this.capacity > 0 && this.size >= this.capacity && label.get(id) == null) {
+            evict(label);
+        }
+        if (label.put(id, sqlgVertex)) {
+            this.size++;
+        }
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    void clear() {
+        this.vertices.clear();
+        this.size = 0;
+    }
+
+    private LongVertexMap label(String schema, String table, boolean create) {
+        Map<String, LongVertexMap> tables = this.vertices.get(schema);
+        if (tables == null) {
+            if (!create) {
+                return null;
+            }
+            tables = new HashMap<>();
+            this.vertices.put(schema, tables);
+        }
+        LongVertexMap label = tables.get(table);
+        if (label == null && create) {
+            label = new LongVertexMap();
+            tables.put(table, label);
+        }
+        return label;
+    }
+
+    /**
+     * Evicts a vertex of the label, or of any label if the label has none yet.
+     */
+    private void evict(LongVertexMap label) {
+        if (label.size == 0) {
+            for (Map<String, LongVertexMap> tables : this.vertices.values()) {
+                for (LongVertexMap other : tables.values()) {
+                    if (other.size > 0) {
+                        label = other;
+                        break;
+                    }
+                }
+                if (label.size > 0) {
+                    break;
+                }
+            }
+        }
+        label.evict();
+        this.size--;
+    }
+
+    /**
+     * A linear probing map of long to vertex, a null vertex marks an empty slot.
+     */
+    static final class LongVertexMap {
+
+        private static final int INITIAL_CAPACITY = 16;
+
+        private long[] ids = new long[INITIAL_CAPACITY];
+        private SqlgVertex[] vertices = new SqlgVertex[INITIAL_CAPACITY];
+        //set on lookup, cleared as the clock hand passes
+        private boolean[] referenced = new boolean[INITIAL_CAPACITY];
+        private int size = 0;
+        private int hand = 0;
+
+        SqlgVertex get(long id) {
+            int mask = this.ids.length - 1;
+            for (int i = index(id, mask); this.vertices[i] != null; i = (i + 1) & mask) {
+                if (this.ids[i] == id) {
+                    this.referenced[i] = true;
+                    return this.vertices[i];
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @return true if the id is new.
+         */
+        boolean put(long id, SqlgVertex sqlgVertex) {
+            int mask = this.ids.length - 1;
+            int i = index(id, mask);
+            for (; this.vertices[i] != null; i = (i + 1) & mask) {
+                if (this.ids[i] == id) {
+                    this.vertices[i] = sqlgVertex;
+                    return false;
+                }
+            }
+            this.ids[i] = id;
+            this.vertices[i] = sqlgVertex;
+            this.size++;
+            //keep the load factor at or below 1/2
+            if (this.size * 2 > this.ids.length) {
+                resize();
+            }
+            return true;
+        }
+
+        /**
+         * Removes the first unreferenced vertex from the clock hand on, clearing the references it passes.
+         */
+        void evict() {
+            int mask = this.ids.length - 1;
+            while (true) {
+                int i = this.hand;
+                this.hand = (this.hand + 1) & mask;
+                if (this.vertices[i] != null) {
+                    if (this.referenced[i]) {
+                        this.referenced[i] = false;
+                    } else {
+                        remove(i);
+                        return;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Removes the slot and shifts the following entries of the probe sequence back, no tombstones are needed.
+         */
+        private void remove(int slot) {
+            int mask = this.ids.length - 1;
+            this.size--;
+            int i = slot;
+            while (true) {
+                this.vertices[i] = null;
+                this.referenced[i] = false;
+                int j = i;
+                while (true) {
+                    j = (j + 1) & mask;
+                    if (this.vertices[j] == null) {
+                        return;
+                    }
+                    int home = index(this.ids[j], mask);
+                    //move j to i if its home slot is not cyclically in (i, j]
+                    if (i <= j ? (i >= home || home > j) : (i >= home && home > j)) {
+                        break;
+                    }
+                }
+                this.ids[i] = this.ids[j];
+                this.vertices[i] = this.vertices[j];
+                this.referenced[i] = this.referenced[j];
+                i = j;
+            }
+        }
+
+        private void resize() {
+            long[] oldIds = this.ids;
+            SqlgVertex[] oldVertices = this.vertices;
+            boolean[] oldReferenced = this.referenced;
+            int length = oldIds.length * 2;
+            int mask = length - 1;
+            this.ids = new long[length];
+            this.vertices = new SqlgVertex[length];
+            this.referenced = new boolean[length];
+            this.hand = 0;
+            for (int old = 0; old < oldIds.length; old++) {
+                if (oldVertices[old] != null) {
+                    int i = index(oldIds[old], mask);
+                    while (this.vertices[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    this.ids[i] = oldIds[old];
+                    this.vertices[i] = oldVertices[old];
+                    this.referenced[i] = oldReferenced[old];
+                }
+            }
+        }
+
+        private static int index(long id, int mask) {
+            //ids are sequential, spread them over the table
+            long hash = id * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
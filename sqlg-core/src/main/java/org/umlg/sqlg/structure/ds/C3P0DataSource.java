@@ -6,6 +6,7 @@ import org.slf4j.LoggerFactory;
 import org.umlg.sqlg.structure.SqlgDataSourceFactory;
 
 import javax.sql.DataSource;
+import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -31,6 +32,17 @@ public class C3P0DataSource implements SqlgDataSourceFactory.SqlgDataSource{
         return this.dss;
     }
 
+    /**
+     * Only checks out a connection if the pool has an idle one or may open another one.
+     */
+    @Override
+    public Connection tryGetConnection() throws SQLException {
+        if (this.dss.getNumIdleConnectionsDefaultUser() > 0 || this.dss.getNumConnectionsDefaultUser() < this.dss.getMaxPoolSize()) {
+            return this.dss.getConnection();
+        }
+        return null;
+    }
+
     @Override
     public void close() {
         if (! closed.compareAndSet(false, true)) {
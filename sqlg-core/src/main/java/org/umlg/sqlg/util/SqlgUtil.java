@@ -39,6 +39,12 @@ public class SqlgUtil {
     //This is the default count to indicate whether to use in statement or join onto a temp table.
     //As it happens postgres join to temp is always faster except for count = 1 when in is not used but '='
     private final static int BULK_WITHIN_COUNT = 1;
+    //The number of within/without values above which a dialect that supports array parameters joins onto a temp table.
+    public static final String BULK_WITHIN_TEMP_TABLE_COUNT = "bulk.within.temp.table.count";
+    private final static int DEFAULT_BULK_WITHIN_TEMP_TABLE_COUNT = 10000;
+    //The within/without element types that are passed as one array parameter.
+    private static final Set<Class<?>> WITHIN_ARRAY_TYPES = new HashSet<>(Arrays.asList(
+            Long.class, Integer.class, Short.class, String.class, Double.class, Float.class, Boolean.class));
     private static final String PROPERTY_ARRAY_VALUE_ELEMENTS_MAY_NOT_BE_NULL = "Property array value elements may not be null.";
 
     private SqlgUtil() {
@@ -65,8 +71,28 @@ public class SqlgUtil {
             Map<String, Integer> lastElementIdCountMap
     ) throws SQLException {
 
-        List<Emit<SqlgElement>> result = new ArrayList<>();
         if (resultSet.next()) {
+            return loadCurrentRowIntoResultIterator(sqlgGraph, resultSetMetaData, resultSet, rootSchemaTableTree, subQueryStacks, first, lastElementIdCountMap);
+        } else {
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Loads the row the resultSet is positioned on.
+     */
+    public static List<Emit<SqlgElement>> loadCurrentRowIntoResultIterator(
+            SqlgGraph sqlgGraph,
+            ResultSetMetaData resultSetMetaData,
+            ResultSet resultSet,
+            SchemaTableTree rootSchemaTableTree,
+            List<LinkedList<SchemaTableTree>> subQueryStacks,
+            boolean first,
+            Map<String, Integer> lastElementIdCountMap
+    ) throws SQLException {
+
+        List<Emit<SqlgElement>> result = new ArrayList<>();
+        {
             if (first) {
                 for (LinkedList<SchemaTableTree> subQueryStack : subQueryStacks) {
                     for (SchemaTableTree schemaTableTree : subQueryStack) {
@@ -104,6 +130,13 @@ public class SqlgUtil {
                 }
                 subQueryDepth++;
             }
+            Integer parentIdColumn = lastElementIdCountMap.get(SchemaTableTree.PARENT_ID_ALIAS);
+            if (parentIdColumn != null) {
+                long parentId = resultSet.getLong(parentIdColumn);
+                for (Emit<SqlgElement> emit : result) {
+                    emit.setParentId(parentId);
+                }
+            }
         }
         return result;
     }
@@ -116,7 +149,7 @@ public class SqlgUtil {
             String columnLabel = resultSetMetaData.getColumnLabel(columnCount);
             String unAliased = rootSchemaTableTree.getAliasColumnNameMap().get(columnLabel);
             String mapKey = unAliased != null ? unAliased : columnLabel;
-            if (mapKey.endsWith(SchemaTableTree.ALIAS_SEPARATOR + SchemaManager.ID)) {
+            if (mapKey.endsWith(SchemaTableTree.ALIAS_SEPARATOR + SchemaManager.ID) || mapKey.equals(SchemaTableTree.PARENT_ID_ALIAS)) {
                 lastElementIdCountMap.put(mapKey, columnCount);
             }
         }
@@ -198,29 +231,136 @@ public class SqlgUtil {
         return (E) sqlgElement;
     }
 
+    /**
+     * @return true if the within/without joins onto a temporary table.
+     */
     public static boolean isBulkWithinAndOut(SqlgGraph sqlgGraph, HasContainer hasContainer) {
         BiPredicate p = hasContainer.getPredicate().getBiPredicate();
-        return (p == Contains.within || p == Contains.without) && ((Collection) hasContainer.getPredicate().getValue()).size() > sqlgGraph.configuration().getInt("bulk.within.count", BULK_WITHIN_COUNT);
+        return (p == Contains.within || p == Contains.without) && ((Collection) hasContainer.getPredicate().getValue()).size() > bulkWithinCount(sqlgGraph, hasContainer);
     }
 
     public static boolean isBulkWithin(SqlgGraph sqlgGraph, HasContainer hasContainer) {
         BiPredicate p = hasContainer.getPredicate().getBiPredicate();
-        return p == Contains.within && ((Collection) hasContainer.getPredicate().getValue()).size() > sqlgGraph.configuration().getInt("bulk.within.count", BULK_WITHIN_COUNT);
+        return p == Contains.within && ((Collection) hasContainer.getPredicate().getValue()).size() > bulkWithinCount(sqlgGraph, hasContainer);
     }
 
-    public static void setParametersOnStatement(SqlgGraph sqlgGraph, LinkedList<SchemaTableTree> schemaTableTreeStack, Connection conn, PreparedStatement preparedStatement, int parameterIndex) throws SQLException {
+    /**
+     * Small within/without lists are inlined as 'in (?, ?)', larger lists are passed as one array parameter if the dialect
+     * supports it and huge lists join onto a temporary table.
+     *
+     * @return true if the within/without values are passed as one array parameter.
+     */
+    public static boolean isWithinArray(SqlgGraph sqlgGraph, HasContainer hasContainer) {
+        BiPredicate p = hasContainer.getPredicate().getBiPredicate();
+        if (!(p == Contains.within || p == Contains.without) || !sqlgGraph.getSqlDialect().supportsWithinArrayParameter()) {
+            return false;
+        }
+        Collection<?> values = (Collection<?>) hasContainer.getPredicate().getValue();
+        return values.size() > sqlgGraph.configuration().getInt("bulk.within.count", BULK_WITHIN_COUNT) &&
+                values.size() <= sqlgGraph.configuration().getInt(BULK_WITHIN_TEMP_TABLE_COUNT, DEFAULT_BULK_WITHIN_TEMP_TABLE_COUNT) &&
+                toWithinArray(values) != null;
+    }
+
+    /**
+     * @return the values as a typed array, RecordIds as their id, or null if they are not all of the same supported type.
+     */
+    public static Object[] toWithinArray(Collection<?> values) {
+        Class<?> type = null;
+        for (Object value : values) {
+            Class<?> valueType = value instanceof RecordId ? Long.class : (value == null ? null : value.getClass());
+            if (valueType == null || !WITHIN_ARRAY_TYPES.contains(valueType) || (type != null && type != valueType)) {
+                return null;
+            }
+            type = valueType;
+        }
+        if (type == null) {
+            return null;
+        }
+        Object[] result = (Object[]) Array.newInstance(type, values.size());
+        int i = 0;
+        for (Object value : values) {
+            result[i++] = value instanceof RecordId ? ((RecordId) value).getId() : value;
+        }
+        return result;
+    }
+
+    /**
+     * The ids of the incoming elements of a batched vertex step are passed as one array parameter if the dialect supports it.
+     * Else they are inlined padded to the next power of two, so that batches of a similar size share their sql and statement.
+     *
+     * @return the number of id parameters of the sql for idCount ids.
+     */
+    public static int parentIdParameterCount(SqlDialect sqlDialect, int idCount) {
+        if (idCount <= 1) {
+            return idCount;
+        } else if (sqlDialect.supportsWithinArrayParameter()) {
+            return 1;
+        } else {
+            return Integer.highestOneBit(idCount - 1) << 1;
+        }
+    }
+
+    /**
+     * Inlined ids may use half of the dialect's parameter limit, the rest is left for the where clause.
+     *
+     * @return the maximum number of incoming ids of one batched vertex step query.
+     */
+    public static int maxParentIdCount(SqlDialect sqlDialect) {
+        if (sqlDialect.supportsWithinArrayParameter()) {
+            return Integer.MAX_VALUE;
+        } else {
+            return Integer.highestOneBit(sqlDialect.getParameterLimit() / 2);
+        }
+    }
+
+    /**
+     * Binds the ids as {@link #parentIdParameterCount(SqlDialect, int)} parameters, inlined ids are padded with the last id.
+     *
+     * @return the index of the next parameter
+     */
+    public static int setParentIdParameters(SqlgGraph sqlgGraph, PreparedStatement preparedStatement, List<RecordId> recordIds, int parameterIndex) throws SQLException {
+        if (recordIds.size() > 1 && sqlgGraph.getSqlDialect().supportsWithinArrayParameter()) {
+            Long[] ids = recordIds.stream().map(RecordId::getId).toArray(Long[]::new);
+            sqlgGraph.getSqlDialect().setArray(preparedStatement, parameterIndex++, PropertyType.LONG_ARRAY, ids);
+            return parameterIndex;
+        }
+        RecordId last = null;
+        for (RecordId recordId : recordIds) {
+            if (recordId != null) {
+                preparedStatement.setLong(parameterIndex++, recordId.getId());
+                last = recordId;
+            }
+        }
+        for (int i = recordIds.size(); i < parentIdParameterCount(sqlgGraph.getSqlDialect(), recordIds.size()); i++) {
+            preparedStatement.setLong(parameterIndex++, last.getId());
+        }
+        return parameterIndex;
+    }
+
+    private static int bulkWithinCount(SqlgGraph sqlgGraph, HasContainer hasContainer) {
+        if (sqlgGraph.getSqlDialect().supportsWithinArrayParameter() && toWithinArray((Collection<?>) hasContainer.getPredicate().getValue()) != null) {
+            return sqlgGraph.configuration().getInt(BULK_WITHIN_TEMP_TABLE_COUNT, DEFAULT_BULK_WITHIN_TEMP_TABLE_COUNT);
+        } else {
+            return sqlgGraph.configuration().getInt("bulk.within.count", BULK_WITHIN_COUNT);
+        }
+    }
+
+    /**
+     * @return the index of the next parameter
+     */
+    public static int setParametersOnStatement(SqlgGraph sqlgGraph, LinkedList<SchemaTableTree> schemaTableTreeStack, Connection conn, PreparedStatement preparedStatement, int parameterIndex) throws SQLException {
         Multimap<String, Object> keyValueMap = LinkedListMultimap.create();
         for (SchemaTableTree schemaTableTree : schemaTableTreeStack) {
             for (HasContainer hasContainer : schemaTableTree.getHasContainers()) {
                 if (!sqlgGraph.getSqlDialect().supportsBulkWithinOut() || !isBulkWithinAndOut(sqlgGraph, hasContainer)) {
                     WhereClause whereClause = WhereClause.from(hasContainer.getPredicate());
-                    whereClause.putKeyValueMap(hasContainer, keyValueMap);
+                    whereClause.putKeyValueMap(sqlgGraph, hasContainer, keyValueMap);
                 }
             }
         }
         List<ImmutablePair<PropertyType, Object>> typeAndValues = SqlgUtil.transformToTypeAndValue(keyValueMap);
         //This is for selects
-        setKeyValuesAsParameter(sqlgGraph, false, parameterIndex, preparedStatement, typeAndValues);
+        return setKeyValuesAsParameter(sqlgGraph, false, parameterIndex, preparedStatement, typeAndValues);
     }
 
 
@@ -9,6 +9,7 @@ import org.apache.commons.lang3.tuple.Triple;
 import org.apache.tinkerpop.gremlin.structure.Property;
 import org.h2.jdbc.JdbcArray;
 import org.umlg.sqlg.sql.dialect.BaseSqlDialect;
+import org.umlg.sqlg.sql.dialect.JdbcBatchDialect;
 import org.umlg.sqlg.structure.PropertyType;
 import org.umlg.sqlg.structure.SchemaTable;
 import org.umlg.sqlg.structure.SqlgGraph;
@@ -23,7 +24,7 @@ import java.util.*;
  * @author Lukas Krejci
  * @since 1.3.0
  */
-public class H2Dialect extends BaseSqlDialect {
+public class H2Dialect extends BaseSqlDialect implements JdbcBatchDialect {
 
     public H2Dialect() {
         super();
@@ -534,11 +535,61 @@ public class H2Dialect extends BaseSqlDialect {
         throw new UnsupportedOperationException("H2 does not support sequenceName!");
     }
 
+    /**
+     * An IDENTITY column is backed by a system sequence of the table's schema, its values are not transactional so the
+     * reserved ids are never handed out again.
+     */
+    @Override
+    public long[] reserveIds(SqlgGraph sqlgGraph, SchemaTable prefixedSchemaTable, int count) {
+        Connection connection = sqlgGraph.tx().getConnection();
+        String sequence;
+        try (PreparedStatement preparedStatement = connection.prepareStatement(
+                "SELECT SEQUENCE_NAME FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_SCHEMA = ? AND TABLE_NAME = ? AND COLUMN_NAME = 'ID'")) {
+            preparedStatement.setString(1, prefixedSchemaTable.getSchema());
+            preparedStatement.setString(2, prefixedSchemaTable.getTable());
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                sequence = resultSet.next() ? resultSet.getString(1) : null;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        if (sequence == null) {
+            return null;
+        }
+        long[] ids = new long[count];
+        int i = 0;
+        try (PreparedStatement preparedStatement = connection.prepareStatement(
+                "SELECT NEXT VALUE FOR " + maybeWrapInQoutes(prefixedSchemaTable.getSchema()) + "." + maybeWrapInQoutes(sequence) + " FROM SYSTEM_RANGE(1, ?)")) {
+            preparedStatement.setInt(1, count);
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    ids[i++] = resultSet.getLong(1);
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        if (i != count) {
+            throw new IllegalStateException(String.format("Reserved %d ids of %s, expected %d", i, prefixedSchemaTable, count));
+        }
+        return ids;
+    }
+
     @Override
     public boolean supportsBulkWithinOut() {
         return false;
     }
 
+    @Override
+    public boolean supportsWithRecursive() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsUnionAll() {
+        return true;
+    }
+
     @Override
     public boolean supportsTransactionalSchema() {
         return false;
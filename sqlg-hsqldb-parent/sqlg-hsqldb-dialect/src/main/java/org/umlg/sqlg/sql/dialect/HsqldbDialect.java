@@ -18,7 +18,7 @@ import java.util.*;
  * Date: 2014/07/16
  * Time: 3:09 PM
  */
-public class HsqldbDialect extends BaseSqlDialect {
+public class HsqldbDialect extends BaseSqlDialect implements JdbcBatchDialect {
 
     public HsqldbDialect() {
         super();
@@ -538,6 +538,16 @@ public class HsqldbDialect extends BaseSqlDialect {
         return false;
     }
 
+    @Override
+    public boolean supportsWithRecursive() {
+        return true;
+    }
+
+    @Override
+    public boolean returnsGeneratedKeysOfMultiRowInsert() {
+        return true;
+    }
+
     @Override
     public String createTemporaryTableStatement() {
         return "DECLARE LOCAL TEMPORARY TABLE ";
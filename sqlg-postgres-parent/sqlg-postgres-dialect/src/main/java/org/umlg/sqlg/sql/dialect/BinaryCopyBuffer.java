@@ -0,0 +1,192 @@
+package org.umlg.sqlg.sql.dialect;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes rows in the binary format of PostgreSQL's COPY command.
+ * The buffer is reused for all the copy commands of a flush, it is written to the copy stream whenever a row ends
+ * with more than {@link #FLUSH_SIZE} bytes buffered. It grows when a single row does not fit.
+ * All values are written in network byte order, the default of {@link ByteBuffer}.
+ * <p>
+ * Date: 2026/10/18
+ * Time: 4:00 PM
+ */
+final class BinaryCopyBuffer {
+
+    private static final byte[] SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xff, '\r', '\n', 0};
+    private static final int FLUSH_SIZE = 64 * 1024;
+
+    private ByteBuffer buffer = ByteBuffer.allocate(FLUSH_SIZE * 2);
+    private OutputStream outputStream;
+
+    /**
+     * Starts a copy, writes the header.
+     */
+    void begin(OutputStream outputStream) {
+        this.outputStream = outputStream;
+        this.buffer.clear();
+        ensure(SIGNATURE.length + 8);
+        this.buffer.put(SIGNATURE);
+        //flags
+        this.buffer.putInt(0);
+        //header extension length
+        this.buffer.putInt(0);
+    }
+
+    /**
+     * Ends the copy, writes the trailer and closes the copy stream.
+     */
+    void end() throws IOException {
+        ensure(2);
+        this.buffer.putShort((short) -1);
+        flush();
+        this.outputStream.close();
+        this.outputStream = null;
+    }
+
+    void startRow(int fieldCount) {
+        ensure(2);
+        this.buffer.putShort((short) fieldCount);
+    }
+
+    void endRow() throws IOException {
+        if (this.buffer.position() >= FLUSH_SIZE) {
+            flush();
+        }
+    }
+
+    void putNull() {
+        ensure(4);
+        this.buffer.putInt(-1);
+    }
+
+    void putBooleanField(boolean value) {
+        ensure(5);
+        this.buffer.putInt(1);
+        this.buffer.put((byte) (value ? 1 : 0));
+    }
+
+    void putShortField(short value) {
+        ensure(6);
+        this.buffer.putInt(2);
+        this.buffer.putShort(value);
+    }
+
+    void putIntField(int value) {
+        ensure(8);
+        this.buffer.putInt(4);
+        this.buffer.putInt(value);
+    }
+
+    void putLongField(long value) {
+        ensure(12);
+        this.buffer.putInt(8);
+        this.buffer.putLong(value);
+    }
+
+    void putFloatField(float value) {
+        ensure(8);
+        this.buffer.putInt(4);
+        this.buffer.putFloat(value);
+    }
+
+    void putDoubleField(double value) {
+        ensure(12);
+        this.buffer.putInt(8);
+        this.buffer.putDouble(value);
+    }
+
+    void putBytesField(byte[] value) {
+        ensure(4 + value.length);
+        this.buffer.putInt(value.length);
+        this.buffer.put(value);
+    }
+
+    void putTextField(String value) {
+        int start = startField();
+        putUtf8(value);
+        endField(start);
+    }
+
+    /**
+     * jsonb's binary format is a version byte followed by the json text.
+     */
+    void putJsonbField(String value) {
+        int start = startField();
+        ensure(1);
+        this.buffer.put((byte) 1);
+        putUtf8(value);
+        endField(start);
+    }
+
+    /**
+     * Reserves the length of a variable length field.
+     *
+     * @return the position to pass to {@link #endField(int)} once the field's bytes are written.
+     */
+    int startField() {
+        ensure(4);
+        int start = this.buffer.position();
+        this.buffer.putInt(0);
+        return start;
+    }
+
+    void endField(int start) {
+        this.buffer.putInt(start, this.buffer.position() - start - 4);
+    }
+
+    //a raw value inside a variable length field
+    void putInt(int value) {
+        ensure(4);
+        this.buffer.putInt(value);
+    }
+
+    /**
+     * Encodes the string as utf-8 straight into the buffer, unpaired surrogates are replaced with '?' as
+     * {@link String#getBytes(java.nio.charset.Charset)} does.
+     */
+    void putUtf8(String value) {
+        int length = value.length();
+        ensure(length * 3);
+        byte[] array = this.buffer.array();
+        int position = this.buffer.position();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                array[position++] = (byte) c;
+            } else if (c < 0x800) {
+                array[position++] = (byte) (0xc0 | (c >> 6));
+                array[position++] = (byte) (0x80 | (c & 0x3f));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                array[position++] = (byte) (0xf0 | (codePoint >> 18));
+                array[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                array[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                array[position++] = (byte) (0x80 | (codePoint & 0x3f));
+            } else if (Character.isSurrogate(c)) {
+                array[position++] = '?';
+            } else {
+                array[position++] = (byte) (0xe0 | (c >> 12));
+                array[position++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                array[position++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+        this.buffer.position(position);
+    }
+
+    private void ensure(int size) {
+        if (this.buffer.remaining() < size) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(this.buffer.capacity() * 2, this.buffer.position() + size));
+            this.buffer.flip();
+            bigger.put(this.buffer);
+            this.buffer = bigger;
+        }
+    }
+
+    private void flush() throws IOException {
+        this.outputStream.write(this.buffer.array(), 0, this.buffer.position());
+        this.buffer.clear();
+    }
+}
@@ -0,0 +1,374 @@
+package org.umlg.sqlg.sql.dialect;
+
+import com.google.common.base.Preconditions;
+import org.umlg.sqlg.structure.BatchRows;
+import org.umlg.sqlg.structure.PropertyType;
+import org.umlg.sqlg.util.SqlgUtil;
+
+import java.lang.reflect.Array;
+import java.time.*;
+import java.util.*;
+
+/**
+ * Encodes the properties of the rows of a label for a binary COPY.
+ * The encoder of every column is chosen once from the label's property types, the values are then written straight
+ * into a {@link BinaryCopyBuffer} without going through their text representation. The boolean and numeric values of
+ * the primitive columns of a batch, {@link BatchRows.Column#getBits(int)}, are written without boxing them.
+ * <p>
+ * Date: 2026/10/18
+ * Time: 4:10 PM
+ */
+final class BinaryCopyCodec {
+
+    private static final long POSTGRES_EPOCH_DAY = LocalDate.of(2000, 1, 1).toEpochDay();
+    private static final long POSTGRES_EPOCH_SECOND = POSTGRES_EPOCH_DAY * 24 * 60 * 60;
+    //the oids of the element types of the arrays
+    private static final int BOOL_OID = 16;
+    private static final int INT8_OID = 20;
+    private static final int INT2_OID = 21;
+    private static final int INT4_OID = 23;
+    private static final int TEXT_OID = 25;
+    private static final int FLOAT4_OID = 700;
+    private static final int FLOAT8_OID = 701;
+    private static final int DATE_OID = 1082;
+    private static final int TIMESTAMPTZ_OID = 1184;
+
+    private final String[] keys;
+    private final PropertyType[] propertyTypes;
+    private final ColumnEncoder[] encoders;
+    private final List<String> columns;
+
+    private BinaryCopyCodec(String[] keys, PropertyType[] propertyTypes, ColumnEncoder[] encoders, List<String> columns) {
+        this.keys = keys;
+        this.propertyTypes = propertyTypes;
+        this.encoders = encoders;
+        this.columns = columns;
+    }
+
+    /**
+     * @return the codec of the keys or null if one of their property types has no binary encoding, then the label
+     * must be copied as text.
+     */
+    static BinaryCopyCodec of(Map<String, PropertyType> propertyTypes, Collection<String> keys) {
+        String[] codecKeys = new String[keys.size()];
+        PropertyType[] codecPropertyTypes = new PropertyType[keys.size()];
+        ColumnEncoder[] encoders = new ColumnEncoder[keys.size()];
+        List<String> columns = new ArrayList<>();
+        int i = 0;
+        for (String key : keys) {
+            PropertyType propertyType = propertyTypes.get(key);
+            Preconditions.checkState(propertyType != null, "Property %s not found", key);
+            ColumnEncoder encoder = encoderFor(propertyType);
+            if (encoder == null) {
+                return null;
+            }
+            Preconditions.checkState(encoder.fields() == propertyType.getPostFixes().length + 1);
+            codecKeys[i] = key;
+            codecPropertyTypes[i] = propertyType;
+            encoders[i++] = encoder;
+            columns.add(key);
+            for (String postFix : propertyType.getPostFixes()) {
+                columns.add(key + postFix);
+            }
+        }
+        return new BinaryCopyCodec(codecKeys, codecPropertyTypes, encoders, columns);
+    }
+
+    /**
+     * @return the columns in the order of the fields.
+     */
+    List<String> getColumns() {
+        return this.columns;
+    }
+
+    int getFieldCount() {
+        return this.columns.size();
+    }
+
+    /**
+     * @return the columns of the keys in the order of the fields, null for a key without values.
+     */
+    BatchRows.Column[] batchColumns(BatchRows batchRows) {
+        BatchRows.Column[] batchColumns = new BatchRows.Column[this.keys.length];
+        for (int i = 0; i < this.keys.length; i++) {
+            batchColumns[i] = batchRows.column(this.keys[i]);
+        }
+        return batchColumns;
+    }
+
+    /**
+     * Writes the fields of a row of the columns, a value that is not present is null.
+     */
+    void writeFields(BinaryCopyBuffer buffer, BatchRows.Column[] batchColumns, int row) {
+        for (int i = 0; i < this.keys.length; i++) {
+            BatchRows.Column column = batchColumns[i];
+            ColumnEncoder encoder = this.encoders[i];
+            if (column == null || !column.isPresent(row)) {
+                for (int field = 0; field < encoder.fields(); field++) {
+                    buffer.putNull();
+                }
+            } else if (column.primitiveType() == this.propertyTypes[i]) {
+                putBits(buffer, this.propertyTypes[i], column.getBits(row));
+            } else {
+                encoder.encode(buffer, column.get(row));
+            }
+        }
+    }
+
+    private static void putBits(BinaryCopyBuffer buffer, PropertyType propertyType, long bits) {
+        switch (propertyType) {
+            case BOOLEAN:
+                buffer.putBooleanField(bits != 0);
+                break;
+            case SHORT:
+                buffer.putShortField((short) bits);
+                break;
+            case INTEGER:
+                buffer.putIntField((int) bits);
+                break;
+            case LONG:
+                buffer.putLongField(bits);
+                break;
+            case FLOAT:
+                buffer.putFloatField(Float.intBitsToFloat((int) bits));
+                break;
+            case DOUBLE:
+                buffer.putDoubleField(Double.longBitsToDouble(bits));
+                break;
+            default:
+                throw new IllegalStateException("Unhandled primitive PropertyType " + propertyType.name());
+        }
+    }
+
+    private static ColumnEncoder encoderFor(PropertyType propertyType) {
+        switch (propertyType) {
+            case BOOLEAN:
+                return single((buffer, value) -> buffer.putBooleanField((Boolean) value));
+            case SHORT:
+                return single((buffer, value) -> buffer.putShortField(((Number) value).shortValue()));
+            case INTEGER:
+                return single((buffer, value) -> buffer.putIntField(((Number) value).intValue()));
+            case LONG:
+                return single((buffer, value) -> buffer.putLongField(((Number) value).longValue()));
+            case FLOAT:
+                return single((buffer, value) -> buffer.putFloatField(((Number) value).floatValue()));
+            case DOUBLE:
+                return single((buffer, value) -> buffer.putDoubleField(((Number) value).doubleValue()));
+            case STRING:
+                return single((buffer, value) -> buffer.putTextField(value.toString()));
+            case JSON:
+                return single((buffer, value) -> buffer.putJsonbField(value.toString()));
+            case LOCALDATE:
+                return single((buffer, value) -> buffer.putIntField(date((LocalDate) value)));
+            case LOCALDATETIME:
+                return single((buffer, value) -> buffer.putLongField(timestamp((LocalDateTime) value)));
+            case ZONEDDATETIME:
+                return columns(2, (buffer, value) -> {
+                    ZonedDateTime zonedDateTime = (ZonedDateTime) value;
+                    buffer.putLongField(timestamp(zonedDateTime.toLocalDateTime()));
+                    buffer.putTextField(zoneId(zonedDateTime));
+                });
+            case PERIOD:
+                return columns(3, (buffer, value) -> {
+                    Period period = (Period) value;
+                    buffer.putIntField(period.getYears());
+                    buffer.putIntField(period.getMonths());
+                    buffer.putIntField(period.getDays());
+                });
+            case DURATION:
+                return columns(2, (buffer, value) -> {
+                    Duration duration = (Duration) value;
+                    buffer.putLongField(duration.getSeconds());
+                    buffer.putIntField(duration.getNano());
+                });
+            case byte_ARRAY:
+                return single((buffer, value) -> buffer.putBytesField((byte[]) value));
+            case BYTE_ARRAY:
+                return single((buffer, value) -> buffer.putBytesField((byte[]) SqlgUtil.convertByteArrayToPrimitiveArray((Byte[]) value)));
+            case boolean_ARRAY:
+            case BOOLEAN_ARRAY:
+                return single((buffer, value) -> array(buffer, value, BOOL_OID, (b, element) -> b.putBooleanField((Boolean) element)));
+            case short_ARRAY:
+            case SHORT_ARRAY:
+                return single((buffer, value) -> array(buffer, value, INT2_OID, (b, element) -> b.putShortField(((Number) element).shortValue())));
+            case int_ARRAY:
+            case INTEGER_ARRAY:
+                return single((buffer, value) -> {
+                    if (value instanceof int[]) {
+                        intArray(buffer, (int[]) value);
+                    } else {
+                        array(buffer, value, INT4_OID, (b, element) -> b.putIntField(((Number) element).intValue()));
+                    }
+                });
+            case long_ARRAY:
+            case LONG_ARRAY:
+                return single((buffer, value) -> {
+                    if (value instanceof long[]) {
+                        longArray(buffer, (long[]) value);
+                    } else {
+                        array(buffer, value, INT8_OID, (b, element) -> b.putLongField(((Number) element).longValue()));
+                    }
+                });
+            case float_ARRAY:
+            case FLOAT_ARRAY:
+                return single((buffer, value) -> array(buffer, value, FLOAT4_OID, (b, element) -> b.putFloatField(((Number) element).floatValue())));
+            case double_ARRAY:
+            case DOUBLE_ARRAY:
+                return single((buffer, value) -> {
+                    if (value instanceof double[]) {
+                        doubleArray(buffer, (double[]) value);
+                    } else {
+                        array(buffer, value, FLOAT8_OID, (b, element) -> b.putDoubleField(((Number) element).doubleValue()));
+                    }
+                });
+            case STRING_ARRAY:
+                return single((buffer, value) -> array(buffer, value, TEXT_OID, (b, element) -> b.putTextField(element.toString())));
+            case LOCALDATE_ARRAY:
+                return single((buffer, value) -> array(buffer, value, DATE_OID, (b, element) -> b.putIntField(date((LocalDate) element))));
+            case LOCALDATETIME_ARRAY:
+                return single((buffer, value) -> array(buffer, value, TIMESTAMPTZ_OID, (b, element) -> b.putLongField(timestamp((LocalDateTime) element))));
+            case ZONEDDATETIME_ARRAY:
+                return columns(2, (buffer, value) -> {
+                    array(buffer, value, TIMESTAMPTZ_OID, (b, element) -> b.putLongField(timestamp(((ZonedDateTime) element).toLocalDateTime())));
+                    array(buffer, value, TEXT_OID, (b, element) -> b.putTextField(zoneId((ZonedDateTime) element)));
+                });
+            case DURATION_ARRAY:
+                return columns(2, (buffer, value) -> {
+                    array(buffer, value, INT8_OID, (b, element) -> b.putLongField(((Duration) element).getSeconds()));
+                    array(buffer, value, INT4_OID, (b, element) -> b.putIntField(((Duration) element).getNano()));
+                });
+            case PERIOD_ARRAY:
+                return columns(3, (buffer, value) -> {
+                    array(buffer, value, INT4_OID, (b, element) -> b.putIntField(((Period) element).getYears()));
+                    array(buffer, value, INT4_OID, (b, element) -> b.putIntField(((Period) element).getMonths()));
+                    array(buffer, value, INT4_OID, (b, element) -> b.putIntField(((Period) element).getDays()));
+                });
+            default:
+                //LOCALTIME is shifted for daylight saving time and the gis types are written by postgis, they stay text.
+                return null;
+        }
+    }
+
+    /**
+     * Days since the postgres epoch.
+     */
+    private static int date(LocalDate localDate) {
+        return (int) (localDate.toEpochDay() - POSTGRES_EPOCH_DAY);
+    }
+
+    /**
+     * Microseconds since the postgres epoch. The text copy leaves the zone of the timestamp to the server, which uses
+     * the session's time zone, the jdbc driver sets it to the jvm's default time zone.
+     */
+    private static long timestamp(LocalDateTime localDateTime) {
+        Instant instant = localDateTime.atZone(ZoneId.systemDefault()).toInstant();
+        return (instant.getEpochSecond() - POSTGRES_EPOCH_SECOND) * 1_000_000L + instant.getNano() / 1_000;
+    }
+
+    private static String zoneId(ZonedDateTime zonedDateTime) {
+        return TimeZone.getTimeZone(zonedDateTime.getZone().getId()).getID();
+    }
+
+    /**
+     * Writes a one dimensional array field, null elements are allowed in arrays of objects.
+     */
+    private static void array(BinaryCopyBuffer buffer, Object value, int elementOid, ValueEncoder elementEncoder) {
+        int length = Array.getLength(value);
+        boolean hasNull = false;
+        if (!value.getClass().getComponentType().isPrimitive()) {
+            for (Object element : (Object[]) value) {
+                if (element == null) {
+                    hasNull = true;
+                    break;
+                }
+            }
+        }
+        int start = arrayHeader(buffer, length, hasNull, elementOid);
+        for (int i = 0; i < length; i++) {
+            Object element = Array.get(value, i);
+            if (element == null) {
+                buffer.putNull();
+            } else {
+                elementEncoder.encode(buffer, element);
+            }
+        }
+        buffer.endField(start);
+    }
+
+    private static void intArray(BinaryCopyBuffer buffer, int[] value) {
+        int start = arrayHeader(buffer, value.length, false, INT4_OID);
+        for (int element : value) {
+            buffer.putIntField(element);
+        }
+        buffer.endField(start);
+    }
+
+    private static void longArray(BinaryCopyBuffer buffer, long[] value) {
+        int start = arrayHeader(buffer, value.length, false, INT8_OID);
+        for (long element : value) {
+            buffer.putLongField(element);
+        }
+        buffer.endField(start);
+    }
+
+    private static void doubleArray(BinaryCopyBuffer buffer, double[] value) {
+        int start = arrayHeader(buffer, value.length, false, FLOAT8_OID);
+        for (double element : value) {
+            buffer.putDoubleField(element);
+        }
+        buffer.endField(start);
+    }
+
+    /**
+     * An empty array has no dimensions.
+     *
+     * @return the start of the field.
+     */
+    private static int arrayHeader(BinaryCopyBuffer buffer, int length, boolean hasNull, int elementOid) {
+        int start = buffer.startField();
+        buffer.putInt(length == 0 ? 0 : 1);
+        buffer.putInt(hasNull ? 1 : 0);
+        buffer.putInt(elementOid);
+        if (length > 0) {
+            buffer.putInt(length);
+            //lower bound
+            buffer.putInt(1);
+        }
+        return start;
+    }
+
+    private static ColumnEncoder single(ValueEncoder valueEncoder) {
+        return columns(1, valueEncoder);
+    }
+
+    private static ColumnEncoder columns(int fields, ValueEncoder valueEncoder) {
+        return new ColumnEncoder() {
+            @Override
+            public int fields() {
+                return fields;
+            }
+
+            @Override
+            public void encode(BinaryCopyBuffer buffer, Object value) {
+                valueEncoder.encode(buffer, value);
+            }
+        };
+    }
+
+    private interface ColumnEncoder {
+        /**
+         * @return the number of columns of the property.
+         */
+        int fields();
+
+        /**
+         * Writes the fields of a non null value.
+         */
+        void encode(BinaryCopyBuffer buffer, Object value);
+    }
+
+    @FunctionalInterface
+    private interface ValueEncoder {
+        void encode(BinaryCopyBuffer buffer, Object value);
+    }
+}
@@ -206,23 +206,58 @@ public class PostgresDialect extends BaseSqlDialect {
 
         Connection con = sqlgGraph.tx().getConnection();
         Map<SchemaTable, Pair<Long, Long>> verticesRanges = new LinkedHashMap<>();
+        BinaryCopyBuffer binaryCopyBuffer = new BinaryCopyBuffer();
         for (SchemaTable schemaTable : vertexCache.keySet()) {
             Pair<SortedSet<String>, Map<SqlgVertex, Map<String, Object>>> vertices = vertexCache.get(schemaTable);
             Map<String, PropertyType> propertyTypeMap = sqlgGraph.getTopology().getTableFor(schemaTable.withPrefix(VERTEX_PREFIX));
-            String sql = internalConstructCompleteCopyCommandSqlVertex(sqlgGraph, false, schemaTable.getSchema(), schemaTable.getTable(), vertices.getLeft());
             int numberInserted = 0;
-            try (Writer writer = streamSql(sqlgGraph, sql)) {
-                for (Map<String, Object> keyValueMap : vertices.getRight().values()) {
-                    //The map must contain all the keys, so make a copy with it all.
-                    LinkedHashMap<String, Object> values = new LinkedHashMap<>();
-                    for (String key : vertices.getLeft()) {
-                        values.put(key, keyValueMap.get(key));
+            BinaryCopyCodec binaryCopyCodec;
+            if (vertices.getLeft().isEmpty()) {
+                ensureCopyDummyExist(sqlgGraph, schemaTable.getSchema(), schemaTable.getTable());
+                binaryCopyCodec = BinaryCopyCodec.of(Collections.singletonMap(COPY_DUMMY, PropertyType.INTEGER), Collections.singletonList(COPY_DUMMY));
+            } else {
+                binaryCopyCodec = BinaryCopyCodec.of(propertyTypeMap, vertices.getLeft());
+            }
+            if (binaryCopyCodec != null) {
+                String sql = binaryCopyCommandSql(schemaTable.withPrefix(VERTEX_PREFIX), binaryCopyCodec.getColumns());
+                try {
+                    PGCopyOutputStream copyOutputStream = new PGCopyOutputStream(con.unwrap(PGConnection.class), sql);
+                    try {
+                        BatchRows batchRows = BatchRows.of(vertices.getRight());
+                        BatchRows.Column[] columns = binaryCopyCodec.batchColumns(batchRows);
+                        binaryCopyBuffer.begin(copyOutputStream);
+                        for (int row = 0; row < batchRows.rowCount(); row++) {
+                            if (batchRows.element(row) == null) {
+                                continue;
+                            }
+                            binaryCopyBuffer.startRow(binaryCopyCodec.getFieldCount());
+                            binaryCopyCodec.writeFields(binaryCopyBuffer, columns, row);
+                            binaryCopyBuffer.endRow();
+                            numberInserted++;
+                        }
+                        binaryCopyBuffer.end();
+                    } catch (IOException | RuntimeException e) {
+                        cancelCopy(copyOutputStream, e);
+                        throw e;
                     }
-                    writeStreamingVertex(writer, values);
-                    numberInserted++;
+                } catch (SQLException | IOException e) {
+                    throw new RuntimeException(e);
+                }
+            } else {
+                String sql = internalConstructCompleteCopyCommandSqlVertex(sqlgGraph, false, schemaTable.getSchema(), schemaTable.getTable(), vertices.getLeft());
+                try (Writer writer = streamSql(sqlgGraph, sql)) {
+                    for (Map<String, Object> keyValueMap : vertices.getRight().values()) {
+                        //The map must contain all the keys, so make a copy with it all.
+                        LinkedHashMap<String, Object> values = new LinkedHashMap<>();
+                        for (String key : vertices.getLeft()) {
+                            values.put(key, keyValueMap.get(key));
+                        }
+                        writeStreamingVertex(writer, values);
+                        numberInserted++;
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
                 }
-            } catch (IOException e) {
-                throw new RuntimeException(e);
             }
             if (numberInserted > 0) {
                 long endHigh;
@@ -336,55 +371,16 @@ public class PostgresDialect extends BaseSqlDialect {
         try {
             CopyManager copyManager = (CopyManager) con.unwrap(BaseConnection.class);
 
+            BinaryCopyBuffer binaryCopyBuffer = new BinaryCopyBuffer();
             for (MetaEdge metaEdge : edgeCache.keySet()) {
                 Pair<SortedSet<String>, Map<SqlgEdge, Triple<SqlgVertex, SqlgVertex, Map<String, Object>>>> triples = edgeCache.get(metaEdge);
                 Map<String, PropertyType> propertyTypeMap = sqlgGraph.getTopology().getTableFor(metaEdge.getSchemaTable().withPrefix(EDGE_PREFIX));
-
-                StringBuilder sql = new StringBuilder();
-                sql.append("COPY ");
-                sql.append(maybeWrapInQoutes(metaEdge.getSchemaTable().getSchema()));
-                sql.append(".");
-                sql.append(maybeWrapInQoutes(EDGE_PREFIX + metaEdge.getSchemaTable().getTable()));
-                sql.append(" (");
-                for (Triple<SqlgVertex, SqlgVertex, Map<String, Object>> triple : triples.getRight().values()) {
-                    int count = 1;
-                    sql.append(maybeWrapInQoutes(triple.getLeft().getSchema() + "." + triple.getLeft().getTable() + SchemaManager.OUT_VERTEX_COLUMN_END));
-                    sql.append(", ");
-                    sql.append(maybeWrapInQoutes(triple.getMiddle().getSchema() + "." + triple.getMiddle().getTable() + SchemaManager.IN_VERTEX_COLUMN_END));
-                    for (String key : triples.getLeft()) {
-                        if (count <= triples.getLeft().size()) {
-                            sql.append(", ");
-                        }
-                        count++;
-                        appendKeyForStream(propertyTypeMap.get(key), sql, key);
-                    }
-                    break;
-                }
-                sql.append(") ");
-
-                sql.append(" FROM stdin CSV DELIMITER '");
-                sql.append(COPY_COMMAND_DELIMITER);
-                sql.append("' ");
-                sql.append("QUOTE ");
-                sql.append(COPY_COMMAND_QUOTE);
-                sql.append(" ESCAPE '");
-                sql.append(ESCAPE);
-                sql.append("';");
-                if (logger.isDebugEnabled()) {
-                    logger.debug(sql.toString());
-                }
-                long numberInserted = 0;
-                try (Writer writer = streamSql(sqlgGraph, sql.toString())) {
-                    for (Map.Entry<SqlgEdge, Triple<SqlgVertex, SqlgVertex, Map<String, Object>>> sqlgEdgeTripleEntry : triples.getRight().entrySet()) {
-                        SqlgEdge sqlgEdge = sqlgEdgeTripleEntry.getKey();
-                        Triple<SqlgVertex, SqlgVertex, Map<String, Object>> outInVertexKeyValueMap = sqlgEdgeTripleEntry.getValue();
-                        LinkedHashMap<String, Object> values = new LinkedHashMap<>();
-                        for (String key : triples.getLeft()) {
-                            values.put(key, outInVertexKeyValueMap.getRight().get(key));
-                        }
-                        writeStreamingEdge(writer, sqlgEdge, outInVertexKeyValueMap.getLeft(), outInVertexKeyValueMap.getMiddle(), values);
-                        numberInserted++;
-                    }
+                BinaryCopyCodec binaryCopyCodec = BinaryCopyCodec.of(propertyTypeMap, triples.getLeft());
+                long numberInserted;
+                if (binaryCopyCodec != null) {
+                    numberInserted = binaryCopyEdges(con, metaEdge, triples.getRight(), binaryCopyCodec, binaryCopyBuffer);
+                } else {
+                    numberInserted = textCopyEdges(sqlgGraph, metaEdge, triples, propertyTypeMap);
                 }
                 long endHigh;
                 try (PreparedStatement preparedStatement = con.prepareStatement(
@@ -407,6 +403,129 @@ public class PostgresDialect extends BaseSqlDialect {
         }
     }
 
+    private long binaryCopyEdges(Connection con, MetaEdge metaEdge, Map<SqlgEdge, Triple<SqlgVertex, SqlgVertex, Map<String, Object>>> edges, BinaryCopyCodec binaryCopyCodec, BinaryCopyBuffer binaryCopyBuffer) throws SQLException, IOException {
+        BatchRows batchRows = BatchRows.of(edges);
+        BatchRows.Column[] batchColumns = binaryCopyCodec.batchColumns(batchRows);
+        //all the edges of a MetaEdge have the same out and in vertex labels
+        int first = 0;
+        while (batchRows.element(first) == null) {
+            first++;
+        }
+        SqlgVertex firstOut = batchRows.outVertex(first);
+        SqlgVertex firstIn = batchRows.inVertex(first);
+        List<String> columns = new ArrayList<>();
+        columns.add(firstOut.getSchema() + "." + firstOut.getTable() + SchemaManager.OUT_VERTEX_COLUMN_END);
+        columns.add(firstIn.getSchema() + "." + firstIn.getTable() + SchemaManager.IN_VERTEX_COLUMN_END);
+        columns.addAll(binaryCopyCodec.getColumns());
+        String sql = binaryCopyCommandSql(metaEdge.getSchemaTable().withPrefix(EDGE_PREFIX), columns);
+        long numberInserted = 0;
+        PGCopyOutputStream copyOutputStream = new PGCopyOutputStream(con.unwrap(PGConnection.class), sql);
+        try {
+            binaryCopyBuffer.begin(copyOutputStream);
+            for (int row = first; row < batchRows.rowCount(); row++) {
+                if (batchRows.element(row) == null) {
+                    continue;
+                }
+                binaryCopyBuffer.startRow(columns.size());
+                binaryCopyBuffer.putLongField(((RecordId) batchRows.outVertex(row).id()).getId());
+                binaryCopyBuffer.putLongField(((RecordId) batchRows.inVertex(row).id()).getId());
+                binaryCopyCodec.writeFields(binaryCopyBuffer, batchColumns, row);
+                binaryCopyBuffer.endRow();
+                numberInserted++;
+            }
+            binaryCopyBuffer.end();
+        } catch (IOException | RuntimeException e) {
+            cancelCopy(copyOutputStream, e);
+            throw e;
+        }
+        return numberInserted;
+    }
+
+    /**
+     * Cancels a copy that failed while writing, else the connection stays in copy mode and can not be rolled back.
+     */
+    private static void cancelCopy(PGCopyOutputStream copyOutputStream, Exception cause) {
+        if (copyOutputStream.isActive()) {
+            try {
+                copyOutputStream.cancelCopy();
+            } catch (SQLException e) {
+                cause.addSuppressed(e);
+            }
+        }
+    }
+
+    private String binaryCopyCommandSql(SchemaTable prefixedSchemaTable, List<String> columns) {
+        StringBuilder sql = new StringBuilder();
+        sql.append("COPY ");
+        sql.append(maybeWrapInQoutes(prefixedSchemaTable.getSchema()));
+        sql.append(".");
+        sql.append(maybeWrapInQoutes(prefixedSchemaTable.getTable()));
+        sql.append(" (");
+        int count = 1;
+        for (String column : columns) {
+            sql.append(maybeWrapInQoutes(column));
+            if (count++ < columns.size()) {
+                sql.append(", ");
+            }
+        }
+        sql.append(") FROM stdin WITH (FORMAT binary);");
+        if (logger.isDebugEnabled()) {
+            logger.debug(sql.toString());
+        }
+        return sql.toString();
+    }
+
+    private long textCopyEdges(SqlgGraph sqlgGraph, MetaEdge metaEdge, Pair<SortedSet<String>, Map<SqlgEdge, Triple<SqlgVertex, SqlgVertex, Map<String, Object>>>> triples, Map<String, PropertyType> propertyTypeMap) throws IOException {
+        StringBuilder sql = new StringBuilder();
+
+        sql.append("COPY ");
+        sql.append(maybeWrapInQoutes(metaEdge.getSchemaTable().getSchema()));
+        sql.append(".");
+        sql.append(maybeWrapInQoutes(EDGE_PREFIX + metaEdge.getSchemaTable().getTable()));
+        sql.append(" (");
+        for (Triple<SqlgVertex, SqlgVertex, Map<String, Object>> triple : triples.getRight().values()) {
+            int count = 1;
+            sql.append(maybeWrapInQoutes(triple.getLeft().getSchema() + "." + triple.getLeft().getTable() + SchemaManager.OUT_VERTEX_COLUMN_END));
+            sql.append(", ");
+            sql.append(maybeWrapInQoutes(triple.getMiddle().getSchema() + "." + triple.getMiddle().getTable() + SchemaManager.IN_VERTEX_COLUMN_END));
+            for (String key : triples.getLeft()) {
+                if (count <= triples.getLeft().size()) {
+                    sql.append(", ");
+                }
+                count++;
+                appendKeyForStream(propertyTypeMap.get(key), sql, key);
+            }
+            break;
+        }
+        sql.append(") ");
+
+        sql.append(" FROM stdin CSV DELIMITER '");
+        sql.append(COPY_COMMAND_DELIMITER);
+        sql.append("' ");
+        sql.append("QUOTE ");
+        sql.append(COPY_COMMAND_QUOTE);
+        sql.append(" ESCAPE '");
+        sql.append(ESCAPE);
+        sql.append("';");
+        if (logger.isDebugEnabled()) {
+            logger.debug(sql.toString());
+        }
+        long numberInserted = 0;
+        try (Writer writer = streamSql(sqlgGraph, sql.toString())) {
+            for (Map.Entry<SqlgEdge, Triple<SqlgVertex, SqlgVertex, Map<String, Object>>> sqlgEdgeTripleEntry : triples.getRight().entrySet()) {
+                SqlgEdge sqlgEdge = sqlgEdgeTripleEntry.getKey();
+                Triple<SqlgVertex, SqlgVertex, Map<String, Object>> outInVertexKeyValueMap = sqlgEdgeTripleEntry.getValue();
+                LinkedHashMap<String, Object> values = new LinkedHashMap<>();
+                for (String key : triples.getLeft()) {
+                    values.put(key, outInVertexKeyValueMap.getRight().get(key));
+                }
+                writeStreamingEdge(writer, sqlgEdge, outInVertexKeyValueMap.getLeft(), outInVertexKeyValueMap.getMiddle(), values);
+                numberInserted++;
+            }
+        }
+        return numberInserted;
+    }
+
     //TODO this does not call ensureVertexColumnExist
 //    @Override
     public void flushEdgeCacheOld(SqlgGraph sqlgGraph, Map<MetaEdge, Pair<SortedSet<String>, Map<SqlgEdge, Triple<SqlgVertex, SqlgVertex, Map<String, Object>>>>> edgeCache) {
@@ -1310,14 +1429,7 @@ public class PostgresDialect extends BaseSqlDialect {
         sql.append(" (");
         if (keys.isEmpty()) {
             //copy command needs at least one field.
-            //check if the dummy field exist, if not createVertexLabel it
-            Map<String, PropertyType> columns = new HashMap<>();
-            columns.put(COPY_DUMMY, PropertyType.from(0));
-            sqlgGraph.getTopology().ensureVertexLabelPropertiesExist(
-                    schema,
-                    table,
-                    columns
-            );
+            ensureCopyDummyExist(sqlgGraph, schema, table);
             sql.append(maybeWrapInQoutes(COPY_DUMMY));
         } else {
             int count = 1;
@@ -1347,6 +1459,19 @@ public class PostgresDialect extends BaseSqlDialect {
         return sql.toString();
     }
 
+    /**
+     * check if the dummy field exist, if not createVertexLabel it
+     */
+    private void ensureCopyDummyExist(SqlgGraph sqlgGraph, String schema, String table) {
+        Map<String, PropertyType> columns = new HashMap<>();
+        columns.put(COPY_DUMMY, PropertyType.from(0));
+        sqlgGraph.getTopology().ensureVertexLabelPropertiesExist(
+                schema,
+                table,
+                columns
+        );
+    }
+
     @Override
     public String constructCompleteCopyCommandSqlEdge(SqlgGraph sqlgGraph, SqlgEdge sqlgEdge, SqlgVertex outVertex, SqlgVertex inVertex, Map<String, Object> keyValueMap) {
         Map<String, PropertyType> propertyTypeMap = sqlgGraph.getTopology().getTableFor(SchemaTable.of(sqlgEdge.getSchema(), EDGE_PREFIX + sqlgEdge.getTable()));
@@ -2543,6 +2668,35 @@ public class PostgresDialect extends BaseSqlDialect {
         return true;
     }
 
+    @Override
+    public boolean supportsUnionAll() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsSnapshotExport() {
+        return true;
+    }
+
+    @Override
+    public String exportSnapshot(Connection conn) throws SQLException {
+        try (Statement statement = conn.createStatement()) {
+            try (ResultSet resultSet = statement.executeQuery("SELECT pg_export_snapshot()")) {
+                resultSet.next();
+                return resultSet.getString(1);
+            }
+        }
+    }
+
+    @Override
+    public void importSnapshot(Connection conn, String snapshotId) throws SQLException {
+        //the snapshot can only be imported as the first statement of a repeatable read or serializable transaction
+        conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+        try (Statement statement = conn.createStatement()) {
+            statement.execute("SET TRANSACTION SNAPSHOT '" + snapshotId + "'");
+        }
+    }
+
     public void validateSchemaName(String schema) {
         if (schema.length() > getMinimumSchemaNameLength()) {
             throw SqlgExceptions.invalidSchemaName("Postgresql schema names can only be 63 characters. " + schema + " exceeds that");
@@ -2580,6 +2734,21 @@ public class PostgresDialect extends BaseSqlDialect {
         return Boolean.TRUE;
     }
 
+    @Override
+    public boolean supportsDistinctOn() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsWithRecursive() {
+        return true;
+    }
+
+    @Override
+    public boolean supportsWithinArrayParameter() {
+        return true;
+    }
+
     @Override
     public boolean needsTimeZone() {
         return Boolean.TRUE;
@@ -3029,6 +3198,11 @@ public class PostgresDialect extends BaseSqlDialect {
         return "ON COMMIT DROP";
     }
 
+    @Override
+    public String afterCreateReusableTemporaryTableStatement() {
+        return "ON COMMIT DELETE ROWS";
+    }
+
     @Override
     public List<String> columnsToIgnore() {
         return Arrays.asList(COPY_DUMMY);
@@ -3361,6 +3535,17 @@ public class PostgresDialect extends BaseSqlDialect {
         }
     }
 
+    @Override
+    public void notifyElementsChanged(Connection connection, String notification) {
+        try (PreparedStatement preparedStatement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+            preparedStatement.setString(1, SQLG_NOTIFICATION_CHANNEL);
+            preparedStatement.setString(2, notification);
+            preparedStatement.executeQuery().close();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     /**
      * Listens to topology changes notifications from the database and loads the changes into our own version of the schema
      */
@@ -3406,6 +3591,10 @@ public class PostgresDialect extends BaseSqlDialect {
                         for (int i = 0; i < notifications.length; i++) {
                             int pid = notifications[i].getPID();
                             String notify = notifications[i].getParameter();
+                            if (ElementCache.isNotification(notify)) {
+                                this.sqlgGraph.getElementCache().fromNotification(notify);
+                                continue;
+                            }
                             LocalDateTime timestamp = LocalDateTime.parse(notify, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
                             PostgresDialect.this.executorService.submit(() -> {
                                 try {
@@ -0,0 +1,493 @@
+package org.umlg.sqlg.sql.dialect;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.umlg.sqlg.structure.BatchRows;
+import org.umlg.sqlg.structure.PropertyType;
+import org.umlg.sqlg.structure.SqlgElement;
+import org.umlg.sqlg.structure.SqlgVertex;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.*;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Checks the bytes of the binary copy of every property type against the format of PostgreSQL's COPY BINARY and the
+ * binary send functions of the types, written out by hand. It does not need a database or the jdbc driver.
+ * <p>
+ * Date: 2026/10/19
+ * Time: 9:00 AM
+ */
+public class TestBinaryCopyCodec {
+
+    private static final int BOOL_OID = 16;
+    private static final int INT8_OID = 20;
+    private static final int INT2_OID = 21;
+    private static final int INT4_OID = 23;
+    private static final int TEXT_OID = 25;
+    private static final int FLOAT4_OID = 700;
+    private static final int FLOAT8_OID = 701;
+    private static final int DATE_OID = 1082;
+    private static final int TIMESTAMPTZ_OID = 1184;
+    //2000-01-01T00:00:01.5 in utc, microseconds since the postgres epoch
+    private static final LocalDateTime LOCAL_DATE_TIME = LocalDateTime.of(2000, 1, 1, 0, 0, 1, 500_000_000);
+    private static final long MICROS = 1_500_000L;
+
+    private TimeZone timeZone;
+
+    @Before
+    public void before() {
+        //the timestamps are written in the jvm's time zone
+        this.timeZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+    }
+
+    @After
+    public void after() {
+        TimeZone.setDefault(this.timeZone);
+    }
+
+    @Test
+    public void testHeaderAndTrailer() throws IOException {
+        BinaryCopyCodec codec = BinaryCopyCodec.of(Collections.singletonMap("i", PropertyType.INTEGER), Collections.singletonList("i"));
+        Assert.assertNotNull(codec);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream expected = new DataOutputStream(bytes);
+        expected.write(new byte[]{'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xff, '\r', '\n', 0});
+        //flags and header extension
+        expected.writeInt(0);
+        expected.writeInt(0);
+        //no rows
+        expected.writeShort(-1);
+        Assert.assertArrayEquals(bytes.toByteArray(), copy(codec, rows()));
+    }
+
+    @Test
+    public void testScalars() throws IOException {
+        assertField(PropertyType.BOOLEAN, true, out -> {
+            out.writeInt(1);
+            out.writeByte(1);
+        });
+        assertField(PropertyType.SHORT, (short) -2, out -> {
+            out.writeInt(2);
+            out.writeShort(-2);
+        });
+        assertField(PropertyType.INTEGER, Integer.MIN_VALUE, out -> {
+            out.writeInt(4);
+            out.writeInt(Integer.MIN_VALUE);
+        });
+        assertField(PropertyType.LONG, Long.MAX_VALUE, out -> {
+            out.writeInt(8);
+            out.writeLong(Long.MAX_VALUE);
+        });
+        assertField(PropertyType.FLOAT, -1.5f, out -> {
+            out.writeInt(4);
+            out.writeInt(Float.floatToIntBits(-1.5f));
+        });
+        assertField(PropertyType.DOUBLE, Math.PI, out -> {
+            out.writeInt(8);
+            out.writeLong(Double.doubleToLongBits(Math.PI));
+        });
+    }
+
+    @Test
+    public void testPrimitiveColumns() throws IOException {
+        assertPrimitive(PropertyType.BOOLEAN, false, 0L);
+        assertPrimitive(PropertyType.SHORT, (short) 7, 7L);
+        assertPrimitive(PropertyType.INTEGER, -7, -7L);
+        assertPrimitive(PropertyType.LONG, 1L << 40, 1L << 40);
+        assertPrimitive(PropertyType.FLOAT, 2.25f, Float.floatToRawIntBits(2.25f));
+        assertPrimitive(PropertyType.DOUBLE, -0.125d, Double.doubleToRawLongBits(-0.125d));
+    }
+
+    @Test
+    public void testText() throws IOException {
+        //a two, three and four byte character and an unpaired surrogate
+        String value = "aé€𝄞\ud800";
+        byte[] utf8 = "aé€𝄞?".getBytes(StandardCharsets.UTF_8);
+        Assert.assertEquals(1 + 2 + 3 + 4 + 1, utf8.length);
+        assertField(PropertyType.STRING, value, out -> {
+            out.writeInt(utf8.length);
+            out.write(utf8);
+        });
+        assertField(PropertyType.STRING, "", out -> out.writeInt(0));
+        //a row larger than the buffer
+        String large = StringUtils.repeat("€", 100_000);
+        assertField(PropertyType.STRING, large, out -> {
+            out.writeInt(300_000);
+            out.write(large.getBytes(StandardCharsets.UTF_8));
+        });
+    }
+
+    @Test
+    public void testJsonb() throws IOException {
+        Object json = new ObjectMapper().readTree("{\"a\":[1,\"€\"]}");
+        byte[] text = json.toString().getBytes(StandardCharsets.UTF_8);
+        assertField(PropertyType.JSON, json, out -> {
+            out.writeInt(text.length + 1);
+            //the jsonb version
+            out.writeByte(1);
+            out.write(text);
+        });
+    }
+
+    @Test
+    public void testDateTime() throws IOException {
+        assertField(PropertyType.LOCALDATE, LocalDate.of(1999, 12, 31), out -> {
+            out.writeInt(4);
+            out.writeInt(-1);
+        });
+        assertField(PropertyType.LOCALDATETIME, LOCAL_DATE_TIME, out -> {
+            out.writeInt(8);
+            out.writeLong(MICROS);
+        });
+        //the timestamp is the local date time, the zone is its own column
+        assertField(PropertyType.ZONEDDATETIME, ZonedDateTime.of(LOCAL_DATE_TIME, ZoneId.of("Africa/Harare")), out -> {
+            out.writeInt(8);
+            out.writeLong(MICROS);
+            out.writeInt(13);
+            out.write("Africa/Harare".getBytes(StandardCharsets.UTF_8));
+        });
+        assertField(PropertyType.PERIOD, Period.of(1, -2, 3), out -> {
+            out.writeInt(4);
+            out.writeInt(1);
+            out.writeInt(4);
+            out.writeInt(-2);
+            out.writeInt(4);
+            out.writeInt(3);
+        });
+        assertField(PropertyType.DURATION, Duration.ofSeconds(5, 123_000_000), out -> {
+            out.writeInt(8);
+            out.writeLong(5);
+            out.writeInt(4);
+            out.writeInt(123_000_000);
+        });
+    }
+
+    @Test
+    public void testBytes() throws IOException {
+        assertField(PropertyType.byte_ARRAY, new byte[]{1, -2}, out -> {
+            out.writeInt(2);
+            out.write(new byte[]{1, -2});
+        });
+        assertField(PropertyType.BYTE_ARRAY, new Byte[]{3}, out -> {
+            out.writeInt(1);
+            out.writeByte(3);
+        });
+        assertField(PropertyType.byte_ARRAY, new byte[0], out -> out.writeInt(0));
+    }
+
+    @Test
+    public void testArrays() throws IOException {
+        assertField(PropertyType.boolean_ARRAY, new boolean[]{true, false}, out -> array(out, BOOL_OID, false, 2, e -> {
+            e.writeInt(1);
+            e.writeByte(1);
+            e.writeInt(1);
+            e.writeByte(0);
+        }));
+        assertField(PropertyType.SHORT_ARRAY, new Short[]{1, null}, out -> array(out, INT2_OID, true, 2, e -> {
+            e.writeInt(2);
+            e.writeShort(1);
+            e.writeInt(-1);
+        }));
+        assertField(PropertyType.int_ARRAY, new int[]{1, 2}, out -> array(out, INT4_OID, false, 2, e -> {
+            e.writeInt(4);
+            e.writeInt(1);
+            e.writeInt(4);
+            e.writeInt(2);
+        }));
+        assertField(PropertyType.INTEGER_ARRAY, new Integer[]{3}, out -> array(out, INT4_OID, false, 1, e -> {
+            e.writeInt(4);
+            e.writeInt(3);
+        }));
+        assertField(PropertyType.long_ARRAY, new long[]{-1L}, out -> array(out, INT8_OID, false, 1, e -> {
+            e.writeInt(8);
+            e.writeLong(-1L);
+        }));
+        assertField(PropertyType.float_ARRAY, new float[]{0.5f}, out -> array(out, FLOAT4_OID, false, 1, e -> {
+            e.writeInt(4);
+            e.writeInt(Float.floatToIntBits(0.5f));
+        }));
+        assertField(PropertyType.DOUBLE_ARRAY, new Double[]{0.25d}, out -> array(out, FLOAT8_OID, false, 1, e -> {
+            e.writeInt(8);
+            e.writeLong(Double.doubleToLongBits(0.25d));
+        }));
+        assertField(PropertyType.STRING_ARRAY, new String[]{"a", ""}, out -> array(out, TEXT_OID, false, 2, e -> {
+            e.writeInt(1);
+            e.writeByte('a');
+            e.writeInt(0);
+        }));
+        assertField(PropertyType.LOCALDATE_ARRAY, new LocalDate[]{LocalDate.of(2000, 1, 3)}, out -> array(out, DATE_OID, false, 1, e -> {
+            e.writeInt(4);
+            e.writeInt(2);
+        }));
+        assertField(PropertyType.LOCALDATETIME_ARRAY, new LocalDateTime[]{LOCAL_DATE_TIME}, out -> array(out, TIMESTAMPTZ_OID, false, 1, e -> {
+            e.writeInt(8);
+            e.writeLong(MICROS);
+        }));
+        assertField(PropertyType.ZONEDDATETIME_ARRAY, new ZonedDateTime[]{ZonedDateTime.of(LOCAL_DATE_TIME, ZoneId.of("UTC"))}, out -> {
+            array(out, TIMESTAMPTZ_OID, false, 1, e -> {
+                e.writeInt(8);
+                e.writeLong(MICROS);
+            });
+            array(out, TEXT_OID, false, 1, e -> {
+                e.writeInt(3);
+                e.write("UTC".getBytes(StandardCharsets.UTF_8));
+            });
+        });
+        assertField(PropertyType.DURATION_ARRAY, new Duration[]{Duration.ofSeconds(1, 2)}, out -> {
+            array(out, INT8_OID, false, 1, e -> {
+                e.writeInt(8);
+                e.writeLong(1);
+            });
+            array(out, INT4_OID, false, 1, e -> {
+                e.writeInt(4);
+                e.writeInt(2);
+            });
+        });
+        assertField(PropertyType.PERIOD_ARRAY, new Period[]{Period.of(1, 2, 3)}, out -> {
+            for (int value = 1; value <= 3; value++) {
+                int element = value;
+                array(out, INT4_OID, false, 1, e -> {
+                    e.writeInt(4);
+                    e.writeInt(element);
+                });
+            }
+        });
+    }
+
+    @Test
+    public void testEmptyArray() throws IOException {
+        //no dimensions
+        assertField(PropertyType.STRING_ARRAY, new String[0], out -> {
+            out.writeInt(12);
+            out.writeInt(0);
+            out.writeInt(0);
+            out.writeInt(TEXT_OID);
+        });
+        assertField(PropertyType.long_ARRAY, new long[0], out -> {
+            out.writeInt(12);
+            out.writeInt(0);
+            out.writeInt(0);
+            out.writeInt(INT8_OID);
+        });
+    }
+
+    @Test
+    public void testNulls() throws IOException {
+        assertField(PropertyType.INTEGER, null, out -> out.writeInt(-1));
+        //a null is written in every column of the property
+        assertField(PropertyType.ZONEDDATETIME, null, out -> {
+            out.writeInt(-1);
+            out.writeInt(-1);
+        });
+        assertField(PropertyType.PERIOD_ARRAY, null, out -> {
+            out.writeInt(-1);
+            out.writeInt(-1);
+            out.writeInt(-1);
+        });
+    }
+
+    @Test
+    public void testRowsAndColumns() throws IOException {
+        Map<String, PropertyType> propertyTypes = new HashMap<>();
+        propertyTypes.put("name", PropertyType.STRING);
+        propertyTypes.put("age", PropertyType.INTEGER);
+        BinaryCopyCodec codec = BinaryCopyCodec.of(propertyTypes, Arrays.asList("age", "name"));
+        Assert.assertNotNull(codec);
+        Assert.assertEquals(Arrays.asList("age", "name"), codec.getColumns());
+        Map<String, Object> first = new HashMap<>();
+        first.put("name", "a");
+        first.put("age", 1);
+        Map<String, Object> second = Collections.singletonMap("name", "b");
+        byte[] actual = copy(codec, rows(first, second));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream expected = new DataOutputStream(bytes);
+        header(expected);
+        expected.writeShort(2);
+        expected.writeInt(4);
+        expected.writeInt(1);
+        expected.writeInt(1);
+        expected.writeByte('a');
+        expected.writeShort(2);
+        expected.writeInt(-1);
+        expected.writeInt(1);
+        expected.writeByte('b');
+        expected.writeShort(-1);
+        Assert.assertArrayEquals(bytes.toByteArray(), actual);
+    }
+
+    @Test
+    public void testTextOnlyTypes() {
+        for (PropertyType propertyType : Arrays.asList(PropertyType.LOCALTIME, PropertyType.LOCALTIME_ARRAY, PropertyType.POINT,
+                PropertyType.LINESTRING, PropertyType.POLYGON, PropertyType.GEOGRAPHY_POINT, PropertyType.GEOGRAPHY_POLYGON, PropertyType.JSON_ARRAY)) {
+            Assert.assertNull(propertyType.name(), BinaryCopyCodec.of(Collections.singletonMap("p", propertyType), Collections.singletonList("p")));
+        }
+    }
+
+    private void assertField(PropertyType propertyType, Object value, Fields fields) throws IOException {
+        BinaryCopyCodec codec = BinaryCopyCodec.of(Collections.singletonMap("p", propertyType), Collections.singletonList("p"));
+        Assert.assertNotNull(propertyType.name(), codec);
+        Map<String, Object> row = new HashMap<>();
+        if (value != null) {
+            row.put("p", value);
+        }
+        Assert.assertArrayEquals(propertyType.name(), expectedRow(codec.getFieldCount(), fields), copy(codec, rows(row)));
+    }
+
+    /**
+     * The unboxed value of a primitive column is written as its boxed value.
+     */
+    private void assertPrimitive(PropertyType propertyType, Object value, long bits) throws IOException {
+        BinaryCopyCodec codec = BinaryCopyCodec.of(Collections.singletonMap("p", propertyType), Collections.singletonList("p"));
+        Assert.assertNotNull(propertyType.name(), codec);
+        BatchRows.Column column = new BatchRows.Column() {
+            @Override
+            public PropertyType primitiveType() {
+                return propertyType;
+            }
+
+            @Override
+            public boolean isPresent(int row) {
+                return true;
+            }
+
+            @Override
+            public long getBits(int row) {
+                return bits;
+            }
+
+            @Override
+            public Object get(int row) {
+                throw new IllegalStateException("a primitive column is not boxed");
+            }
+        };
+        byte[] unboxed = copy(codec, new TestRows(1, key -> column));
+        Assert.assertArrayEquals(propertyType.name(), copy(codec, rows(Collections.singletonMap("p", value))), unboxed);
+    }
+
+    private static byte[] expectedRow(int fieldCount, Fields fields) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream expected = new DataOutputStream(bytes);
+        header(expected);
+        expected.writeShort(fieldCount);
+        fields.write(expected);
+        expected.writeShort(-1);
+        return bytes.toByteArray();
+    }
+
+    private static void header(DataOutputStream out) throws IOException {
+        out.write(new byte[]{'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xff, '\r', '\n', 0});
+        out.writeInt(0);
+        out.writeInt(0);
+    }
+
+    /**
+     * A one dimensional array, the length of the field is taken from the elements.
+     */
+    private static void array(DataOutputStream out, int elementOid, boolean hasNull, int length, Elements elements) throws IOException {
+        ByteArrayOutputStream elementBytes = new ByteArrayOutputStream();
+        elements.write(new DataOutputStream(elementBytes));
+        out.writeInt(20 + elementBytes.size());
+        out.writeInt(1);
+        out.writeInt(hasNull ? 1 : 0);
+        out.writeInt(elementOid);
+        out.writeInt(length);
+        out.writeInt(1);
+        out.write(elementBytes.toByteArray());
+    }
+
+    private static byte[] copy(BinaryCopyCodec codec, BatchRows batchRows) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinaryCopyBuffer buffer = new BinaryCopyBuffer();
+        buffer.begin(bytes);
+        BatchRows.Column[] columns = codec.batchColumns(batchRows);
+        for (int row = 0; row < batchRows.rowCount(); row++) {
+            buffer.startRow(codec.getFieldCount());
+            codec.writeFields(buffer, columns, row);
+            buffer.endRow();
+        }
+        buffer.end();
+        return bytes.toByteArray();
+    }
+
+    @SafeVarargs
+    private static BatchRows rows(Map<String, Object>... rows) {
+        return new TestRows(rows.length, key -> new BatchRows.Column() {
+            @Override
+            public PropertyType primitiveType() {
+                return null;
+            }
+
+            @Override
+            public boolean isPresent(int row) {
+                return get(row) != null;
+            }
+
+            @Override
+            public long getBits(int row) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Object get(int row) {
+                return rows[row].get(key);
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface Fields {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Elements {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static final class TestRows implements BatchRows {
+
+        private final int rowCount;
+        private final Function<String, Column> columns;
+
+        private TestRows(int rowCount, Function<String, Column> columns) {
+            this.rowCount = rowCount;
+            this.columns = columns;
+        }
+
+        @Override
+        public int rowCount() {
+            return this.rowCount;
+        }
+
+        @Override
+        public SqlgElement element(int row) {
+            return null;
+        }
+
+        @Override
+        public SqlgVertex outVertex(int row) {
+            return null;
+        }
+
+        @Override
+        public SqlgVertex inVertex(int row) {
+            return null;
+        }
+
+        @Override
+        public Column column(String key) {
+            return this.columns.apply(key);
+        }
+    }
+}
@@ -21,6 +21,7 @@ import org.umlg.sqlg.test.labels.TestMultipleLabels;
 import org.umlg.sqlg.test.localdate.LocalDateTest;
 import org.umlg.sqlg.test.memory.TestMemoryUsage;
 import org.umlg.sqlg.test.mod.*;
+import org.umlg.sqlg.test.preparedStatement.TestPreparedStatementPool;
 import org.umlg.sqlg.test.properties.TestEscapedValues;
 import org.umlg.sqlg.test.remove.TestRemoveEdge;
 import org.umlg.sqlg.test.rollback.TestRollback;
@@ -33,6 +34,7 @@ import org.umlg.sqlg.test.travers.TestTraversals;
 import org.umlg.sqlg.test.tree.TestColumnNamePropertyNameMapScope;
 import org.umlg.sqlg.test.vertex.*;
 import org.umlg.sqlg.test.vertexout.TestVertexOutWithHas;
+import org.umlg.sqlg.test.vertexstep.TestBatchedVertexStep;
 import org.umlg.sqlg.test.vertexstep.localvertexstep.*;
 
 /**
@@ -167,7 +169,31 @@ import org.umlg.sqlg.test.vertexstep.localvertexstep.*;
         TestSqlgSchema.class,
         TestValidateTopology.class,
         TestBatchNormalUpdateDateTimeArrays.class,
-        TestTopologyChangeListener.class
+        TestTopologyChangeListener.class,
+        TestBatchedVertexStep.class,
+        TestSqlPlanCache.class,
+        TestPreparedStatementPool.class,
+        TestFetchSize.class,
+        TestResultPrefetch.class,
+        TestParallelQueries.class,
+        TestUnionQueries.class,
+        TestProjectionPushdown.class,
+        TestAggregatePushdown.class,
+        TestDedupPushdown.class,
+        TestRepeatStepUntil.class,
+        TestShortestPath.class,
+        TestWithinStrategy.class,
+        TestElementScan.class,
+        TestQueryCancel.class,
+        TestVertexLoadBatch.class,
+        TestElementCache.class,
+        TestVertexIdentityMap.class,
+        TestElementProperties.class,
+        TestTraverserRequirements.class,
+        TestBatchNormalLargeFlush.class,
+        TestBatchNormalColumns.class,
+        TestBatchNormalAutoFlush.class,
+        TestBatchNormalRoundTrip.class
 })
 public class AllTest {
 }
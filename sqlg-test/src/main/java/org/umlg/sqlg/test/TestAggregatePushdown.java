@@ -0,0 +1,101 @@
+package org.umlg.sqlg.test;
+
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Date: 2026/10/17
+ * Time: 11:50 PM
+ */
+public class TestAggregatePushdown extends BaseTest {
+
+    @Test
+    public void testCountSumMinMaxMean() {
+        for (int i = 0; i < 10; i++) {
+            Vertex a = this.sqlgGraph.addVertex(T.label, "A", "age", i, "weight", i / 2D);
+            a.addEdge("ab", this.sqlgGraph.addVertex(T.label, "B", "age", i));
+            a.addEdge("ab", this.sqlgGraph.addVertex(T.label, "B", "age", i));
+        }
+        this.sqlgGraph.addVertex(T.label, "C");
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(31L, (long) this.sqlgGraph.traversal().V().count().next());
+        Assert.assertEquals(20L, (long) this.sqlgGraph.traversal().V().hasLabel("A").out("ab").count().next());
+        Assert.assertEquals(45L, this.sqlgGraph.traversal().V().hasLabel("A").values("age").sum().next());
+        Assert.assertEquals(22.5D, this.sqlgGraph.traversal().V().hasLabel("A").values("weight").sum().next());
+        Assert.assertEquals(90L, this.sqlgGraph.traversal().V().hasLabel("A").out("ab").values("age").sum().next());
+        Assert.assertEquals(0, this.sqlgGraph.traversal().V().values("age").min().next());
+        Assert.assertEquals(9, this.sqlgGraph.traversal().V().values("age").max().next());
+        Assert.assertEquals(4.5D, this.sqlgGraph.traversal().V().values("age").mean().next());
+        Assert.assertEquals(0, this.sqlgGraph.traversal().V().hasLabel("C").values("age").sum().next());
+        Assert.assertEquals(0L, (long) this.sqlgGraph.traversal().V().hasLabel("A").has("age", 100).count().next());
+    }
+
+    @Test
+    public void testGroupCount() {
+        for (int i = 0; i < 6; i++) {
+            Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a" + (i % 3));
+            a.addEdge("ab", this.sqlgGraph.addVertex(T.label, "B", "name", "b"));
+            a.addEdge("aa", this.sqlgGraph.addVertex(T.label, "A", "name", "a0"));
+        }
+        this.sqlgGraph.addVertex(T.label, "C");
+        this.sqlgGraph.tx().commit();
+        Map<Object, Long> byName = this.sqlgGraph.traversal().V().values("name").groupCount().next();
+        Assert.assertEquals(4, byName.size());
+        Assert.assertEquals(8L, (long) byName.get("a0"));
+        Assert.assertEquals(2L, (long) byName.get("a1"));
+        Assert.assertEquals(6L, (long) byName.get("b"));
+        Map<Object, Long> byLabel = this.sqlgGraph.traversal().V().groupCount().by(T.label).next();
+        Assert.assertEquals(12L, (long) byLabel.get("A"));
+        Assert.assertEquals(6L, (long) byLabel.get("B"));
+        Assert.assertEquals(1L, (long) byLabel.get("C"));
+        Map<Object, Long> outByName = this.sqlgGraph.traversal().V().hasLabel("A").out().groupCount().by("name").next();
+        Assert.assertEquals(6L, (long) outByName.get("a0"));
+        Assert.assertEquals(6L, (long) outByName.get("b"));
+        try {
+            this.sqlgGraph.traversal().V().groupCount().by("name").next();
+            Assert.fail("C has no name");
+        } catch (IllegalStateException e) {
+            //expected
+        }
+    }
+
+    @Test
+    public void testNotPushedDown() {
+        for (int i = 0; i < 5; i++) {
+            this.sqlgGraph.addVertex(T.label, "A", "age", i);
+        }
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(3L, (long) this.sqlgGraph.traversal().V().hasLabel("A").limit(3).count().next());
+        Assert.assertEquals(3L, (long) this.sqlgGraph.traversal().V().hasLabel("A").order().by("age").limit(3).count().next());
+        Assert.assertEquals(10L, this.sqlgGraph.traversal().V().hasLabel("A").local(__.values("age")).sum().next());
+    }
+
+    @Test
+    public void testResultTypesAsInTinkerPop() {
+        for (int i = 0; i < 5; i++) {
+            this.sqlgGraph.addVertex(T.label, "A", "s", (short) i, "i", i, "l", (long) i, "f", i + 0.1F, "d", i + 0.1D);
+        }
+        this.sqlgGraph.tx().commit();
+        for (String key : Arrays.asList("s", "i", "l", "f", "d")) {
+            assertSameNumber(this.sqlgGraph.traversal().V().hasLabel("A").local(__.values(key)).sum().next(),
+                    this.sqlgGraph.traversal().V().hasLabel("A").values(key).sum().next());
+            assertSameNumber(this.sqlgGraph.traversal().V().hasLabel("A").local(__.values(key)).min().next(),
+                    this.sqlgGraph.traversal().V().hasLabel("A").values(key).min().next());
+            assertSameNumber(this.sqlgGraph.traversal().V().hasLabel("A").local(__.values(key)).max().next(),
+                    this.sqlgGraph.traversal().V().hasLabel("A").values(key).max().next());
+            assertSameNumber(this.sqlgGraph.traversal().V().hasLabel("A").local(__.values(key)).mean().next(),
+                    this.sqlgGraph.traversal().V().hasLabel("A").values(key).mean().next());
+        }
+    }
+
+    private static void assertSameNumber(Number expected, Number actual) {
+        Assert.assertEquals(expected, actual);
+        Assert.assertEquals(expected.getClass(), actual.getClass());
+    }
+}
@@ -0,0 +1,52 @@
+package org.umlg.sqlg.test;
+
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+/**
+ * Date: 2026/10/17
+ * Time: 12:40 PM
+ */
+public class TestDedupPushdown extends BaseTest {
+
+    @Test
+    public void testDedupFriendOfFriend() {
+        List<Vertex> persons = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            persons.add(this.sqlgGraph.addVertex(T.label, "Person", "name", "p" + (i % 4)));
+        }
+        for (int i = 0; i < 10; i++) {
+            for (int j = 1; j < 4; j++) {
+                persons.get(i).addEdge("knows", persons.get((i + j) % 10));
+            }
+        }
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(90, this.sqlgGraph.traversal().V().hasLabel("Person").out("knows").out("knows").toList().size());
+        List<Vertex> friendsOfFriends = this.sqlgGraph.traversal().V().hasLabel("Person").out("knows").out("knows").dedup().toList();
+        Assert.assertEquals(10, friendsOfFriends.size());
+        Assert.assertEquals(10, new HashSet<>(friendsOfFriends).size());
+        Assert.assertEquals(10L, (long) this.sqlgGraph.traversal().V().hasLabel("Person").both().both().dedup().count().next());
+        List<String> names = this.sqlgGraph.traversal().V().hasLabel("Person").out("knows").out("knows").dedup().by("name").<String>values("name").toList();
+        Assert.assertEquals(new HashSet<>(Arrays.asList("p0", "p1", "p2", "p3")), new HashSet<>(names));
+        Assert.assertEquals(4, names.size());
+    }
+
+    @Test
+    public void testDedupAcrossQueries() {
+        Vertex a = this.sqlgGraph.addVertex(T.label, "A");
+        Vertex b = this.sqlgGraph.addVertex(T.label, "B");
+        Vertex c = this.sqlgGraph.addVertex(T.label, "C");
+        a.addEdge("ac", c);
+        a.addEdge("ac", c);
+        b.addEdge("bc", c);
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(Collections.singletonList(c), this.sqlgGraph.traversal().V().out().dedup().toList());
+        Assert.assertEquals(1, this.sqlgGraph.traversal().V().as("x").out().dedup().select("x").toList().size());
+        Assert.assertEquals(2, this.sqlgGraph.traversal().V().as("x").out().as("y").dedup("x", "y").toList().size());
+        Assert.assertEquals(1, this.sqlgGraph.traversal().V().hasLabel("A").out().limit(2).dedup().toList().size());
+    }
+}
@@ -0,0 +1,96 @@
+package org.umlg.sqlg.test;
+
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.umlg.sqlg.structure.ElementCache;
+
+import java.beans.PropertyVetoException;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Date: 2026/10/17
+ * Time: 11:20 PM
+ */
+public class TestElementCache extends BaseTest {
+
+    @BeforeClass
+    public static void beforeClass() throws ClassNotFoundException, IOException, PropertyVetoException {
+        BaseTest.beforeClass();
+        configuration.addProperty(ElementCache.ELEMENT_CACHE_SIZE, 5);
+    }
+
+    @Test
+    public void testLoadHitsCache() {
+        createGraph(1);
+        ElementCache elementCache = this.sqlgGraph.getElementCache();
+        Assert.assertTrue(elementCache.isEnabled());
+        Assert.assertEquals("b0", inVertexName(0));
+        long misses = elementCache.stats().missCount();
+        Assert.assertEquals(1, elementCache.size());
+        Assert.assertEquals("b0", inVertexName(0));
+        Assert.assertEquals(misses, elementCache.stats().missCount());
+        Assert.assertEquals(1, elementCache.stats().hitCount());
+    }
+
+    @Test
+    public void testCommitInvalidates() {
+        Vertex b = createGraph(1).get(0);
+        Assert.assertEquals("b0", inVertexName(0));
+        Assert.assertEquals(1, this.sqlgGraph.getElementCache().size());
+        b = this.sqlgGraph.traversal().V(b.id()).next();
+        b.property("name", "bb");
+        //the transaction's own change is not read from the cache
+        Assert.assertEquals("bb", this.sqlgGraph.traversal().E().hasLabel("ab").next().inVertex().value("name"));
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(0, this.sqlgGraph.getElementCache().size());
+        Assert.assertEquals("bb", inVertexName(0));
+        this.sqlgGraph.traversal().V(b.id()).next().remove();
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(0, this.sqlgGraph.getElementCache().size());
+        Assert.assertTrue(this.sqlgGraph.traversal().E().toList().isEmpty());
+    }
+
+    @Test
+    public void testWrittenTransactionDoesNotFillCache() {
+        createGraph(1);
+        this.sqlgGraph.addVertex(T.label, "C");
+        Assert.assertEquals("b0", this.sqlgGraph.traversal().E().hasLabel("ab").next().inVertex().value("name"));
+        Assert.assertEquals(0, this.sqlgGraph.getElementCache().size());
+        this.sqlgGraph.tx().rollback();
+    }
+
+    @Test
+    public void testEviction() {
+        createGraph(10);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals("b" + i, inVertexName(i));
+        }
+        Assert.assertEquals(5, this.sqlgGraph.getElementCache().size());
+        Assert.assertTrue(this.sqlgGraph.getElementCache().stats().evictionCount() > 0);
+        this.sqlgGraph.getElementCache().clear();
+        Assert.assertEquals(0, this.sqlgGraph.getElementCache().size());
+    }
+
+    private String inVertexName(int i) {
+        Edge edge = this.sqlgGraph.traversal().E().hasLabel("ab").has("index", i).next();
+        String name = edge.inVertex().value("name");
+        this.sqlgGraph.tx().rollback();
+        return name;
+    }
+
+    private List<Vertex> createGraph(int count) {
+        for (int i = 0; i < count; i++) {
+            Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i);
+            Vertex b = this.sqlgGraph.addVertex(T.label, "B", "name", "b" + i);
+            a.addEdge("ab", b, "index", i);
+        }
+        this.sqlgGraph.tx().commit();
+        this.sqlgGraph.getElementCache().clear();
+        return this.sqlgGraph.traversal().V().hasLabel("B").toList();
+    }
+}
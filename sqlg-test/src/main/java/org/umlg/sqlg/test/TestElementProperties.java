@@ -0,0 +1,84 @@
+package org.umlg.sqlg.test;
+
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+
+/**
+ * Date: 2026/10/18
+ * Time: 12:10 PM
+ */
+public class TestElementProperties extends BaseTest {
+
+    @Test
+    public void testPrimitivesOfCommittedLabel() {
+        Vertex v = this.sqlgGraph.addVertex(T.label, "A", "aBoolean", true, "aShort", (short) 1, "anInt", 2,
+                "aLong", 3L, "aDouble", 4.5D, "aString", "a");
+        if (this.sqlgGraph.getSqlDialect().supportsFloatValues()) {
+            v.property("aFloat", 5.5F);
+        }
+        this.sqlgGraph.tx().commit();
+        v = this.sqlgGraph.traversal().V(v.id()).next();
+        Assert.assertEquals(true, v.value("aBoolean"));
+        Assert.assertEquals((short) 1, (short) v.value("aShort"));
+        Assert.assertEquals(2, (int) v.value("anInt"));
+        Assert.assertEquals(3L, (long) v.value("aLong"));
+        Assert.assertEquals(4.5D, v.value("aDouble"), 0);
+        Assert.assertEquals("a", v.value("aString"));
+        if (this.sqlgGraph.getSqlDialect().supportsFloatValues()) {
+            Assert.assertEquals(5.5F, v.value("aFloat"), 0);
+        }
+        Assert.assertFalse(v.property("other").isPresent());
+        v.property("anInt", 22);
+        v.property("aString").remove();
+        Assert.assertEquals(22, (int) v.value("anInt"));
+        Assert.assertFalse(v.property("aString").isPresent());
+        this.sqlgGraph.tx().commit();
+        v = this.sqlgGraph.traversal().V(v.id()).next();
+        Assert.assertEquals(22, (int) v.value("anInt"));
+        Assert.assertFalse(v.property("aString").isPresent());
+    }
+
+    @Test
+    public void testPropertyAddedToCommittedLabel() {
+        Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a");
+        Vertex b = this.sqlgGraph.addVertex(T.label, "B", "name", "b");
+        Edge e = a.addEdge("ab", b, "weight", 1);
+        this.sqlgGraph.tx().commit();
+        a = this.sqlgGraph.traversal().V(a.id()).next();
+        Assert.assertEquals("a", a.value("name"));
+        //the new properties are not in the layout until committed
+        a.property("age", 10L);
+        e = this.sqlgGraph.traversal().E(e.id()).next();
+        e.property("weight", 2);
+        e.property("label", "x");
+        Assert.assertEquals(10L, (long) a.value("age"));
+        Assert.assertEquals(2, (int) e.value("weight"));
+        Assert.assertEquals("x", e.value("label"));
+        Assert.assertEquals(new HashSet<>(Arrays.asList("name", "age")), a.keys());
+        this.sqlgGraph.tx().commit();
+        a = this.sqlgGraph.traversal().V(a.id()).next();
+        e = this.sqlgGraph.traversal().E(e.id()).next();
+        Assert.assertEquals(10L, (long) a.value("age"));
+        Assert.assertEquals("a", a.value("name"));
+        Assert.assertEquals(2, (int) e.value("weight"));
+        Assert.assertEquals("x", e.value("label"));
+        Map<String, Object> values = this.sqlgGraph.traversal().V(a.id()).valueMap().next();
+        Assert.assertEquals(2, values.size());
+    }
+
+    @Test
+    public void testNewLabelInTransaction() {
+        Vertex v = this.sqlgGraph.addVertex(T.label, "C", "name", "c", "count", 1);
+        Assert.assertEquals(1, (int) v.value("count"));
+        Assert.assertEquals(1, (int) this.sqlgGraph.traversal().V().hasLabel("C").next().value("count"));
+        this.sqlgGraph.tx().rollback();
+        Assert.assertFalse(this.sqlgGraph.traversal().V().hasLabel("C").hasNext());
+    }
+}
@@ -0,0 +1,84 @@
+package org.umlg.sqlg.test;
+
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.util.iterator.IteratorUtils;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.umlg.sqlg.structure.RecordId;
+import org.umlg.sqlg.structure.SqlgGraph;
+
+import java.beans.PropertyVetoException;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Date: 2026/10/17
+ * Time: 9:10 PM
+ */
+public class TestElementScan extends BaseTest {
+
+    @BeforeClass
+    public static void beforeClass() throws ClassNotFoundException, IOException, PropertyVetoException {
+        BaseTest.beforeClass();
+        configuration.addProperty(SqlgGraph.SCAN_CHUNK_SIZE, 3);
+    }
+
+    @Test
+    public void testScanAll() {
+        Set<Vertex> vertices = createVertices();
+        Assert.assertEquals(vertices, new HashSet<>(IteratorUtils.list(this.sqlgGraph.vertices())));
+        Assert.assertEquals(vertices.size(), IteratorUtils.count(this.sqlgGraph.vertices()));
+        Assert.assertEquals(vertices, new HashSet<>(this.sqlgGraph.traversal().V().toList()));
+        Assert.assertEquals(5, IteratorUtils.count(this.sqlgGraph.edges()));
+        //the tables are scanned in order
+        Assert.assertEquals("d0", this.sqlgGraph.vertices().next().value("name"));
+    }
+
+    @Test
+    public void testResumeScan() {
+        Set<Vertex> vertices = createVertices();
+        List<Vertex> scanned = new ArrayList<>();
+        Iterator<Vertex> scan = this.sqlgGraph.scanVertices(null, 4);
+        for (int i = 0; i < 7; i++) {
+            scanned.add(scan.next());
+        }
+        //commit between the chunks, as a batch job would
+        this.sqlgGraph.tx().commit();
+        scan = this.sqlgGraph.scanVertices((RecordId) scanned.get(scanned.size() - 1).id(), 4);
+        scan.forEachRemaining(scanned::add);
+        Assert.assertEquals(vertices.size(), scanned.size());
+        Assert.assertEquals(vertices, new HashSet<>(scanned));
+        Assert.assertFalse(this.sqlgGraph.scanVertices((RecordId) scanned.get(scanned.size() - 1).id(), 4).hasNext());
+    }
+
+    @Test
+    public void testScanLabel() {
+        createVertices();
+        List<Vertex> dogs = IteratorUtils.list(this.sqlgGraph.scanVertices("Dog", null, 2));
+        Assert.assertEquals(5, dogs.size());
+        Assert.assertTrue(dogs.stream().allMatch(v -> v.label().equals("Dog")));
+        List<Vertex> remaining = IteratorUtils.list(this.sqlgGraph.scanVertices("Dog", (RecordId) dogs.get(1).id(), 2));
+        Assert.assertEquals(dogs.subList(2, 5), remaining);
+        List<Edge> edges = IteratorUtils.list(this.sqlgGraph.scanEdges("owns", null, 2));
+        Assert.assertEquals(5, edges.size());
+        Assert.assertFalse(this.sqlgGraph.scanEdges("knows", null, 2).hasNext());
+    }
+
+    private Set<Vertex> createVertices() {
+        Set<Vertex> result = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            Vertex person = this.sqlgGraph.addVertex(T.label, "Person", "name", "p" + i);
+            result.add(person);
+            if (i % 2 == 0) {
+                Vertex dog = this.sqlgGraph.addVertex(T.label, "Dog", "name", "d" + i);
+                person.addEdge("owns", dog);
+                result.add(dog);
+            }
+        }
+        this.sqlgGraph.tx().commit();
+        return result;
+    }
+}
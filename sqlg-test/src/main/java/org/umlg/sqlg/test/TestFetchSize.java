@@ -0,0 +1,31 @@
+package org.umlg.sqlg.test;
+
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Date: 2026/10/17
+ * Time: 7:20 PM
+ */
+public class TestFetchSize extends BaseTest {
+
+    @Test
+    public void testFetchSizeSmallerThanResult() {
+        for (int i = 0; i < 100; i++) {
+            Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i);
+            Vertex b = this.sqlgGraph.addVertex(T.label, "B", "name", "b" + i);
+            a.addEdge("ab", b);
+        }
+        this.sqlgGraph.tx().commit();
+        this.sqlgGraph.tx().setFetchSize(7);
+        Assert.assertEquals(7, this.sqlgGraph.tx().getFetchSize());
+        List<Vertex> vertices = this.sqlgGraph.traversal().V().hasLabel("A").out("ab").toList();
+        Assert.assertEquals(100, vertices.size());
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(this.sqlgGraph.configuration().getInt("query.fetchSize", 0), this.sqlgGraph.tx().getFetchSize());
+    }
+}
@@ -1,11 +1,16 @@
 package org.umlg.sqlg.test;
 
+import org.apache.tinkerpop.gremlin.process.traversal.Path;
 import org.apache.tinkerpop.gremlin.structure.T;
 import org.apache.tinkerpop.gremlin.structure.Edge;
 import org.apache.tinkerpop.gremlin.structure.Vertex;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Date: 2014/07/13
  * Time: 5:23 PM
@@ -29,4 +34,33 @@ public class TestLoadElementProperties extends BaseTest {
         Assert.assertEquals(1, this.sqlgGraph.traversal().E(friend.id()).next().property("weight").value());
     }
 
+    @Test
+    public void testLoadWideLabelsOverMultipleHops() {
+        Map<String, Object> aProperties = new HashMap<>();
+        Map<String, Object> bProperties = new HashMap<>();
+        for (int i = 0; i < 40; i++) {
+            aProperties.put("a" + i, i);
+            bProperties.put("b" + i, "b" + i);
+        }
+        Vertex a = this.sqlgGraph.addVertex("A", aProperties);
+        Vertex b1 = this.sqlgGraph.addVertex("B", bProperties);
+        Vertex b2 = this.sqlgGraph.addVertex("B", bProperties);
+        a.addEdge("ab", b1, "weight", 1);
+        a.addEdge("ab", b2, "weight", 2);
+        this.sqlgGraph.tx().commit();
+        List<Path> paths = this.sqlgGraph.traversal().V().hasLabel("A").outE("ab").inV().path().toList();
+        Assert.assertEquals(2, paths.size());
+        for (Path path : paths) {
+            Vertex pathA = path.get(0);
+            Edge pathEdge = path.get(1);
+            Vertex pathB = path.get(2);
+            for (int i = 0; i < 40; i++) {
+                Assert.assertEquals(i, (int) pathA.<Integer>value("a" + i));
+                Assert.assertEquals("b" + i, pathB.value("b" + i));
+            }
+            Assert.assertEquals(a, pathEdge.outVertex());
+            Assert.assertEquals(pathB, pathEdge.inVertex());
+        }
+    }
+
 }
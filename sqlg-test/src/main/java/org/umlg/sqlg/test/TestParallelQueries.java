@@ -0,0 +1,45 @@
+package org.umlg.sqlg.test;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Path;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Date: 2026/10/17
+ * Time: 8:40 PM
+ */
+public class TestParallelQueries extends BaseTest {
+
+    @Test
+    public void testParallelQueriesSameResult() {
+        for (int i = 0; i < 10; i++) {
+            Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i);
+            a.addEdge("ab", this.sqlgGraph.addVertex(T.label, "B", "name", "b" + i));
+            a.addEdge("ac", this.sqlgGraph.addVertex(T.label, "C", "name", "c" + i));
+            a.addEdge("ad", this.sqlgGraph.addVertex(T.label, "D", "name", "d" + i));
+        }
+        this.sqlgGraph.tx().commit();
+        List<Path> expected = this.sqlgGraph.traversal().V().hasLabel("A").out().path().toList();
+        this.sqlgGraph.tx().rollback();
+        this.sqlgGraph.tx().setParallelConnections(2);
+        List<Path> paths = this.sqlgGraph.traversal().V().hasLabel("A").out().path().toList();
+        Assert.assertEquals(30, paths.size());
+        Assert.assertEquals(expected, paths);
+        this.sqlgGraph.tx().rollback();
+    }
+
+    @Test
+    public void testParallelQueriesAfterWriteSeeTheTransaction() {
+        Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a");
+        this.sqlgGraph.tx().commit();
+        this.sqlgGraph.tx().setParallelConnections(2);
+        a.addEdge("ab", this.sqlgGraph.addVertex(T.label, "B", "name", "b"));
+        a.addEdge("ac", this.sqlgGraph.addVertex(T.label, "C", "name", "c"));
+        Assert.assertEquals(2, this.sqlgGraph.traversal().V(a).out().toList().size());
+        this.sqlgGraph.tx().rollback();
+    }
+}
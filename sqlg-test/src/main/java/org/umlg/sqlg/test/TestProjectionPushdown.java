@@ -0,0 +1,51 @@
+package org.umlg.sqlg.test;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Path;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+/**
+ * Date: 2026/10/17
+ * Time: 10:40 PM
+ */
+public class TestProjectionPushdown extends BaseTest {
+
+    @Test
+    public void testValuesOnlyLoadsItsProperties() {
+        for (int i = 0; i < 5; i++) {
+            Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i, "age", i, "surname", "s" + i);
+            a.addEdge("ab", this.sqlgGraph.addVertex(T.label, "B", "name", "b" + i, "age", i, "surname", "t" + i));
+        }
+        this.sqlgGraph.tx().commit();
+        List<String> names = this.sqlgGraph.traversal().V().hasLabel("A").out("ab").<String>values("name").toList();
+        Assert.assertEquals(new HashSet<>(Arrays.asList("b0", "b1", "b2", "b3", "b4")), new HashSet<>(names));
+        List<Map<String, List<Object>>> valueMaps = this.sqlgGraph.traversal().V().hasLabel("A").<List<Object>>valueMap("name", "age").toList();
+        Assert.assertEquals(5, valueMaps.size());
+        for (Map<String, List<Object>> valueMap : valueMaps) {
+            Assert.assertEquals(new HashSet<>(Arrays.asList("name", "age")), valueMap.keySet());
+        }
+        Assert.assertEquals(5, this.sqlgGraph.traversal().V().hasLabel("B").id().toList().size());
+        Assert.assertEquals(Collections.singletonList("B"), this.sqlgGraph.traversal().V().hasLabel("B").label().dedup().toList());
+    }
+
+    @Test
+    public void testPartiallyLoadedElementLoadsTheOtherProperties() {
+        Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a", "age", 1, "surname", "s");
+        a.addEdge("ab", this.sqlgGraph.addVertex(T.label, "B", "name", "b", "age", 2, "surname", "t"));
+        this.sqlgGraph.tx().commit();
+        List<String> names = this.sqlgGraph.traversal().V().hasLabel("A").<String>values("name").toList();
+        Assert.assertEquals(Collections.singletonList("a"), names);
+        Vertex reloaded = this.sqlgGraph.traversal().V().hasLabel("A").next();
+        Assert.assertEquals("s", reloaded.value("surname"));
+        Assert.assertEquals(1, (int) reloaded.value("age"));
+        List<Path> paths = this.sqlgGraph.traversal().V().hasLabel("A").out("ab").path().toList();
+        Assert.assertEquals(1, paths.size());
+        Vertex b = paths.get(0).get(1);
+        Assert.assertEquals("t", b.value("surname"));
+        Assert.assertEquals(new HashSet<>(Arrays.asList("name", "age", "surname")), b.keys());
+    }
+}
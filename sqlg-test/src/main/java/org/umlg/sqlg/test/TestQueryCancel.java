@@ -0,0 +1,163 @@
+package org.umlg.sqlg.test;
+
+import com.mchange.v2.c3p0.PooledDataSource;
+import org.apache.commons.lang3.Range;
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.process.traversal.step.branch.LocalStep;
+import org.apache.tinkerpop.gremlin.process.traversal.step.filter.RangeGlobalStep;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import org.umlg.sqlg.strategy.SqlgVertexStepCompiled;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Date: 2026/10/17
+ * Time: 9:40 PM
+ */
+public class TestQueryCancel extends BaseTest {
+
+    @Test
+    public void testCloseSkipsPendingQueries() throws Exception {
+        createGraph();
+        Traversal<Vertex, Vertex> traversal = this.sqlgGraph.traversal().V().hasLabel("A", "B", "C");
+        Assert.assertTrue(traversal.hasNext());
+        traversal.next();
+        traversal.close();
+        Assert.assertFalse(traversal.hasNext());
+        Assert.assertTrue(this.sqlgGraph.tx().getPreparedStatementCache().isEmpty());
+        Assert.assertEquals(32, this.sqlgGraph.traversal().V().hasLabel("A", "B", "C").toList().size());
+        this.sqlgGraph.tx().rollback();
+    }
+
+    @Test
+    public void testCloseCancelsParallelQueries() throws Exception {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsSnapshotExport());
+        DataSource dataSource = this.sqlgGraph.getSqlgDataSource().getDatasource();
+        Assume.assumeTrue(dataSource instanceof PooledDataSource);
+        PooledDataSource pool = (PooledDataSource) dataSource;
+        //every label out of a is a query of its own
+        Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a");
+        for (String label : Arrays.asList("B", "C", "D", "E", "F")) {
+            for (int i = 0; i < 10; i++) {
+                a.addEdge("a" + label, this.sqlgGraph.addVertex(T.label, label, "name", label + i));
+            }
+        }
+        this.sqlgGraph.tx().commit();
+        this.sqlgGraph.tx().setParallelConnections(2);
+        this.sqlgGraph.tx().getConnection();
+        int busyConnections = pool.getNumBusyConnectionsDefaultUser();
+        Traversal<Vertex, Vertex> traversal = this.sqlgGraph.traversal().V(a).out();
+        Assert.assertTrue(traversal.hasNext());
+        traversal.next();
+        Assert.assertTrue("the queries run on the connections of the lanes", pool.getNumBusyConnectionsDefaultUser() > busyConnections);
+        traversal.close();
+        Assert.assertFalse(traversal.hasNext());
+        //the statements of the lanes are cancelled and the connections returned to the pool
+        Assert.assertEquals(busyConnections, pool.getNumBusyConnectionsDefaultUser());
+        try (Statement statement = this.sqlgGraph.tx().getConnection().createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM pg_stat_activity WHERE datname = current_database() AND pid <> pg_backend_pid() AND state = 'active'")) {
+            Assert.assertTrue(resultSet.next());
+            Assert.assertEquals(0, resultSet.getInt(1));
+        }
+        Assert.assertEquals(50, this.sqlgGraph.traversal().V(a).out().toList().size());
+        this.sqlgGraph.tx().rollback();
+    }
+
+    @Test
+    public void testQueryTimeout() {
+        createGraph();
+        Assert.assertEquals(0, this.sqlgGraph.tx().getQueryTimeoutMs());
+        this.sqlgGraph.tx().setQueryTimeoutMs(1500);
+        Assert.assertEquals(1500, this.sqlgGraph.tx().getQueryTimeoutMs());
+        Assert.assertEquals(20, this.sqlgGraph.traversal().V().hasLabel("A").out().toList().size());
+        this.sqlgGraph.tx().rollback();
+        Assert.assertEquals(0, this.sqlgGraph.tx().getQueryTimeoutMs());
+        Assert.assertEquals(20, this.sqlgGraph.traversal().V().hasLabel("A").out().toList().size());
+        try {
+            this.sqlgGraph.tx().setQueryTimeoutMs(-1);
+            Assert.fail("a negative timeout must fail");
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+        this.sqlgGraph.tx().rollback();
+    }
+
+    @Test
+    public void testSlowQueryTimesOut() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsWithRecursive());
+        //the repeat walks every simple path of a complete graph, far too many to finish within the timeout
+        List<Vertex> vertices = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            vertices.add(this.sqlgGraph.addVertex(T.label, "N", "name", "n" + i));
+        }
+        for (Vertex from : vertices) {
+            for (Vertex to : vertices) {
+                if (from != to) {
+                    from.addEdge("link", to);
+                }
+            }
+        }
+        this.sqlgGraph.tx().commit();
+        this.sqlgGraph.tx().setQueryTimeoutMs(1000);
+        try {
+            this.sqlgGraph.traversal().V(vertices.get(0)).repeat(__.out("link")).until(__.has("name", "none")).toList();
+            Assert.fail("the query must time out");
+        } catch (RuntimeException e) {
+            Throwable cause = e;
+            while (cause != null && !(cause instanceof SQLException)) {
+                cause = cause.getCause();
+            }
+            Assert.assertTrue("expected a SQLException, found " + e, cause != null);
+            //query_canceled, a statement timeout on H2 and Postgres
+            Assert.assertEquals("57014", ((SQLException) cause).getSQLState());
+        }
+        this.sqlgGraph.tx().rollback();
+        Assert.assertEquals(0, this.sqlgGraph.tx().getQueryTimeoutMs());
+        Assert.assertEquals(11, this.sqlgGraph.traversal().V(vertices.get(0)).out("link").toList().size());
+    }
+
+    @Test
+    public void testLimitPushedIntoVertexStep() {
+        createGraph();
+        GraphTraversal<Vertex, Vertex> traversal = this.sqlgGraph.traversal().V().hasLabel("A").local(__.out("ab").limit(3));
+        traversal.asAdmin().applyStrategies();
+        LocalStep<?, ?> localStep = (LocalStep) traversal.asAdmin().getSteps().get(1);
+        Traversal.Admin<?, ?> child = localStep.getLocalChildren().get(0);
+        SqlgVertexStepCompiled<?, ?> vertexStep = (SqlgVertexStepCompiled) child.getStartStep();
+        Assert.assertEquals(Range.between(0L, 3L), vertexStep.getReplacedSteps().get(vertexStep.getReplacedSteps().size() - 1).getRange());
+        //the range stays as the limit is per query
+        Assert.assertTrue(child.getSteps().get(1) instanceof RangeGlobalStep);
+        Assert.assertEquals(6, traversal.toList().size());
+        List<Vertex> vertices = this.sqlgGraph.traversal().V().hasLabel("A").local(__.out("ab").range(1, 3)).toList();
+        Assert.assertEquals(4, vertices.size());
+        Assert.assertEquals(20, this.sqlgGraph.traversal().V().hasLabel("A").local(__.out("ab").range(0, 20)).toList().size());
+    }
+
+    /**
+     * 2 A's with 10 B's each and 10 C's.
+     */
+    private void createGraph() {
+        for (int i = 0; i < 2; i++) {
+            Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i);
+            for (int j = 0; j < 10; j++) {
+                a.addEdge("ab", this.sqlgGraph.addVertex(T.label, "B", "name", "b" + j));
+            }
+        }
+        for (int i = 0; i < 10; i++) {
+            this.sqlgGraph.addVertex(T.label, "C", "name", "c" + i);
+        }
+        this.sqlgGraph.tx().commit();
+    }
+}
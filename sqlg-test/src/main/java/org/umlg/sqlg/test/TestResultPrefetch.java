@@ -0,0 +1,88 @@
+package org.umlg.sqlg.test;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Traversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Test;
+import org.umlg.sqlg.structure.SqlgGraph;
+
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Date: 2026/10/17
+ * Time: 7:05 PM
+ */
+public class TestResultPrefetch extends BaseTest {
+
+    @Test
+    public void testPrefetchReturnsAllResults() {
+        for (int i = 0; i < 100; i++) {
+            Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i);
+            Vertex b = this.sqlgGraph.addVertex(T.label, "B", "name", "b" + i);
+            a.addEdge("ab", b);
+        }
+        this.sqlgGraph.tx().commit();
+        this.sqlgGraph.tx().setPrefetchSize(3);
+        List<Vertex> vertices = this.sqlgGraph.traversal().V().hasLabel("A").out("ab").toList();
+        Assert.assertEquals(100, vertices.size());
+        Assert.assertEquals(200, this.sqlgGraph.traversal().V().hasLabel("A").emit().repeat(__.out()).times(1).toList().size());
+        this.sqlgGraph.tx().commit();
+    }
+
+    @Test
+    public void testPrefetchEarlyClose() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i);
+        }
+        this.sqlgGraph.tx().commit();
+        this.sqlgGraph.tx().setPrefetchSize(2);
+        Traversal<Vertex, Vertex> traversal = this.sqlgGraph.traversal().V().hasLabel("A");
+        Assert.assertTrue(traversal.hasNext());
+        traversal.next();
+        traversal.close();
+        Assert.assertTrue(this.sqlgGraph.tx().getPreparedStatementCache().isEmpty());
+        //a traversal that is not closed is stopped when the transaction ends
+        Assert.assertEquals(3, this.sqlgGraph.traversal().V().hasLabel("A").limit(3).toList().size());
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(100, this.sqlgGraph.traversal().V().hasLabel("A").toList().size());
+    }
+
+    @Test
+    public void testCloseGraphWhileIterating() throws Exception {
+        for (int i = 0; i < 1000; i++) {
+            this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i);
+        }
+        this.sqlgGraph.tx().commit();
+        SqlgGraph sqlgGraph = SqlgGraph.open(configuration);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch closed = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> iterating = executorService.submit(() -> {
+                sqlgGraph.tx().setPrefetchSize(2);
+                Traversal<Vertex, Vertex> traversal = sqlgGraph.traversal().V().hasLabel("A");
+                traversal.next();
+                started.countDown();
+                closed.await();
+                try {
+                    while (traversal.hasNext()) {
+                        traversal.next();
+                    }
+                } catch (RuntimeException e) {
+                    //the graph is closed
+                }
+                return null;
+            });
+            Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+            sqlgGraph.close();
+            closed.countDown();
+            //the iteration ends instead of waiting for the background thread that was interrupted
+            iterating.get(10, TimeUnit.SECONDS);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+}
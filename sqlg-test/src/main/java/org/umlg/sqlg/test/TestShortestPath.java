@@ -0,0 +1,124 @@
+package org.umlg.sqlg.test;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Path;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Date: 2026/10/17
+ * Time: 6:40 PM
+ */
+public class TestShortestPath extends BaseTest {
+
+    @Test
+    public void testShortestPath() {
+        Map<String, Vertex> v = createGraph();
+        //s -> a -> m -> t and s -> b -> m -> t are equally short, s -> l1 -> l2 -> l3 -> t is longer
+        Path path = this.sqlgGraph.shortestPath(v.get("s"), v.get("t"), Direction.OUT).get();
+        assertPath(path, Direction.OUT, v.get("s"), v.get("t"), 3);
+        Assert.assertTrue(Arrays.asList(v.get("a"), v.get("b")).contains(path.get(1)));
+        Assert.assertEquals(v.get("m"), path.get(2));
+        assertPath(this.sqlgGraph.shortestPath(v.get("t"), v.get("s"), Direction.IN).get(), Direction.IN, v.get("t"), v.get("s"), 3);
+        assertPath(this.sqlgGraph.shortestPath(v.get("l1"), v.get("t"), Direction.OUT).get(), Direction.OUT, v.get("l1"), v.get("t"), 3);
+        Assert.assertEquals(Collections.singletonList(v.get("s")), this.sqlgGraph.shortestPath(v.get("s"), v.get("s"), Direction.OUT).get().objects());
+        //a -> m <- b and a <- s -> b are equally short
+        assertPath(this.sqlgGraph.shortestPath(v.get("a"), v.get("b"), Direction.BOTH).get(), Direction.BOTH, v.get("a"), v.get("b"), 2);
+    }
+
+    @Test
+    public void testShortestPathDeadEnd() {
+        Map<String, Vertex> v = createGraph();
+        Assert.assertEquals(Arrays.asList(v.get("s"), v.get("c"), v.get("d1"), v.get("d2")),
+                this.sqlgGraph.shortestPath(v.get("s"), v.get("d2"), Direction.OUT).get().objects());
+        //c only leads into the dead end and to the dog
+        Assert.assertFalse(this.sqlgGraph.shortestPath(v.get("c"), v.get("t"), Direction.OUT).isPresent());
+        Assert.assertFalse(this.sqlgGraph.shortestPath(v.get("d2"), v.get("s"), Direction.OUT).isPresent());
+        assertPath(this.sqlgGraph.shortestPath(v.get("d2"), v.get("t"), Direction.BOTH).get(), Direction.BOTH, v.get("d2"), v.get("t"), 6);
+    }
+
+    @Test
+    public void testShortestPathUnreachable() {
+        Map<String, Vertex> v = createGraph();
+        //u only has an edge to s
+        Assert.assertFalse(this.sqlgGraph.shortestPath(v.get("s"), v.get("u"), Direction.OUT).isPresent());
+        Assert.assertEquals(Arrays.asList(v.get("s"), v.get("u")), this.sqlgGraph.shortestPath(v.get("s"), v.get("u"), Direction.IN).get().objects());
+        Assert.assertFalse(this.sqlgGraph.shortestPath(v.get("t"), v.get("s"), Direction.OUT).isPresent());
+        //x1 -> x2 is not connected to the rest of the graph
+        Assert.assertFalse(this.sqlgGraph.shortestPath(v.get("s"), v.get("x2"), Direction.BOTH).isPresent());
+        Assert.assertFalse(this.sqlgGraph.shortestPath(v.get("x1"), v.get("t"), Direction.BOTH).isPresent());
+    }
+
+    @Test
+    public void testShortestPathOverLabels() {
+        Map<String, Vertex> v = createGraph();
+        Assert.assertEquals(Arrays.asList(v.get("s"), v.get("c"), v.get("dog"), v.get("z")),
+                this.sqlgGraph.shortestPath(v.get("s"), v.get("z"), Direction.OUT).get().objects());
+        Assert.assertFalse(this.sqlgGraph.shortestPath(v.get("s"), v.get("z"), Direction.OUT, "knows").isPresent());
+        Assert.assertFalse(this.sqlgGraph.shortestPath(v.get("s"), v.get("z"), Direction.OUT, "knows", "owns").isPresent());
+        Assert.assertEquals(Arrays.asList(v.get("s"), v.get("c"), v.get("dog"), v.get("z")),
+                this.sqlgGraph.shortestPath(v.get("s"), v.get("z"), Direction.OUT, "knows", "owns", "likes").get().objects());
+        //s has no owns or likes edges of its own
+        Assert.assertFalse(this.sqlgGraph.shortestPath(v.get("s"), v.get("t"), Direction.BOTH, "owns", "likes").isPresent());
+    }
+
+    @Test
+    public void testReachable() {
+        Map<String, Vertex> v = createGraph();
+        Assert.assertTrue(this.sqlgGraph.isReachable(v.get("s"), v.get("t"), Direction.OUT, 3));
+        Assert.assertFalse(this.sqlgGraph.isReachable(v.get("s"), v.get("t"), Direction.OUT, 2));
+        Assert.assertTrue(this.sqlgGraph.isReachable(v.get("s"), v.get("l3"), Direction.OUT, 3));
+        Assert.assertTrue(this.sqlgGraph.isReachable(v.get("s"), v.get("s"), Direction.OUT, 0));
+        Assert.assertFalse(this.sqlgGraph.isReachable(v.get("s"), v.get("a"), Direction.OUT, 0));
+        Assert.assertFalse(this.sqlgGraph.isReachable(v.get("s"), v.get("x2"), Direction.BOTH));
+        Assert.assertFalse(this.sqlgGraph.isReachable(v.get("s"), v.get("z"), Direction.OUT, "knows"));
+    }
+
+    /**
+     * Asserts that the path goes from the start to the end over length edges in the direction.
+     */
+    private static void assertPath(Path path, Direction direction, Vertex start, Vertex end, int length) {
+        List<Vertex> vertices = path.objects().stream().map(o -> (Vertex) o).collect(Collectors.toList());
+        Assert.assertEquals(length + 1, vertices.size());
+        Assert.assertEquals(start, vertices.get(0));
+        Assert.assertEquals(end, vertices.get(length));
+        Assert.assertEquals(vertices.size(), new HashSet<>(vertices).size());
+        for (int i = 0; i < length; i++) {
+            List<Vertex> adjacent = new ArrayList<>();
+            vertices.get(i).vertices(direction).forEachRemaining(adjacent::add);
+            Assert.assertTrue(vertices.get(i) + " is not adjacent to " + vertices.get(i + 1), adjacent.contains(vertices.get(i + 1)));
+        }
+    }
+
+    /**
+     * Persons that know each other:
+     * s -> a -> m -> t and s -> b -> m -> t, the longer s -> l1 -> l2 -> l3 -> t,
+     * the dead end s -> c -> d1 -> d2, u -> s and the island x1 -> x2.
+     * c owns the dog and the dog likes z.
+     */
+    private Map<String, Vertex> createGraph() {
+        Map<String, Vertex> vertices = new HashMap<>();
+        for (String name : Arrays.asList("s", "a", "b", "c", "m", "t", "l1", "l2", "l3", "d1", "d2", "u", "x1", "x2", "z")) {
+            vertices.put(name, this.sqlgGraph.addVertex(T.label, "Person", "name", name));
+        }
+        vertices.put("dog", this.sqlgGraph.addVertex(T.label, "Dog", "name", "dog"));
+        String[][] knows = {
+                {"s", "a"}, {"s", "b"}, {"a", "m"}, {"b", "m"}, {"m", "t"},
+                {"s", "l1"}, {"l1", "l2"}, {"l2", "l3"}, {"l3", "t"},
+                {"s", "c"}, {"c", "d1"}, {"d1", "d2"},
+                {"u", "s"}, {"x1", "x2"}
+        };
+        for (String[] edge : knows) {
+            vertices.get(edge[0]).addEdge("knows", vertices.get(edge[1]));
+        }
+        vertices.get("c").addEdge("owns", vertices.get("dog"));
+        vertices.get("dog").addEdge("likes", vertices.get("z"));
+        this.sqlgGraph.tx().commit();
+        return vertices;
+    }
+}
@@ -0,0 +1,86 @@
+package org.umlg.sqlg.test;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Path;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Date: 2026/10/17
+ * Time: 9:55 PM
+ */
+public class TestUnionQueries extends BaseTest {
+
+    @Test
+    public void testUnionQueriesSameResult() {
+        for (int i = 0; i < 10; i++) {
+            Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i);
+            a.addEdge("ab", this.sqlgGraph.addVertex(T.label, "B", "name", "b" + i, "age", i));
+            a.addEdge("ac", this.sqlgGraph.addVertex(T.label, "C", "name", "c" + i, "active", i % 2 == 0));
+            a.addEdge("ad", this.sqlgGraph.addVertex(T.label, "D", "name", "d" + i));
+        }
+        this.sqlgGraph.tx().commit();
+        List<Path> expected = this.sqlgGraph.traversal().V().hasLabel("A").out().path().toList();
+        List<Map<String, List<Object>>> expectedValues = this.sqlgGraph.traversal().V().hasLabel("A").out().<List<Object>>valueMap().toList();
+        this.sqlgGraph.tx().rollback();
+        this.sqlgGraph.tx().setUnionSize(2);
+        List<Path> paths = this.sqlgGraph.traversal().V().hasLabel("A").out().path().toList();
+        List<Map<String, List<Object>>> values = this.sqlgGraph.traversal().V().hasLabel("A").out().<List<Object>>valueMap().toList();
+        Assert.assertEquals(30, paths.size());
+        Assert.assertEquals(new HashSet<>(expected), new HashSet<>(paths));
+        Assert.assertEquals(new HashSet<>(expectedValues), new HashSet<>(values));
+        this.sqlgGraph.tx().rollback();
+    }
+
+    @Test
+    public void testUnionOfManyQueriesWithTypedNullColumns() {
+        ZonedDateTime zonedDateTime = ZonedDateTime.of(LocalDateTime.of(2016, 1, 1, 12, 0), ZoneId.of("Africa/Harare"));
+        for (int i = 0; i < 5; i++) {
+            Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i);
+            a.addEdge("ab", this.sqlgGraph.addVertex(T.label, "B", "age", i));
+            a.addEdge("ac", this.sqlgGraph.addVertex(T.label, "C", "active", i % 2 == 0));
+            a.addEdge("ad", this.sqlgGraph.addVertex(T.label, "D", "weight", i + 0.5d));
+            a.addEdge("ae", this.sqlgGraph.addVertex(T.label, "E", "created", zonedDateTime.plusDays(i)));
+        }
+        this.sqlgGraph.tx().commit();
+        List<Map<String, List<Object>>> expectedValues = this.sqlgGraph.traversal().V().hasLabel("A").out().<List<Object>>valueMap().toList();
+        this.sqlgGraph.tx().rollback();
+        this.sqlgGraph.tx().setUnionSize(4);
+        List<Map<String, List<Object>>> values = this.sqlgGraph.traversal().V().hasLabel("A").out().<List<Object>>valueMap().toList();
+        Assert.assertEquals(20, values.size());
+        Assert.assertEquals(new HashSet<>(expectedValues), new HashSet<>(values));
+        this.sqlgGraph.tx().rollback();
+    }
+
+    @Test
+    public void testUnionWiderThanTheColumnLimit() {
+        //every query has more than a quarter of the column limit, all of them do not fit in one select
+        int propertyCount = this.sqlgGraph.getSqlDialect().getColumnLimit() / 4 + 1;
+        Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a");
+        for (int i = 0; i < 6; i++) {
+            Map<String, Object> properties = new HashMap<>();
+            for (int j = 0; j < propertyCount; j++) {
+                properties.put("p" + j, i * propertyCount + j);
+            }
+            Vertex b = this.sqlgGraph.addVertex("B" + i, properties);
+            a.addEdge("ab" + i, b);
+        }
+        this.sqlgGraph.tx().commit();
+        List<Map<String, List<Object>>> expectedValues = this.sqlgGraph.traversal().V().hasLabel("A").out().<List<Object>>valueMap().toList();
+        this.sqlgGraph.tx().rollback();
+        this.sqlgGraph.tx().setUnionSize(6);
+        List<Map<String, List<Object>>> values = this.sqlgGraph.traversal().V().hasLabel("A").out().<List<Object>>valueMap().toList();
+        Assert.assertEquals(6, values.size());
+        Assert.assertEquals(new HashSet<>(expectedValues), new HashSet<>(values));
+        this.sqlgGraph.tx().rollback();
+    }
+}
@@ -0,0 +1,101 @@
+package org.umlg.sqlg.test;
+
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.umlg.sqlg.structure.SchemaManager;
+import org.umlg.sqlg.structure.SqlgTransaction;
+
+import java.beans.PropertyVetoException;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Date: 2026/10/17
+ * Time: 10:10 PM
+ */
+public class TestVertexLoadBatch extends BaseTest {
+
+    @BeforeClass
+    public static void beforeClass() throws ClassNotFoundException, IOException, PropertyVetoException {
+        BaseTest.beforeClass();
+        configuration.addProperty(SqlgTransaction.VERTEX_LOAD_BATCH_SIZE, 10);
+    }
+
+    @Test
+    public void testEdgeVerticesLoadedTogether() throws SQLException {
+        for (int i = 0; i < 25; i++) {
+            Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i);
+            Vertex b = this.sqlgGraph.addVertex(T.label, "B", "name", "b" + i);
+            a.addEdge("ab", b);
+        }
+        this.sqlgGraph.tx().commit();
+        List<Edge> edges = this.sqlgGraph.traversal().E().hasLabel("ab").toList();
+        Assert.assertEquals(25, edges.size());
+        Assert.assertEquals("b0", edges.get(0).inVertex().value("name"));
+        //the first 10 B's are loaded, deleting the rows does not affect them
+        deleteRows();
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals("b" + i, edges.get(i).inVertex().value("name"));
+        }
+        try {
+            edges.get(10).inVertex().value("name");
+            Assert.fail("the 11th B must be loaded from the db");
+        } catch (IllegalStateException e) {
+            //expected
+        }
+        this.sqlgGraph.tx().rollback();
+    }
+
+    @Test
+    public void testLoadBatchSkipsLoadedVertices() {
+        for (int i = 0; i < 25; i++) {
+            Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i);
+            Vertex b = this.sqlgGraph.addVertex(T.label, "B", "name", "b" + i);
+            a.addEdge("ab", b);
+        }
+        this.sqlgGraph.tx().commit();
+        List<Edge> edges = this.sqlgGraph.traversal().E().hasLabel("ab").toList();
+        for (int i = 24; i >= 0; i--) {
+            Assert.assertEquals("b" + i, edges.get(i).inVertex().value("name"));
+            Assert.assertEquals("a" + i, edges.get(i).outVertex().value("name"));
+        }
+        this.sqlgGraph.tx().rollback();
+    }
+
+    @Test
+    public void testCollectedVerticesAreForgotten() {
+        for (int i = 0; i < 25; i++) {
+            Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i);
+            Vertex b = this.sqlgGraph.addVertex(T.label, "B", "name", "b" + i);
+            a.addEdge("ab", b);
+        }
+        this.sqlgGraph.tx().commit();
+        //the unloaded vertices of these edges are never used
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(25, this.sqlgGraph.traversal().E().hasLabel("ab").toList().size());
+        }
+        System.gc();
+        List<Edge> edges = this.sqlgGraph.traversal().E().hasLabel("ab").toList();
+        for (int i = 0; i < 25; i++) {
+            Assert.assertEquals("b" + i, edges.get(i).inVertex().value("name"));
+            Assert.assertEquals("a" + i, edges.get(i).outVertex().value("name"));
+        }
+        this.sqlgGraph.tx().rollback();
+    }
+
+    private void deleteRows() throws SQLException {
+        String schema = this.sqlgGraph.getSqlDialect().getPublicSchema();
+        try (Statement statement = this.sqlgGraph.tx().getConnection().createStatement()) {
+            statement.execute("DELETE FROM " + this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(schema) + "." +
+                    this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(SchemaManager.EDGE_PREFIX + "ab"));
+            statement.execute("DELETE FROM " + this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(schema) + "." +
+                    this.sqlgGraph.getSqlDialect().maybeWrapInQoutes(SchemaManager.VERTEX_PREFIX + "B"));
+        }
+    }
+}
@@ -35,6 +35,7 @@ public class TestBatchJson extends BaseTest {
     @Before
     public void beforeTest() {
         Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsBatchMode());
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsJson());
     }
 
     @Test
@@ -163,6 +164,7 @@ public class TestBatchJson extends BaseTest {
 
     @Test
     public void testBatchJsonContainingEmbeddedJson() throws IOException, InterruptedException {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsStreamingBatchMode());
         String jsonQuery = "{" +
                 "\"chartEnabled\":true," +
                 "\"geom\":\"{\\\"type\\\":\\\"LineString\\\"," +
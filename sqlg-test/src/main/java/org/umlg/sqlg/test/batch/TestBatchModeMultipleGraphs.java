@@ -30,10 +30,12 @@ public class TestBatchModeMultipleGraphs extends BaseTest {
     @Before
     public void beforeTest() {
         Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsBatchMode());
+        Assume.assumeTrue(configuration.getBoolean("distributed", false));
     }
 
     @Test
     public void testStreamingBatchModeOnMultipleGraphs() throws Exception {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsStreamingBatchMode());
         this.sqlgGraph.tx().streamingBatchModeOn();
         for (int i = 0; i < 10; i++) {
             this.sqlgGraph.streamVertex(T.label, "Person", "name", "asdasd");
@@ -0,0 +1,185 @@
+package org.umlg.sqlg.test.batch;
+
+import org.apache.commons.configuration.ConfigurationException;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.*;
+import org.umlg.sqlg.structure.BatchFlushListener;
+import org.umlg.sqlg.structure.BatchManager;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.beans.PropertyVetoException;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Date: 2026/10/18
+ * Time: 6:30 PM
+ */
+public class TestBatchNormalAutoFlush extends BaseTest {
+
+    private List<BatchFlushListener.Trigger> triggers = new ArrayList<>();
+    private List<Integer> elementCounts = new ArrayList<>();
+    private BatchFlushListener batchFlushListener = (trigger, elementCount, estimatedBytes, durationNanos) -> {
+        this.triggers.add(trigger);
+        this.elementCounts.add(elementCount);
+    };
+
+    @BeforeClass
+    public static void beforeClass() throws ClassNotFoundException, IOException, PropertyVetoException {
+        URL sqlProperties = Thread.currentThread().getContextClassLoader().getResource("sqlg.properties");
+        try {
+            configuration = new PropertiesConfiguration(sqlProperties);
+            configuration.setProperty("cache.vertices", true);
+            configuration.setProperty(BatchManager.BATCH_MAX_ELEMENTS, 100);
+            configuration.setProperty(BatchManager.BATCH_MAX_ELEMENTS + ".B", 10);
+            configuration.setProperty(BatchManager.BATCH_MAX_BYTES, 20_000);
+            if (configuration.getString("jdbc.url").contains("postgresql")) {
+                configuration.addProperty("distributed", true);
+            }
+            if (!configuration.containsKey("jdbc.url")) {
+                throw new IllegalArgumentException(String.format("SqlGraph configuration requires that the %s be set", "jdbc.url"));
+            }
+        } catch (ConfigurationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Before
+    public void beforeTest() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsBatchMode());
+        this.sqlgGraph.tx().registerBatchFlushListener(this.batchFlushListener);
+    }
+
+    @After
+    public void afterTest() {
+        if (this.sqlgGraph != null) {
+            this.sqlgGraph.tx().unregisterBatchFlushListener(this.batchFlushListener);
+        }
+    }
+
+    @Test
+    public void testMaxElements() {
+        createLabels();
+        this.sqlgGraph.tx().normalBatchModeOn();
+        List<Vertex> vertices = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            vertices.add(this.sqlgGraph.addVertex(T.label, "A", "index", i));
+        }
+        Assert.assertEquals(2, this.triggers.size());
+        Assert.assertEquals(BatchFlushListener.Trigger.MAX_ELEMENTS, this.triggers.get(0));
+        Assert.assertEquals(100, this.elementCounts.get(0).intValue());
+        Assert.assertNotNull(vertices.get(199).id());
+        Assert.assertEquals(0, (int) this.sqlgGraph.traversal().V(vertices.get(0).id()).next().value("index"));
+        Assert.assertEquals(vertices.get(150), this.sqlgGraph.traversal().V().hasLabel("A").has("index", 150).next());
+        Assert.assertEquals(BatchFlushListener.Trigger.FLUSH, this.triggers.get(2));
+        Assert.assertEquals(50, this.elementCounts.get(2).intValue());
+        //out of batch mode the transaction's queries return the flushed vertices
+        this.sqlgGraph.tx().batchMode(BatchManager.BatchModeType.NONE);
+        Assert.assertSame(vertices.get(0), this.sqlgGraph.traversal().V(vertices.get(0).id()).next());
+        Assert.assertSame(vertices.get(249), this.sqlgGraph.traversal().V(vertices.get(249).id()).next());
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(251, this.sqlgGraph.traversal().V().hasLabel("A").count().next().intValue());
+    }
+
+    @Test
+    public void testLabelMaxElements() {
+        createLabels();
+        this.sqlgGraph.tx().normalBatchModeOn();
+        for (int i = 0; i < 25; i++) {
+            this.sqlgGraph.addVertex(T.label, "A", "index", i);
+            this.sqlgGraph.addVertex(T.label, "B", "index", i);
+        }
+        Assert.assertEquals(2, this.triggers.size());
+        Assert.assertEquals(BatchFlushListener.Trigger.LABEL_MAX_ELEMENTS, this.triggers.get(0));
+        Assert.assertEquals(20, this.elementCounts.get(0).intValue());
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(BatchFlushListener.Trigger.COMMIT, this.triggers.get(2));
+        Assert.assertEquals(10, this.elementCounts.get(2).intValue());
+        Assert.assertEquals(26, this.sqlgGraph.traversal().V().hasLabel("A").count().next().intValue());
+        Assert.assertEquals(26, this.sqlgGraph.traversal().V().hasLabel("B").count().next().intValue());
+    }
+
+    @Test
+    public void testMaxBytes() {
+        createLabels();
+        String name = StringUtils.repeat("a", 1000);
+        this.sqlgGraph.tx().normalBatchModeOn();
+        for (int i = 0; i < 30; i++) {
+            this.sqlgGraph.addVertex(T.label, "A", "name", name + i);
+        }
+        Assert.assertFalse(this.triggers.isEmpty());
+        Assert.assertTrue(this.triggers.stream().allMatch(t -> t == BatchFlushListener.Trigger.MAX_BYTES));
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(31, this.sqlgGraph.traversal().V().hasLabel("A").count().next().intValue());
+    }
+
+    @Test
+    public void testMaxBytesOfUpdatedNewElements() {
+        createLabels();
+        String name = StringUtils.repeat("a", 1000);
+        this.sqlgGraph.tx().normalBatchModeOn();
+        Vertex c = this.sqlgGraph.addVertex(T.label, "C", "index", 0);
+        List<Vertex> vertices = new ArrayList<>();
+        List<Edge> edges = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "");
+            vertices.add(a);
+            edges.add(a.addEdge("ac", c, "index", i, "name", ""));
+        }
+        Assert.assertTrue(this.triggers.isEmpty());
+        //the values of new elements are counted when they are updated
+        for (int i = 0; i < 10; i++) {
+            vertices.get(i).property("name", name + i);
+        }
+        Assert.assertEquals(Collections.singletonList(BatchFlushListener.Trigger.MAX_BYTES), this.triggers);
+        this.sqlgGraph.tx().flush();
+        this.triggers.clear();
+        for (int i = 0; i < 20; i++) {
+            this.sqlgGraph.addVertex(T.label, "A", "name", "");
+            edges.add(vertices.get(i).addEdge("ac", c, "index", i, "name", ""));
+        }
+        for (int i = 20; i < 30; i++) {
+            edges.get(i).property("name", name + i);
+        }
+        Assert.assertEquals(BatchFlushListener.Trigger.MAX_BYTES, this.triggers.get(0));
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(name + 0, this.sqlgGraph.traversal().V(vertices.get(0).id()).next().value("name"));
+        Assert.assertEquals(name + 20, this.sqlgGraph.traversal().E(edges.get(20).id()).next().value("name"));
+        Assert.assertEquals(41, this.sqlgGraph.traversal().V().hasLabel("A").count().next().intValue());
+    }
+
+    @Test
+    public void testEdgesToFlushedVertices() {
+        createLabels();
+        this.sqlgGraph.tx().normalBatchModeOn();
+        Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a");
+        List<Edge> edges = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            Vertex c = this.sqlgGraph.addVertex(T.label, "C", "index", i);
+            edges.add(a.addEdge("ac", c, "index", i));
+        }
+        Assert.assertEquals(BatchFlushListener.Trigger.MAX_ELEMENTS, this.triggers.get(0));
+        edges.get(0).property("index", 1000);
+        edges.get(1).remove();
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(149, this.sqlgGraph.traversal().V(a.id()).out("ac").count().next().intValue());
+        Assert.assertEquals(1000, (int) this.sqlgGraph.traversal().E(edges.get(0).id()).next().value("index"));
+        Assert.assertEquals(149, (int) this.sqlgGraph.traversal().E(edges.get(149).id()).next().value("index"));
+    }
+
+    //creating a label or property flushes the batch, so the topology is created up front
+    private void createLabels() {
+        Vertex a = this.sqlgGraph.addVertex(T.label, "A", "index", -1, "name", "");
+        this.sqlgGraph.addVertex(T.label, "B", "index", -1);
+        Vertex c = this.sqlgGraph.addVertex(T.label, "C", "index", -1);
+        a.addEdge("ac", c, "index", -1, "name", "");
+        this.sqlgGraph.tx().commit();
+    }
+}
@@ -0,0 +1,142 @@
+package org.umlg.sqlg.test.batch;
+
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.*;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.beans.PropertyVetoException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Changes the new elements of a normal batch, that are held in columns per label, before it is flushed.
+ * <p>
+ * Date: 2026/10/18
+ * Time: 5:30 PM
+ */
+public class TestBatchNormalColumns extends BaseTest {
+
+    @BeforeClass
+    public static void beforeClass() throws ClassNotFoundException, IOException, PropertyVetoException {
+        BaseTest.beforeClass();
+        if (configuration.getString("jdbc.url").contains("postgresql")) {
+            configuration.addProperty("distributed", true);
+        }
+    }
+
+    @Before
+    public void beforeTest() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsBatchMode());
+    }
+
+    @Test
+    public void testSparseValues() {
+        this.sqlgGraph.tx().normalBatchModeOn();
+        List<Vertex> vertices = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            if (i % 3 == 0) {
+                vertices.add(this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i));
+            } else {
+                vertices.add(this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i, "age", i, "weight", (double) i, "alive", i % 2 == 0));
+            }
+        }
+        this.sqlgGraph.tx().commit();
+        for (int i = 0; i < 200; i++) {
+            Vertex vertex = this.sqlgGraph.traversal().V(vertices.get(i).id()).next();
+            Assert.assertEquals("a" + i, vertex.value("name"));
+            if (i % 3 == 0) {
+                Assert.assertFalse(vertex.property("age").isPresent());
+                Assert.assertFalse(vertex.property("weight").isPresent());
+                Assert.assertFalse(vertex.property("alive").isPresent());
+            } else {
+                Assert.assertEquals(i, (int) vertex.value("age"));
+                Assert.assertEquals(i, vertex.<Double>value("weight"), 0d);
+                Assert.assertEquals(i % 2 == 0, vertex.value("alive"));
+            }
+        }
+    }
+
+    @Test
+    public void testUpdateAndRemovePropertyBeforeFlush() {
+        this.sqlgGraph.tx().normalBatchModeOn();
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1", "age", 1);
+        Vertex a2 = this.sqlgGraph.addVertex(T.label, "A", "name", "a2", "age", 2);
+        Vertex a3 = this.sqlgGraph.addVertex(T.label, "A", "name", "a3");
+        a1.property("age", 11);
+        a2.property("age").remove();
+        a3.property("age", 3);
+        a3.property("surname", "s3");
+        this.sqlgGraph.tx().commit();
+
+        a1 = this.sqlgGraph.traversal().V(a1.id()).next();
+        a2 = this.sqlgGraph.traversal().V(a2.id()).next();
+        a3 = this.sqlgGraph.traversal().V(a3.id()).next();
+        Assert.assertEquals(11, (int) a1.value("age"));
+        Assert.assertFalse(a1.property("surname").isPresent());
+        Assert.assertEquals("a2", a2.value("name"));
+        Assert.assertFalse(a2.property("age").isPresent());
+        Assert.assertEquals(3, (int) a3.value("age"));
+        Assert.assertEquals("s3", a3.value("surname"));
+    }
+
+    @Test
+    public void testValuesOfPendingElements() {
+        this.sqlgGraph.tx().normalBatchModeOn();
+        Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a", "age", 1, "alive", true);
+        Vertex b = this.sqlgGraph.addVertex(T.label, "B", "name", "b");
+        Edge edge = a.addEdge("ab", b, "weight", 1.5d);
+        a.property("age", 2);
+        a.property("alive").remove();
+        b.property("surname", "s");
+        Assert.assertEquals(2, (int) a.value("age"));
+        Assert.assertFalse(a.property("alive").isPresent());
+        Assert.assertEquals(2, a.keys().size());
+        Assert.assertEquals("s", b.value("surname"));
+        Assert.assertEquals(1.5d, edge.<Double>value("weight"), 0d);
+        //the values are copied from the rows when the batch is flushed
+        this.sqlgGraph.tx().flush();
+        Assert.assertEquals("a", a.value("name"));
+        Assert.assertEquals(2, (int) a.value("age"));
+        Assert.assertFalse(a.property("alive").isPresent());
+        Assert.assertEquals(2, a.keys().size());
+        Assert.assertEquals("s", b.value("surname"));
+        Assert.assertEquals(1.5d, edge.<Double>value("weight"), 0d);
+        this.sqlgGraph.tx().commit();
+
+        a = this.sqlgGraph.traversal().V(a.id()).next();
+        Assert.assertEquals(2, (int) a.value("age"));
+        Assert.assertFalse(a.property("alive").isPresent());
+        Assert.assertEquals(1.5d, this.sqlgGraph.traversal().E(edge.id()).next().<Double>value("weight"), 0d);
+    }
+
+    @Test
+    public void testRemoveBeforeFlush() {
+        this.sqlgGraph.tx().normalBatchModeOn();
+        Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a");
+        List<Vertex> bs = new ArrayList<>();
+        List<Edge> edges = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Vertex b = this.sqlgGraph.addVertex(T.label, "B", "name", "b" + i);
+            bs.add(b);
+            edges.add(a.addEdge("ab", b, "weight", i));
+        }
+        bs.get(0).remove();
+        edges.get(1).remove();
+        edges.get(2).property("weight", 22);
+        edges.get(3).property("weight").remove();
+        this.sqlgGraph.tx().commit();
+
+        Assert.assertEquals(9, this.sqlgGraph.traversal().V().hasLabel("B").count().next().intValue());
+        Assert.assertEquals(8, this.sqlgGraph.traversal().V(a.id()).outE("ab").count().next().intValue());
+        Assert.assertEquals(22, (int) this.sqlgGraph.traversal().E(edges.get(2).id()).next().value("weight"));
+        Assert.assertFalse(this.sqlgGraph.traversal().E(edges.get(3).id()).next().property("weight").isPresent());
+        for (int i = 4; i < 10; i++) {
+            Edge edge = this.sqlgGraph.traversal().E(edges.get(i).id()).next();
+            Assert.assertEquals(i, (int) edge.value("weight"));
+            Assert.assertEquals(bs.get(i), edge.inVertex());
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package org.umlg.sqlg.test.batch;
+
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.*;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.beans.PropertyVetoException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Flushes batches larger than the number of rows the dialects write per statement.
+ * <p>
+ * Date: 2026/10/18
+ * Time: 3:30 PM
+ */
+public class TestBatchNormalLargeFlush extends BaseTest {
+
+    private static final int NUMBER_OF_ELEMENTS = 2_501;
+
+    @BeforeClass
+    public static void beforeClass() throws ClassNotFoundException, IOException, PropertyVetoException {
+        BaseTest.beforeClass();
+        if (configuration.getString("jdbc.url").contains("postgresql")) {
+            configuration.addProperty("distributed", true);
+        }
+    }
+
+    @Before
+    public void beforeTest() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsBatchMode());
+    }
+
+    @Test
+    public void testVertexIds() {
+        this.sqlgGraph.tx().normalBatchModeOn();
+        List<Vertex> vertices = new ArrayList<>();
+        List<Vertex> emptyVertices = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_ELEMENTS; i++) {
+            if (i % 2 == 0) {
+                vertices.add(this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i, "index", i));
+            } else {
+                vertices.add(this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i));
+            }
+            emptyVertices.add(this.sqlgGraph.addVertex(T.label, "B"));
+        }
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(NUMBER_OF_ELEMENTS, this.sqlgGraph.traversal().V().hasLabel("A").count().next().intValue());
+        Assert.assertEquals(NUMBER_OF_ELEMENTS, this.sqlgGraph.traversal().V().hasLabel("B").count().next().intValue());
+        for (int i = 0; i < NUMBER_OF_ELEMENTS; i++) {
+            Vertex vertex = this.sqlgGraph.traversal().V(vertices.get(i).id()).next();
+            Assert.assertEquals("a" + i, vertex.value("name"));
+            Assert.assertEquals(i % 2 == 0, vertex.property("index").isPresent());
+            Assert.assertTrue(this.sqlgGraph.traversal().V(emptyVertices.get(i).id()).hasNext());
+        }
+    }
+
+    @Test
+    public void testIdsAfterRollback() {
+        this.sqlgGraph.tx().normalBatchModeOn();
+        for (int i = 0; i < NUMBER_OF_ELEMENTS; i++) {
+            this.sqlgGraph.addVertex(T.label, "A", "name", "rolledBack" + i);
+        }
+        this.sqlgGraph.tx().flush();
+        this.sqlgGraph.tx().rollback();
+        List<Vertex> vertices = new ArrayList<>();
+        this.sqlgGraph.tx().normalBatchModeOn();
+        for (int i = 0; i < NUMBER_OF_ELEMENTS; i++) {
+            vertices.add(this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i));
+        }
+        this.sqlgGraph.tx().commit();
+        //the ids of a batch do not collide with the ones of the next elements, batched or not
+        vertices.add(this.sqlgGraph.addVertex(T.label, "A", "name", "single"));
+        this.sqlgGraph.tx().normalBatchModeOn();
+        for (int i = 0; i < NUMBER_OF_ELEMENTS; i++) {
+            vertices.add(this.sqlgGraph.addVertex(T.label, "A", "name", "b" + i));
+        }
+        this.sqlgGraph.tx().commit();
+        Set<Object> ids = new HashSet<>();
+        vertices.forEach(v -> ids.add(v.id()));
+        Assert.assertEquals(2 * NUMBER_OF_ELEMENTS + 1, ids.size());
+        Assert.assertEquals(2 * NUMBER_OF_ELEMENTS + 1, this.sqlgGraph.traversal().V().hasLabel("A").count().next().intValue());
+        Assert.assertEquals("single", this.sqlgGraph.traversal().V().hasLabel("A").has("name", "single").next().value("name"));
+    }
+
+    @Test
+    public void testEdges() {
+        this.sqlgGraph.tx().normalBatchModeOn();
+        Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a");
+        List<Vertex> bs = new ArrayList<>();
+        List<Edge> edges = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_ELEMENTS; i++) {
+            Vertex b = this.sqlgGraph.addVertex(T.label, "B", "name", "b" + i);
+            bs.add(b);
+            edges.add(a.addEdge("ab", b, "weight", i));
+        }
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(NUMBER_OF_ELEMENTS, this.sqlgGraph.traversal().V(a.id()).out("ab").count().next().intValue());
+        for (int i = 0; i < NUMBER_OF_ELEMENTS; i++) {
+            Edge edge = this.sqlgGraph.traversal().E(edges.get(i).id()).next();
+            Assert.assertEquals(i, (int) edge.value("weight"));
+            Assert.assertEquals(bs.get(i), edge.inVertex());
+            Assert.assertEquals(a, edge.outVertex());
+        }
+    }
+
+    @Test
+    public void testUpdateAndRemove() {
+        this.sqlgGraph.tx().normalBatchModeOn();
+        Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a");
+        List<Vertex> bs = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_ELEMENTS; i++) {
+            Vertex b = this.sqlgGraph.addVertex(T.label, "B", "name", "b" + i, "other", "o" + i);
+            a.addEdge("ab", b);
+            bs.add(b);
+        }
+        this.sqlgGraph.tx().commit();
+
+        this.sqlgGraph.tx().normalBatchModeOn();
+        for (int i = 0; i < NUMBER_OF_ELEMENTS; i++) {
+            if (i % 2 == 0) {
+                bs.get(i).remove();
+            } else {
+                bs.get(i).property("name", "bb" + i);
+            }
+        }
+        this.sqlgGraph.tx().commit();
+
+        Assert.assertEquals(NUMBER_OF_ELEMENTS / 2, this.sqlgGraph.traversal().V().hasLabel("B").count().next().intValue());
+        Assert.assertEquals(NUMBER_OF_ELEMENTS / 2, this.sqlgGraph.traversal().E().hasLabel("ab").count().next().intValue());
+        for (int i = 1; i < NUMBER_OF_ELEMENTS; i += 2) {
+            Vertex b = this.sqlgGraph.traversal().V(bs.get(i).id()).next();
+            Assert.assertEquals("bb" + i, b.value("name"));
+            Assert.assertEquals("o" + i, b.value("other"));
+        }
+    }
+}
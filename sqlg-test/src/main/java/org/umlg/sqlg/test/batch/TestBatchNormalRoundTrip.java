@@ -0,0 +1,166 @@
+package org.umlg.sqlg.test.batch;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.*;
+import org.umlg.sqlg.sql.dialect.SqlDialect;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.beans.PropertyVetoException;
+import java.io.IOException;
+import java.time.*;
+import java.util.*;
+
+/**
+ * Writes every property type with a normal batch and reads it back, the values must be unchanged whatever protocol
+ * the dialect flushes with.
+ * <p>
+ * Date: 2026/10/18
+ * Time: 7:30 PM
+ */
+public class TestBatchNormalRoundTrip extends BaseTest {
+
+    //a G clef and a grinning face, outside the basic multilingual plane
+    private static final String NON_BMP = "𝄞 😀";
+
+    @BeforeClass
+    public static void beforeClass() throws ClassNotFoundException, IOException, PropertyVetoException {
+        BaseTest.beforeClass();
+        if (configuration.getString("jdbc.url").contains("postgresql")) {
+            configuration.addProperty("distributed", true);
+        }
+    }
+
+    @Before
+    public void beforeTest() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsBatchMode());
+    }
+
+    @Test
+    public void testEveryPropertyType() {
+        Map<String, Object> values = values();
+        List<Object> keyValues = new ArrayList<>();
+        values.forEach((key, value) -> {
+            keyValues.add(key);
+            keyValues.add(value);
+        });
+        this.sqlgGraph.tx().normalBatchModeOn();
+        Vertex all = this.sqlgGraph.addVertex(keyValues(T.label, "A", keyValues));
+        //the same label without any value writes a null in every column
+        Vertex none = this.sqlgGraph.addVertex(T.label, "A");
+        Edge allEdge = all.addEdge("ab", none, keyValues.toArray());
+        Edge noneEdge = none.addEdge("ab", all);
+        this.sqlgGraph.tx().commit();
+
+        assertValues(values, this.sqlgGraph.traversal().V(all.id()).next());
+        assertValues(values, this.sqlgGraph.traversal().E(allEdge.id()).next());
+        Assert.assertFalse(this.sqlgGraph.traversal().V(none.id()).next().properties().hasNext());
+        Assert.assertFalse(this.sqlgGraph.traversal().E(noneEdge.id()).next().properties().hasNext());
+    }
+
+    @Test
+    public void testManyRows() {
+        int count = 70_000;
+        String large = StringUtils.repeat(NON_BMP, 20_000);
+        this.sqlgGraph.tx().normalBatchModeOn();
+        List<Vertex> vertices = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            vertices.add(this.sqlgGraph.addVertex(T.label, "B", "name", NON_BMP + i, "index", i));
+        }
+        //a single row larger than the copy buffer
+        Vertex largeVertex = this.sqlgGraph.addVertex(T.label, "B", "name", large, "index", -1);
+        this.sqlgGraph.tx().commit();
+
+        Assert.assertEquals(count + 1, this.sqlgGraph.traversal().V().hasLabel("B").count().next().intValue());
+        Set<Object> ids = new HashSet<>();
+        vertices.forEach(v -> ids.add(v.id()));
+        Assert.assertEquals(count, ids.size());
+        for (int i : new int[]{0, 1, 65_535, 65_536, count - 1}) {
+            Vertex vertex = this.sqlgGraph.traversal().V(vertices.get(i).id()).next();
+            Assert.assertEquals(NON_BMP + i, vertex.value("name"));
+            Assert.assertEquals(i, (int) vertex.value("index"));
+        }
+        Assert.assertEquals(large, this.sqlgGraph.traversal().V(largeVertex.id()).next().value("name"));
+    }
+
+    private Map<String, Object> values() {
+        SqlDialect dialect = this.sqlgGraph.getSqlDialect();
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("string", "a'b\"c\\d\te\nf, " + NON_BMP);
+        values.put("emptyString", "");
+        values.put("boolean", true);
+        if (dialect.supportsByteValues()) {
+            values.put("byte", (byte) -7);
+        }
+        values.put("short", Short.MIN_VALUE);
+        values.put("integer", Integer.MAX_VALUE);
+        values.put("long", Long.MIN_VALUE);
+        if (dialect.supportsFloatValues()) {
+            values.put("float", -1.5f);
+        }
+        values.put("double", Math.PI);
+        values.put("localDate", LocalDate.of(2016, 5, 22));
+        values.put("localDateTime", LocalDateTime.of(2016, 5, 22, 9, 9, 9, 123_000_000));
+        values.put("localTime", LocalTime.of(9, 9, 9));
+        values.put("zonedDateTime", ZonedDateTime.of(LocalDateTime.of(2016, 5, 22, 9, 9, 9), ZoneId.of("Africa/Harare")));
+        values.put("period", Period.of(1, 2, 3));
+        values.put("duration", Duration.ofSeconds(5, 123_000_000));
+        if (dialect.supportsByteArrayValues()) {
+            values.put("byteArray", new byte[]{1, -2, 3});
+            values.put("emptyByteArray", new byte[0]);
+        }
+        if (dialect.supportsBooleanArrayValues()) {
+            values.put("booleanArray", new boolean[]{true, false});
+            values.put("emptyBooleanArray", new boolean[0]);
+        }
+        if (dialect.supportsShortArrayValues()) {
+            values.put("shortArray", new short[]{1, Short.MAX_VALUE});
+            values.put("emptyShortArray", new short[0]);
+        }
+        if (dialect.supportsIntegerArrayValues()) {
+            values.put("intArray", new int[]{1, Integer.MIN_VALUE});
+            values.put("integerArray", new Integer[]{2, Integer.MAX_VALUE});
+            values.put("emptyIntArray", new int[0]);
+        }
+        if (dialect.supportsLongArrayValues()) {
+            values.put("longArray", new long[]{1L, Long.MAX_VALUE});
+            values.put("emptyLongArray", new long[0]);
+        }
+        if (dialect.supportsFloatArrayValues()) {
+            values.put("floatArray", new float[]{1.5f, -2.25f});
+            values.put("emptyFloatArray", new float[0]);
+        }
+        if (dialect.supportsDoubleArrayValues()) {
+            values.put("doubleArray", new double[]{1.5d, Math.E});
+            values.put("emptyDoubleArray", new double[0]);
+        }
+        if (dialect.supportsStringArrayValues()) {
+            values.put("stringArray", new String[]{"a,b", "{c}", "\"d\"", NON_BMP, ""});
+            values.put("emptyStringArray", new String[0]);
+        }
+        return values;
+    }
+
+    private static void assertValues(Map<String, Object> expected, Element element) {
+        for (Map.Entry<String, Object> entry : expected.entrySet()) {
+            Object value = element.value(entry.getKey());
+            Assert.assertTrue(entry.getKey() + " expected " + toString(entry.getValue()) + " got " + toString(value),
+                    Objects.deepEquals(entry.getValue(), value));
+        }
+    }
+
+    private static String toString(Object value) {
+        return value != null && value.getClass().isArray() ? Arrays.deepToString(new Object[]{value}) : String.valueOf(value);
+    }
+
+    private static Object[] keyValues(Object label, Object labelValue, List<Object> keyValues) {
+        List<Object> result = new ArrayList<>();
+        result.add(label);
+        result.add(labelValue);
+        result.addAll(keyValues);
+        return result.toArray();
+    }
+}
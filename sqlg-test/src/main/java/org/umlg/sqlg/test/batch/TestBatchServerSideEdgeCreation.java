@@ -34,7 +34,7 @@ public class TestBatchServerSideEdgeCreation extends BaseTest {
 
     @Before
     public void beforeTest() {
-        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsBatchMode());
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsStreamingBatchMode());
     }
 
     @Test
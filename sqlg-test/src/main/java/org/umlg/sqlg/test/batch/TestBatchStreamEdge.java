@@ -36,7 +36,7 @@ public class TestBatchStreamEdge extends BaseTest {
 
     @Before
     public void beforeTest() {
-        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsBatchMode());
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsStreamingBatchMode());
     }
 
     @Test(expected = IllegalStateException.class)
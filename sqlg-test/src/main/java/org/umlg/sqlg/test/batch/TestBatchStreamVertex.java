@@ -40,7 +40,7 @@ public class TestBatchStreamVertex extends BaseTest {
 
     @Before
     public void beforeTest() {
-        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsBatchMode());
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsStreamingBatchMode());
     }
 
     @Test(expected = IllegalStateException.class)
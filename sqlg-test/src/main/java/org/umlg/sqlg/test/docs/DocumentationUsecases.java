@@ -320,7 +320,7 @@ public class DocumentationUsecases extends BaseTest {
 //
     @Test
     public void showStreamingWithLockBulkEdgeCreation() {
-        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsBatchMode());
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsStreamingBatchMode());
 
         StopWatch stopWatch = new StopWatch();
         stopWatch.start();
@@ -0,0 +1,185 @@
+package org.umlg.sqlg.test.gremlincompile;
+
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.DefaultGraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import org.umlg.sqlg.strategy.SqlgRepeatStepCompiled;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.util.*;
+
+/**
+ * Date: 2026/10/17
+ * Time: 4:30 PM
+ */
+public class TestRepeatStepUntil extends BaseTest {
+
+    @Test
+    public void testRepeatUntil() {
+        List<Vertex> persons = createChain();
+        DefaultGraphTraversal<Vertex, Vertex> traversal = (DefaultGraphTraversal<Vertex, Vertex>) this.sqlgGraph.traversal()
+                .V().hasLabel("Person").has("name", "p0").repeat(__.out("knows")).until(__.has("name", "p5"));
+        List<Vertex> vertices = traversal.toList();
+        assertCompiled(traversal);
+        Assert.assertEquals(Arrays.asList(persons.get(5), persons.get(5)), vertices);
+        Assert.assertEquals(Collections.singletonList(persons.get(1)), this.sqlgGraph.traversal()
+                .V().hasLabel("Person").has("name", "p1").until(__.has("age", P.gte(10))).repeat(__.out("knows")).toList());
+        Assert.assertEquals(Arrays.asList(persons.get(2)), this.sqlgGraph.traversal()
+                .V().hasLabel("Person").has("name", "p1").repeat(__.out("knows")).until(__.has("age", P.gte(10))).toList());
+        List<String> dogs = this.sqlgGraph.traversal().V().hasLabel("Person").repeat(__.out("knows", "owns")).until(__.hasLabel("Dog")).<String>values("name").toList();
+        Collections.sort(dogs);
+        Assert.assertEquals(Arrays.asList("d0", "d0", "d0", "d0"), dogs);
+        Assert.assertEquals(0, this.sqlgGraph.traversal().V().hasLabel("Dog").repeat(__.out()).until(__.has("name", "p0")).toList().size());
+    }
+
+    @Test
+    public void testRepeatEmit() {
+        List<Vertex> persons = createChain();
+        List<String> names = this.sqlgGraph.traversal().V().hasLabel("Person").has("name", "p3").repeat(__.out("knows", "owns")).emit().<String>values("name").toList();
+        Collections.sort(names);
+        Assert.assertEquals(Arrays.asList("d0", "p4", "p5", "p6", "p7"), names);
+        names = this.sqlgGraph.traversal().V().hasLabel("Person").has("name", "p3").emit().repeat(__.out("knows")).until(__.has("name", "p5")).<String>values("name").toList();
+        Collections.sort(names);
+        Assert.assertEquals(Arrays.asList("p3", "p4", "p5"), names);
+        names = this.sqlgGraph.traversal().V(persons.get(1)).repeat(__.out("knows")).until(__.has("name", "p4")).emit(__.has("age", P.gt(20))).<String>values("name").toList();
+        Collections.sort(names);
+        Assert.assertEquals(Arrays.asList("p3", "p4", "p5", "p6", "p7"), names);
+    }
+
+    @Test
+    public void testRepeatSimplePath() {
+        List<Vertex> persons = createChain();
+        persons.get(7).addEdge("knows", persons.get(0));
+        this.sqlgGraph.tx().commit();
+        DefaultGraphTraversal<Vertex, Vertex> traversal = (DefaultGraphTraversal<Vertex, Vertex>) this.sqlgGraph.traversal()
+                .V().hasLabel("Person").repeat(__.out("knows").simplePath()).until(__.has("name", "p0"));
+        List<Vertex> vertices = traversal.toList();
+        assertCompiled(traversal);
+        Assert.assertEquals(9, vertices.size());
+        Assert.assertTrue(vertices.stream().allMatch(v -> v.equals(persons.get(0))));
+        Assert.assertEquals(10L, (long) this.sqlgGraph.traversal().V().hasLabel("Person").has("name", "p0")
+                .repeat(__.out("knows").simplePath()).emit().count().next());
+        //the vertices before the repeat are part of the path
+        Assert.assertEquals(0, this.sqlgGraph.traversal().V().hasLabel("Person").has("name", "p6").out("knows").out("knows")
+                .repeat(__.out("knows").simplePath()).until(__.has("name", "p7")).toList().size());
+    }
+
+    @Test
+    public void testRepeatCycle() {
+        List<Vertex> persons = createChain();
+        persons.get(7).addEdge("knows", persons.get(0));
+        this.sqlgGraph.tx().commit();
+        //the cycle is left on p5
+        Assert.assertEquals(Arrays.asList(persons.get(5), persons.get(5)), this.sqlgGraph.traversal()
+                .V().hasLabel("Person").has("name", "p6").repeat(__.out("knows")).until(__.has("name", "p5")).toList());
+        if (this.sqlgGraph.getSqlDialect().supportsWithRecursive()) {
+            try {
+                this.sqlgGraph.traversal().V().hasLabel("Person").has("name", "p0").repeat(__.out("knows")).until(__.has("name", "p8")).toList();
+                Assert.fail("the repeat never leaves the cycle");
+            } catch (IllegalStateException e) {
+                //expected
+            }
+        }
+    }
+
+    @Test
+    public void testRepeatMaxDepth() {
+        Assume.assumeTrue(this.sqlgGraph.getSqlDialect().supportsWithRecursive());
+        List<Vertex> persons = createChain();
+        this.sqlgGraph.configuration().setProperty(SqlgRepeatStepCompiled.REPEAT_STEP_MAX_DEPTH, 4);
+        try {
+            List<Vertex> vertices = this.sqlgGraph.traversal()
+                    .V().hasLabel("Person").has("name", "p0").repeat(__.out("knows")).until(__.has("age", P.gte(30))).toList();
+            Assert.assertEquals(new HashSet<>(Arrays.asList(persons.get(3), persons.get(5))), new HashSet<>(vertices));
+            try {
+                this.sqlgGraph.traversal().V().hasLabel("Person").has("name", "p0").repeat(__.out("knows")).until(__.has("name", "p6")).toList();
+                Assert.fail("p6 is deeper than the max depth");
+            } catch (IllegalStateException e) {
+                //expected
+            }
+        } finally {
+            this.sqlgGraph.configuration().clearProperty(SqlgRepeatStepCompiled.REPEAT_STEP_MAX_DEPTH);
+        }
+    }
+
+    @Test
+    public void testRepeatCycleEmitLimit() {
+        Vertex a = this.sqlgGraph.addVertex(T.label, "Node", "name", "a");
+        Vertex b = this.sqlgGraph.addVertex(T.label, "Node", "name", "b");
+        Vertex c = this.sqlgGraph.addVertex(T.label, "Node", "name", "c");
+        a.addEdge("link", b);
+        b.addEdge("link", c);
+        c.addEdge("link", a);
+        this.sqlgGraph.tx().commit();
+        DefaultGraphTraversal<Vertex, Vertex> traversal = (DefaultGraphTraversal<Vertex, Vertex>) this.sqlgGraph.traversal()
+                .V(a).repeat(__.out("link")).emit().limit(5);
+        List<Vertex> vertices = traversal.toList();
+        assertCompiled(traversal);
+        Assert.assertEquals(5, vertices.size());
+        Assert.assertTrue(Arrays.asList(a, b, c).containsAll(vertices));
+        //every lap of the cycle emits the three vertices
+        Map<Vertex, Long> counts = new HashMap<>();
+        this.sqlgGraph.traversal().V(a).repeat(__.out("link")).emit().limit(99).toList().forEach(v -> counts.merge(v, 1L, Long::sum));
+        Assert.assertEquals(3, counts.size());
+        Assert.assertEquals(99L, counts.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    public void testRepeatCycleUntilNext() {
+        Vertex a = this.sqlgGraph.addVertex(T.label, "Node", "name", "a");
+        Vertex b = this.sqlgGraph.addVertex(T.label, "Node", "name", "b");
+        Vertex c = this.sqlgGraph.addVertex(T.label, "Node", "name", "c");
+        Vertex d = this.sqlgGraph.addVertex(T.label, "Node", "name", "d");
+        a.addEdge("link", b);
+        b.addEdge("link", c);
+        c.addEdge("link", b);
+        c.addEdge("link", d);
+        this.sqlgGraph.tx().commit();
+        //b -> c -> b is a cycle next to the way to d
+        DefaultGraphTraversal<Vertex, Vertex> traversal = (DefaultGraphTraversal<Vertex, Vertex>) this.sqlgGraph.traversal()
+                .V(a).repeat(__.out("link")).until(__.has("name", "d"));
+        Assert.assertEquals(d, traversal.next());
+        assertCompiled(traversal);
+        Assert.assertEquals(Arrays.asList(d, d, d), this.sqlgGraph.traversal().V(a).repeat(__.out("link")).until(__.has("name", "d")).limit(3).toList());
+    }
+
+    @Test
+    public void testRepeatWithLabels() {
+        List<Vertex> persons = createChain();
+        List<Map<String, Vertex>> result = this.sqlgGraph.traversal().V().hasLabel("Person").has("name", "p2").as("a")
+                .repeat(__.out("knows", "owns")).until(__.hasLabel("Dog")).as("b").<Vertex>select("a", "b").toList();
+        Assert.assertEquals(1, result.size());
+        Assert.assertEquals(persons.get(2), result.get(0).get("a"));
+        Assert.assertEquals("d0", result.get(0).get("b").value("name"));
+        Assert.assertEquals(1, this.sqlgGraph.traversal().V().hasLabel("Person").has("name", "p2")
+                .repeat(__.out("knows", "owns")).until(__.hasLabel("Dog")).path().toList().size());
+    }
+
+    /**
+     * p0 -> p1 -> ... -> p7, p2 -> p5 and p3 owns d0
+     */
+    private List<Vertex> createChain() {
+        List<Vertex> persons = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            persons.add(this.sqlgGraph.addVertex(T.label, "Person", "name", "p" + i, "age", i * 10));
+        }
+        for (int i = 0; i < 7; i++) {
+            persons.get(i).addEdge("knows", persons.get(i + 1));
+        }
+        persons.get(2).addEdge("knows", persons.get(5));
+        persons.get(3).addEdge("owns", this.sqlgGraph.addVertex(T.label, "Dog", "name", "d0"));
+        this.sqlgGraph.tx().commit();
+        return persons;
+    }
+
+    private void assertCompiled(DefaultGraphTraversal<Vertex, Vertex> traversal) {
+        if (this.sqlgGraph.getSqlDialect().supportsWithRecursive()) {
+            Assert.assertTrue(traversal.getSteps().stream().anyMatch(s -> s instanceof SqlgRepeatStepCompiled));
+        }
+    }
+}
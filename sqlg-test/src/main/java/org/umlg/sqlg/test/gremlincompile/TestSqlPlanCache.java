@@ -0,0 +1,54 @@
+package org.umlg.sqlg.test.gremlincompile;
+
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Test;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Date: 2026/10/17
+ * Time: 3:40 PM
+ */
+public class TestSqlPlanCache extends BaseTest {
+
+    @Test
+    public void testSameShapeDifferentValues() {
+        for (int i = 0; i < 5; i++) {
+            Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i, "age", i);
+            Vertex b = this.sqlgGraph.addVertex(T.label, "B", "name", "b" + i);
+            a.addEdge("ab", b);
+        }
+        this.sqlgGraph.tx().commit();
+        this.sqlgGraph.getSqlPlanCache().clear();
+        for (int i = 0; i < 5; i++) {
+            List<Vertex> vertices = this.sqlgGraph.traversal().V().hasLabel("A").has("age", i).out("ab").toList();
+            Assert.assertEquals(1, vertices.size());
+            Assert.assertEquals("b" + i, vertices.get(0).value("name"));
+        }
+        long cached = this.sqlgGraph.getSqlPlanCache().size();
+        Assert.assertTrue(cached > 0);
+        Assert.assertEquals(3, this.sqlgGraph.traversal().V().hasLabel("A").has("age", P.within(0, 1, 2)).out("ab").count().next(), 0);
+        Assert.assertEquals(2, this.sqlgGraph.traversal().V().hasLabel("A").has("age", P.within(3, 4)).out("ab").count().next(), 0);
+    }
+
+    @Test
+    public void testTopologyChangeInvalidatesPlan() {
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        this.sqlgGraph.tx().commit();
+        List<Map<String, Object>> valueMaps = this.sqlgGraph.traversal().V().hasLabel("A").valueMap().toList();
+        Assert.assertEquals(1, valueMaps.size());
+        Assert.assertFalse(valueMaps.get(0).containsKey("surname"));
+        long version = this.sqlgGraph.getTopology().getVersion();
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a2", "surname", "s2");
+        this.sqlgGraph.tx().commit();
+        Assert.assertNotEquals(version, this.sqlgGraph.getTopology().getVersion());
+        valueMaps = this.sqlgGraph.traversal().V().hasLabel("A").has("name", "a2").valueMap().toList();
+        Assert.assertEquals(1, valueMaps.size());
+        Assert.assertTrue(valueMaps.get(0).containsKey("surname"));
+    }
+}
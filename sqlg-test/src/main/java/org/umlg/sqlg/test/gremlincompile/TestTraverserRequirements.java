@@ -0,0 +1,80 @@
+package org.umlg.sqlg.test.gremlincompile;
+
+import org.apache.tinkerpop.gremlin.process.traversal.Path;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.DefaultGraphTraversal;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.B_O_S_SE_SL_TraverserGenerator;
+import org.apache.tinkerpop.gremlin.process.traversal.traverser.TraverserRequirement;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Test;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Date: 2026/10/18
+ * Time: 2:30 PM
+ */
+public class TestTraverserRequirements extends BaseTest {
+
+    @Test
+    public void testNoPathWithoutLabels() {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        Vertex b1 = this.sqlgGraph.addVertex(T.label, "B", "name", "b1");
+        Vertex b2 = this.sqlgGraph.addVertex(T.label, "B", "name", "b2");
+        Vertex c1 = this.sqlgGraph.addVertex(T.label, "C", "name", "c1");
+        a1.addEdge("ab", b1);
+        a1.addEdge("ab", b2);
+        b1.addEdge("bc", c1);
+        b2.addEdge("bc", c1);
+        this.sqlgGraph.tx().commit();
+
+        DefaultGraphTraversal<Vertex, Vertex> traversal = (DefaultGraphTraversal<Vertex, Vertex>) this.sqlgGraph.traversal()
+                .V().hasLabel("A").out("ab").out("bc");
+        List<Vertex> vertices = traversal.toList();
+        Assert.assertEquals(Arrays.asList(c1, c1), vertices);
+        Assert.assertFalse(traversal.getTraverserRequirements().contains(TraverserRequirement.PATH));
+        Assert.assertFalse(traversal.getTraverserRequirements().contains(TraverserRequirement.LABELED_PATH));
+        Assert.assertTrue(traversal.getTraverserGenerator() instanceof B_O_S_SE_SL_TraverserGenerator);
+
+        vertices = this.sqlgGraph.traversal().V(a1).out("ab").out("bc").toList();
+        Assert.assertEquals(Arrays.asList(c1, c1), vertices);
+    }
+
+    @Test
+    public void testPathStepsStillSeeThePath() {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        Vertex b1 = this.sqlgGraph.addVertex(T.label, "B", "name", "b1");
+        Vertex c1 = this.sqlgGraph.addVertex(T.label, "C", "name", "c1");
+        a1.addEdge("ab", b1);
+        b1.addEdge("bc", c1);
+        c1.addEdge("ca", a1);
+        this.sqlgGraph.tx().commit();
+
+        List<Path> paths = this.sqlgGraph.traversal().V().hasLabel("A").out("ab").out("bc").path().toList();
+        Assert.assertEquals(1, paths.size());
+        Assert.assertEquals(Arrays.asList(a1, b1, c1), paths.get(0).objects());
+
+        paths = this.sqlgGraph.traversal().V(a1).out("ab").out("bc").path().toList();
+        Assert.assertEquals(1, paths.size());
+        Assert.assertEquals(Arrays.asList(a1, b1, c1), paths.get(0).objects());
+
+        List<Map<String, Vertex>> selected = this.sqlgGraph.traversal().V().hasLabel("A").as("a").out("ab").out("bc").as("c")
+                .<Vertex>select("a", "c").toList();
+        Assert.assertEquals(1, selected.size());
+        Assert.assertEquals(a1, selected.get(0).get("a"));
+        Assert.assertEquals(c1, selected.get(0).get("c"));
+
+        List<Vertex> vertices = this.sqlgGraph.traversal().V().hasLabel("A").out("ab").out("bc").out("ca").simplePath().toList();
+        Assert.assertTrue(vertices.isEmpty());
+        vertices = this.sqlgGraph.traversal().V().hasLabel("A").out("ab").out("bc").out("ca").toList();
+        Assert.assertEquals(Arrays.asList(a1), vertices);
+
+        Map tree = this.sqlgGraph.traversal().V().hasLabel("A").out("ab").out("bc").tree().next();
+        Assert.assertEquals(new HashSet<>(Arrays.asList(a1)), tree.keySet());
+    }
+}
@@ -0,0 +1,69 @@
+package org.umlg.sqlg.test.gremlincompile;
+
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.umlg.sqlg.test.BaseTest;
+import org.umlg.sqlg.util.SqlgUtil;
+
+import java.beans.PropertyVetoException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Small within lists are inlined, larger ones are an array parameter and huge ones join onto a reused temporary table.
+ * Date: 2026/10/17
+ * Time: 7:30 PM
+ */
+public class TestWithinStrategy extends BaseTest {
+
+    @BeforeClass
+    public static void beforeClass() throws ClassNotFoundException, IOException, PropertyVetoException {
+        BaseTest.beforeClass();
+        configuration.addProperty(SqlgUtil.BULK_WITHIN_TEMP_TABLE_COUNT, 50);
+    }
+
+    @Test
+    public void testWithinIds() {
+        List<Object> ids = createPersons();
+        for (int size : new int[]{1, 5, 50, 51, 100}) {
+            //twice in the transaction to reuse the temporary table
+            for (int i = 0; i < 2; i++) {
+                Assert.assertEquals(size, this.sqlgGraph.traversal().V().hasLabel("Person").hasId(P.within(ids.subList(0, size))).toList().size());
+                Assert.assertEquals(size, this.sqlgGraph.traversal().V(ids.subList(0, size).toArray()).toList().size());
+            }
+        }
+    }
+
+    @Test
+    public void testWithinAndWithoutProperties() {
+        createPersons();
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            names.add("p" + i);
+        }
+        for (int size : new int[]{1, 5, 50, 51, 100}) {
+            List<Integer> ages = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                ages.add(i);
+            }
+            Assert.assertEquals(size, this.sqlgGraph.traversal().V().hasLabel("Person").has("age", P.within(ages)).toList().size());
+            Assert.assertEquals(100 - size, this.sqlgGraph.traversal().V().hasLabel("Person").has("age", P.without(ages)).toList().size());
+            Assert.assertEquals(size, this.sqlgGraph.traversal().V().hasLabel("Person")
+                    .has("age", P.within(ages)).has("name", P.within(names)).toList().size());
+        }
+    }
+
+    private List<Object> createPersons() {
+        List<Object> ids = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            ids.add(this.sqlgGraph.addVertex(T.label, "Person", "name", "p" + i, "age", i).id());
+        }
+        this.sqlgGraph.tx().commit();
+        return ids;
+    }
+}
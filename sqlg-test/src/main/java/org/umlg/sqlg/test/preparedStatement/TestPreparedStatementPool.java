@@ -0,0 +1,51 @@
+package org.umlg.sqlg.test.preparedStatement;
+
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.Test;
+import org.umlg.sqlg.structure.PreparedStatementPool;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Date: 2026/10/17
+ * Time: 5:55 PM
+ */
+public class TestPreparedStatementPool extends BaseTest {
+
+    @Test
+    public void testStatementsAreReusedAcrossTransactions() {
+        Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a");
+        Vertex b = this.sqlgGraph.addVertex(T.label, "B", "name", "b");
+        a.addEdge("ab", b);
+        this.sqlgGraph.tx().commit();
+        PreparedStatementPool preparedStatementPool = this.sqlgGraph.tx().getPreparedStatementPool();
+        long hits = preparedStatementPool.getHits();
+        for (int i = 0; i < 10; i++) {
+            List<Vertex> vertices = this.sqlgGraph.traversal().V(a).out("ab").toList();
+            Assert.assertEquals(1, vertices.size());
+            Assert.assertEquals("b", vertices.get(0).value("name"));
+            this.sqlgGraph.tx().commit();
+        }
+        Assert.assertTrue(preparedStatementPool.getHits() > hits);
+        Assert.assertTrue(this.sqlgGraph.tx().getPreparedStatementCache().isEmpty());
+    }
+
+    @Test
+    public void testTopologyChangeClosesPooledStatements() {
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        this.sqlgGraph.tx().commit();
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(1, this.sqlgGraph.traversal().V().hasLabel("A").valueMap().toList().size());
+            this.sqlgGraph.tx().commit();
+        }
+        this.sqlgGraph.addVertex(T.label, "A", "name", "a2", "surname", "s2");
+        this.sqlgGraph.tx().commit();
+        List<Map<String, Object>> valueMaps = this.sqlgGraph.traversal().V().hasLabel("A").has("name", "a2").valueMap().toList();
+        Assert.assertEquals(1, valueMaps.size());
+        Assert.assertTrue(valueMaps.get(0).containsKey("surname"));
+    }
+}
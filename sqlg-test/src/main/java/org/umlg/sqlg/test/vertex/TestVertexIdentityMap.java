@@ -0,0 +1,93 @@
+package org.umlg.sqlg.test.vertex;
+
+import org.apache.commons.configuration.ConfigurationException;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.umlg.sqlg.structure.RecordId;
+import org.umlg.sqlg.structure.SqlgTransaction;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.beans.PropertyVetoException;
+import java.io.IOException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Date: 2026/10/18
+ * Time: 9:40 AM
+ */
+public class TestVertexIdentityMap extends BaseTest {
+
+    @BeforeClass
+    public static void beforeClass() throws ClassNotFoundException, IOException, PropertyVetoException {
+        URL sqlProperties = Thread.currentThread().getContextClassLoader().getResource("sqlg.properties");
+        try {
+            configuration = new PropertiesConfiguration(sqlProperties);
+            configuration.setProperty("cache.vertices", true);
+            configuration.setProperty(SqlgTransaction.VERTEX_CACHE_CAPACITY, 50);
+            if (!configuration.containsKey("jdbc.url")) {
+                throw new IllegalArgumentException(String.format("SqlGraph configuration requires that the %s be set", "jdbc.url"));
+            }
+        } catch (ConfigurationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    public void testSameInstancePerId() {
+        createVertices("Person", 40);
+        List<Vertex> persons = this.sqlgGraph.traversal().V().hasLabel("Person").toList();
+        List<Vertex> again = this.sqlgGraph.traversal().V().hasLabel("Person").toList();
+        Assert.assertEquals(40, again.size());
+        Map<Object, Vertex> byId = new HashMap<>();
+        persons.forEach(v -> byId.put(v.id(), v));
+        for (Vertex vertex : again) {
+            Assert.assertSame(byId.get(vertex.id()), vertex);
+        }
+        this.sqlgGraph.tx().rollback();
+    }
+
+    @Test
+    public void testLabelsWithSameIds() {
+        createVertices("Person", 5);
+        createVertices("Dog", 5);
+        Vertex person = this.sqlgGraph.traversal().V().hasLabel("Person").has("name", "Person0").next();
+        Vertex dog = this.sqlgGraph.traversal().V().hasLabel("Dog").has("name", "Dog0").next();
+        Assert.assertEquals(((RecordId) person.id()).getId(), ((RecordId) dog.id()).getId());
+        Assert.assertNotSame(person, dog);
+        Assert.assertSame(person, this.sqlgGraph.traversal().V(person.id()).next());
+        Assert.assertSame(dog, this.sqlgGraph.traversal().V(dog.id()).next());
+        this.sqlgGraph.tx().rollback();
+    }
+
+    @Test
+    public void testCapacityEvicts() {
+        createVertices("Person", 100);
+        for (int i = 0; i < 3; i++) {
+            List<Vertex> persons = this.sqlgGraph.traversal().V().hasLabel("Person").toList();
+            Assert.assertEquals(100, persons.size());
+            for (Vertex person : persons) {
+                Assert.assertEquals("Person" + (((RecordId) person.id()).getId() - 1), person.value("name"));
+            }
+        }
+        //a vertex that is looked up again is kept
+        Vertex person = this.sqlgGraph.traversal().V().hasLabel("Person").has("name", "Person0").next();
+        person.property("name", "john");
+        Assert.assertEquals("john", this.sqlgGraph.traversal().V(person.id()).next().value("name"));
+        this.sqlgGraph.tx().commit();
+        Assert.assertEquals(1, this.sqlgGraph.traversal().V().has("name", "john").toList().size());
+    }
+
+    private void createVertices(String label, int count) {
+        for (int i = 0; i < count; i++) {
+            this.sqlgGraph.addVertex(T.label, label, "name", label + i);
+        }
+        this.sqlgGraph.tx().commit();
+    }
+}
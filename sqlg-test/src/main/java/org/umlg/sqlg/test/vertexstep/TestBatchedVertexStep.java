@@ -0,0 +1,99 @@
+package org.umlg.sqlg.test.vertexstep;
+
+import org.apache.commons.configuration.ConfigurationException;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.apache.tinkerpop.gremlin.process.traversal.Path;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.umlg.sqlg.strategy.SqlgVertexStepCompiled;
+import org.umlg.sqlg.structure.PreparedStatementPool;
+import org.umlg.sqlg.test.BaseTest;
+
+import java.beans.PropertyVetoException;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Date: 2026/10/17
+ * Time: 10:12 AM
+ */
+public class TestBatchedVertexStep extends BaseTest {
+
+    @BeforeClass
+    public static void beforeClass() throws ClassNotFoundException, IOException, PropertyVetoException {
+        URL sqlProperties = Thread.currentThread().getContextClassLoader().getResource("sqlg.properties");
+        try {
+            configuration = new PropertiesConfiguration(sqlProperties);
+            configuration.setProperty(SqlgVertexStepCompiled.VERTEX_STEP_BATCH_SIZE, 4);
+            if (!configuration.containsKey("jdbc.url")) {
+                throw new IllegalArgumentException(String.format("SqlGraph configuration requires that the %s be set", "jdbc.url"));
+            }
+        } catch (ConfigurationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    public void testBatchedVertexStepAfterUnoptimizedStep() {
+        for (int i = 0; i < 10; i++) {
+            Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i);
+            for (int j = 0; j < i; j++) {
+                Vertex b = this.sqlgGraph.addVertex(T.label, "B", "name", "b" + i + "_" + j);
+                a.addEdge("ab", b);
+            }
+        }
+        this.sqlgGraph.tx().commit();
+        List<Path> paths = this.sqlgGraph.traversal().V().hasLabel("A").filter(t -> true).out("ab").path().toList();
+        Assert.assertEquals(45, paths.size());
+        for (Path path : paths) {
+            Vertex a = path.get(0);
+            Vertex b = path.get(1);
+            Assert.assertTrue(b.<String>value("name").startsWith(a.<String>value("name").replace("a", "b") + "_"));
+        }
+    }
+
+    @Test
+    public void testBatchedVertexStepDifferentLabels() {
+        Vertex a1 = this.sqlgGraph.addVertex(T.label, "A", "name", "a1");
+        Vertex a2 = this.sqlgGraph.addVertex(T.label, "A", "name", "a2");
+        Vertex c1 = this.sqlgGraph.addVertex(T.label, "C", "name", "c1");
+        Vertex b1 = this.sqlgGraph.addVertex(T.label, "B", "name", "b1");
+        Vertex b2 = this.sqlgGraph.addVertex(T.label, "B", "name", "b2");
+        Vertex b3 = this.sqlgGraph.addVertex(T.label, "B", "name", "b3");
+        a1.addEdge("ab", b1);
+        a2.addEdge("ab", b2);
+        c1.addEdge("ab", b3);
+        this.sqlgGraph.tx().commit();
+        List<Vertex> vertices = this.sqlgGraph.traversal().V(a1, c1, a2).filter(t -> true).out("ab").toList();
+        Assert.assertEquals(3, vertices.size());
+        Assert.assertTrue(vertices.contains(b1));
+        Assert.assertTrue(vertices.contains(b2));
+        Assert.assertTrue(vertices.contains(b3));
+    }
+
+    @Test
+    public void testBatchedVertexStepQueryCount() {
+        List<Vertex> as = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Vertex a = this.sqlgGraph.addVertex(T.label, "A", "name", "a" + i);
+            as.add(a);
+            Vertex b = this.sqlgGraph.addVertex(T.label, "B", "name", "b" + i);
+            a.addEdge("ab", b);
+        }
+        this.sqlgGraph.tx().commit();
+        PreparedStatementPool preparedStatementPool = this.sqlgGraph.tx().getPreparedStatementPool();
+        long queries = preparedStatementPool.getHits() + preparedStatementPool.getMisses();
+        Assert.assertEquals(10, this.sqlgGraph.traversal().V().hasLabel("A").filter(t -> true).out("ab").toList().size());
+        //the graph step and a query per batch of 4, 4 and 2 incoming vertices
+        Assert.assertEquals(4, preparedStatementPool.getHits() + preparedStatementPool.getMisses() - queries);
+        //3 incoming ids are padded to 4 so the batch reuses the sql and statement of the previous batches of 4
+        long misses = preparedStatementPool.getMisses();
+        Assert.assertEquals(3, this.sqlgGraph.traversal().V(as.get(0), as.get(1), as.get(2)).filter(t -> true).out("ab").toList().size());
+        Assert.assertEquals(1, preparedStatementPool.getMisses() - misses);
+    }
+}